@@ -35,9 +35,12 @@ import static org.springframework.util.Assert.hasText;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 import org.cache2k.Cache2kBuilder;
+import org.cache2k.event.CacheEntryEvictedListener;
+import org.cache2k.event.CacheEntryExpiredListener;
 
 /**
  * Local cache implementation of {@link Cache}. This implementation is backed by
@@ -51,6 +54,8 @@ public class LocalCache<V> implements Cache<V>
 
     private V defaultValue;
 
+    private final LongAdder evictions = new LongAdder();
+
     /**
      * Constructor to instantiate LocalCache object.
      *
@@ -59,7 +64,7 @@ public class LocalCache<V> implements Cache<V>
     @SuppressWarnings("unchecked")
     public LocalCache( final CacheBuilder<V> cacheBuilder )
     {
-        Cache2kBuilder<?, ?> builder = Cache2kBuilder.forUnknownTypes();
+        Cache2kBuilder<Object, Object> builder = Cache2kBuilder.forUnknownTypes();
 
         if ( cacheBuilder.isExpiryEnabled() )
         {
@@ -84,8 +89,11 @@ public class LocalCache<V> implements Cache<V>
             builder.entryCapacity( cacheBuilder.getMaximumSize() );
         }
 
+        builder.addListener( (CacheEntryEvictedListener<Object, Object>) ( cache, entry ) -> evictions.increment() );
+        builder.addListener( (CacheEntryExpiredListener<Object, Object>) ( cache, entry ) -> evictions.increment() );
+
         // Using unknown typed key for builder and casting it
-        this.cache2kInstance = (org.cache2k.Cache<String, V>) builder.build();
+        this.cache2kInstance = (org.cache2k.Cache<String, V>) (org.cache2k.Cache<?, ?>) builder.build();
         this.defaultValue = cacheBuilder.getDefaultValue();
     }
 
@@ -165,4 +173,16 @@ public class LocalCache<V> implements Cache<V>
     {
         return CacheType.IN_MEMORY;
     }
+
+    /**
+     * Returns the number of entries removed by the cache itself because the
+     * cache reached its maximum size or the entries expired. Explicit
+     * invalidations are not included.
+     *
+     * @return the number of evicted entries.
+     */
+    public long getEvictionCount()
+    {
+        return evictions.sum();
+    }
 }
@@ -0,0 +1,176 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * A {@link Cache} decorator which records hits, misses, puts and invalidations
+ * of the decorated cache as meters, using the Micrometer cache meter names and
+ * a {@code cache} tag holding the cache region. A lookup returning a value,
+ * including the default value of the cache, is recorded as a hit. Explicit
+ * invalidations are recorded as {@code cache.invalidations}, as the Micrometer
+ * {@code cache.evictions} meter counts entries removed by the cache itself.
+ * Evictions are reported for a decorated {@link LocalCache}, from the size and
+ * expiry evictions of the underlying cache2k cache.
+ */
+public class MeteredCache<V> implements Cache<V>
+{
+    private final Cache<V> cache;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter puts;
+
+    private final Counter invalidations;
+
+    public MeteredCache( Cache<V> cache, String region, MeterRegistry registry )
+    {
+        this.cache = cache;
+
+        Tags tags = Tags.of( "cache", region, "cacheType", cache.getCacheType().name() );
+
+        this.hits = Counter.builder( "cache.gets" ).tags( tags ).tag( "result", "hit" )
+            .description( "The number of times cache lookup methods have returned a cached value" )
+            .register( registry );
+        this.misses = Counter.builder( "cache.gets" ).tags( tags ).tag( "result", "miss" )
+            .description( "The number of times cache lookup methods have not returned a cached value" )
+            .register( registry );
+        this.puts = Counter.builder( "cache.puts" ).tags( tags )
+            .description( "The number of entries added to the cache" )
+            .register( registry );
+        this.invalidations = Counter.builder( "cache.invalidations" ).tags( tags )
+            .description( "The number of invalidations of the cache" )
+            .register( registry );
+
+        if ( cache instanceof LocalCache )
+        {
+            FunctionCounter.builder( "cache.evictions", (LocalCache<V>) cache, LocalCache::getEvictionCount ).tags( tags )
+                .description( "The number of entries evicted from the cache because of its size or expiry" )
+                .register( registry );
+        }
+    }
+
+    @Override
+    public Optional<V> getIfPresent( String key )
+    {
+        return record( cache.getIfPresent( key ) );
+    }
+
+    @Override
+    public Optional<V> get( String key )
+    {
+        return record( cache.get( key ) );
+    }
+
+    @Override
+    public Optional<V> get( String key, Function<String, V> mappingFunction )
+    {
+        boolean[] computed = { false };
+
+        Optional<V> value = cache.get( key, k -> {
+            computed[0] = true;
+            return mappingFunction.apply( k );
+        } );
+
+        if ( computed[0] )
+        {
+            misses.increment();
+        }
+        else
+        {
+            hits.increment();
+        }
+
+        return value;
+    }
+
+    @Override
+    public Collection<V> getAll()
+    {
+        return cache.getAll();
+    }
+
+    @Override
+    public void put( String key, V value )
+    {
+        cache.put( key, value );
+        puts.increment();
+    }
+
+    @Override
+    public void put( String key, V value, long ttlInSeconds )
+    {
+        cache.put( key, value, ttlInSeconds );
+        puts.increment();
+    }
+
+    @Override
+    public void invalidate( String key )
+    {
+        cache.invalidate( key );
+        invalidations.increment();
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        cache.invalidateAll();
+        invalidations.increment();
+    }
+
+    @Override
+    public CacheType getCacheType()
+    {
+        return cache.getCacheType();
+    }
+
+    private Optional<V> record( Optional<V> value )
+    {
+        if ( value.isPresent() )
+        {
+            hits.increment();
+        }
+        else
+        {
+            misses.increment();
+        }
+
+        return value;
+    }
+}
@@ -32,6 +32,8 @@ import java.util.concurrent.TimeUnit;
 
 import lombok.extern.slf4j.Slf4j;
 
+import io.micrometer.core.instrument.Metrics;
+
 /**
  * A Builder class that helps in building Cache instances. Sensible defaults are
  * in place which can be modified with a fluent builder api.
@@ -142,11 +144,20 @@ public class SimpleCacheBuilder<V> implements CacheBuilder<V>
      * Creates and returns a {@link LocalCache}. If {@code maximumSize} is 0 or {@code disabled} is true then a
      * NoOpCache instance will be returned which does not cache anything.
      * 
+     * The instance is wrapped in a {@link MeteredCache} reporting to the global
+     * meter registry, which only records when application monitoring has
+     * bound a registry to it.
+     *
      * @return A cache instance based on the input
      *         parameters. Returns one of {@link LocalCache}
-     *         or {@link NoOpCache}
+     *         or {@link NoOpCache} wrapped in a {@link MeteredCache}
      */
     public Cache<V> build()
+    {
+        return new MeteredCache<>( buildCache(), region, Metrics.globalRegistry );
+    }
+
+    private Cache<V> buildCache()
     {
         if ( maximumSize == 0 || disabled )
         {
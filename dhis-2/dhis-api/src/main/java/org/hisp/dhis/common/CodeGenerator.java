@@ -30,6 +30,7 @@ package org.hisp.dhis.common;
 
 import java.security.SecureRandom;
 
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.regex.Pattern;
 
@@ -69,6 +70,19 @@ public class CodeGenerator
     {
         return generateCode( CODESIZE );
     }
+
+    /**
+     * Generates a UID according to the rules of {@link #generateUid()}, drawn
+     * from the given random. The same sequence of UIDs is generated from
+     * randoms with the same seed, which is useful for reproducible fixtures.
+     *
+     * @param random the random.
+     * @return a UID.
+     */
+    public static String generateUid( Random random )
+    {
+        return generateCode( random, CODESIZE );
+    }
         
     /**
      * Generates a pseudo random string with alphanumeric characters.
@@ -78,8 +92,11 @@ public class CodeGenerator
      */
     public static String generateCode( int codeSize )
     {
-        ThreadLocalRandom r = ThreadLocalRandom.current();
+        return generateCode( ThreadLocalRandom.current(), codeSize );
+    }
 
+    private static String generateCode( Random r, int codeSize )
+    {
         char[] randomChars = new char[codeSize];
         
         // First char should be a letter
@@ -158,6 +158,13 @@ public interface IdentifiableObjectManager
 
     void evict( Object object );
 
+    /**
+     * Detaches all objects from the current session, which allows objects
+     * loaded in chunks to be garbage collected once they have been processed.
+     * Pending changes which have not been flushed are discarded.
+     */
+    void clear();
+
     <T extends IdentifiableObject> List<T> getByAttributeAndValue( Class<T> klass, Attribute attribute, String value );
 
     <T extends IdentifiableObject> boolean isAttributeValueUnique( Class<? extends IdentifiableObject> klass, T object, AttributeValue attributeValue );
@@ -41,6 +41,8 @@ public interface CoordinateObject
 
     String getCoordinates();
 
+    Geometry getGeometry();
+
     boolean hasCoordinates();
 
     boolean hasDescendantsWithCoordinates();
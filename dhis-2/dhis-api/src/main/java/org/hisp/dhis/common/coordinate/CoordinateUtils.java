@@ -30,6 +30,7 @@ package org.hisp.dhis.common.coordinate;
 
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.io.geojson.GeoJsonWriter;
+import com.vividsolutions.jts.simplify.TopologyPreservingSimplifier;
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.organisationunit.CoordinatesTuple;
 import org.hisp.dhis.organisationunit.FeatureType;
@@ -52,6 +53,11 @@ public class CoordinateUtils
 
     private static final Pattern COORDINATE_PATTERN = Pattern.compile( "([\\-0-9.]+,[\\-0-9.]+)" );
 
+    /**
+     * Width in pixels of a web map tile.
+     */
+    private static final int TILE_SIZE = 256;
+
     public static boolean hasDescendantsWithCoordinates( Set<OrganisationUnit> organisationUnits )
     {
         return organisationUnits.stream().anyMatch( OrganisationUnit::hasCoordinates );
@@ -153,4 +159,31 @@ public class CoordinateUtils
 
         return geojson.substring( geojson.indexOf( coordinatesKey ) + coordinatesKey.length(), geojson.indexOf( crsKey ) );
     }
+
+    /**
+     * Returns the GeoJSON coordinates of the given geometry simplified with
+     * the given distance tolerance. Simplification preserves topology, so
+     * polygons remain valid and holes are kept.
+     *
+     * @param geometry the geometry.
+     * @param distanceTolerance the distance tolerance in degrees.
+     * @return the GeoJSON coordinates of the simplified geometry.
+     */
+    public static String getSimplifiedCoordinatesFromGeometry( Geometry geometry, double distanceTolerance )
+    {
+        return getCoordinatesFromGeometry( TopologyPreservingSimplifier.simplify( geometry, distanceTolerance ) );
+    }
+
+    /**
+     * Returns the distance tolerance in degrees which corresponds to the
+     * width of a single pixel at the equator at the given web map zoom level.
+     * Details smaller than this tolerance are not visible at the zoom level.
+     *
+     * @param zoom the zoom level.
+     * @return the distance tolerance in degrees.
+     */
+    public static double getSimplificationTolerance( int zoom )
+    {
+        return 360d / ( TILE_SIZE * Math.pow( 2, zoom ) );
+    }
 }
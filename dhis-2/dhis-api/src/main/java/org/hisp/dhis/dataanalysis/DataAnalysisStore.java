@@ -60,6 +60,28 @@ public interface DataAnalysisStore
         Collection<CategoryOptionCombo> categoryOptionCombos,
         Collection<String> parentPaths, Date from );
 
+    /**
+     * Returns data values which deviate from the average of the data values
+     * registered for the same data element, category option combo and
+     * organisation unit by more than the given number of standard deviations.
+     * The average and standard deviation measures and the outliers are computed
+     * in a single query using window functions. Outliers are ordered by
+     * descending number of standard deviations.
+     *
+     * @param dataElements         the data elements.
+     * @param categoryOptionCombos the category option combos.
+     * @param periods              the periods for which to return outliers.
+     * @param parentPaths          the parent OrganisationUnits' paths.
+     * @param from                 the from date for which to include data values
+     *                             in the measures.
+     * @param stdDevFactor         the number of standard deviations.
+     * @param limit                the max limit of outliers to return.
+     * @return a list of data values which are outliers.
+     */
+    List<DeflatedDataValue> getStdDevOutliers( Collection<DataElement> dataElements,
+        Collection<CategoryOptionCombo> categoryOptionCombos, Collection<Period> periods,
+        Collection<String> parentPaths, Date from, double stdDevFactor, int limit );
+
     /**
      * Generates a collection of data value violations of min-max predefined values.
      *
@@ -32,6 +32,7 @@ import java.util.Collection;
 
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.scheduling.JobConfiguration;
 
 public interface MinMaxDataAnalysisService
     extends DataAnalysisService
@@ -45,4 +46,16 @@ public interface MinMaxDataAnalysisService
      */
     void generateMinMaxValues( OrganisationUnit parent,
         Collection<DataElement> dataElements, Double stdDevFactor );
+
+    /**
+     * Generate min-max values, reporting progress through the notifier
+     * of the given job.
+     *
+     * @param jobId the job configuration, can be null.
+     * @param parent the parent organisation unit.
+     * @param dataElements the data elements.
+     * @param stdDevFactor the std dev factor.
+     */
+    void generateMinMaxValues( JobConfiguration jobId, OrganisationUnit parent,
+        Collection<DataElement> dataElements, Double stdDevFactor );
 }
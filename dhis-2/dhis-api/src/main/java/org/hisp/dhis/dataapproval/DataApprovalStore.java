@@ -154,4 +154,13 @@ public interface DataApprovalStore
         Period period, Collection<OrganisationUnit> orgUnits, int orgUnitLevel,
         CategoryCombo attributeCombo,
         Set<CategoryOptionCombo> attributeOptionCombos, List<DataApprovalLevel> userApprovalLevels, Map<Integer, DataApprovalLevel> levelMap );
+
+    /**
+     * Regenerates the table of organisation units at or above the data set
+     * sources of each workflow, which is used by data approval status queries.
+     * Must be called after the organisation unit hierarchy, the data set
+     * sources or the data set workflows have changed, within a transaction.
+     * Concurrent regenerations are serialized.
+     */
+    void generateWorkflowOrgUnits();
 }
@@ -108,4 +108,13 @@ public interface FileResourceContentStore
      * @param output the output stream to copy the stream into
      */
     void copyContent( String key, OutputStream output ) throws IOException, NoSuchElementException;
+
+    /**
+     * Copies a range of the content stored under key to the output stream.
+     * @param key the key used to store a resource
+     * @param output the output stream to copy the range into
+     * @param start the zero based offset of the first byte to copy
+     * @param length the number of bytes to copy
+     */
+    void copyContent( String key, OutputStream output, long start, long length ) throws IOException, NoSuchElementException;
 }
@@ -68,6 +68,26 @@ public interface FileResourceService
     void copyFileResourceContent( FileResource fileResource, OutputStream outputStream )
         throws IOException, NoSuchElementException;
 
+    /**
+     * Copy a range of the fileResource content to outputStream.
+     * @param fileResource the file resource.
+     * @param outputStream the output stream.
+     * @param start the zero based offset of the first byte to copy.
+     * @param length the number of bytes to copy.
+     * @throws IOException
+     * @throws NoSuchElementException
+     */
+    void copyFileResourceContent( FileResource fileResource, OutputStream outputStream, long start, long length )
+        throws IOException, NoSuchElementException;
+
+    /**
+     * Indicates whether any file resource references the given storage key.
+     * Content is shared between file resources with identical content.
+     * @param storageKey the storage key.
+     * @return true if the storage key is referenced.
+     */
+    boolean isStorageKeyReferenced( String storageKey );
+
     boolean fileResourceExists( String uid );
 
     void updateFileResource( FileResource fileResource );
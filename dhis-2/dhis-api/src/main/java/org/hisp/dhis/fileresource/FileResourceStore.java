@@ -38,4 +38,16 @@ public interface FileResourceStore extends IdentifiableObjectStore<FileResource>
     List<FileResource> getExpiredFileResources( DateTime expires );
 
     List<FileResource> getAllUnProcessedImages();
+
+    /**
+     * Returns the file resources with the given content in the given domain,
+     * oldest first. The returned rows are locked until the transaction
+     * completes, so that they are not deleted concurrently.
+     */
+    List<FileResource> getByContent( String contentMd5, long contentLength, String contentType, FileResourceDomain domain );
+
+    /**
+     * Returns the number of file resources referencing the given storage key.
+     */
+    long getCountByStorageKey( String storageKey );
 }
@@ -0,0 +1,393 @@
+package org.hisp.dhis.keyjsonvalue;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.common.Pager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Parameters for querying the JSON content of the values in a namespace.
+ * Paths are dot separated property names into the JSON value, where
+ * {@link #ROOT_PATH} refers to the value itself.
+ */
+public class KeyJsonValueQueryParams
+{
+    public static final String ROOT_PATH = ".";
+
+    private static final Pattern PATH_PATTERN = Pattern.compile( "[\\w-]+(\\.[\\w-]+)*" );
+
+    private String namespace;
+
+    private List<String> fields = new ArrayList<>();
+
+    private List<Filter> filters = new ArrayList<>();
+
+    private String orderPath;
+
+    private boolean orderDescending;
+
+    private Date lastUpdated;
+
+    private boolean paging = true;
+
+    private int page = 1;
+
+    private int pageSize = Pager.DEFAULT_PAGE_SIZE;
+
+    public KeyJsonValueQueryParams()
+    {
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether the given path is the root path or a sequence of
+     * dot separated property names.
+     *
+     * @param path the path.
+     * @return true if the path is valid.
+     */
+    public static boolean isValidPath( String path )
+    {
+        return ROOT_PATH.equals( path ) || (path != null && PATH_PATTERN.matcher( path ).matches());
+    }
+
+    /**
+     * Splits the given path into property names, the root path has none.
+     *
+     * @param path the path.
+     * @return the property names of the path.
+     */
+    public static String[] getPathElements( String path )
+    {
+        return ROOT_PATH.equals( path ) ? new String[0] : path.split( "\\." );
+    }
+
+    /**
+     * Parses a filter on the format {@code path:operator[:value]}.
+     *
+     * @param filter the filter string.
+     * @return a {@link Filter}.
+     * @throws IllegalQueryException if the filter is invalid.
+     */
+    public static Filter parseFilter( String filter )
+    {
+        String[] parts = filter.split( ":", 3 );
+
+        if ( parts.length < 2 || !isValidPath( parts[0] ) )
+        {
+            throw new IllegalQueryException( "Filter is invalid: '" + filter + "'" );
+        }
+
+        FilterOperator operator = FilterOperator.fromString( parts[1] );
+
+        if ( operator == null )
+        {
+            throw new IllegalQueryException( "Filter operator is invalid: '" + parts[1] + "'" );
+        }
+
+        if ( operator.isValueRequired() && parts.length < 3 )
+        {
+            throw new IllegalQueryException( "Filter operator requires a value: '" + filter + "'" );
+        }
+
+        return new Filter( parts[0], operator, parts.length == 3 ? parts[2] : null );
+    }
+
+    /**
+     * Adds a field after validating its path.
+     *
+     * @param path the field path.
+     * @return this params object.
+     * @throws IllegalQueryException if the path is invalid.
+     */
+    public KeyJsonValueQueryParams addField( String path )
+    {
+        if ( !isValidPath( path ) )
+        {
+            throw new IllegalQueryException( "Field path is invalid: '" + path + "'" );
+        }
+
+        this.fields.add( path );
+        return this;
+    }
+
+    public KeyJsonValueQueryParams addFilter( Filter filter )
+    {
+        this.filters.add( filter );
+        return this;
+    }
+
+    public boolean hasOrderPath()
+    {
+        return orderPath != null;
+    }
+
+    public boolean hasLastUpdated()
+    {
+        return lastUpdated != null;
+    }
+
+    public int getOffset()
+    {
+        return (page - 1) * pageSize;
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters and setters
+    // -------------------------------------------------------------------------
+
+    public String getNamespace()
+    {
+        return namespace;
+    }
+
+    public KeyJsonValueQueryParams setNamespace( String namespace )
+    {
+        this.namespace = namespace;
+        return this;
+    }
+
+    public List<String> getFields()
+    {
+        return fields;
+    }
+
+    public List<Filter> getFilters()
+    {
+        return filters;
+    }
+
+    public String getOrderPath()
+    {
+        return orderPath;
+    }
+
+    /**
+     * Sets the order on the format {@code path[:asc|:desc]}.
+     *
+     * @param order the order string.
+     * @return this params object.
+     * @throws IllegalQueryException if the order is invalid.
+     */
+    public KeyJsonValueQueryParams setOrder( String order )
+    {
+        String[] parts = order.split( ":" );
+
+        if ( parts.length > 2 || !isValidPath( parts[0] ) ||
+            (parts.length == 2 && !"asc".equalsIgnoreCase( parts[1] ) && !"desc".equalsIgnoreCase( parts[1] )) )
+        {
+            throw new IllegalQueryException( "Order is invalid: '" + order + "'" );
+        }
+
+        this.orderPath = parts[0];
+        this.orderDescending = parts.length == 2 && "desc".equalsIgnoreCase( parts[1] );
+        return this;
+    }
+
+    public boolean isOrderDescending()
+    {
+        return orderDescending;
+    }
+
+    public Date getLastUpdated()
+    {
+        return lastUpdated;
+    }
+
+    public KeyJsonValueQueryParams setLastUpdated( Date lastUpdated )
+    {
+        this.lastUpdated = lastUpdated;
+        return this;
+    }
+
+    public boolean isPaging()
+    {
+        return paging;
+    }
+
+    public KeyJsonValueQueryParams setPaging( boolean paging )
+    {
+        this.paging = paging;
+        return this;
+    }
+
+    public int getPage()
+    {
+        return page;
+    }
+
+    public KeyJsonValueQueryParams setPage( int page )
+    {
+        this.page = Math.max( 1, page );
+        return this;
+    }
+
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+
+    public KeyJsonValueQueryParams setPageSize( int pageSize )
+    {
+        this.pageSize = Math.max( 1, pageSize );
+        return this;
+    }
+
+    // -------------------------------------------------------------------------
+    // Filter
+    // -------------------------------------------------------------------------
+
+    public enum FilterOperator
+    {
+        EQ( true ), NE( true ), GT( true ), GE( true ), LT( true ), LE( true ),
+        LIKE( true ), ILIKE( true ), NULL( false ), NOTNULL( false );
+
+        private final boolean valueRequired;
+
+        FilterOperator( boolean valueRequired )
+        {
+            this.valueRequired = valueRequired;
+        }
+
+        public boolean isValueRequired()
+        {
+            return valueRequired;
+        }
+
+        public static FilterOperator fromString( String operator )
+        {
+            for ( FilterOperator value : values() )
+            {
+                if ( value.name().equalsIgnoreCase( operator ) )
+                {
+                    return value;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    public static class Filter
+    {
+        private final String path;
+
+        private final FilterOperator operator;
+
+        private final String value;
+
+        public Filter( String path, FilterOperator operator, String value )
+        {
+            this.path = path;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        /**
+         * Returns the filter value as a JSON node. Numbers, booleans and null
+         * are matched as such, anything else as a string. Surrounding double
+         * quotes force a string match, as in {@code "5"}.
+         */
+        public JsonNode getJsonValue()
+        {
+            JsonNodeFactory factory = JsonNodeFactory.instance;
+
+            if ( value.length() > 1 && value.startsWith( "\"" ) && value.endsWith( "\"" ) )
+            {
+                return factory.textNode( value.substring( 1, value.length() - 1 ) );
+            }
+
+            if ( "true".equals( value ) || "false".equals( value ) )
+            {
+                return factory.booleanNode( Boolean.parseBoolean( value ) );
+            }
+
+            if ( "null".equals( value ) )
+            {
+                return factory.nullNode();
+            }
+
+            try
+            {
+                return factory.numberNode( new BigDecimal( value ) );
+            }
+            catch ( NumberFormatException ex )
+            {
+                return factory.textNode( value );
+            }
+        }
+
+        /**
+         * Returns a JSON document with the filter value nested at the filter
+         * path, suitable for a containment match against the whole value.
+         */
+        public JsonNode getJsonDocument()
+        {
+            JsonNode node = getJsonValue();
+            String[] elements = getPathElements( path );
+
+            for ( int i = elements.length - 1; i >= 0; i-- )
+            {
+                ObjectNode parent = JsonNodeFactory.instance.objectNode();
+                parent.set( elements[i], node );
+                node = parent;
+            }
+
+            return node;
+        }
+
+        public String getPath()
+        {
+            return path;
+        }
+
+        public FilterOperator getOperator()
+        {
+            return operator;
+        }
+
+        public String getValue()
+        {
+            return value;
+        }
+    }
+}
@@ -69,6 +69,23 @@ public interface KeyJsonValueService
      */
     KeyJsonValue getKeyJsonValue( String namespace, String key, boolean isAdmin );
 
+    /**
+     * Retrieves the keys and requested fields of the values in a namespace
+     * matching the given query.
+     *
+     * @param params the query parameters.
+     * @return a list of {@link KeyJsonValueEntry}.
+     */
+    List<KeyJsonValueEntry> getKeyJsonValueEntries( KeyJsonValueQueryParams params, boolean isAdmin );
+
+    /**
+     * Counts the values in a namespace matching the given query.
+     *
+     * @param params the query parameters.
+     * @return the number of matching values.
+     */
+    int countKeyJsonValueEntries( KeyJsonValueQueryParams params, boolean isAdmin );
+
     /**
      * Adds a new KeyJsonValue.
      *
@@ -84,6 +101,16 @@ public interface KeyJsonValueService
      */
     void updateKeyJsonValue( KeyJsonValue keyJsonValue );
 
+    /**
+     * Applies a JSON merge patch (RFC 7386) to the value of a KeyJsonValue
+     * and updates it. Members set to null in the patch are removed, objects
+     * are merged recursively and any other member replaces the current one.
+     *
+     * @param keyJsonValue the KeyJsonValue to patch.
+     * @param patch        the merge patch JSON.
+     */
+    void patchKeyJsonValue( KeyJsonValue keyJsonValue, String patch );
+
     /**
      * Deletes a keyJsonValue.
      *
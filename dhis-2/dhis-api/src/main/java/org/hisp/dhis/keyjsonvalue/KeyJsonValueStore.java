@@ -74,4 +74,23 @@ public interface KeyJsonValueStore
      * @return the KeyJsonValue retrieved
      */
     KeyJsonValue getKeyJsonValue( String namespace, String key );
+
+    /**
+     * Retrieves the keys and requested fields of the values in a namespace
+     * matching the given query. Encrypted values are not included, and
+     * sharing is applied for the current user.
+     *
+     * @param params the query parameters.
+     * @return a list of {@link KeyJsonValueEntry}.
+     */
+    List<KeyJsonValueEntry> getKeyJsonValueEntries( KeyJsonValueQueryParams params );
+
+    /**
+     * Counts the values in a namespace matching the given query, ignoring
+     * paging.
+     *
+     * @param params the query parameters.
+     * @return the number of matching values.
+     */
+    int countKeyJsonValueEntries( KeyJsonValueQueryParams params );
 }
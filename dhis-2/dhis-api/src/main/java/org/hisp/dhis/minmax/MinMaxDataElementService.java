@@ -65,4 +65,15 @@ public interface MinMaxDataElementService
     void removeMinMaxDataElements( CategoryOptionCombo optionCombo );
     
     void removeMinMaxDataElements( Collection<DataElement> dataElements, OrganisationUnit parent );
+
+    /**
+     * Generates min-max values for the given data elements and organisation
+     * units in the hierarchy of the given parent in bulk.
+     *
+     * @param dataElements the data elements.
+     * @param parent the parent organisation unit.
+     * @param stdDevFactor the std dev factor.
+     * @return the number of generated min-max values.
+     */
+    int generateMinMaxDataElements( Collection<DataElement> dataElements, OrganisationUnit parent, double stdDevFactor );
 }
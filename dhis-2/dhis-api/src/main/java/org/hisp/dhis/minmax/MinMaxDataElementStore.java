@@ -62,4 +62,17 @@ public interface MinMaxDataElementStore
     void delete( CategoryOptionCombo optionCombo );
     
     void delete( Collection<DataElement> dataElements, OrganisationUnit parent );
+
+    /**
+     * Generates min-max values for the given data elements and organisation
+     * units in the hierarchy of the given parent in bulk. Bounds are computed
+     * from the average and standard deviation of the data values of each data
+     * element, category option combo and organisation unit.
+     *
+     * @param dataElements the data elements.
+     * @param parent the parent organisation unit.
+     * @param stdDevFactor the std dev factor.
+     * @return the number of generated min-max values.
+     */
+    int generate( Collection<DataElement> dataElements, OrganisationUnit parent, double stdDevFactor );
 }
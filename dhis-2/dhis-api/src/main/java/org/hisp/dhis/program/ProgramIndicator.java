@@ -90,6 +90,12 @@ public class ProgramIndicator
 
     private Boolean displayInForm;
 
+    /**
+     * Indicates whether the expression value should be precomputed as a column
+     * of the analytics tables.
+     */
+    private boolean materialized;
+
     private Set<ProgramIndicatorGroup> groups = new HashSet<>();
 
     private AnalyticsType analyticsType = AnalyticsType.EVENT;
@@ -328,6 +334,18 @@ public class ProgramIndicator
         this.displayInForm = displayInForm;
     }
 
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public boolean isMaterialized()
+    {
+        return materialized;
+    }
+
+    public void setMaterialized( boolean materialized )
+    {
+        this.materialized = materialized;
+    }
+
     @JsonProperty( "programIndicatorGroups" )
     @JsonSerialize( contentAs = BaseIdentifiableObject.class )
     @JacksonXmlElementWrapper( localName = "programIndicatorGroups", namespace = DxfNamespaces.DXF_2_0 )
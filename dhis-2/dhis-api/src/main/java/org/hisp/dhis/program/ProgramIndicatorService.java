@@ -188,6 +188,18 @@ public interface ProgramIndicatorService
 
     String getAnalyticsSql( String expression, ProgramIndicator programIndicator, Date startDate, Date endDate, String tableAlias );
 
+    /**
+     * Gets the analytics SQL clause of the expression of the given program
+     * indicator, if the value can be materialized as a column of the analytics
+     * tables. This requires the program indicator to be flagged as materialized,
+     * the aggregation type to not be custom, the SQL to be independent of the
+     * reporting period and the SQL to not refer to other analytics tables.
+     *
+     * @param programIndicator the program indicator.
+     * @return the SQL string, or null if the value cannot be materialized.
+     */
+    String getMaterializedAnalyticsSql( ProgramIndicator programIndicator );
+
     /**
      * Returns a SQL clause which matches any value for the data elements and
      * attributes in the given expression.
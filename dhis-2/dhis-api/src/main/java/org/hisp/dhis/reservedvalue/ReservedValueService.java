@@ -43,6 +43,18 @@ public interface ReservedValueService
     List<ReservedValue> reserve( TextPattern textPattern, int numberOfReservations, Map<String, String> values, Date expires )
         throws ReserveValueException, TextPatternGenerationException;
 
+    /**
+     * Returns the number of values which are still available for the given
+     * text pattern and values, which is the total number of values the
+     * pattern can produce minus the values which are reserved or used.
+     *
+     * @param textPattern the text pattern.
+     * @param values the values to resolve the pattern with.
+     * @return the number of available values.
+     */
+    long getNumberOfAvailableValues( TextPattern textPattern, Map<String, String> values )
+        throws TextPatternGenerationException;
+
     boolean useReservedValue( TextPattern textPattern, String value );
 
     boolean isReserved( TextPattern textPattern, String value );
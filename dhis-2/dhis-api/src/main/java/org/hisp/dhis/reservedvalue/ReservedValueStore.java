@@ -46,6 +46,17 @@ public interface ReservedValueStore
 
     int getNumberOfUsedValues( ReservedValue reservedValue );
 
+    /**
+     * Returns the given values which are neither reserved for the owner and
+     * key of the given reserved value, nor, for tracked entity attributes,
+     * used as an attribute value.
+     *
+     * @param reservedValue the reserved value.
+     * @param values the candidate values.
+     * @return a list of available values.
+     */
+    List<String> getAvailableValues( ReservedValue reservedValue, List<String> values );
+
     void removeExpiredReservations();
 
     boolean useReservedValue( String ownerUID, String value );
@@ -32,6 +32,7 @@ import org.hisp.dhis.common.CodeGenerator;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.StringJoiner;
 
 /**
  * @author Lars Helge Overland
@@ -94,6 +95,20 @@ public abstract class ResourceTable<T>
         return "alter table " + getTempTableName() + " rename to " + getTableName() + ";";
     }
 
+    /**
+     * Provides a query returning a single hash of the database rows which the
+     * content of the temporary resource table is derived from. The hash is
+     * computed before the content is loaded, and generation is skipped when
+     * it is unchanged since the last generation. Tables without a hash query
+     * are always generated.
+     *
+     * @return a query returning a hash of the source rows.
+     */
+    public Optional<String> getContentHashStatement()
+    {
+        return Optional.empty();
+    }
+
     // -------------------------------------------------------------------------
     // Protected methods
     // -------------------------------------------------------------------------
@@ -103,6 +118,26 @@ public abstract class ResourceTable<T>
         return CodeGenerator.generateCode( 5 );
     }
 
+    /**
+     * Returns a query which computes an md5 hash of the rows returned by the
+     * given source queries. Rows are hashed as text in sorted order, so the
+     * hash only depends on the rows and not on the query plan.
+     *
+     * @param sourceQueries the queries of the source rows.
+     * @return a query returning a single hash value.
+     */
+    protected static String getRowHashStatement( String... sourceQueries )
+    {
+        StringJoiner hashes = new StringJoiner( ", ';', ", "select md5(concat(", "))" );
+
+        for ( String sourceQuery : sourceQueries )
+        {
+            hashes.add( "(select string_agg(cast(q as text), ',' order by cast(q as text)) from (" + sourceQuery + ") q)" );
+        }
+
+        return hashes.toString();
+    }
+
     // -------------------------------------------------------------------------
     // Abstract methods
     // -------------------------------------------------------------------------
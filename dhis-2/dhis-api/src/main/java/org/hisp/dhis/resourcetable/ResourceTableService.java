@@ -106,6 +106,12 @@ public interface ResourceTableService
      */
     void generateDataApprovalMinLevelTable();
 
+    /**
+     * Regenerates the table of organisation units at or above the data set
+     * sources of each data approval workflow.
+     */
+    void generateDataApprovalWorkflowOrgUnitTable();
+
     /**
      * Create all SQL views.
      */
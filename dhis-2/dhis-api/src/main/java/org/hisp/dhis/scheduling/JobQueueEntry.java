@@ -0,0 +1,78 @@
+package org.hisp.dhis.scheduling;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * Entry in the cluster wide job queue, representing one execution of a job
+ * configuration which has been claimed by a node.
+ */
+public class JobQueueEntry
+{
+    private final long id;
+
+    private final String jobConfigurationUid;
+
+    private final String nodeId;
+
+    private final int attempts;
+
+    public JobQueueEntry( long id, String jobConfigurationUid, String nodeId, int attempts )
+    {
+        this.id = id;
+        this.jobConfigurationUid = jobConfigurationUid;
+        this.nodeId = nodeId;
+        this.attempts = attempts;
+    }
+
+    public long getId()
+    {
+        return id;
+    }
+
+    public String getJobConfigurationUid()
+    {
+        return jobConfigurationUid;
+    }
+
+    public String getNodeId()
+    {
+        return nodeId;
+    }
+
+    public int getAttempts()
+    {
+        return attempts;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[id: " + id + ", job configuration: " + jobConfigurationUid + ", node: " + nodeId + ", attempts: " + attempts + "]";
+    }
+}
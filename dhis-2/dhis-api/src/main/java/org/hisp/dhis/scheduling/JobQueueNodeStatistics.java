@@ -0,0 +1,103 @@
+package org.hisp.dhis.scheduling;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Class which represents the throughput of a cluster node for jobs claimed
+ * from the job queue.
+ */
+public class JobQueueNodeStatistics
+{
+    private String nodeId;
+
+    private long running;
+
+    private long completed;
+
+    private long failed;
+
+    private double averageRuntimeSeconds;
+
+    /**
+     * Default constructor.
+     */
+    public JobQueueNodeStatistics()
+    {
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param nodeId the node identifier.
+     * @param running the number of jobs currently running on the node.
+     * @param completed the number of jobs completed by the node.
+     * @param failed the number of jobs which failed on the node.
+     * @param averageRuntimeSeconds the average runtime of completed jobs in seconds.
+     */
+    public JobQueueNodeStatistics( String nodeId, long running, long completed, long failed, double averageRuntimeSeconds )
+    {
+        this.nodeId = nodeId;
+        this.running = running;
+        this.completed = completed;
+        this.failed = failed;
+        this.averageRuntimeSeconds = averageRuntimeSeconds;
+    }
+
+    @JsonProperty
+    public String getNodeId()
+    {
+        return nodeId;
+    }
+
+    @JsonProperty
+    public long getRunning()
+    {
+        return running;
+    }
+
+    @JsonProperty
+    public long getCompleted()
+    {
+        return completed;
+    }
+
+    @JsonProperty
+    public long getFailed()
+    {
+        return failed;
+    }
+
+    @JsonProperty
+    public double getAverageRuntimeSeconds()
+    {
+        return averageRuntimeSeconds;
+    }
+}
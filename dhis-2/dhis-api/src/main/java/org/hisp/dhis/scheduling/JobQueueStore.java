@@ -0,0 +1,118 @@
+package org.hisp.dhis.scheduling;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Store for the cluster wide job queue. Scheduled jobs are enqueued by the
+ * leader node and claimed by any node with spare capacity, so that heavy jobs
+ * are spread over all nodes in the cluster.
+ */
+public interface JobQueueStore
+{
+    /**
+     * Enqueues an execution of the given job configuration. Does nothing if
+     * the job configuration is already queued or running.
+     *
+     * @param jobConfiguration the {@link JobConfiguration}.
+     * @return true if the job configuration was enqueued, false if not.
+     */
+    boolean enqueue( JobConfiguration jobConfiguration );
+
+    /**
+     * Claims the oldest queued entry for the given node. Entries locked by
+     * other nodes are skipped.
+     *
+     * @param nodeId the identifier of the claiming node.
+     * @return the claimed {@link JobQueueEntry}, or null if the queue is empty.
+     */
+    JobQueueEntry claim( String nodeId );
+
+    /**
+     * Signals that the node running the given entry is still alive. Does
+     * nothing if the entry is no longer running as claimed by the node, as it
+     * has been requeued and possibly claimed again since.
+     *
+     * @param entry the {@link JobQueueEntry}.
+     * @return true if the heartbeat was recorded, false if not.
+     */
+    boolean heartbeat( JobQueueEntry entry );
+
+    /**
+     * Marks the given entry as finished with the given status. Does nothing
+     * if the entry is no longer running as claimed by the node.
+     *
+     * @param entry the {@link JobQueueEntry}.
+     * @param status the final {@link JobStatus}.
+     * @return true if the entry was marked as finished, false if not.
+     */
+    boolean finish( JobQueueEntry entry, JobStatus status );
+
+    /**
+     * Checks whether an entry of the given job type is running on any other
+     * node than the given node.
+     *
+     * @param jobType the {@link JobType}.
+     * @param nodeId the identifier of the node to exclude.
+     * @return true if an entry of the job type is running on another node.
+     */
+    boolean isRunningOnOtherNode( JobType jobType, String nodeId );
+
+    /**
+     * Puts running entries without a heartbeat within the given timeout back
+     * in the queue, so that they are retried by another node. Entries which
+     * have been attempted the given max number of times are marked as failed.
+     * The timeout is evaluated against the database clock to avoid clock skew
+     * between nodes.
+     *
+     * @param heartbeatTimeoutSeconds the heartbeat timeout in seconds.
+     * @param maxAttempts the max number of attempts for an entry.
+     * @return the number of entries which were requeued or failed.
+     */
+    int requeueStale( int heartbeatTimeoutSeconds, int maxAttempts );
+
+    /**
+     * Deletes finished entries which finished before the given time.
+     *
+     * @param finishedBefore the finished time limit.
+     * @return the number of deleted entries.
+     */
+    int deleteFinished( Date finishedBefore );
+
+    /**
+     * Returns throughput statistics per node for entries claimed since the
+     * given time.
+     *
+     * @param claimedAfter the claimed time limit.
+     * @return a list of {@link JobQueueNodeStatistics}.
+     */
+    List<JobQueueNodeStatistics> getNodeStatistics( Date claimedAfter );
+}
@@ -85,6 +85,7 @@ public enum JobType
     EVENT_IMPORT( null, false ),
     ENROLLMENT_IMPORT( null, false ),
     TEI_IMPORT( null, false ),
+    MIN_MAX_VALUE_GENERATION( null, false ),
 
     // Testing purposes
     MOCK( "mockJob", false, SchedulingType.CRON, MockJobParameters.class, null ),
@@ -29,6 +29,7 @@ package org.hisp.dhis.scheduling;
  */
 
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ScheduledFuture;
@@ -138,4 +139,13 @@ public interface SchedulingManager
      * @return list of jobs
      */
     Map<String, ScheduledFuture<?>> getAllFutureJobs();
+
+    /**
+     * Returns throughput statistics per cluster node for jobs run through the
+     * job queue during the last day. Returns an empty list if the job queue is
+     * not enabled.
+     *
+     * @return a list of {@link JobQueueNodeStatistics}.
+     */
+    List<JobQueueNodeStatistics> getJobQueueNodeStatistics();
 }
@@ -28,19 +28,23 @@ package org.hisp.dhis.textpattern;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * @author Stian Sandvold
  */
 public class TextPatternMethodUtils
 {
+    private static final String UPPERCASE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private static final String LOWERCASE = "abcdefghijklmnopqrstuvwxyz";
+
+    private static final String DIGITS = "0123456789";
+
+    private static final String ALL = UPPERCASE + LOWERCASE + DIGITS;
+
     /**
      * Returns a random String based on the format. The format (As specified in TextPatternMethod) can contain '#' digits,
      * 'X' capital letters and 'x' lower case letters.
@@ -53,39 +57,46 @@ public class TextPatternMethodUtils
     {
         StringBuilder result = new StringBuilder();
 
-        List<Character> uppercase = IntStream.range( 0, 26 ).mapToObj( ( n ) -> (char) (n + 'A') )
-            .collect( Collectors.toList() );
-        List<Character> lowercase = IntStream.range( 0, 26 ).mapToObj( ( n ) -> (char) (n + 'a') )
-            .collect( Collectors.toList() );
-        List<Character> digits = IntStream.range( 0, 10 ).mapToObj( ( n ) -> (char) (n + '0') )
-            .collect( Collectors.toList() );
-        List<Character> all = new ArrayList<>();
-        all.addAll( uppercase );
-        all.addAll( lowercase );
-        all.addAll( digits );
-
         for ( char c : format.toCharArray() )
         {
-            switch ( c )
+            String alphabet = getRandomAlphabet( c );
+
+            if ( alphabet != null )
             {
-            case '*':
-                result.append( all.get( random.nextInt( all.size() ) ) );
-                break;
-            case '#':
-                result.append( digits.get( random.nextInt( digits.size() ) ) );
-                break;
-            case 'X':
-                result.append( uppercase.get( random.nextInt( uppercase.size() ) ) );
-                break;
-            case 'x':
-                result.append( lowercase.get( random.nextInt( lowercase.size() ) ) );
-                break;
+                result.append( alphabet.charAt( random.nextInt( alphabet.length() ) ) );
             }
         }
 
         return result.toString();
     }
 
+    /**
+     * Returns the random value at the given position in the ordered value
+     * space of the format.
+     *
+     * @param format the format (as specified in TextPatternMethod)
+     * @param index the position of the value, between 0 and the total number
+     *        of values of the format.
+     * @return the value at the given position.
+     */
+    public static String getRandomValue( String format, long index )
+    {
+        StringBuilder result = new StringBuilder();
+
+        for ( int i = format.length() - 1; i >= 0; i-- )
+        {
+            String alphabet = getRandomAlphabet( format.charAt( i ) );
+
+            if ( alphabet != null )
+            {
+                result.append( alphabet.charAt( (int) (index % alphabet.length()) ) );
+                index = index / alphabet.length();
+            }
+        }
+
+        return result.reverse().toString();
+    }
+
     /**
      * Takes a format (as specified in TextPatternMethod) and attempts to apply it to the text.
      * If there is no match, the method returns null. This can happen if the text don't fit the format:
@@ -107,4 +118,21 @@ public class TextPatternMethodUtils
 
         return null;
     }
+
+    private static String getRandomAlphabet( char c )
+    {
+        switch ( c )
+        {
+        case '*':
+            return ALL;
+        case '#':
+            return DIGITS;
+        case 'X':
+            return UPPERCASE;
+        case 'x':
+            return LOWERCASE;
+        default:
+            return null;
+        }
+    }
 }
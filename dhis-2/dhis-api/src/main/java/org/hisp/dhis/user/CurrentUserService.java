@@ -30,6 +30,7 @@ package org.hisp.dhis.user;
 
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -85,4 +86,30 @@ public interface CurrentUserService
      * @return UserCredentials of current User
      */
     UserCredentials getCurrentUserCredentials();
+
+    /**
+     * Returns the identifiers of the user groups which the given user is a
+     * member of. Memberships are cached per user.
+     *
+     * @param userId the user identifier.
+     * @return a set of user group identifiers.
+     */
+    Set<Long> getUserGroupIds( long userId );
+
+    /**
+     * Invalidates the cached user group memberships which are included in the
+     * user info and used for sharing checks. Must be called whenever user
+     * group memberships change. Within a transaction, the cache is invalidated
+     * again when the transaction completes.
+     */
+    void invalidateUserGroupCache();
+
+    /**
+     * Invalidates the cached user group memberships of the given users. Within
+     * a transaction, the entries are invalidated again when the transaction
+     * completes.
+     *
+     * @param userIds the identifiers of the users.
+     */
+    void invalidateUserGroupCache( Collection<Long> userIds );
 }
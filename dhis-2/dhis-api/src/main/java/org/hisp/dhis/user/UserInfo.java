@@ -43,6 +43,12 @@ public class UserInfo
     private String username;
     
     private Set<String> authorities = new HashSet<>();
+
+    /**
+     * Identifiers of the user groups the user is a member of, or null if
+     * not resolved.
+     */
+    private Set<Long> userGroupIds;
     
     protected UserInfo()
     {
@@ -55,6 +61,12 @@ public class UserInfo
         this.authorities = authorities;
     }
 
+    public UserInfo( long id, String username, Set<String> authorities, Set<Long> userGroupIds )
+    {
+        this( id, username, authorities );
+        this.userGroupIds = userGroupIds;
+    }
+
     // -------------------------------------------------------------------------
     // Logic
     // -------------------------------------------------------------------------
@@ -94,4 +106,9 @@ public class UserInfo
     {
         return authorities;
     }
+
+    public Set<Long> getUserGroupIds()
+    {
+        return userGroupIds;
+    }
 }
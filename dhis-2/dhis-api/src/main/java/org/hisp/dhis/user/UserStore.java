@@ -32,6 +32,7 @@ import org.hisp.dhis.common.IdentifiableObjectStore;
 
 import javax.annotation.Nullable;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Nguyen Hong Duc
@@ -92,4 +93,14 @@ public interface UserStore
      * @return User with given userId
      */
     User getUser( long userId );
+
+    /**
+     * Returns the identifiers of the user groups which the user with the given
+     * identifier is a member of.
+     *
+     * @param userId the user identifier.
+     * @return a set of user group identifiers, empty if the user is not a
+     *         member of any groups.
+     */
+    Set<Long> getUserGroupIds( long userId );
 }
@@ -0,0 +1,122 @@
+package org.hisp.dhis.cache;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MeteredCacheTest
+{
+    private SimpleMeterRegistry registry;
+
+    private Cache<String> cache;
+
+    @Before
+    public void setUp()
+    {
+        registry = new SimpleMeterRegistry();
+
+        Cache<String> localCache = new LocalCache<>( new SimpleCacheBuilder<String>()
+            .forRegion( "testRegion" ).withMaximumSize( 10 ) );
+
+        cache = new MeteredCache<>( localCache, "testRegion", registry );
+    }
+
+    @Test
+    public void testRecordHitsAndMisses()
+    {
+        assertFalse( cache.get( "A" ).isPresent() );
+
+        cache.put( "A", "Alpha" );
+
+        assertTrue( cache.get( "A" ).isPresent() );
+        assertTrue( cache.getIfPresent( "A" ).isPresent() );
+
+        assertEquals( 2.0, count( "cache.gets", "hit" ), 0.01 );
+        assertEquals( 1.0, count( "cache.gets", "miss" ), 0.01 );
+        assertEquals( 1.0, registry.get( "cache.puts" ).tag( "cache", "testRegion" ).counter().count(), 0.01 );
+    }
+
+    @Test
+    public void testRecordMissWhenMappingFunctionComputesValue()
+    {
+        assertEquals( "Beta", cache.get( "B", k -> "Beta" ).get() );
+        assertEquals( "Beta", cache.get( "B", k -> "Other" ).get() );
+
+        assertEquals( 1.0, count( "cache.gets", "hit" ), 0.01 );
+        assertEquals( 1.0, count( "cache.gets", "miss" ), 0.01 );
+    }
+
+    @Test
+    public void testRecordInvalidations()
+    {
+        cache.put( "A", "Alpha" );
+        cache.invalidate( "A" );
+        cache.invalidateAll();
+
+        assertFalse( cache.get( "A" ).isPresent() );
+        assertEquals( 2.0, registry.get( "cache.invalidations" ).tag( "cache", "testRegion" ).counter().count(), 0.01 );
+    }
+
+    @Test
+    public void testRecordEvictions()
+    {
+        Cache<String> localCache = new LocalCache<>( new SimpleCacheBuilder<String>()
+            .forRegion( "smallRegion" ).withMaximumSize( 1 ) );
+
+        Cache<String> smallCache = new MeteredCache<>( localCache, "smallRegion", registry );
+
+        smallCache.put( "A", "Alpha" );
+        smallCache.put( "B", "Beta" );
+        smallCache.put( "C", "Gamma" );
+
+        assertTrue( registry.get( "cache.evictions" ).tag( "cache", "smallRegion" ).functionCounter().count() > 0 );
+        assertEquals( 0.0, registry.get( "cache.invalidations" ).tag( "cache", "smallRegion" ).counter().count(), 0.01 );
+    }
+
+    @Test
+    public void testSimpleCacheBuilderMetersCache()
+    {
+        Cache<String> simpleCache = new SimpleCacheBuilder<String>()
+            .forRegion( "simpleRegion" ).withMaximumSize( 10 ).build();
+
+        assertTrue( simpleCache instanceof MeteredCache );
+    }
+
+    private double count( String name, String result )
+    {
+        return registry.get( name ).tag( "cache", "testRegion" ).tag( "result", result ).counter().count();
+    }
+}
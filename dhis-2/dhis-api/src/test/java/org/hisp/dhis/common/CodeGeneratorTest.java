@@ -29,6 +29,7 @@ package org.hisp.dhis.common;
  */
 
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 import org.junit.Test;
 
@@ -58,6 +59,21 @@ public class CodeGeneratorTest
         }
     }
     
+    @Test
+    public void testGetUidFromRandom()
+    {
+        Random random = new Random( 42L );
+        Random sameSeed = new Random( 42L );
+
+        for ( int n = 0; n < 100; ++n )
+        {
+            String code = CodeGenerator.generateUid( random );
+
+            assertTrue( CodeGenerator.isValidUid( code ) );
+            assertEquals( code, CodeGenerator.generateUid( sameSeed ) );
+        }
+    }
+
     @Test
     public void testUidIsValid()
     {
@@ -0,0 +1,64 @@
+package org.hisp.dhis.common.coordinate;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.io.WKTReader;
+
+public class CoordinateUtilsTest
+{
+    @Test
+    public void testGetSimplificationTolerance()
+    {
+        assertEquals( 360d / 256, CoordinateUtils.getSimplificationTolerance( 0 ), 0.0000001 );
+        assertEquals( 360d / 512, CoordinateUtils.getSimplificationTolerance( 1 ), 0.0000001 );
+        assertTrue( CoordinateUtils.getSimplificationTolerance( 10 ) < CoordinateUtils.getSimplificationTolerance( 9 ) );
+    }
+
+    @Test
+    public void testGetSimplifiedCoordinatesFromGeometry()
+        throws Exception
+    {
+        Geometry geometry = new WKTReader().read( "POLYGON ((0 0, 0.5 0.0001, 1 0, 1.0001 0.5, 1 1, 0.5 0.9999, 0 1, 0.0001 0.5, 0 0))" );
+
+        assertEquals( 9, getNumberOfPoints( CoordinateUtils.getSimplifiedCoordinatesFromGeometry( geometry, 0.00001 ) ) );
+        assertEquals( 5, getNumberOfPoints( CoordinateUtils.getSimplifiedCoordinatesFromGeometry( geometry,
+            CoordinateUtils.getSimplificationTolerance( 5 ) ) ) );
+    }
+
+    private int getNumberOfPoints( String coordinates )
+    {
+        return coordinates.split( "\\]\\s*,\\s*\\[" ).length;
+    }
+}
@@ -0,0 +1,107 @@
+package org.hisp.dhis.keyjsonvalue;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQueryParams.Filter;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQueryParams.FilterOperator;
+import org.junit.Test;
+
+public class KeyJsonValueQueryParamsTest
+{
+    @Test
+    public void testIsValidPath()
+    {
+        assertTrue( KeyJsonValueQueryParams.isValidPath( "." ) );
+        assertTrue( KeyJsonValueQueryParams.isValidPath( "name" ) );
+        assertTrue( KeyJsonValueQueryParams.isValidPath( "owner.first-name" ) );
+        assertFalse( KeyJsonValueQueryParams.isValidPath( "owner." ) );
+        assertFalse( KeyJsonValueQueryParams.isValidPath( "owner'name" ) );
+        assertFalse( KeyJsonValueQueryParams.isValidPath( null ) );
+    }
+
+    @Test
+    public void testParseFilter()
+    {
+        Filter filter = KeyJsonValueQueryParams.parseFilter( "owner.name:eq:a:b" );
+
+        assertEquals( "owner.name", filter.getPath() );
+        assertEquals( FilterOperator.EQ, filter.getOperator() );
+        assertEquals( "a:b", filter.getValue() );
+
+        filter = KeyJsonValueQueryParams.parseFilter( "name:null" );
+
+        assertEquals( FilterOperator.NULL, filter.getOperator() );
+        assertNull( filter.getValue() );
+    }
+
+    @Test( expected = IllegalQueryException.class )
+    public void testParseFilterMissingValue()
+    {
+        KeyJsonValueQueryParams.parseFilter( "name:eq" );
+    }
+
+    @Test( expected = IllegalQueryException.class )
+    public void testParseFilterInvalidOperator()
+    {
+        KeyJsonValueQueryParams.parseFilter( "name:between:1" );
+    }
+
+    @Test
+    public void testGetJsonValue()
+    {
+        assertEquals( "5", new Filter( "a", FilterOperator.EQ, "5" ).getJsonValue().toString() );
+        assertEquals( "\"5\"", new Filter( "a", FilterOperator.EQ, "\"5\"" ).getJsonValue().toString() );
+        assertEquals( "true", new Filter( "a", FilterOperator.EQ, "true" ).getJsonValue().toString() );
+        assertEquals( "\"Fido\"", new Filter( "a", FilterOperator.EQ, "Fido" ).getJsonValue().toString() );
+    }
+
+    @Test
+    public void testGetJsonDocument()
+    {
+        assertEquals( "{\"owner\":{\"name\":\"Fido\"}}",
+            new Filter( "owner.name", FilterOperator.EQ, "Fido" ).getJsonDocument().toString() );
+        assertEquals( "\"Fido\"", new Filter( ".", FilterOperator.EQ, "Fido" ).getJsonDocument().toString() );
+    }
+
+    @Test
+    public void testSetOrder()
+    {
+        KeyJsonValueQueryParams params = new KeyJsonValueQueryParams().setOrder( "owner.name:desc" );
+
+        assertEquals( "owner.name", params.getOrderPath() );
+        assertTrue( params.isOrderDescending() );
+        assertFalse( new KeyJsonValueQueryParams().setOrder( "name" ).isOrderDescending() );
+    }
+}
@@ -38,14 +38,20 @@ import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.security.AuthorityType;
 import org.hisp.dhis.security.acl.AccessStringHelper.Permission;
+import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserAccess;
+import org.hisp.dhis.user.UserGroup;
 import org.hisp.dhis.user.UserGroupAccess;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.springframework.util.CollectionUtils.containsAny;
@@ -60,11 +66,15 @@ public class DefaultAclService implements AclService
 {
     private final SchemaService schemaService;
 
-    public DefaultAclService( SchemaService schemaService )
+    private final CurrentUserService currentUserService;
+
+    public DefaultAclService( SchemaService schemaService, @Lazy CurrentUserService currentUserService )
     {
         checkNotNull( schemaService );
+        checkNotNull( currentUserService );
 
         this.schemaService = schemaService;
+        this.currentUserService = currentUserService;
     }
 
     @Override
@@ -649,14 +659,33 @@ public class DefaultAclService implements AclService
             return true;
         }
 
+        Set<Long> userGroupIds = null;
+
+        Set<String> userGroupUids = null;
+
         for ( UserGroupAccess userGroupAccess : object.getUserGroupAccesses() )
         {
             // Check if user is allowed to read this object through group access
 
             if ( AccessStringHelper.isEnabled( userGroupAccess.getAccess(), permission )
-                    && userGroupAccess.userGroupContainsUser( user ) )
+                && userGroupAccess.getUserGroup() != null )
             {
-                return true;
+                // Resolve group memberships of user once and look up the group,
+                // include the groups of the user as they might not be flushed
+
+                if ( userGroupIds == null )
+                {
+                    userGroupIds = getUserGroupIds( user );
+                    userGroupUids = getUserGroupUids( user );
+                }
+
+                UserGroup userGroup = userGroupAccess.getUserGroup();
+
+                if ( (userGroup.getId() > 0 && userGroupIds.contains( userGroup.getId() ))
+                    || userGroupUids.contains( userGroup.getUid() ) )
+                {
+                    return true;
+                }
             }
         }
 
@@ -674,6 +703,37 @@ public class DefaultAclService implements AclService
         return false;
     }
 
+    /**
+     * Returns the identifiers of the user groups which the given persisted
+     * user is a member of, from the cached user group memberships.
+     *
+     * @param user the user.
+     * @return a set of user group identifiers.
+     */
+    private Set<Long> getUserGroupIds( User user )
+    {
+        return user.getId() > 0 ? currentUserService.getUserGroupIds( user.getId() ) : new HashSet<>();
+    }
+
+    /**
+     * Returns the identifiers of the user groups which the given user is a
+     * member of.
+     *
+     * @param user the user.
+     * @return a set of user group identifiers.
+     */
+    private Set<String> getUserGroupUids( User user )
+    {
+        if ( user.getGroups() == null )
+        {
+            return new HashSet<>();
+        }
+
+        return user.getGroups().stream()
+            .map( UserGroup::getUid )
+            .collect( Collectors.toSet() );
+    }
+
     private boolean checkOptionComboSharingPermission( User user, IdentifiableObject object, Permission permission )
     {
         CategoryOptionCombo optionCombo = (CategoryOptionCombo) object;
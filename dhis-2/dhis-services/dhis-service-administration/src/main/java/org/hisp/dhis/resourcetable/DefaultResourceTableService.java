@@ -41,6 +41,7 @@ import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.dataapproval.DataApprovalLevelService;
+import org.hisp.dhis.dataapproval.DataApprovalStore;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementGroupSet;
 import org.hisp.dhis.dataset.DataSet;
@@ -85,6 +86,8 @@ public class DefaultResourceTableService
 
     private DataApprovalLevelService dataApprovalLevelService;
 
+    private DataApprovalStore dataApprovalStore;
+
     private CategoryService categoryService;
     
     private StatementBuilder statementBuilder;
@@ -92,7 +95,7 @@ public class DefaultResourceTableService
     public DefaultResourceTableService( ResourceTableStore resourceTableStore,
         IdentifiableObjectManager idObjectManager, OrganisationUnitService organisationUnitService,
         PeriodService periodService, SqlViewService sqlViewService, DataApprovalLevelService dataApprovalLevelService,
-        CategoryService categoryService, StatementBuilder statementBuilder )
+        DataApprovalStore dataApprovalStore, CategoryService categoryService, StatementBuilder statementBuilder )
     {
         checkNotNull( resourceTableStore );
         checkNotNull( idObjectManager );
@@ -100,6 +103,7 @@ public class DefaultResourceTableService
         checkNotNull( periodService );
         checkNotNull( sqlViewService );
         checkNotNull( dataApprovalLevelService );
+        checkNotNull( dataApprovalStore );
         checkNotNull( categoryService );
         checkNotNull( statementBuilder );
 
@@ -109,6 +113,7 @@ public class DefaultResourceTableService
         this.periodService = periodService;
         this.sqlViewService = sqlViewService;
         this.dataApprovalLevelService = dataApprovalLevelService;
+        this.dataApprovalStore = dataApprovalStore;
         this.categoryService = categoryService;
         this.statementBuilder = statementBuilder;
     }
@@ -221,6 +226,13 @@ public class DefaultResourceTableService
         }
     }
 
+    @Override
+    @Transactional
+    public void generateDataApprovalWorkflowOrgUnitTable()
+    {
+        dataApprovalStore.generateWorkflowOrgUnits();
+    }
+
     // -------------------------------------------------------------------------
     // SQL Views. Each view is created/dropped in separate transactions so that
     // process continues even if individual operations fail.
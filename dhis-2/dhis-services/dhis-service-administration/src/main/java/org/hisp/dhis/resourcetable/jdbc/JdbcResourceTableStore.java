@@ -30,8 +30,21 @@ package org.hisp.dhis.resourcetable.jdbc;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.hisp.dhis.analytics.AnalyticsTableHook;
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
@@ -41,8 +54,16 @@ import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.resourcetable.ResourceTable;
 import org.hisp.dhis.resourcetable.ResourceTableStore;
 import org.hisp.dhis.system.util.Clock;
+import org.hisp.dhis.util.DateUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.hash.Hashing;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -66,6 +87,13 @@ public class JdbcResourceTableStore
 
     private final JdbcTemplate jdbcTemplate;
 
+    /**
+     * Hashes of the definition and source rows of generated resource tables.
+     * Key is table name. Used to skip generation of tables which are
+     * unchanged.
+     */
+    private final Map<String, String> tableContentHashes = new ConcurrentHashMap<>();
+
     public JdbcResourceTableStore( AnalyticsTableHookService analyticsTableHookService, DbmsManager dbmsManager,
         StatementBuilder statementBuilder, JdbcTemplate jdbcTemplate )
     {
@@ -92,9 +120,28 @@ public class JdbcResourceTableStore
         final Clock clock = new Clock().startClock();
         final String createTableSql = resourceTable.getCreateTempTableStatement();
         final Optional<String> populateTableSql = resourceTable.getPopulateTempTableStatement();
-        final Optional<List<Object[]>> populateTableContent = resourceTable.getPopulateTempTableContent();
+        final Optional<String> contentHashSql = resourceTable.getContentHashStatement();
         final List<String> createIndexSql = resourceTable.getCreateIndexStatements();
         final String analyzeTableSql = statementBuilder.getAnalyze( resourceTable.getTableName() );
+        final List<AnalyticsTableHook> hooks = analyticsTableHookService
+            .getByPhaseAndResourceTableType( AnalyticsTablePhase.RESOURCE_TABLE_POPULATED, resourceTable.getTableType() );
+
+        // ---------------------------------------------------------------------
+        // Skip if source rows are unchanged since last generation, hashed in
+        // the database before the table content is loaded
+        // ---------------------------------------------------------------------
+
+        final String contentHash = contentHashSql.isPresent() && !populateTableSql.isPresent() && hooks.isEmpty() ?
+            getContentHash( createTableSql, contentHashSql.get() ) : null;
+
+        if ( contentHash != null && contentHash.equals( tableContentHashes.get( resourceTable.getTableName() ) ) &&
+            dbmsManager.tableExists( resourceTable.getTableName() ) )
+        {
+            log.info( String.format( "Resource table '%s' is unchanged, skipping: '%s'", resourceTable.getTableName(), clock.time() ) );
+            return;
+        }
+
+        tableContentHashes.remove( resourceTable.getTableName() );
 
         // ---------------------------------------------------------------------
         // Drop temporary table if it exists
@@ -114,7 +161,7 @@ public class JdbcResourceTableStore
         jdbcTemplate.execute( createTableSql );
 
         // ---------------------------------------------------------------------
-        // Populate temporary table through SQL or object batch update
+        // Populate temporary table through SQL or object copy or batch update
         // ---------------------------------------------------------------------
 
         if ( populateTableSql.isPresent() )
@@ -123,9 +170,9 @@ public class JdbcResourceTableStore
 
             jdbcTemplate.execute( populateTableSql.get() );
         }
-        else if ( populateTableContent.isPresent() )
+        else
         {
-            List<Object[]> content = populateTableContent.get();
+            List<Object[]> content = resourceTable.getPopulateTempTableContent().orElse( Collections.emptyList() );
 
             log.debug( String.format( "Populate table content rows: '%d'", content.size() ) );
 
@@ -141,9 +188,6 @@ public class JdbcResourceTableStore
         // Invoke hooks
         // ---------------------------------------------------------------------
 
-        List<AnalyticsTableHook> hooks = analyticsTableHookService
-            .getByPhaseAndResourceTableType( AnalyticsTablePhase.RESOURCE_TABLE_POPULATED, resourceTable.getTableType() );
-
         if ( !hooks.isEmpty() )
         {
             analyticsTableHookService.executeAnalyticsTableSqlHooks( hooks );
@@ -188,6 +232,11 @@ public class JdbcResourceTableStore
 
         log.debug( String.format( "Analyzed resource table: '%s'", resourceTable.getTableName() ) );
 
+        if ( contentHash != null )
+        {
+            putContentHash( resourceTable.getTableName(), contentHash );
+        }
+
         log.info( String.format( "Resource table '%s' update done: '%s'", resourceTable.getTableName(), clock.time() ) );
     }
 
@@ -199,6 +248,16 @@ public class JdbcResourceTableStore
             return;
         }
 
+        // Stream rows through copy if supported by the database
+
+        Boolean copied = jdbcTemplate.execute( (ConnectionCallback<Boolean>) connection ->
+            copyIn( connection, tableName, batchArgs ) );
+
+        if ( Boolean.TRUE.equals( copied ) )
+        {
+            return;
+        }
+
         StringBuilder builder = new StringBuilder( "insert into " + tableName + " values (" );
 
         for ( int i = 0; i < columns; i++ )
@@ -210,4 +269,156 @@ public class JdbcResourceTableStore
 
         jdbcTemplate.batchUpdate( builder.toString(), batchArgs );
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Records the content hash of the given table. Within a transaction the
+     * hash is recorded after commit, so that a rolled back generation is not
+     * skipped the next time.
+     *
+     * @param tableName the table name.
+     * @param contentHash the content hash.
+     */
+    private void putContentHash( String tableName, String contentHash )
+    {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    tableContentHashes.put( tableName, contentHash );
+                }
+            } );
+        }
+        else
+        {
+            tableContentHashes.put( tableName, contentHash );
+        }
+    }
+
+    /**
+     * Loads the given rows into the given table using the PostgreSQL copy API
+     * in CSV format. Rows are written to the copy stream one at a time through
+     * a buffer, without building the full CSV content in memory.
+     *
+     * @param connection the connection.
+     * @param tableName the table name.
+     * @param rows the rows to load.
+     * @return true if the rows were loaded, false if copy is not supported by
+     *         the connection.
+     */
+    private boolean copyIn( Connection connection, String tableName, Iterable<Object[]> rows )
+        throws SQLException
+    {
+        if ( !connection.isWrapperFor( PGConnection.class ) )
+        {
+            return false;
+        }
+
+        final String sql = "copy " + tableName + " from stdin with (format csv)";
+
+        PGCopyOutputStream copyOut = new PGCopyOutputStream( connection.unwrap( PGConnection.class ), sql );
+
+        try
+        {
+            Writer writer = new BufferedWriter( new OutputStreamWriter( copyOut, StandardCharsets.UTF_8 ) );
+
+            for ( Object[] row : rows )
+            {
+                writeCsvRow( writer, row );
+            }
+
+            writer.flush();
+
+            long count = copyOut.endCopy();
+
+            log.debug( String.format( "Copied rows into table: '%s', rows: %d", tableName, count ) );
+        }
+        catch ( IOException ex )
+        {
+            throw new SQLException( "Failed to copy rows into table: " + tableName, ex );
+        }
+        finally
+        {
+            if ( copyOut.isActive() )
+            {
+                copyOut.cancelCopy();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes a CSV row for the given values. Null values are written as
+     * unquoted empty values, which copy interprets as null.
+     *
+     * @param writer the writer.
+     * @param row the values.
+     */
+    private void writeCsvRow( Writer writer, Object[] row )
+        throws IOException
+    {
+        for ( int i = 0; i < row.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                writer.write( ',' );
+            }
+
+            Object value = row[i];
+
+            if ( value != null )
+            {
+                String string = value instanceof Date ? DateUtils.getLongDateString( (Date) value ) : value.toString();
+
+                writer.write( '"' );
+                writer.write( string.replace( "\"", "\"\"" ) );
+                writer.write( '"' );
+            }
+        }
+
+        writer.write( '\n' );
+    }
+
+    /**
+     * Returns a hash of the given create table statement and of the source
+     * rows of the table content. The source rows are hashed in the database
+     * with the given query, so that they are not loaded when the table is
+     * unchanged. Returns null if the database does not support the query.
+     *
+     * @param createTableSql the create table statement.
+     * @param contentHashSql the query returning a hash of the source rows.
+     * @return a hash string, or null.
+     */
+    private String getContentHash( String createTableSql, String contentHashSql )
+    {
+        String sourceHash = jdbcTemplate.execute( (ConnectionCallback<String>) connection -> {
+            if ( !connection.isWrapperFor( PGConnection.class ) )
+            {
+                return null;
+            }
+
+            try ( Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery( contentHashSql ) )
+            {
+                return resultSet.next() ? resultSet.getString( 1 ) : null;
+            }
+        } );
+
+        if ( sourceHash == null )
+        {
+            return null;
+        }
+
+        return Hashing.murmur3_128().newHasher()
+            .putString( createTableSql, StandardCharsets.UTF_8 )
+            .putString( sourceHash, StandardCharsets.UTF_8 )
+            .hash().toString();
+    }
 }
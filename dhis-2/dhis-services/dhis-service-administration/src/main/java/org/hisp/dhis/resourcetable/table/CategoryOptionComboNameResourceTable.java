@@ -105,6 +105,18 @@ public class CategoryOptionComboNameResourceTable
         return Optional.of( batchArgs );
     }
 
+    @Override
+    public Optional<String> getContentHashStatement()
+    {
+        return Optional.of( getRowHashStatement(
+            "select categorycomboid, categoryid, sort_order from categorycombos_categories",
+            "select categoryid, categoryoptionid, sort_order from categories_categoryoptions",
+            "select categorycomboid, categoryoptioncomboid from categorycombos_optioncombos",
+            "select categoryoptioncomboid, uid, name, ignoreapproval from categoryoptioncombo",
+            "select categoryoptioncomboid, categoryoptionid from categoryoptioncombos_categoryoptions",
+            "select categoryoptionid, name, startdate, enddate from dataelementcategoryoption" ) );
+    }
+
     @Override
     public List<String> getCreateIndexStatements()
     {
@@ -117,6 +117,15 @@ public class DataElementResourceTable
         return Optional.of( batchArgs );
     }
 
+    @Override
+    public Optional<String> getContentHashStatement()
+    {
+        return Optional.of( getRowHashStatement(
+            "select dataelementid, uid, name from dataelement",
+            "select datasetid, dataelementid from datasetelement",
+            "select datasetid, uid, name, periodtypeid, workflowid from dataset" ) );
+    }
+
     @Override
     public List<String> getCreateIndexStatements()
     {
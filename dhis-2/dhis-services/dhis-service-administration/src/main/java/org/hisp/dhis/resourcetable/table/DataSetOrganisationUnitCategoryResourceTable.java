@@ -133,6 +133,19 @@ public class DataSetOrganisationUnitCategoryResourceTable
         return Optional.of( batchArgs );
     }
 
+    @Override
+    public Optional<String> getContentHashStatement()
+    {
+        return Optional.of( getRowHashStatement(
+            "select datasetid, categorycomboid, periodtypeid, openperiodsaftercoenddate from dataset",
+            "select datasetid, sourceid from datasetsource",
+            "select categoryoptionid, organisationunitid from categoryoption_organisationunits",
+            "select categorycomboid, categoryoptioncomboid from categorycombos_optioncombos",
+            "select categoryoptioncomboid, categoryoptionid from categoryoptioncombos_categoryoptions",
+            "select categoryoptionid, startdate, enddate from dataelementcategoryoption",
+            "select " + defaultOptionCombo.getId() ) );
+    }
+
     @Override
     public List<String> getCreateIndexStatements()
     {
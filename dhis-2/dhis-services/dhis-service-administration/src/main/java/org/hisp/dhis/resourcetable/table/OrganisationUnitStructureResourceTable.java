@@ -138,6 +138,13 @@ public class OrganisationUnitStructureResourceTable
         return Optional.of( batchArgs );
     }
 
+    @Override
+    public Optional<String> getContentHashStatement()
+    {
+        return Optional.of( getRowHashStatement(
+            "select organisationunitid, uid, name, parentid from organisationunit" ) );
+    }
+
     @Override
     public List<String> getCreateIndexStatements()
     {
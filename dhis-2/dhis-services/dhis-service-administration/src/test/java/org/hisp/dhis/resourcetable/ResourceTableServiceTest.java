@@ -137,5 +137,6 @@ public class ResourceTableServiceTest
         resourceTableService.generatePeriodTable();
         resourceTableService.generateDatePeriodTable();
         resourceTableService.generateCategoryOptionComboTable();
+        resourceTableService.generateDataApprovalWorkflowOrgUnitTable();
     }
 }
@@ -0,0 +1,258 @@
+package org.hisp.dhis.resourcetable.jdbc;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hisp.dhis.analytics.AnalyticsTableHookService;
+import org.hisp.dhis.dbms.DbmsManager;
+import org.hisp.dhis.jdbc.StatementBuilder;
+import org.hisp.dhis.resourcetable.ResourceTable;
+import org.hisp.dhis.resourcetable.ResourceTableType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.collect.Lists;
+
+public class JdbcResourceTableStoreTest
+{
+    private static final String CREATE_TABLE_SQL = "create table _periodstructure_temp (iso varchar(15))";
+
+    private static final String CONTENT_HASH_SQL = "select md5(concat((select string_agg(cast(q as text), ',' " +
+        "order by cast(q as text)) from (select iso from period) q)))";
+
+    @Mock
+    private AnalyticsTableHookService analyticsTableHookService;
+
+    @Mock
+    private DbmsManager dbmsManager;
+
+    @Mock
+    private StatementBuilder statementBuilder;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Mock
+    private PGConnection pgConnection;
+
+    @Mock
+    private CopyManager copyManager;
+
+    @Mock
+    private CopyIn copyIn;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private JdbcResourceTableStore subject;
+
+    private final AtomicInteger contentLoads = new AtomicInteger();
+
+    private String sourceHash = "hash1";
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        when( dbmsManager.tableExists( anyString() ) ).thenReturn( true );
+        when( jdbcTemplate.execute( any( ConnectionCallback.class ) ) ).thenAnswer(
+            invocation -> invocation.<ConnectionCallback<?>> getArgument( 0 ).doInConnection( connection ) );
+        when( connection.isWrapperFor( PGConnection.class ) ).thenReturn( true );
+        when( connection.createStatement() ).thenReturn( statement );
+        when( statement.executeQuery( CONTENT_HASH_SQL ) ).thenReturn( resultSet );
+        when( resultSet.next() ).thenReturn( true );
+        when( resultSet.getString( 1 ) ).thenAnswer( invocation -> sourceHash );
+        when( connection.unwrap( PGConnection.class ) ).thenReturn( pgConnection );
+        when( pgConnection.getCopyAPI() ).thenReturn( copyManager );
+        when( copyManager.copyIn( "copy _periodstructure_temp from stdin with (format csv)" ) ).thenReturn( copyIn );
+
+        subject = new JdbcResourceTableStore( analyticsTableHookService, dbmsManager, statementBuilder, jdbcTemplate );
+    }
+
+    @Test
+    public void verifyUnchangedResourceTableIsSkipped()
+    {
+        subject.generateResourceTable( createResourceTable( Lists.newArrayList( "2020W1", "2020W2" ) ) );
+        subject.generateResourceTable( createResourceTable( Lists.newArrayList( "2020W1", "2020W2" ) ) );
+
+        verify( jdbcTemplate, times( 1 ) ).execute( CREATE_TABLE_SQL );
+        assertEquals( 1, contentLoads.get() );
+
+        sourceHash = "hash2";
+
+        subject.generateResourceTable( createResourceTable( Lists.newArrayList( "2020W1", "2020W3" ) ) );
+
+        verify( jdbcTemplate, times( 2 ) ).execute( CREATE_TABLE_SQL );
+        assertEquals( 2, contentLoads.get() );
+    }
+
+    @Test
+    public void verifyResourceTableIsGeneratedWithoutContentHash()
+        throws Exception
+    {
+        when( connection.isWrapperFor( PGConnection.class ) ).thenReturn( false );
+
+        subject.generateResourceTable( createResourceTable( Lists.newArrayList( "2020W1", "2020W2" ) ) );
+        subject.generateResourceTable( createResourceTable( Lists.newArrayList( "2020W1", "2020W2" ) ) );
+
+        verify( jdbcTemplate, times( 2 ) ).execute( CREATE_TABLE_SQL );
+        verify( jdbcTemplate, times( 2 ) ).batchUpdate( eq( "insert into _periodstructure_temp values (?)" ), any( List.class ) );
+        verify( connection, never() ).createStatement();
+    }
+
+    @Test
+    public void verifyContentIsCopiedWhenSupported()
+        throws Exception
+    {
+        ByteArrayOutputStream copied = new ByteArrayOutputStream();
+
+        doAnswer( invocation -> {
+            copied.write( invocation.getArgument( 0 ), invocation.getArgument( 1 ), invocation.getArgument( 2 ) );
+            return null;
+        } ).when( copyIn ).writeToCopy( any( byte[].class ), anyInt(), anyInt() );
+
+        subject.generateResourceTable( createResourceTable( Lists.newArrayList( "2020W1", "2020\"W2" ) ) );
+
+        assertEquals( "\"2020W1\"\n\"2020\"\"W2\"\n", copied.toString( StandardCharsets.UTF_8.name() ) );
+        verify( copyIn ).endCopy();
+        verify( jdbcTemplate, never() ).batchUpdate( anyString(), any( List.class ) );
+    }
+
+    @Test
+    public void verifyContentHashIsRecordedAfterCommit()
+    {
+        TransactionSynchronizationManager.initSynchronization();
+
+        try
+        {
+            subject.generateResourceTable( createResourceTable( Lists.newArrayList( "2020W1", "2020W2" ) ) );
+            subject.generateResourceTable( createResourceTable( Lists.newArrayList( "2020W1", "2020W2" ) ) );
+
+            verify( jdbcTemplate, times( 2 ) ).execute( CREATE_TABLE_SQL );
+
+            TransactionSynchronizationManager.getSynchronizations().forEach( TransactionSynchronization::afterCommit );
+        }
+        finally
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        subject.generateResourceTable( createResourceTable( Lists.newArrayList( "2020W1", "2020W2" ) ) );
+
+        verify( jdbcTemplate, times( 2 ) ).execute( CREATE_TABLE_SQL );
+    }
+
+    private ResourceTable<String> createResourceTable( List<String> isoPeriods )
+    {
+        return new ResourceTable<String>( isoPeriods )
+        {
+            @Override
+            public ResourceTableType getTableType()
+            {
+                return ResourceTableType.PERIOD_STRUCTURE;
+            }
+
+            @Override
+            public String getCreateTempTableStatement()
+            {
+                return CREATE_TABLE_SQL;
+            }
+
+            @Override
+            public Optional<String> getPopulateTempTableStatement()
+            {
+                return Optional.empty();
+            }
+
+            @Override
+            public Optional<List<Object[]>> getPopulateTempTableContent()
+            {
+                contentLoads.incrementAndGet();
+
+                List<Object[]> content = new ArrayList<>();
+
+                objects.forEach( iso -> content.add( new Object[] { iso } ) );
+
+                return Optional.of( content );
+            }
+
+            @Override
+            public Optional<String> getContentHashStatement()
+            {
+                return Optional.of( getRowHashStatement( "select iso from period" ) );
+            }
+
+            @Override
+            public List<String> getCreateIndexStatements()
+            {
+                return new ArrayList<>();
+            }
+        };
+    }
+}
@@ -33,6 +33,7 @@ import static org.hisp.dhis.analytics.DataQueryParams.LEVEL_PREFIX;
 import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.PERIOD_DIM_ID;
+import static org.hisp.dhis.monitoring.metrics.ApplicationMetrics.ANALYTICS_QUERY_PLANNING;
 import static org.hisp.dhis.analytics.util.AnalyticsUtils.throwIllegalQueryEx;
 
 import java.util.ArrayList;
@@ -62,6 +63,7 @@ import org.hisp.dhis.commons.collection.PaginatedList;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementGroup;
 import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.monitoring.metrics.ApplicationMetrics;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.system.util.MathUtils;
@@ -100,6 +102,11 @@ public class DefaultQueryPlanner
 
     @Override
     public DataQueryGroups planQuery( DataQueryParams params, QueryPlannerParams plannerParams )
+    {
+        return ApplicationMetrics.time( ANALYTICS_QUERY_PLANNING, () -> plan( params, plannerParams ) );
+    }
+
+    private DataQueryGroups plan( DataQueryParams params, QueryPlannerParams plannerParams )
     {
         queryValidator.validate( params );
 
@@ -49,6 +49,7 @@ import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
 import static org.hisp.dhis.common.IdentifiableObjectUtils.getUids;
 import static org.hisp.dhis.commons.util.TextUtils.getQuotedCommaDelimitedString;
 import static org.hisp.dhis.commons.util.TextUtils.removeLastOr;
+import static org.hisp.dhis.monitoring.metrics.ApplicationMetrics.ANALYTICS_QUERY_EXECUTION;
 import static org.hisp.dhis.util.DateUtils.getMediumDateString;
 
 import java.util.Collection;
@@ -82,6 +83,7 @@ import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.commons.util.SqlHelper;
 import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.monitoring.metrics.ApplicationMetrics;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodType;
@@ -99,6 +101,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -177,6 +180,8 @@ public class JdbcAnalyticsManager
 
             Map<String, Object> map;
 
+            Timer.Sample sample = ApplicationMetrics.start();
+
             try
             {
                 map = getKeyValueMap( params, sql, maxLimit );
@@ -186,6 +191,10 @@ public class JdbcAnalyticsManager
                 log.info( AnalyticsUtils.ERR_MSG_TABLE_NOT_EXISTING, ex );
                 return new AsyncResult<>( Maps.newHashMap() );
             }
+            finally
+            {
+                ApplicationMetrics.stop( sample, ANALYTICS_QUERY_EXECUTION );
+            }
 
             replaceDataPeriodsWithAggregationPeriods( map, params, dataPeriodAggregationPeriodMap );
 
@@ -37,7 +37,10 @@ import static org.hisp.dhis.common.DimensionalObjectUtils.COMPOSITE_DIM_OBJECT_P
 import static org.hisp.dhis.system.util.MathUtils.getRounded;
 
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hisp.dhis.analytics.AggregationType;
@@ -46,6 +49,8 @@ import org.hisp.dhis.analytics.SortOrder;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.event.ProgramIndicatorSubqueryBuilder;
 import org.hisp.dhis.analytics.util.AnalyticsUtils;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
 import org.hisp.dhis.common.DimensionItemType;
 import org.hisp.dhis.common.DimensionType;
 import org.hisp.dhis.common.DimensionalItemObject;
@@ -89,6 +94,13 @@ public abstract class AbstractJdbcEventAnalyticsManager
 
     protected static final int LAST_VALUE_YEARS_OFFSET = -10;
 
+    private static final Cache<Set<String>> TABLE_COLUMN_CACHE = new SimpleCacheBuilder<Set<String>>()
+        .forRegion( "analyticsTableColumnCache" )
+        .expireAfterWrite( 5, TimeUnit.MINUTES )
+        .withInitialCapacity( 20 )
+        .withMaximumSize( 1000 )
+        .build();
+
     protected final JdbcTemplate jdbcTemplate;
 
     protected final StatementBuilder statementBuilder;
@@ -455,8 +467,11 @@ public abstract class AbstractJdbcEventAnalyticsManager
 
             function = TextUtils.emptyIfEqual( function, AggregationType.CUSTOM.getValue() );
 
-            String expression = programIndicatorService.getAnalyticsSql( params.getProgramIndicator().getExpression(),
-                params.getProgramIndicator(), params.getEarliestStartDate(), params.getLatestEndDate() );
+            String column = getMaterializedColumn( params.getProgramIndicator(), params.getTableName() );
+
+            String expression = column != null ? quoteAlias( column ) :
+                programIndicatorService.getAnalyticsSql( params.getProgramIndicator().getExpression(),
+                    params.getProgramIndicator(), params.getEarliestStartDate(), params.getLatestEndDate() );
 
             return function + "(" + expression + ")";
         }
@@ -547,6 +562,39 @@ public abstract class AbstractJdbcEventAnalyticsManager
         return "lower(" + column + ")";
     }
 
+    /**
+     * Returns the name of the analytics table column holding the materialized
+     * value of the given program indicator, or null if the program indicator
+     * is not materialized in the given analytics table, in which case the
+     * program indicator SQL must be used.
+     *
+     * @param programIndicator the {@link ProgramIndicator}.
+     * @param tableName the analytics table name.
+     */
+    private String getMaterializedColumn( ProgramIndicator programIndicator, String tableName )
+    {
+        if ( !programIndicator.isMaterialized() || tableName == null ||
+            getAnalyticsType() != programIndicator.getAnalyticsType() )
+        {
+            return null;
+        }
+
+        String sql = programIndicatorService.getMaterializedAnalyticsSql( programIndicator );
+
+        if ( sql == null )
+        {
+            return null;
+        }
+
+        String column = getMaterializedProgramIndicatorColumn( programIndicator.getUid(), sql );
+
+        Set<String> columns = TABLE_COLUMN_CACHE.get( tableName, t -> new HashSet<>( jdbcTemplate.queryForList(
+            "select column_name from information_schema.columns where table_name = ?", String.class, t ) ) )
+            .orElse( new HashSet<>() );
+
+        return columns.contains( column ) ? column : null;
+    }
+
     /**
      * Returns an SQL to select the expression or column of the item. If the item is
      * a program indicator, the program indicator expression is returned; if the item
@@ -31,9 +31,15 @@ package org.hisp.dhis.analytics.table;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
 
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
 import org.hisp.dhis.analytics.AnalyticsTableColumn;
@@ -47,7 +53,10 @@ import org.hisp.dhis.commons.util.ConcurrentUtils;
 import org.hisp.dhis.dataapproval.DataApprovalLevelService;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramIndicator;
+import org.hisp.dhis.program.ProgramIndicatorService;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.database.DatabaseInfo;
@@ -56,7 +65,11 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.hisp.dhis.commons.util.TextUtils;
 import org.springframework.scheduling.annotation.Async;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.hisp.dhis.analytics.ColumnDataType.DOUBLE;
+import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.ANALYTICS_TBL_ALIAS;
 import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.getClosingParentheses;
+import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.getMaterializedProgramIndicatorColumn;
 import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quote;
 import static org.hisp.dhis.analytics.util.AnalyticsUtils.getColumnType;
 import static org.hisp.dhis.system.util.MathUtils.NUMERIC_LENIENT_REGEXP;
@@ -67,16 +80,22 @@ import static org.hisp.dhis.system.util.MathUtils.NUMERIC_LENIENT_REGEXP;
 public abstract class AbstractEventJdbcTableManager
     extends AbstractJdbcTableManager
 {
+    protected final ProgramIndicatorService programIndicatorService;
+
     public AbstractEventJdbcTableManager( IdentifiableObjectManager idObjectManager,
         OrganisationUnitService organisationUnitService, CategoryService categoryService,
         SystemSettingManager systemSettingManager, DataApprovalLevelService dataApprovalLevelService,
         ResourceTableService resourceTableService, AnalyticsTableHookService tableHookService,
         StatementBuilder statementBuilder, PartitionManager partitionManager, DatabaseInfo databaseInfo,
-        JdbcTemplate jdbcTemplate )
+        JdbcTemplate jdbcTemplate, ProgramIndicatorService programIndicatorService )
     {
         super( idObjectManager, organisationUnitService, categoryService, systemSettingManager,
             dataApprovalLevelService, resourceTableService, tableHookService, statementBuilder, partitionManager,
             databaseInfo, jdbcTemplate );
+
+        checkNotNull( programIndicatorService );
+
+        this.programIndicatorService = programIndicatorService;
     }
 
     protected final String numericClause = " and value " + statementBuilder.getRegexpMatch() + " '" + NUMERIC_LENIENT_REGEXP + "'";
@@ -212,4 +231,80 @@ public abstract class AbstractEventJdbcTableManager
 
         return columns;
     }
+
+    /**
+     * Returns columns for the program indicators of the given program which are
+     * materialized in the analytics table. The columns are populated after the
+     * table has been populated, as the program indicator SQL refers to the
+     * analytics table columns.
+     *
+     * @param program the {@link Program}.
+     * @param analyticsType the {@link AnalyticsType} of the analytics table.
+     * @return a list of {@link AnalyticsTableColumn}.
+     */
+    protected List<AnalyticsTableColumn> addMaterializedProgramIndicators( Program program, AnalyticsType analyticsType )
+    {
+        List<AnalyticsTableColumn> columns = new ArrayList<>();
+
+        getMaterializedProgramIndicators( program, analyticsType ).forEach( ( column, sql ) -> columns.add(
+            new AnalyticsTableColumn( quote( column ), DOUBLE, "null" ).withSkipIndex( true ) ) );
+
+        return columns;
+    }
+
+    /**
+     * Populates the materialized program indicator columns of the given analytics
+     * table partition. Columns which are not part of the given list of columns
+     * are skipped.
+     *
+     * @param partition the {@link AnalyticsTablePartition}.
+     * @param columns the list of {@link AnalyticsTableColumn} of the partition.
+     * @param program the {@link Program}.
+     * @param analyticsType the {@link AnalyticsType} of the analytics table.
+     */
+    protected void populateMaterializedProgramIndicators( AnalyticsTablePartition partition,
+        List<AnalyticsTableColumn> columns, Program program, AnalyticsType analyticsType )
+    {
+        Set<String> columnNames = columns.stream().map( AnalyticsTableColumn::getName ).collect( Collectors.toSet() );
+
+        List<String> assignments = getMaterializedProgramIndicators( program, analyticsType ).entrySet().stream()
+            .filter( e -> columnNames.contains( quote( e.getKey() ) ) )
+            .map( e -> quote( e.getKey() ) + " = " + e.getValue() )
+            .collect( Collectors.toList() );
+
+        if ( assignments.isEmpty() )
+        {
+            return;
+        }
+
+        final String tableName = partition.getTempTableName();
+
+        String sql = "update " + tableName + " as " + ANALYTICS_TBL_ALIAS + " set " + StringUtils.join( assignments, ", " );
+
+        invokeTimeAndLog( sql, String.format( "Populate program indicators %s", tableName ) );
+    }
+
+    /**
+     * Returns a mapping from column name to SQL for the materialized program
+     * indicators of the given program with the given analytics type.
+     */
+    private Map<String, String> getMaterializedProgramIndicators( Program program, AnalyticsType analyticsType )
+    {
+        Map<String, String> programIndicators = new LinkedHashMap<>();
+
+        for ( ProgramIndicator programIndicator : program.getProgramIndicators() )
+        {
+            if ( programIndicator.isMaterialized() && analyticsType == programIndicator.getAnalyticsType() )
+            {
+                String sql = programIndicatorService.getMaterializedAnalyticsSql( programIndicator );
+
+                if ( sql != null )
+                {
+                    programIndicators.put( getMaterializedProgramIndicatorColumn( programIndicator.getUid(), sql ), sql );
+                }
+            }
+        }
+
+        return programIndicators;
+    }
 }
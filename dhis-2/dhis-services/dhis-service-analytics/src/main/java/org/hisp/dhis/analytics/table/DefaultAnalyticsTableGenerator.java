@@ -36,6 +36,9 @@ import static org.hisp.dhis.util.DateUtils.getLongDateString;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.hisp.dhis.analytics.AnalyticsTableGenerator;
@@ -43,7 +46,9 @@ import org.hisp.dhis.analytics.AnalyticsTableService;
 import org.hisp.dhis.analytics.AnalyticsTableType;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.commons.collection.CollectionUtils;
+import org.hisp.dhis.commons.util.ConcurrentUtils;
 import org.hisp.dhis.commons.util.DebugUtils;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.message.MessageService;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.scheduling.JobConfiguration;
@@ -54,6 +59,8 @@ import org.hisp.dhis.system.util.Clock;
 import org.hisp.dhis.util.DateUtils;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -206,19 +213,54 @@ public class DefaultAnalyticsTableGenerator
         final Date startTime = new Date();
 
         resourceTableService.dropAllSqlViews();
+
+        // Org unit structure table is generated first as other tables depend on it
+
         resourceTableService.generateOrganisationUnitStructures();
-        resourceTableService.generateDataSetOrganisationUnitCategoryTable();
-        resourceTableService.generateCategoryOptionComboNames();
-        resourceTableService.generateDataElementGroupSetTable();
-        resourceTableService.generateIndicatorGroupSetTable();
-        resourceTableService.generateOrganisationUnitGroupSetTable();
-        resourceTableService.generateCategoryTable();
-        resourceTableService.generateDataElementTable();
-        resourceTableService.generatePeriodTable();
-        resourceTableService.generateDatePeriodTable();
-        resourceTableService.generateCategoryOptionComboTable();
+
+        invokeConcurrently( Lists.newArrayList(
+            resourceTableService::generateDataSetOrganisationUnitCategoryTable,
+            resourceTableService::generateCategoryOptionComboNames,
+            resourceTableService::generateDataElementGroupSetTable,
+            resourceTableService::generateIndicatorGroupSetTable,
+            resourceTableService::generateOrganisationUnitGroupSetTable,
+            resourceTableService::generateCategoryTable,
+            resourceTableService::generateDataElementTable,
+            resourceTableService::generatePeriodTable,
+            resourceTableService::generateDatePeriodTable,
+            resourceTableService::generateCategoryOptionComboTable,
+            resourceTableService::generateDataApprovalWorkflowOrgUnitTable ) );
+
         resourceTableService.createAllSqlViews();
 
         systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_RESOURCE_TABLES_UPDATE, startTime );
     }
+
+    /**
+     * Invokes the given independent tasks concurrently and blocks until all
+     * tasks are completed. Each task runs in a separate transaction.
+     *
+     * @param tasks the tasks to invoke.
+     */
+    private void invokeConcurrently( List<Runnable> tasks )
+    {
+        final int threads = Math.max( 1, Math.min( SystemUtils.getCpuCores(), tasks.size() ) );
+
+        log.info( String.format( "Generating %d resource tables with %d threads", tasks.size(), threads ) );
+
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+
+        try
+        {
+            List<Future<?>> futures = tasks.stream()
+                .map( executor::submit )
+                .collect( Collectors.toList() );
+
+            ConcurrentUtils.waitForCompletion( futures );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
 }
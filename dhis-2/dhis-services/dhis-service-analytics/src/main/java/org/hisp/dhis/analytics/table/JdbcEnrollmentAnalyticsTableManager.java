@@ -39,6 +39,7 @@ import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.quote;
 import static org.hisp.dhis.util.DateUtils.getLongDateString;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import org.hisp.dhis.analytics.AnalyticsTable;
@@ -54,19 +55,27 @@ import org.hisp.dhis.commons.collection.UniqueArrayList;
 import org.hisp.dhis.dataapproval.DataApprovalLevelService;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramIndicatorService;
 import org.hisp.dhis.resourcetable.ResourceTableService;
+import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.database.DatabaseInfo;
+import org.hisp.dhis.util.DateUtils;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
 
 import com.google.common.collect.Lists;
 
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * @author Markus Bekken
  */
+@Slf4j
 @Service( "org.hisp.dhis.analytics.EnrollmentAnalyticsTableManager" )
 public class JdbcEnrollmentAnalyticsTableManager
     extends AbstractEventJdbcTableManager
@@ -76,11 +85,11 @@ public class JdbcEnrollmentAnalyticsTableManager
         SystemSettingManager systemSettingManager, DataApprovalLevelService dataApprovalLevelService,
         ResourceTableService resourceTableService, AnalyticsTableHookService tableHookService,
         StatementBuilder statementBuilder, PartitionManager partitionManager, DatabaseInfo databaseInfo,
-        JdbcTemplate jdbcTemplate )
+        JdbcTemplate jdbcTemplate, ProgramIndicatorService programIndicatorService )
     {
         super( idObjectManager, organisationUnitService, categoryService, systemSettingManager,
             dataApprovalLevelService, resourceTableService, tableHookService, statementBuilder, partitionManager,
-            databaseInfo, jdbcTemplate );
+            databaseInfo, jdbcTemplate, programIndicatorService );
     }
 
     private static final List<AnalyticsTableColumn> FIXED_COLS = Lists.newArrayList(
@@ -107,7 +116,7 @@ public class JdbcEnrollmentAnalyticsTableManager
     @Transactional
     public List<AnalyticsTable> getAnalyticsTables( AnalyticsTableUpdateParams params )
     {
-        return params.isLatestUpdate() ? new ArrayList<>() : getRegularAnalyticsTables( params );
+        return params.isLatestUpdate() ? getLatestAnalyticsTables( params ) : getRegularAnalyticsTables( params );
     }
 
     /**
@@ -132,6 +141,113 @@ public class JdbcEnrollmentAnalyticsTableManager
         return tables;
     }
 
+    /**
+     * Creates a list of {@link AnalyticsTable} with a partition each for the "latest" data,
+     * for programs with enrollments updated since the last analytics table update. The
+     * start date of the partition is the time of the last successful full analytics table
+     * update. The end date of the partition is the start time of this analytics table
+     * update process.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @return a list of {@link AnalyticsTableUpdateParams}.
+     */
+    private List<AnalyticsTable> getLatestAnalyticsTables( AnalyticsTableUpdateParams params )
+    {
+        Date lastFullTableUpdate = (Date) systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE );
+        Date lastLatestPartitionUpdate = (Date) systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_UPDATE );
+        Date lastAnyTableUpdate = DateUtils.getLatest( lastLatestPartitionUpdate, lastFullTableUpdate );
+
+        Assert.notNull( lastFullTableUpdate, "A full analytics table update process must be run prior to a latest partition update process" );
+
+        Date startDate = lastFullTableUpdate;
+        Date endDate = params.getStartTime();
+
+        List<AnalyticsTable> tables = new UniqueArrayList<>();
+
+        List<Program> programs = idObjectManager.getAllNoAcl( Program.class );
+
+        for ( Program program : programs )
+        {
+            if ( hasUpdatedLatestData( lastAnyTableUpdate, endDate, program ) )
+            {
+                AnalyticsTable table = new AnalyticsTable( getAnalyticsTableType(), getDimensionColumns( program ), Lists.newArrayList(), program );
+                table.addPartitionTable( AnalyticsTablePartition.LATEST_PARTITION, startDate, endDate );
+                tables.add( table );
+
+                log.info( String.format( "Added latest enrollment analytics partition for program: '%s' with start: '%s' and end: '%s'",
+                    program.getUid(), getLongDateString( startDate ), getLongDateString( endDate ) ) );
+            }
+        }
+
+        return tables;
+    }
+
+    /**
+     * Indicates whether enrollment data stored between the given start and end date and for
+     * the given program exists. Includes enrollments which were deleted and enrollments for
+     * which the tracked entity instance was updated.
+     *
+     * @param startDate the start date.
+     * @param endDate the end date.
+     * @param program the program.
+     * @return whether enrollment data exists.
+     */
+    private boolean hasUpdatedLatestData( Date startDate, Date endDate, Program program )
+    {
+        String sql =
+            "select pi.programinstanceid " +
+            "from programinstance pi " +
+            "left join trackedentityinstance tei on pi.trackedentityinstanceid=tei.trackedentityinstanceid " +
+            "where pi.programid = " + program.getId() + " " +
+            "and " + getUpdatedClause( startDate, endDate ) +
+            "limit 1";
+
+        return !jdbcTemplate.queryForList( sql ).isEmpty();
+    }
+
+    @Override
+    public void removeUpdatedData( AnalyticsTableUpdateParams params, List<AnalyticsTable> tables )
+    {
+        if ( !params.isLatestUpdate() )
+        {
+            return;
+        }
+
+        for ( AnalyticsTable table : tables )
+        {
+            AnalyticsTablePartition partition = table.getLatestPartition();
+
+            String sql =
+                "delete from " + quote( table.getTableName() ) + " ax " +
+                "where ax.pi in (" +
+                    "select pi.uid " +
+                    "from programinstance pi " +
+                    "left join trackedentityinstance tei on pi.trackedentityinstanceid=tei.trackedentityinstanceid " +
+                    "where pi.programid = " + table.getProgram().getId() + " " +
+                    "and " + getUpdatedClause( partition.getStartDate(), partition.getEndDate() ) + ")";
+
+            invokeTimeAndLog( sql, String.format( "Remove updated enrollments for table: '%s'", table.getTableName() ) );
+        }
+    }
+
+    /**
+     * Returns a SQL clause matching enrollments which were updated, or for which the
+     * tracked entity instance was updated, between the given start and end date. Expects
+     * the enrollment table to be aliased as "pi" and the tracked entity instance table
+     * to be aliased as "tei".
+     *
+     * @param startDate the start date.
+     * @param endDate the end date.
+     */
+    private String getUpdatedClause( Date startDate, Date endDate )
+    {
+        final String start = getLongDateString( startDate );
+        final String end = getLongDateString( endDate );
+
+        return "((pi.lastupdated >= '" + start + "' and pi.lastupdated < '" + end + "') " +
+            "or (tei.lastupdated >= '" + start + "' and tei.lastupdated < '" + end + "')) ";
+    }
+
     @Override
     protected List<String> getPartitionChecks( AnalyticsTablePartition partition )
     {
@@ -142,6 +258,8 @@ public class JdbcEnrollmentAnalyticsTableManager
     protected void populateTable( AnalyticsTableUpdateParams params, AnalyticsTablePartition partition )
     {
         final Program program = partition.getMasterTable().getProgram();
+        final String partitionClause = partition.isLatestPartition() ?
+            "and " + getUpdatedClause( partition.getStartDate(), partition.getEndDate() ) : "";
 
         String fromClause = "from programinstance pi " +
             "inner join program pr on pi.programid=pr.programid " +
@@ -154,10 +272,15 @@ public class JdbcEnrollmentAnalyticsTableManager
             "where pr.programid=" + program.getId() + " " +
             "and pi.organisationunitid is not null " +
             "and pi.lastupdated <= '" + getLongDateString( params.getStartTime() ) + "' " +
+            partitionClause +
             "and pi.incidentdate is not null " +
             "and pi.deleted is false ";
 
-        populateTableInternal( partition, getDimensionColumns( program ), fromClause );
+        List<AnalyticsTableColumn> columns = getDimensionColumns( program );
+
+        populateTableInternal( partition, columns, fromClause );
+
+        populateMaterializedProgramIndicators( partition, columns, program, AnalyticsType.ENROLLMENT );
     }
 
     private List<AnalyticsTableColumn> getDimensionColumns( Program program )
@@ -175,6 +298,8 @@ public class JdbcEnrollmentAnalyticsTableManager
             columns.add( new AnalyticsTableColumn( quote( "tei" ), CHARACTER_11, "tei.uid" ) );
         }
 
+        columns.addAll( addMaterializedProgramIndicators( program, AnalyticsType.ENROLLMENT ) );
+
         return filterDimensionColumns( columns );
     }
 
@@ -65,7 +65,9 @@ import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.PeriodType;
+import org.hisp.dhis.program.AnalyticsType;
 import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramIndicatorService;
 import org.hisp.dhis.resourcetable.ResourceTableService;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
@@ -97,11 +99,11 @@ public class JdbcEventAnalyticsTableManager
         SystemSettingManager systemSettingManager, DataApprovalLevelService dataApprovalLevelService,
         ResourceTableService resourceTableService, AnalyticsTableHookService tableHookService,
         StatementBuilder statementBuilder, PartitionManager partitionManager, DatabaseInfo databaseInfo,
-        JdbcTemplate jdbcTemplate )
+        JdbcTemplate jdbcTemplate, ProgramIndicatorService programIndicatorService )
     {
         super( idObjectManager, organisationUnitService, categoryService, systemSettingManager,
             dataApprovalLevelService, resourceTableService, tableHookService, statementBuilder, partitionManager,
-            databaseInfo, jdbcTemplate );
+            databaseInfo, jdbcTemplate, programIndicatorService );
     }
 
     private static final List<AnalyticsTableColumn> FIXED_COLS = Lists.newArrayList(
@@ -320,7 +322,11 @@ public class JdbcEventAnalyticsTableManager
             "and psi.executiondate is not null " +
             "and psi.deleted is false ";
 
-        populateTableInternal( partition, getDimensionColumns( program ), fromClause );
+        List<AnalyticsTableColumn> columns = getDimensionColumns( program );
+
+        populateTableInternal( partition, columns, fromClause );
+
+        populateMaterializedProgramIndicators( partition, columns, program, AnalyticsType.EVENT );
     }
 
     private List<AnalyticsTableColumn> getDimensionColumns( Program program )
@@ -372,6 +378,8 @@ public class JdbcEventAnalyticsTableManager
             columns.add( new AnalyticsTableColumn( quote( "pigeometry" ), GEOMETRY, "pi.geometry" ) );
         }
 
+        columns.addAll( addMaterializedProgramIndicators( program, AnalyticsType.EVENT ) );
+
         return filterDimensionColumns( columns );
     }
 
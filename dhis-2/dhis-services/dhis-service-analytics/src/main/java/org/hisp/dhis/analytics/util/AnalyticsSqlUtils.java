@@ -161,4 +161,18 @@ public class AnalyticsSqlUtils
 
         return StringUtils.repeat( ")", open );
     }
+
+    /**
+     * Returns the name of the analytics table column holding the materialized
+     * value of a program indicator. The name includes a hash of the SQL so that
+     * a column is not used after the program indicator expression has changed.
+     *
+     * @param uid the program indicator identifier.
+     * @param sql the materialized program indicator SQL.
+     * @return the column name.
+     */
+    public static String getMaterializedProgramIndicatorColumn( String uid, String sql )
+    {
+        return uid + "_" + Integer.toHexString( sql.hashCode() );
+    }
 }
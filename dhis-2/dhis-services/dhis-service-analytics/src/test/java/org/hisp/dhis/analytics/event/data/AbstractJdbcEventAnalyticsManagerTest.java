@@ -35,6 +35,9 @@ import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hisp.dhis.DhisConvenienceTest.*;
 import static org.hisp.dhis.analytics.AnalyticsAggregationType.fromAggregationType;
+import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.getMaterializedProgramIndicatorColumn;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -214,6 +217,28 @@ public class AbstractJdbcEventAnalyticsManagerTest
         assertThat( clause, is( "avg(select * from table)" ) );
     }
 
+    @Test
+    public void verifyGetAggregateClauseWithMaterializedProgramIndicator()
+    {
+        ProgramIndicator programIndicator = createProgramIndicator( 'A', programA, "9.0", null );
+        programIndicator.setMaterialized( true );
+
+        EventQueryParams params = new EventQueryParams.Builder( createRequestParams() )
+            .withProgramIndicator( programIndicator )
+            .withTableName( "analytics_event_materialized" )
+            .build();
+
+        String column = getMaterializedProgramIndicatorColumn( programIndicator.getUid(), "9.0" );
+
+        when( programIndicatorService.getMaterializedAnalyticsSql( programIndicator ) ).thenReturn( "9.0" );
+        when( jdbcTemplate.queryForList( anyString(), eq( String.class ), eq( "analytics_event_materialized" ) ) )
+            .thenReturn( Lists.newArrayList( "psi", column ) );
+
+        String clause = subject.getAggregateClause( params );
+
+        assertThat( clause, is( "avg(ax.\"" + column + "\")" ) );
+    }
+
     @Test
     public void verifyGetAggregateClauseWithProgramIndicatorAndCustomAggregationType()
     {
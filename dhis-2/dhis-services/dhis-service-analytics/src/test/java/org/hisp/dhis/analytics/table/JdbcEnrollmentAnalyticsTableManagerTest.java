@@ -29,6 +29,8 @@ package org.hisp.dhis.analytics.table;
  */
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hisp.dhis.DhisConvenienceTest.createProgram;
 import static org.hisp.dhis.DhisConvenienceTest.createProgramTrackedEntityAttribute;
 import static org.hisp.dhis.DhisConvenienceTest.createTrackedEntityAttribute;
@@ -36,8 +38,11 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
 import java.util.Date;
+import java.util.List;
 
+import org.hisp.dhis.analytics.AnalyticsTable;
 import org.hisp.dhis.analytics.AnalyticsTableHookService;
+import org.hisp.dhis.analytics.AnalyticsTablePartition;
 import org.hisp.dhis.analytics.AnalyticsTableUpdateParams;
 import org.hisp.dhis.analytics.partition.PartitionManager;
 import org.hisp.dhis.category.CategoryService;
@@ -47,8 +52,10 @@ import org.hisp.dhis.dataapproval.DataApprovalLevelService;
 import org.hisp.dhis.jdbc.statementbuilder.PostgreSQLStatementBuilder;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramIndicatorService;
 import org.hisp.dhis.program.ProgramTrackedEntityAttribute;
 import org.hisp.dhis.resourcetable.ResourceTableService;
+import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.database.DatabaseInfo;
 import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
@@ -62,6 +69,7 @@ import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
 /**
@@ -78,6 +86,9 @@ public class JdbcEnrollmentAnalyticsTableManagerTest
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Mock
+    private SystemSettingManager systemSettingManager;
+
     @Rule
     public MockitoRule mockitoRule = MockitoJUnit.rule();
 
@@ -89,9 +100,10 @@ public class JdbcEnrollmentAnalyticsTableManagerTest
     public void setUp()
     {
         subject = new JdbcEnrollmentAnalyticsTableManager( idObjectManager, mock( OrganisationUnitService.class ),
-            mock( CategoryService.class ), mock( SystemSettingManager.class ), mock( DataApprovalLevelService.class ),
+            mock( CategoryService.class ), systemSettingManager, mock( DataApprovalLevelService.class ),
             mock( ResourceTableService.class ), mock( AnalyticsTableHookService.class ),
-            new PostgreSQLStatementBuilder(), mock( PartitionManager.class ), databaseInfo, jdbcTemplate );
+            new PostgreSQLStatementBuilder(), mock( PartitionManager.class ), databaseInfo, jdbcTemplate,
+            mock( ProgramIndicatorService.class ) );
     }
 
     @Test
@@ -123,4 +135,43 @@ public class JdbcEnrollmentAnalyticsTableManagerTest
 
         assertThat( sql.getValue(), containsString( String.format( ouQuery, "uid") ) );
     }
+
+    @Test
+    public void verifyLatestPartitionIsPopulatedWithUpdatedEnrollments()
+    {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass( String.class );
+        Program p1 = createProgram( 'A' );
+
+        Date lastFullTableUpdate = new DateTime( 2019, 7, 31, 2, 0 ).toDate();
+
+        when( systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE ) )
+            .thenReturn( lastFullTableUpdate );
+        when( jdbcTemplate.queryForList( anyString() ) ).thenReturn( Lists.newArrayList( ImmutableMap.of( "programinstanceid", 1 ) ) );
+        when( idObjectManager.getAllNoAcl( Program.class ) ).thenReturn( Lists.newArrayList( p1 ) );
+
+        AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder().withStartTime( START_TIME )
+            .withLatestPartition().build();
+
+        List<AnalyticsTable> tables = subject.getAnalyticsTables( params );
+
+        assertThat( tables, hasSize( 1 ) );
+
+        AnalyticsTablePartition partition = tables.get( 0 ).getLatestPartition();
+
+        assertThat( partition.getStartDate(), is( lastFullTableUpdate ) );
+        assertThat( partition.getEndDate(), is( START_TIME ) );
+
+        subject.populateTable( params, partition );
+        subject.removeUpdatedData( params, tables );
+
+        verify( jdbcTemplate, times( 2 ) ).execute( sql.capture() );
+
+        String updatedClause = "((pi.lastupdated >= '2019-07-31T02:00:00' and pi.lastupdated < '2019-08-01T00:00:00') " +
+            "or (tei.lastupdated >= '2019-07-31T02:00:00' and tei.lastupdated < '2019-08-01T00:00:00'))";
+
+        assertThat( sql.getAllValues().get( 0 ), containsString( "insert into " + partition.getTempTableName() ) );
+        assertThat( sql.getAllValues().get( 0 ), containsString( updatedClause ) );
+        assertThat( sql.getAllValues().get( 1 ), containsString( "delete from \"" + tables.get( 0 ).getTableName() + "\" ax" ) );
+        assertThat( sql.getAllValues().get( 1 ), containsString( updatedClause ) );
+    }
 }
@@ -32,6 +32,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.hisp.dhis.DhisConvenienceTest.*;
 import static org.hisp.dhis.analytics.ColumnDataType.*;
+import static org.hisp.dhis.analytics.util.AnalyticsSqlUtils.getMaterializedProgramIndicatorColumn;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.Mockito.*;
 
@@ -61,6 +62,8 @@ import org.hisp.dhis.organisationunit.OrganisationUnitLevel;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramIndicator;
+import org.hisp.dhis.program.ProgramIndicatorService;
 import org.hisp.dhis.program.ProgramStage;
 import org.hisp.dhis.program.ProgramTrackedEntityAttribute;
 import org.hisp.dhis.random.BeanRandomizer;
@@ -109,6 +112,9 @@ public class JdbcEventAnalyticsTableManagerTest
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Mock
+    private ProgramIndicatorService programIndicatorService;
+
     @Rule
     public MockitoRule mockitoRule = MockitoJUnit.rule();
 
@@ -139,7 +145,7 @@ public class JdbcEventAnalyticsTableManagerTest
         subject = new JdbcEventAnalyticsTableManager( idObjectManager, organisationUnitService, categoryService,
             systemSettingManager, mock( DataApprovalLevelService.class ), mock( ResourceTableService.class ),
             mock( AnalyticsTableHookService.class ), statementBuilder, mock( PartitionManager.class ), databaseInfo,
-            jdbcTemplate );
+            jdbcTemplate, programIndicatorService );
     }
 
     @Test
@@ -419,6 +425,43 @@ public class JdbcEventAnalyticsTableManagerTest
         assertThat( sql.getValue(), containsString( String.format( ouQuery, "name") ) );
     }
 
+    @Test
+    public void verifyMaterializedProgramIndicatorIsPopulatedAfterEventAnalyticsTable()
+    {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass( String.class );
+        Program programA = createProgram( 'A' );
+
+        ProgramIndicator piA = createProgramIndicator( 'A', programA, "#{uid1.deabcdefghA}", null );
+        piA.setMaterialized( true );
+        ProgramIndicator piB = createProgramIndicator( 'B', programA, "#{uid1.deabcdefghB}", null );
+
+        programA.setProgramIndicators( Sets.newHashSet( piA, piB ) );
+
+        String piSql = "coalesce(\"deabcdefghA\"::numeric,0)";
+
+        when( programIndicatorService.getMaterializedAnalyticsSql( piA ) ).thenReturn( piSql );
+        when( idObjectManager.getAllNoAcl( Program.class ) ).thenReturn( Lists.newArrayList( programA ) );
+
+        AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder().withLastYears( 2 )
+            .withStartTime( START_TIME ).withToday( today ).build();
+
+        when( jdbcTemplate.queryForList(
+            getYearQueryForCurrentYear( programA, true ),
+            Integer.class ) ).thenReturn( Lists.newArrayList( 2018, 2019 ) );
+
+        subject.populateTable( params,
+            PartitionUtils.getTablePartitions( subject.getAnalyticsTables( params ) ).get( 0 ) );
+
+        verify( jdbcTemplate, times( 2 ) ).execute( sql.capture() );
+
+        String column = quote( getMaterializedProgramIndicatorColumn( piA.getUid(), piSql ) );
+
+        assertThat( sql.getAllValues().get( 0 ), containsString( column ) );
+        assertThat( sql.getAllValues().get( 1 ), startsWith( "update " ) );
+        assertThat( sql.getAllValues().get( 1 ), containsString( " as ax set " + column + " = " + piSql ) );
+        verify( programIndicatorService, never() ).getMaterializedAnalyticsSql( piB );
+    }
+
     @Test
     public void verifyGetAnalyticsTableWithOuLevels()
     {
@@ -995,6 +995,13 @@ public class DefaultIdentifiableObjectManager
         sessionFactory.getCurrentSession().evict( object );
     }
 
+    @Override
+    @Transactional
+    public void clear()
+    {
+        sessionFactory.getCurrentSession().clear();
+    }
+
     @Override
     @Transactional( readOnly = true )
     @SuppressWarnings( "unchecked" )
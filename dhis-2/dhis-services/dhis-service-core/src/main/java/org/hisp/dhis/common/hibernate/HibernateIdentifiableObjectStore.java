@@ -1033,18 +1033,7 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
         disjunction.add( Restrictions.like( "c.publicAccess", access ) );
         disjunction.add( Restrictions.isNull( "c.publicAccess" ) );
 
-        DetachedCriteria userGroupDetachedCriteria = DetachedCriteria.forClass( getClazz(), "ugdc" );
-        userGroupDetachedCriteria.createCriteria( "ugdc.userGroupAccesses", "uga" );
-        userGroupDetachedCriteria.createCriteria( "uga.userGroup", "ug" );
-        userGroupDetachedCriteria.createCriteria( "ug.members", "ugm" );
-
-        userGroupDetachedCriteria.add( Restrictions.eqProperty( "ugdc.id", "c.id" ) );
-        userGroupDetachedCriteria.add( Restrictions.eq( "ugm.id", user.getId() ) );
-        userGroupDetachedCriteria.add( Restrictions.like( "uga.access", access ) );
-
-        userGroupDetachedCriteria.setProjection( Property.forName( "uga.id" ) );
-
-        disjunction.add( Subqueries.exists( userGroupDetachedCriteria ) );
+        addUserGroupRestriction( disjunction, user, access );
 
         DetachedCriteria userDetachedCriteria = DetachedCriteria.forClass( getClazz(), "udc" );
         userDetachedCriteria.createCriteria( "udc.userAccesses", "ua" );
@@ -1091,18 +1080,7 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
         disjunction.add( Restrictions.isNull( "c.user.id" ) );
         disjunction.add( Restrictions.eq( "c.user.id", user.getId() ) );
 
-        DetachedCriteria userGroupDetachedCriteria = DetachedCriteria.forClass( getClazz(), "ugdc" );
-        userGroupDetachedCriteria.createCriteria( "ugdc.userGroupAccesses", "uga" );
-        userGroupDetachedCriteria.createCriteria( "uga.userGroup", "ug" );
-        userGroupDetachedCriteria.createCriteria( "ug.members", "ugm" );
-
-        userGroupDetachedCriteria.add( Restrictions.eqProperty( "ugdc.id", "c.id" ) );
-        userGroupDetachedCriteria.add( Restrictions.eq( "ugm.id", user.getId() ) );
-        userGroupDetachedCriteria.add( Restrictions.like( "uga.access", access ) );
-
-        userGroupDetachedCriteria.setProjection( Property.forName( "uga.id" ) );
-
-        disjunction.add( Subqueries.exists( userGroupDetachedCriteria ) );
+        addUserGroupRestriction( disjunction, user, access );
 
         DetachedCriteria userDetachedCriteria = DetachedCriteria.forClass( getClazz(), "udc" );
         userDetachedCriteria.createCriteria( "udc.userAccesses", "ua" );
@@ -1121,6 +1099,48 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
         return criteria;
     }
 
+    /**
+     * Adds a restriction on user group access to the given disjunction. If the
+     * user groups of the user are resolved, the user group access is matched
+     * on user group identifier directly, which avoids joining the user group
+     * members table for every row. If the user is not a member of any user
+     * group, no restriction is added.
+     *
+     * @param disjunction the disjunction.
+     * @param user the user.
+     * @param access the access string.
+     */
+    private void addUserGroupRestriction( Disjunction disjunction, UserInfo user, String access )
+    {
+        Set<Long> userGroupIds = user.getUserGroupIds();
+
+        if ( userGroupIds != null && userGroupIds.isEmpty() )
+        {
+            return;
+        }
+
+        DetachedCriteria userGroupDetachedCriteria = DetachedCriteria.forClass( getClazz(), "ugdc" );
+        userGroupDetachedCriteria.createCriteria( "ugdc.userGroupAccesses", "uga" );
+
+        if ( userGroupIds != null )
+        {
+            userGroupDetachedCriteria.add( Restrictions.in( "uga.userGroup.id", userGroupIds ) );
+        }
+        else
+        {
+            userGroupDetachedCriteria.createCriteria( "uga.userGroup", "ug" );
+            userGroupDetachedCriteria.createCriteria( "ug.members", "ugm" );
+            userGroupDetachedCriteria.add( Restrictions.eq( "ugm.id", user.getId() ) );
+        }
+
+        userGroupDetachedCriteria.add( Restrictions.eqProperty( "ugdc.id", "c.id" ) );
+        userGroupDetachedCriteria.add( Restrictions.like( "uga.access", access ) );
+
+        userGroupDetachedCriteria.setProjection( Property.forName( "uga.id" ) );
+
+        disjunction.add( Subqueries.exists( userGroupDetachedCriteria ) );
+    }
+
     // ----------------------------------------------------------------------
     // JPA support methods
     // ----------------------------------------------------------------------
@@ -1230,7 +1250,7 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
             return userGroupSubQuery.where(
                 builder.and(
                     builder.equal( root.get( "id" ), ugdc.get( "id" ) ),
-                    builder.equal( uga.join( "userGroup" ).join( "members" ).get( "id" ), user.getId() ),
+                    getUserGroupMembershipPredicate( builder, uga, user ),
                     builder.like( uga.get( "access" ), access ) ) );
         });
 
@@ -1252,12 +1272,44 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
             builder.isNull( root.get( "publicAccess" ) ),
             builder.isNull( root.get( "user" ) ),
             builder.equal( root.get( "user" ).get( "id" ), user.getId() ),
-            builder.exists( userGroupPredicate.apply( root ) ),
+            hasUserGroups( user ) ? builder.exists( userGroupPredicate.apply( root ) ) : builder.disjunction(),
             builder.exists( userPredicate.apply( root ) ) ) );
 
         return predicates;
     }
 
+    /**
+     * Returns a predicate matching user group accesses for user groups which the
+     * given user is a member of. Uses the resolved user group identifiers of
+     * the user when available, and otherwise joins the user group members.
+     *
+     * @param builder the criteria builder.
+     * @param uga the user group access join.
+     * @param user the user.
+     * @return a predicate.
+     */
+    private Predicate getUserGroupMembershipPredicate( CriteriaBuilder builder, Join<T, UserGroupAccess> uga, UserInfo user )
+    {
+        if ( user.getUserGroupIds() != null )
+        {
+            return uga.get( "userGroup" ).get( "id" ).in( user.getUserGroupIds() );
+        }
+
+        return builder.equal( uga.join( "userGroup" ).join( "members" ).get( "id" ), user.getId() );
+    }
+
+    /**
+     * Indicates whether the given user may be a member of any user groups.
+     * Returns true if the user groups of the user are not resolved.
+     *
+     * @param user the user.
+     * @return true or false.
+     */
+    private boolean hasUserGroups( UserInfo user )
+    {
+        return user.getUserGroupIds() == null || !user.getUserGroupIds().isEmpty();
+    }
+
     @Override
     public List<Function<Root<T>, Predicate>> getDataSharingPredicates( CriteriaBuilder builder, UserInfo user, String access )
     {
@@ -1281,7 +1333,7 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
             return userGroupSubQuery.where(
                 builder.and(
                     builder.equal( root.get( "id" ), ugdc.get( "id" ) ),
-                    builder.equal( uga.join( "userGroup" ).join( "members" ).get( "id" ), user.getId() ),
+                    getUserGroupMembershipPredicate( builder, uga, user ),
                     builder.like( uga.get( "access" ), access ) ) );
         });
 
@@ -1301,7 +1353,7 @@ public class HibernateIdentifiableObjectStore<T extends BaseIdentifiableObject>
         predicates.add( root -> builder.or(
             builder.like( root.get( "publicAccess" ), access ),
             builder.isNull( root.get( "publicAccess" ) ),
-            builder.exists( userGroupPredicate.apply( root ) ),
+            hasUserGroups( user ) ? builder.exists( userGroupPredicate.apply( root ) ) : builder.disjunction(),
             builder.exists( userPredicate.apply( root ) ) ) );
 
         return predicates;
@@ -0,0 +1,286 @@
+package org.hisp.dhis.dataapproval.hibernate;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hisp.dhis.dataapproval.DataApprovalStore;
+import org.hisp.dhis.dataapproval.DataApprovalWorkflow;
+import org.hisp.dhis.dataset.DataSet;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Regenerates the data approval workflow org unit table after a transaction
+ * which changed the org unit hierarchy, the data set sources or the data set
+ * workflows has committed. The table is regenerated once per transaction, in
+ * a separate transaction.
+ */
+@Slf4j
+@Component
+public class DataApprovalWorkflowOrgUnitListener
+    implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+    PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener
+{
+    private static final String DATA_SET_SOURCES_ROLE = DataSet.class.getName() + ".sources";
+
+    private static final String[] ORG_UNIT_HIERARCHY_PROPERTIES = { "parent", "path" };
+
+    private static final String[] DATA_SET_WORKFLOW_PROPERTIES = { "workflow" };
+
+    @PersistenceUnit
+    private EntityManagerFactory emf;
+
+    /**
+     * Sessions with a pending regeneration, used when no Spring transaction
+     * synchronization is active.
+     */
+    private final Set<Object> pendingSessions = ConcurrentHashMap.newKeySet();
+
+    private final DataApprovalStore dataApprovalStore;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public DataApprovalWorkflowOrgUnitListener( DataApprovalStore dataApprovalStore,
+        PlatformTransactionManager transactionManager )
+    {
+        checkNotNull( dataApprovalStore );
+        checkNotNull( transactionManager );
+
+        this.dataApprovalStore = dataApprovalStore;
+        this.transactionTemplate = new TransactionTemplate( transactionManager );
+        this.transactionTemplate.setPropagationBehavior( TransactionDefinition.PROPAGATION_REQUIRES_NEW );
+    }
+
+    @PostConstruct
+    protected void init()
+    {
+        SessionFactoryImpl sessionFactory = emf.unwrap( SessionFactoryImpl.class );
+
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService( EventListenerRegistry.class );
+
+        registry.getEventListenerGroup( EventType.POST_INSERT ).appendListener( this );
+        registry.getEventListenerGroup( EventType.POST_UPDATE ).appendListener( this );
+        registry.getEventListenerGroup( EventType.POST_DELETE ).appendListener( this );
+        registry.getEventListenerGroup( EventType.POST_COLLECTION_RECREATE ).appendListener( this );
+        registry.getEventListenerGroup( EventType.POST_COLLECTION_UPDATE ).appendListener( this );
+        registry.getEventListenerGroup( EventType.POST_COLLECTION_REMOVE ).appendListener( this );
+    }
+
+    // -------------------------------------------------------------------------
+    // Entity events
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void onPostInsert( PostInsertEvent event )
+    {
+        if ( event.getEntity() instanceof DataSet && ((DataSet) event.getEntity()).getWorkflow() != null )
+        {
+            scheduleGenerate( event.getSession() );
+        }
+    }
+
+    @Override
+    public void onPostUpdate( PostUpdateEvent event )
+    {
+        if ( (event.getEntity() instanceof OrganisationUnit && isDirty( event, ORG_UNIT_HIERARCHY_PROPERTIES ))
+            || (event.getEntity() instanceof DataSet && isDirty( event, DATA_SET_WORKFLOW_PROPERTIES )) )
+        {
+            scheduleGenerate( event.getSession() );
+        }
+    }
+
+    @Override
+    public void onPostDelete( PostDeleteEvent event )
+    {
+        if ( event.getEntity() instanceof OrganisationUnit || event.getEntity() instanceof DataSet
+            || event.getEntity() instanceof DataApprovalWorkflow )
+        {
+            scheduleGenerate( event.getSession() );
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding( EntityPersister persister )
+    {
+        return false;
+    }
+
+    // -------------------------------------------------------------------------
+    // Collection events
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void onPostRecreateCollection( PostCollectionRecreateEvent event )
+    {
+        onDataSetSourcesChange( event );
+    }
+
+    @Override
+    public void onPostUpdateCollection( PostCollectionUpdateEvent event )
+    {
+        onDataSetSourcesChange( event );
+    }
+
+    @Override
+    public void onPostRemoveCollection( PostCollectionRemoveEvent event )
+    {
+        onDataSetSourcesChange( event );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void onDataSetSourcesChange( AbstractCollectionEvent event )
+    {
+        if ( DATA_SET_SOURCES_ROLE.equals( event.getCollection().getRole() ) )
+        {
+            scheduleGenerate( event.getSession() );
+        }
+    }
+
+    /**
+     * Indicates whether any of the given properties are dirty. Dirty
+     * properties are not known when a detached object is updated without
+     * being selected first, in which case the update is considered relevant.
+     */
+    private boolean isDirty( PostUpdateEvent event, String[] properties )
+    {
+        int[] dirtyProperties = event.getDirtyProperties();
+
+        if ( dirtyProperties == null )
+        {
+            return true;
+        }
+
+        String[] propertyNames = event.getPersister().getPropertyNames();
+
+        for ( int index : dirtyProperties )
+        {
+            if ( ArrayUtils.contains( properties, propertyNames[index] ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Schedules regeneration of the workflow org unit table after the current
+     * transaction commits, once per transaction.
+     */
+    private void scheduleGenerate( EventSource session )
+    {
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            if ( TransactionSynchronizationManager.hasResource( this ) )
+            {
+                return;
+            }
+
+            TransactionSynchronizationManager.bindResource( this, Boolean.TRUE );
+
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    generate();
+                }
+
+                @Override
+                public void afterCompletion( int status )
+                {
+                    TransactionSynchronizationManager.unbindResourceIfPossible( DataApprovalWorkflowOrgUnitListener.this );
+                }
+            } );
+        }
+        else if ( pendingSessions.add( session ) )
+        {
+            session.getActionQueue().registerProcess( ( success, completedSession ) -> {
+                pendingSessions.remove( session );
+
+                if ( success )
+                {
+                    generate();
+                }
+            } );
+        }
+    }
+
+    private void generate()
+    {
+        try
+        {
+            transactionTemplate.execute( status -> {
+                dataApprovalStore.generateWorkflowOrgUnits();
+                return null;
+            } );
+        }
+        catch ( Exception ex )
+        {
+            log.error( "Failed to generate data approval workflow org units", ex );
+        }
+    }
+}
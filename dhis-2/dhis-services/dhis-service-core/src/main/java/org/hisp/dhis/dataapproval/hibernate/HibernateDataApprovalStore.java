@@ -81,6 +81,14 @@ public class HibernateDataApprovalStore
     private static final String SQL_CONCAT = "-";
     private static final String SQL_CAT = StatementBuilder.QUOTE + SQL_CONCAT + StatementBuilder.QUOTE;
 
+    private static final String WORKFLOW_ORG_UNIT_TABLE = "dataapprovalworkfloworgunit";
+
+    /**
+     * Key of the transaction level advisory lock which serializes regeneration
+     * of the workflow org unit table across transactions and nodes.
+     */
+    private static final long WORKFLOW_ORG_UNIT_LOCK_KEY = WORKFLOW_ORG_UNIT_TABLE.hashCode();
+
     private Cache<Boolean> IS_APPROVED_CACHE;
 
     // -------------------------------------------------------------------------
@@ -144,6 +152,11 @@ public class HibernateDataApprovalStore
             .forRegion( "isDataApproved" )
             .expireAfterAccess( 12, TimeUnit.HOURS )
             .withMaximumSize( SystemUtils.isTestRun(env.getActiveProfiles()) ? 0 : 20000 ).build();
+
+        if ( SystemUtils.isTestRun( env.getActiveProfiles() ) )
+        {
+            createWorkflowOrgUnitTable();
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -458,14 +471,9 @@ public class HibernateDataApprovalStore
                     "where " + statementBuilder.position( "o.uid", "dao.path" ) + " = " + pathPositionAtLevel( orgUnitLevel ) + " " +
                     "and dao.hierarchylevel = " + approvalLevelBelowOrgUnit.getOrgUnitLevel() + " " +
                     "and exists ( " + // Data for this workflow is collected somewhere at or below DAO
-                        "select 1 from organisationunit child " +
-                        "where " + statementBuilder.position( "dao.uid", "child.path" ) + " <> 0 " +
-                        "and child.organisationunitid in ( " +
-                            "select distinct sourceid " +
-                            "from datasetsource dss " +
-                            "join dataset ds on ds.datasetid = dss.datasetid " +
-                            "where ds.workflowid = " + workflow.getId() +
-                        ") " +
+                        "select 1 from " + WORKFLOW_ORG_UNIT_TABLE + " dawo " +
+                        "where dawo.workflowid = " + workflow.getId() + " " +
+                        "and dawo.organisationunitid = dao.organisationunitid " +
                     ") " +
                     ( isDefaultCombo ? "" : // Default combo options never have an organisation unit mapping.
                         "and not exists (" + // No AOCs without all attribute options valid for org unit.
@@ -552,12 +560,9 @@ public class HibernateDataApprovalStore
             ( attributeOptionCombos == null || attributeOptionCombos.isEmpty() ? "" : "and coc.categoryoptioncomboid in (" +
                 StringUtils.join( IdentifiableObjectUtils.getIdentifiers( attributeOptionCombos ), "," ) + ") " ) + // Filter AOCs if specified.
             "and exists ( " + // Include orgUnits, and their ancestors, that are mapped to a dataset of the workflow.
-                "select 1 from organisationunit o3 " +
-                "where o3.path like o.path || '%' and o3.organisationunitid in ( " +
-                    "select distinct sourceid " +
-                    "from datasetsource dss " +
-                    "join dataset ds on ds.datasetid = dss.datasetid " +
-                    "where ds.workflowid = " + workflow.getId() + ") " +
+                "select 1 from " + WORKFLOW_ORG_UNIT_TABLE + " dawo " +
+                "where dawo.workflowid = " + workflow.getId() + " " +
+                "and dawo.organisationunitid = o.organisationunitid " +
             ")";
 
         log.debug( "User " + user.getUsername() + " superuser " + isSuperUser
@@ -621,6 +626,65 @@ public class HibernateDataApprovalStore
         return statusList;
     }
 
+    @Override
+    public void generateWorkflowOrgUnits()
+    {
+        // Concurrent regenerations would each delete and insert all rows and
+        // leave duplicates, so they wait for each other until commit
+
+        if ( !SystemUtils.isTestRun( env.getActiveProfiles() ) )
+        {
+            jdbcTemplate.execute( "select pg_advisory_xact_lock(" + WORKFLOW_ORG_UNIT_LOCK_KEY + ")" );
+        }
+
+        jdbcTemplate.update( "delete from " + WORKFLOW_ORG_UNIT_TABLE );
+
+        Integer maxLevel = jdbcTemplate.queryForObject( "select max(hierarchylevel) from organisationunit", Integer.class );
+
+        if ( maxLevel == null )
+        {
+            return;
+        }
+
+        // Ancestors are looked up by the UID at each level of the path of the
+        // data set source, using the unique index on UID
+
+        List<String> levelQueries = new ArrayList<>();
+
+        for ( int level = 1; level <= maxLevel; level++ )
+        {
+            levelQueries.add(
+                "select ds.workflowid, o.organisationunitid " +
+                "from datasetsource dss " +
+                "join dataset ds on ds.datasetid = dss.datasetid " +
+                "join organisationunit child on child.organisationunitid = dss.sourceid " +
+                "join organisationunit o on o.uid = substring(child.path, " + pathPositionAtLevel( level ) + ", 11) " +
+                "where ds.workflowid is not null " +
+                "and child.hierarchylevel >= " + level );
+        }
+
+        final String sql =
+            "insert into " + WORKFLOW_ORG_UNIT_TABLE + " (workflowid, organisationunitid) " +
+            StringUtils.join( levelQueries, " union " );
+
+        int rows = jdbcTemplate.update( sql );
+
+        log.debug( "Generated " + rows + " data approval workflow org units" );
+    }
+
+    /**
+     * Creates the workflow org unit table for test runs, where the schema is
+     * generated by Hibernate and database migrations are not run.
+     */
+    private void createWorkflowOrgUnitTable()
+    {
+        jdbcTemplate.execute( "create table if not exists " + WORKFLOW_ORG_UNIT_TABLE + " (" +
+            "workflowid bigint not null, organisationunitid bigint not null)" );
+
+        jdbcTemplate.execute( "create index if not exists in_" + WORKFLOW_ORG_UNIT_TABLE + " on " +
+            WORKFLOW_ORG_UNIT_TABLE + "(workflowid, organisationunitid)" );
+    }
+
     /**
      * Get the id for the workflow period that spans the given end date.
      * The workflow period may or may not be the same as the period for which
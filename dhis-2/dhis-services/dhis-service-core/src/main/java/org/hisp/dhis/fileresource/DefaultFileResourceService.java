@@ -30,7 +30,9 @@ package org.hisp.dhis.fileresource;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -41,6 +43,8 @@ import java.util.NoSuchElementException;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.hibernate.SessionFactory;
 import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.feedback.ErrorCode;
@@ -55,9 +59,12 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * @author Halvdan Hoem Grelland
  */
+@Slf4j
 @Service( "org.hisp.dhis.fileresource.FileResourceService" )
 public class DefaultFileResourceService
     implements FileResourceService
@@ -132,6 +139,13 @@ public class DefaultFileResourceService
     {
         validateFileResource( fileResource );
 
+        if ( reuseStoredContent( fileResource, () -> new FileInputStream( file ) ) )
+        {
+            fileResourceStore.save( fileResource );
+            FileUtils.deleteQuietly( file );
+            return;
+        }
+
         fileResource.setStorageStatus( FileResourceStorageStatus.PENDING );
         fileResourceStore.save( fileResource );
         sessionFactory.getCurrentSession().flush();
@@ -152,6 +166,12 @@ public class DefaultFileResourceService
     @Transactional
     public String saveFileResource( FileResource fileResource, byte[] bytes )
     {
+        if ( reuseStoredContent( fileResource, () -> new ByteArrayInputStream( bytes ) ) )
+        {
+            fileResourceStore.save( fileResource );
+            return fileResource.getUid();
+        }
+
         fileResource.setStorageStatus( FileResourceStorageStatus.PENDING );
         fileResourceStore.save( fileResource );
         sessionFactory.getCurrentSession().flush();
@@ -216,6 +236,21 @@ public class DefaultFileResourceService
         fileResourceContentStore.copyContent( fileResource.getStorageKey(), outputStream );
     }
 
+    @Override
+    @Transactional( readOnly = true )
+    public void copyFileResourceContent( FileResource fileResource, OutputStream outputStream, long start, long length )
+        throws IOException, NoSuchElementException
+    {
+        fileResourceContentStore.copyContent( fileResource.getStorageKey(), outputStream, start, length );
+    }
+
+    @Override
+    @Transactional( readOnly = true )
+    public boolean isStorageKeyReferenced( String storageKey )
+    {
+        return fileResourceStore.getCountByStorageKey( storageKey ) > 0;
+    }
+
     @Override
     @Transactional
     public boolean fileResourceExists( String uid )
@@ -295,6 +330,70 @@ public class DefaultFileResourceService
         }
     }
 
+    /**
+     * Points the given file resource to the stored content of an existing
+     * file resource with identical content, so that identical uploads are
+     * stored once. Candidates are found by MD5 and compared byte by byte
+     * with the uploaded content. The candidate row is locked until the
+     * transaction completes, so that stored content is not deleted while
+     * being reused, see {@link FileResourceEventListener#deleteFile}.
+     *
+     * @param fileResource the file resource.
+     * @param content the uploaded content.
+     * @return true if stored content was reused, false if not.
+     */
+    private boolean reuseStoredContent( FileResource fileResource, ContentSource content )
+    {
+        if ( fileResource.getContentMd5() == null || fileResource.getDomain() == null )
+        {
+            return false;
+        }
+
+        List<FileResource> candidates = fileResourceStore.getByContent( fileResource.getContentMd5(),
+            fileResource.getContentLength(), fileResource.getContentType(), fileResource.getDomain() );
+
+        for ( FileResource candidate : candidates )
+        {
+            if ( isContentEqual( candidate.getStorageKey(), content ) )
+            {
+                fileResource.setStorageKey( candidate.getStorageKey() );
+                fileResource.setHasMultipleStorageFiles( candidate.isHasMultipleStorageFiles() );
+                fileResource.setStorageStatus( FileResourceStorageStatus.STORED );
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isContentEqual( String storageKey, ContentSource content )
+    {
+        try ( InputStream stored = fileResourceContentStore.getFileResourceContent( storageKey ) )
+        {
+            if ( stored == null )
+            {
+                return false;
+            }
+
+            try ( InputStream uploaded = content.open() )
+            {
+                return IOUtils.contentEquals( stored, uploaded );
+            }
+        }
+        catch ( IOException ex )
+        {
+            log.warn( String.format( "Could not compare content with stored content for key: %s", storageKey ), ex );
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ContentSource
+    {
+        InputStream open()
+            throws IOException;
+    }
+
     private FileResource checkStorageStatus( FileResource fileResource )
     {
         if ( fileResource != null )
@@ -125,6 +125,15 @@ public class FileResourceEventListener
     @Async
     public void deleteFile( FileDeletedEvent deleteFileEvent )
     {
+        // Uploads reusing the content lock the referencing rows, so once no
+        // row references the key, the content can no longer be reused
+
+        if ( fileResourceService.isStorageKeyReferenced( deleteFileEvent.getStorageKey() ) )
+        {
+            log.debug( String.format( "Content for key: %s is shared with other file resources", deleteFileEvent.getStorageKey() ) );
+            return;
+        }
+
         if ( !fileResourceContentStore.fileResourceContentExists( deleteFileEvent.getStorageKey() ) )
         {
             log.error( String.format( "No file exist for key: %s", deleteFileEvent.getStorageKey() ) );
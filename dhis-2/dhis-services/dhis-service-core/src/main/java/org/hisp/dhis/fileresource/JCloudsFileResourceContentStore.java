@@ -31,11 +31,17 @@ package org.hisp.dhis.fileresource;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.regex.Pattern;
 
@@ -52,6 +58,7 @@ import org.jclouds.ContextBuilder;
 import org.jclouds.blobstore.*;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.internal.RequestSigningUnsupported;
+import org.jclouds.blobstore.options.GetOptions;
 import org.jclouds.domain.Credentials;
 import org.jclouds.domain.Location;
 import org.jclouds.domain.LocationBuilder;
@@ -369,6 +376,14 @@ public class JCloudsFileResourceContentStore
     public void copyContent( String key, OutputStream output )
         throws IOException, NoSuchElementException
     {
+        File file = getLocalFile( key );
+
+        if ( file != null )
+        {
+            transferFile( file, output, 0, file.length() );
+            return;
+        }
+
         if ( !blobExists( key ) )
         {
             throw new NoSuchElementException( "key '" + key + "' not found." );
@@ -382,6 +397,31 @@ public class JCloudsFileResourceContentStore
         }
     }
 
+    @Override
+    public void copyContent( String key, OutputStream output, long start, long length )
+        throws IOException, NoSuchElementException
+    {
+        File file = getLocalFile( key );
+
+        if ( file != null )
+        {
+            transferFile( file, output, start, length );
+            return;
+        }
+
+        if ( !blobExists( key ) )
+        {
+            throw new NoSuchElementException( "key '" + key + "' not found." );
+        }
+
+        Blob blob = blobStore.getBlob( config.container, key, GetOptions.Builder.range( start, start + length - 1 ) );
+
+        try ( InputStream in = blob.getPayload().openStream() )
+        {
+            IOUtils.copyLarge( in, output, 0, length );
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Supportive methods
     // -------------------------------------------------------------------------
@@ -396,6 +436,47 @@ public class JCloudsFileResourceContentStore
         return key != null && blobStore.blobExists( config.container, key );
     }
 
+    /**
+     * Returns the file holding the content of the given key when using the
+     * file system provider, or null if not available. The file system
+     * provider stores blobs as files named by key within the container
+     * directory.
+     */
+    private File getLocalFile( String key )
+    {
+        if ( key == null || !JCLOUDS_PROVIDER_KEY_FILESYSTEM.equals( config.provider ) )
+        {
+            return null;
+        }
+
+        File file = Paths.get( locationManager.getExternalDirectoryPath(), config.container, key ).toFile();
+
+        return file.isFile() ? file : null;
+    }
+
+    /**
+     * Transfers a range of the given file to the output stream through the
+     * file channel, which avoids copying the content through the heap where
+     * the target allows it.
+     */
+    private void transferFile( File file, OutputStream output, long start, long length )
+        throws IOException
+    {
+        WritableByteChannel target = output instanceof FileOutputStream ?
+            ((FileOutputStream) output).getChannel() : Channels.newChannel( output );
+
+        try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.READ ) )
+        {
+            long position = start;
+            long end = Math.min( start + length, channel.size() );
+
+            while ( position < end )
+            {
+                position += channel.transferTo( position, end - position, target );
+            }
+        }
+    }
+
     private void deleteBlob( String key )
     {
         blobStore.removeBlob( config.container, key );
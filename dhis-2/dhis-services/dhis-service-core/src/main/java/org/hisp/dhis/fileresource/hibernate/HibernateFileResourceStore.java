@@ -31,7 +31,10 @@ package org.hisp.dhis.fileresource.hibernate;
 import java.util.List;
 import java.util.Set;
 
+import javax.persistence.LockModeType;
+
 import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
 import org.hisp.dhis.common.hibernate.HibernateIdentifiableObjectStore;
 import org.hisp.dhis.fileresource.FileResource;
 import org.hisp.dhis.fileresource.FileResourceDomain;
@@ -91,4 +94,24 @@ public class HibernateFileResourceStore
             .setParameter( "hasMultipleStorageFiles", false )
             .setMaxResults( 50 ).getResultList();
     }
+
+    @Override
+    public List<FileResource> getByContent( String contentMd5, long contentLength, String contentType, FileResourceDomain domain )
+    {
+        return getQuery( "FROM FileResource fr WHERE fr.contentMd5 = :contentMd5 AND fr.contentLength = :contentLength AND fr.contentType = :contentType AND fr.domain = :domain ORDER BY fr.created" )
+            .setParameter( "contentMd5", contentMd5 )
+            .setParameter( "contentLength", contentLength )
+            .setParameter( "contentType", contentType )
+            .setParameter( "domain", domain )
+            .setLockMode( LockModeType.PESSIMISTIC_WRITE )
+            .setMaxResults( 10 ).getResultList();
+    }
+
+    @Override
+    public long getCountByStorageKey( String storageKey )
+    {
+        Query<Long> query = getTypedQuery( "SELECT COUNT(fr) FROM FileResource fr WHERE fr.storageKey = :storageKey" );
+        query.setParameter( "storageKey", storageKey );
+        return query.uniqueResult();
+    }
 }
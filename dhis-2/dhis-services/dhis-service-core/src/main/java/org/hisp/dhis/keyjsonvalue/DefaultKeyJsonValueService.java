@@ -29,7 +29,9 @@ package org.hisp.dhis.keyjsonvalue;
  */
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.hisp.dhis.metadata.version.MetadataVersionService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -37,7 +39,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -113,6 +117,30 @@ public class DefaultKeyJsonValueService
         return keyJsonValueStore.getKeyJsonValueByNamespace( namespace );
     }
 
+    @Override
+    @Transactional( readOnly = true )
+    public List<KeyJsonValueEntry> getKeyJsonValueEntries( KeyJsonValueQueryParams params, boolean isAdmin )
+    {
+        if ( !isAdmin && MetadataVersionService.METADATASTORE.equals( params.getNamespace() ) )
+        {
+            return Collections.emptyList();
+        }
+
+        return keyJsonValueStore.getKeyJsonValueEntries( params );
+    }
+
+    @Override
+    @Transactional( readOnly = true )
+    public int countKeyJsonValueEntries( KeyJsonValueQueryParams params, boolean isAdmin )
+    {
+        if ( !isAdmin && MetadataVersionService.METADATASTORE.equals( params.getNamespace() ) )
+        {
+            return 0;
+        }
+
+        return keyJsonValueStore.countKeyJsonValueEntries( params );
+    }
+
     @Override
     @Transactional
     public Long addKeyJsonValue( KeyJsonValue keyJsonValue )
@@ -139,6 +167,29 @@ public class DefaultKeyJsonValueService
         keyJsonValueStore.update( keyJsonValue );
     }
 
+    @Override
+    @Transactional
+    public void patchKeyJsonValue( KeyJsonValue keyJsonValue, String patch )
+    {
+        if ( MetadataVersionService.METADATASTORE.equals( keyJsonValue.getNamespace() ) )
+        {
+            return;
+        }
+
+        try
+        {
+            JsonNode target = keyJsonValue.getValue() != null ? jsonMapper.readTree( keyJsonValue.getValue() ) : null;
+            JsonNode merged = mergePatch( target, jsonMapper.readTree( patch ) );
+
+            keyJsonValue.setValue( jsonMapper.writeValueAsString( merged ) );
+            keyJsonValueStore.update( keyJsonValue );
+        }
+        catch ( JsonProcessingException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
     @Override
     @Transactional
     public void deleteNamespace( String namespace )
@@ -223,4 +274,36 @@ public class DefaultKeyJsonValueService
             throw new UncheckedIOException( ex );
         }
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private JsonNode mergePatch( JsonNode target, JsonNode patch )
+    {
+        if ( !patch.isObject() )
+        {
+            return patch;
+        }
+
+        ObjectNode result = target != null && target.isObject() ? (ObjectNode) target : jsonMapper.createObjectNode();
+
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+
+        while ( fields.hasNext() )
+        {
+            Map.Entry<String, JsonNode> field = fields.next();
+
+            if ( field.getValue().isNull() )
+            {
+                result.remove( field.getKey() );
+            }
+            else
+            {
+                result.set( field.getKey(), mergePatch( result.get( field.getKey() ), field.getValue() ) );
+            }
+        }
+
+        return result;
+    }
 }
@@ -28,6 +28,7 @@
 
 package org.hisp.dhis.keyjsonvalue.hibernate;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -37,9 +38,13 @@ import org.hibernate.SessionFactory;
 import org.hibernate.query.Query;
 import org.hisp.dhis.common.hibernate.HibernateIdentifiableObjectStore;
 import org.hisp.dhis.keyjsonvalue.KeyJsonValue;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueEntry;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQueryParams;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQueryParams.Filter;
 import org.hisp.dhis.keyjsonvalue.KeyJsonValueStore;
 import org.hisp.dhis.security.acl.AclService;
 import org.hisp.dhis.user.CurrentUserService;
+import org.hisp.dhis.user.User;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -113,4 +118,207 @@ public class HibernateKeyJsonValueStore
             .addPredicate( root -> builder.equal( root.get( "namespace" ), namespace ) )
             .addPredicate( root -> builder.equal( root.get( "key" ), key ) ) );
     }
+
+    @Override
+    public List<KeyJsonValueEntry> getKeyJsonValueEntries( KeyJsonValueQueryParams params )
+    {
+        List<Object> args = new ArrayList<>();
+        List<String> fields = params.getFields();
+
+        String sql = "select kjv.namespacekey";
+
+        for ( String field : fields )
+        {
+            sql += ", (" + getPathSql( field, args ) + ")::text";
+        }
+
+        sql += " from keyjsonvalue kjv " + getWhereSql( params, args ) + "order by ";
+
+        if ( params.hasOrderPath() )
+        {
+            sql += getPathSql( params.getOrderPath(), args ) +
+                (params.isOrderDescending() ? " desc nulls last" : " asc nulls last") + ", ";
+        }
+
+        sql += "kjv.namespacekey";
+
+        if ( params.isPaging() )
+        {
+            sql += " limit " + params.getPageSize() + " offset " + params.getOffset();
+        }
+
+        return jdbcTemplate.query( sql, args.toArray(), ( rs, rowNum ) -> {
+            KeyJsonValueEntry entry = new KeyJsonValueEntry( rs.getString( 1 ) );
+
+            for ( int i = 0; i < fields.size(); i++ )
+            {
+                entry.addField( fields.get( i ), rs.getString( i + 2 ) );
+            }
+
+            return entry;
+        } );
+    }
+
+    @Override
+    public int countKeyJsonValueEntries( KeyJsonValueQueryParams params )
+    {
+        List<Object> args = new ArrayList<>();
+
+        String sql = "select count(*) from keyjsonvalue kjv " + getWhereSql( params, args );
+
+        Integer count = jdbcTemplate.queryForObject( sql, args.toArray(), Integer.class );
+
+        return count != null ? count : 0;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the SQL for extracting the JSON at the given path of the value,
+     * adding the path as an argument unless it is the root path.
+     */
+    private String getPathSql( String path, List<Object> args )
+    {
+        if ( KeyJsonValueQueryParams.ROOT_PATH.equals( path ) )
+        {
+            return "kjv.jbvalue";
+        }
+
+        args.add( path );
+        return "kjv.jbvalue #> string_to_array(?, '.')";
+    }
+
+    /**
+     * Returns the SQL for extracting the JSON at the given path of the value
+     * as text, where strings are unquoted.
+     */
+    private String getTextPathSql( String path, List<Object> args )
+    {
+        if ( KeyJsonValueQueryParams.ROOT_PATH.equals( path ) )
+        {
+            return "kjv.jbvalue #>> '{}'";
+        }
+
+        args.add( path );
+        return "kjv.jbvalue #>> string_to_array(?, '.')";
+    }
+
+    private String getWhereSql( KeyJsonValueQueryParams params, List<Object> args )
+    {
+        String sql = "where kjv.namespace = ? and kjv.encrypted = false ";
+        args.add( params.getNamespace() );
+
+        if ( params.hasLastUpdated() )
+        {
+            sql += "and kjv.lastupdated >= ? ";
+            args.add( params.getLastUpdated() );
+        }
+
+        for ( Filter filter : params.getFilters() )
+        {
+            sql += "and " + getFilterSql( filter, args ) + " ";
+        }
+
+        User user = currentUserService.getCurrentUser();
+
+        if ( user != null && !user.isSuper() )
+        {
+            sql += getSharingSql( user, args );
+        }
+
+        return sql;
+    }
+
+    private String getFilterSql( Filter filter, List<Object> args )
+    {
+        switch ( filter.getOperator() )
+        {
+            case EQ:
+                // Containment match which can use the GIN index on jbvalue
+                args.add( filter.getJsonDocument().toString() );
+                return "kjv.jbvalue @> ?::jsonb";
+            case NE:
+                String path = getPathSql( filter.getPath(), args );
+                args.add( filter.getJsonValue().toString() );
+                return path + " <> ?::jsonb";
+            case GT:
+            case GE:
+            case LT:
+            case LE:
+                // Only compare values of the same JSON type
+                String value = filter.getJsonValue().toString();
+                String comparePath = getPathSql( filter.getPath(), args );
+                args.add( value );
+                String typePath = getPathSql( filter.getPath(), args );
+                args.add( value );
+                return "(" + comparePath + " " + getComparator( filter ) + " ?::jsonb and jsonb_typeof(" +
+                    typePath + ") = jsonb_typeof(?::jsonb))";
+            case LIKE:
+            case ILIKE:
+                String textPath = getTextPathSql( filter.getPath(), args );
+                args.add( "%" + escapeLike( filter.getValue() ) + "%" );
+                return textPath + " " + filter.getOperator().name().toLowerCase() + " ?";
+            case NULL:
+                return "coalesce(jsonb_typeof(" + getPathSql( filter.getPath(), args ) + "), 'null') = 'null'";
+            case NOTNULL:
+                return "jsonb_typeof(" + getPathSql( filter.getPath(), args ) + ") <> 'null'";
+            default:
+                throw new IllegalArgumentException( "Unsupported filter operator: " + filter.getOperator() );
+        }
+    }
+
+    private String getComparator( Filter filter )
+    {
+        switch ( filter.getOperator() )
+        {
+            case GT:
+                return ">";
+            case GE:
+                return ">=";
+            case LT:
+                return "<";
+            default:
+                return "<=";
+        }
+    }
+
+    private String escapeLike( String value )
+    {
+        return value.replace( "\\", "\\\\" ).replace( "%", "\\%" ).replace( "_", "\\_" );
+    }
+
+    /**
+     * Returns an SQL clause restricting values to those readable by the given
+     * user, mirroring the sharing checks of the ACL service. Metadata read
+     * access is the first character of an access string, and values without
+     * an owner are readable by everyone.
+     */
+    private String getSharingSql( User user, List<Object> args )
+    {
+        args.add( user.getId() );
+        args.add( user.getId() );
+        args.add( user.getId() );
+
+        return "and (kjv.publicaccess is null " +
+            "or kjv.publicaccess like 'r%' " +
+            "or kjv.userid is null " +
+            "or kjv.userid = ? " +
+            "or exists (" +
+                "select kua.keyjsonvalueid " +
+                "from keyjsonvalueuseraccesses kua " +
+                "inner join useraccess ua on kua.useraccessid = ua.useraccessid " +
+                "where kua.keyjsonvalueid = kjv.keyjsonvalueid " +
+                "and ua.access like 'r%' " +
+                "and ua.userid = ?) " +
+            "or exists (" +
+                "select kuga.keyjsonvalueid " +
+                "from keyjsonvalueusergroupaccesses kuga " +
+                "inner join usergroupaccess uga on kuga.usergroupaccessid = uga.usergroupaccessid " +
+                "inner join usergroupmembers ugm on uga.usergroupid = ugm.usergroupid " +
+                "where kuga.keyjsonvalueid = kjv.keyjsonvalueid " +
+                "and uga.access like 'r%' " +
+                "and ugm.userid = ?)) ";
+    }
 }
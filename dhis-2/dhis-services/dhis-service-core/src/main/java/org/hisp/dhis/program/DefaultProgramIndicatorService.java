@@ -30,6 +30,7 @@ package org.hisp.dhis.program;
 
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang.StringUtils;
+import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.antlr.Parser;
 import org.hisp.dhis.antlr.ParserException;
 import org.hisp.dhis.cache.Cache;
@@ -58,6 +59,7 @@ import org.hisp.dhis.program.dataitem.ProgramItemStageElement;
 import org.hisp.dhis.program.variable.*;
 import org.hisp.dhis.relationship.RelationshipTypeService;
 import org.hisp.dhis.trackedentity.TrackedEntityAttributeService;
+import org.hisp.dhis.util.DateUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -115,6 +117,14 @@ public class DefaultProgramIndicatorService
         .withMaximumSize( 50000 )
         .build();
 
+    private static final Date MATERIALIZED_START_DATE_A = DateUtils.getMediumDate( "2000-01-01" );
+
+    private static final Date MATERIALIZED_END_DATE_A = DateUtils.getMediumDate( "2000-12-31" );
+
+    private static final Date MATERIALIZED_START_DATE_B = DateUtils.getMediumDate( "2010-02-01" );
+
+    private static final Date MATERIALIZED_END_DATE_B = DateUtils.getMediumDate( "2010-02-28" );
+
     public DefaultProgramIndicatorService( ProgramIndicatorStore programIndicatorStore,
         ProgramStageService programStageService, DataElementService dataElementService,
         TrackedEntityAttributeService attributeService, ConstantService constantService, StatementBuilder statementBuilder,
@@ -315,6 +325,32 @@ public class DefaultProgramIndicatorService
         return getAnalyticsSqlCached( expression, programIndicator, startDate, endDate, tableAlias );
     }
 
+    @Override
+    @Transactional( readOnly = true )
+    public String getMaterializedAnalyticsSql( ProgramIndicator programIndicator )
+    {
+        if ( !programIndicator.isMaterialized() || programIndicator.getExpression() == null ||
+            AggregationType.CUSTOM == programIndicator.getAggregationTypeFallback() )
+        {
+            return null;
+        }
+
+        // Values are independent of the reporting period if the SQL is the same for any two periods
+
+        String sql = getAnalyticsSqlCached( programIndicator.getExpression(), programIndicator,
+            MATERIALIZED_START_DATE_A, MATERIALIZED_END_DATE_A, null );
+
+        String otherSql = getAnalyticsSqlCached( programIndicator.getExpression(), programIndicator,
+            MATERIALIZED_START_DATE_B, MATERIALIZED_END_DATE_B, null );
+
+        if ( sql == null || !sql.equals( otherSql ) || sql.contains( "analytics_" ) )
+        {
+            return null;
+        }
+
+        return sql;
+    }
+
     private String getAnalyticsSqlCached( String expression, ProgramIndicator programIndicator, Date startDate, Date endDate, String tableAlias )
     {
         if ( expression == null )
@@ -45,6 +45,8 @@ import org.springframework.stereotype.Component;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -60,6 +62,8 @@ public class InMemoryQueryEngine<T extends IdentifiableObject>
     private final AclService aclService;
     private final CurrentUserService currentUserService;
 
+    private final Map<String, List<Property>> propertyPathCache = new ConcurrentHashMap<>();
+
     @Autowired
     public InMemoryQueryEngine( SchemaService schemaService, AclService aclService, CurrentUserService currentUserService )
     {
@@ -245,35 +249,21 @@ public class InMemoryQueryEngine<T extends IdentifiableObject>
     @SuppressWarnings( "unchecked" )
     private Object getValue( Query query, Object object, String path )
     {
-        String[] paths = path.split( "\\." );
-        Schema currentSchema = query.getSchema();
+        List<Property> properties = getPropertyPath( query.getSchema(), path );
+        boolean access = path.contains( "access" );
 
-        if ( path.contains( "access" ) && query.getSchema().isIdentifiableObject() )
+        if ( access && query.getSchema().isIdentifiableObject() )
         {
             ((BaseIdentifiableObject) object).setAccess( aclService.getAccess( (T) object, query.getUser() ) );
         }
 
-        for ( int i = 0; i < paths.length; i++ )
+        for ( int i = 0; i < properties.size(); i++ )
         {
-            Property property = currentSchema.getProperty( paths[i] );
-
-            if ( property == null )
-            {
-                throw new QueryException( "No property found for path " + path );
-            }
-
-            if ( property.isCollection() )
-            {
-                currentSchema = schemaService.getDynamicSchema( property.getItemKlass() );
-            }
-            else
-            {
-                currentSchema = schemaService.getDynamicSchema( property.getKlass() );
-            }
+            Property property = properties.get( i );
 
             object = collect( object, property );
 
-            if ( path.contains( "access" ) && property.isIdentifiableObject() )
+            if ( access && property.isIdentifiableObject() )
             {
                 if ( property.isCollection() )
                 {
@@ -288,7 +278,7 @@ public class InMemoryQueryEngine<T extends IdentifiableObject>
                 }
             }
 
-            if ( i == (paths.length - 1) )
+            if ( i == (properties.size() - 1) )
             {
                 if ( property.isCollection() )
                 {
@@ -297,12 +287,52 @@ public class InMemoryQueryEngine<T extends IdentifiableObject>
 
                 return object;
             }
-
         }
 
         throw new QueryException( "No values found for path " + path );
     }
 
+    /**
+     * Returns the properties along the given path. Paths are resolved once per
+     * type and cached, as the same restrictions are evaluated against every
+     * object of a query.
+     */
+    private List<Property> getPropertyPath( Schema schema, String path )
+    {
+        String key = schema.getKlass().getName() + ":" + path;
+
+        return propertyPathCache.computeIfAbsent( key, k -> resolvePropertyPath( schema, path ) );
+    }
+
+    private List<Property> resolvePropertyPath( Schema schema, String path )
+    {
+        List<Property> properties = new ArrayList<>();
+        Schema currentSchema = schema;
+
+        for ( String name : path.split( "\\." ) )
+        {
+            Property property = currentSchema.getProperty( name );
+
+            if ( property == null )
+            {
+                throw new QueryException( "No property found for path " + path );
+            }
+
+            if ( property.isCollection() )
+            {
+                currentSchema = schemaService.getDynamicSchema( property.getItemKlass() );
+            }
+            else
+            {
+                currentSchema = schemaService.getDynamicSchema( property.getKlass() );
+            }
+
+            properties.add( property );
+        }
+
+        return properties;
+    }
+
     @SuppressWarnings( { "unchecked", "rawtypes" } )
     private Object collect( Object object, Property property )
     {
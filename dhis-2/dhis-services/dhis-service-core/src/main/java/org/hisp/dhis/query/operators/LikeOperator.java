@@ -34,6 +34,9 @@ import org.hibernate.criterion.Restrictions;
 import org.hisp.dhis.query.Type;
 import org.hisp.dhis.query.Typed;
 import org.hisp.dhis.query.planner.QueryPath;
+import org.hisp.dhis.translation.TranslationProperty;
+
+import java.util.Locale;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -71,6 +74,13 @@ public class LikeOperator extends Operator
         }
     }
 
+    @Override
+    public Criterion getTranslatableHibernateCriterion( QueryPath queryPath, TranslationProperty translationProperty, Locale locale )
+    {
+        return new TranslatableLikeCriterion( queryPath.getPath(), translationProperty, locale,
+            String.valueOf( args.get( 0 ) ).replace( "%", "\\%" ), caseSensitive, matchMode );
+    }
+
     @Override
     public boolean test( Object value )
     {
@@ -31,6 +31,9 @@ package org.hisp.dhis.query.operators;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Restrictions;
 import org.hisp.dhis.query.planner.QueryPath;
+import org.hisp.dhis.translation.TranslationProperty;
+
+import java.util.Locale;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -48,6 +51,12 @@ public class NotLikeOperator extends LikeOperator
         return Restrictions.not( super.getHibernateCriterion( queryPath ) );
     }
 
+    @Override
+    public Criterion getTranslatableHibernateCriterion( QueryPath queryPath, TranslationProperty translationProperty, Locale locale )
+    {
+        return Restrictions.not( super.getTranslatableHibernateCriterion( queryPath, translationProperty, locale ) );
+    }
+
     @Override
     public boolean test( Object value )
     {
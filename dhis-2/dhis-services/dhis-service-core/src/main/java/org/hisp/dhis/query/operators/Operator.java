@@ -34,10 +34,12 @@ import org.hisp.dhis.query.QueryUtils;
 import org.hisp.dhis.query.Type;
 import org.hisp.dhis.query.Typed;
 import org.hisp.dhis.query.planner.QueryPath;
+import org.hisp.dhis.translation.TranslationProperty;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -121,6 +123,22 @@ public abstract class Operator
 
     public abstract Criterion getHibernateCriterion( QueryPath queryPath );
 
+    /**
+     * Returns a criterion which evaluates this operator against the
+     * translation of the given query path in the given locale, falling back
+     * to the untranslated value, or null if this operator does not support
+     * evaluation on translations.
+     *
+     * @param queryPath           the query path of the untranslated property.
+     * @param translationProperty the translation property.
+     * @param locale              the locale.
+     * @return a criterion or null.
+     */
+    public Criterion getTranslatableHibernateCriterion( QueryPath queryPath, TranslationProperty translationProperty, Locale locale )
+    {
+        return null;
+    }
+
     public abstract boolean test( Object value );
 
     org.hibernate.criterion.MatchMode getMatchMode( org.hisp.dhis.query.operators.MatchMode matchMode )
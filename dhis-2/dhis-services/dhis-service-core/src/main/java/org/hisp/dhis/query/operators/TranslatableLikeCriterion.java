@@ -0,0 +1,108 @@
+package org.hisp.dhis.query.operators;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hibernate.Criteria;
+import org.hibernate.HibernateException;
+import org.hibernate.criterion.CriteriaQuery;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.MatchMode;
+import org.hibernate.engine.spi.TypedValue;
+import org.hibernate.type.StandardBasicTypes;
+import org.hisp.dhis.translation.TranslationProperty;
+
+import java.util.Locale;
+
+/**
+ * Hibernate criterion which matches a like pattern against the translated
+ * value of a property for a given locale, as stored in the JSONB translations
+ * column, falling back to the untranslated column when no translation exists.
+ * This mirrors how display properties such as <code>displayName</code> are
+ * resolved, so that such filters can be evaluated in the database. Requires
+ * PostgreSQL.
+ */
+public class TranslatableLikeCriterion
+    implements Criterion
+{
+    private static final String TRANSLATIONS_PROPERTY = "translations";
+
+    private final String propertyName;
+
+    private final TranslationProperty translationProperty;
+
+    private final Locale locale;
+
+    private final String value;
+
+    private final boolean caseSensitive;
+
+    private final MatchMode matchMode;
+
+    public TranslatableLikeCriterion( String propertyName, TranslationProperty translationProperty, Locale locale,
+        String value, boolean caseSensitive, MatchMode matchMode )
+    {
+        this.propertyName = propertyName;
+        this.translationProperty = translationProperty;
+        this.locale = locale;
+        this.value = value;
+        this.caseSensitive = caseSensitive;
+        this.matchMode = matchMode;
+    }
+
+    @Override
+    public String toSqlString( Criteria criteria, CriteriaQuery criteriaQuery )
+        throws HibernateException
+    {
+        String column = criteriaQuery.getColumnsUsingProjection( criteria, propertyName )[0];
+        String translations = criteriaQuery.getColumnsUsingProjection( criteria, TRANSLATIONS_PROPERTY )[0];
+
+        String translated = "coalesce((select tr ->> 'value' from jsonb_array_elements(" + translations + ") tr " +
+            "where tr ->> 'locale' = ? and tr ->> 'property' = ? limit 1), " + column + ")";
+
+        return caseSensitive ? translated + " like ?" : "lower(" + translated + ") like ?";
+    }
+
+    @Override
+    public TypedValue[] getTypedValues( Criteria criteria, CriteriaQuery criteriaQuery )
+        throws HibernateException
+    {
+        String pattern = matchMode.toMatchString( caseSensitive ? value : value.toLowerCase() );
+
+        return new TypedValue[] {
+            new TypedValue( StandardBasicTypes.STRING, locale.toString() ),
+            new TypedValue( StandardBasicTypes.STRING, translationProperty.name() ),
+            new TypedValue( StandardBasicTypes.STRING, pattern ) };
+    }
+
+    @Override
+    public String toString()
+    {
+        return propertyName + "[" + locale + "] " + (caseSensitive ? "like " : "ilike ") + matchMode.toMatchString( value );
+    }
+}
@@ -0,0 +1,83 @@
+package org.hisp.dhis.query.operators;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.hibernate.criterion.Criterion;
+import org.hisp.dhis.query.planner.QueryPath;
+import org.hisp.dhis.translation.TranslationProperty;
+
+import java.util.Locale;
+
+/**
+ * Operator used by the query planner when a filter on a display property, like
+ * <code>displayName</code>, is pushed down to the database. The criterion is
+ * built against the translations of the underlying persisted property, while
+ * in-memory evaluation is delegated unchanged to the wrapped operator.
+ */
+public class TranslatableOperator extends Operator
+{
+    private final Operator operator;
+
+    private final TranslationProperty translationProperty;
+
+    private final Locale locale;
+
+    public TranslatableOperator( Operator operator, TranslationProperty translationProperty, Locale locale )
+    {
+        super( operator.name, operator.typed );
+        this.args.addAll( operator.getArgs() );
+        this.argumentType = operator.argumentType;
+        this.operator = operator;
+        this.translationProperty = translationProperty;
+        this.locale = locale;
+    }
+
+    public Operator getOperator()
+    {
+        return operator;
+    }
+
+    @Override
+    public Criterion getHibernateCriterion( QueryPath queryPath )
+    {
+        return operator.getTranslatableHibernateCriterion( queryPath, translationProperty, locale );
+    }
+
+    @Override
+    public boolean test( Object value )
+    {
+        return operator.test( value );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "[" + name + ", args: " + args + ", locale: " + locale + "]";
+    }
+}
@@ -34,11 +34,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Root;
 
+import org.hisp.dhis.common.BaseIdentifiableObject;
+import org.hisp.dhis.common.BaseNameableObject;
+import org.hisp.dhis.common.UserContext;
 import org.hisp.dhis.query.Conjunction;
 import org.hisp.dhis.query.Criterion;
 import org.hisp.dhis.query.Disjunction;
@@ -46,19 +52,37 @@ import org.hisp.dhis.query.Junction;
 import org.hisp.dhis.query.Order;
 import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.Restriction;
+import org.hisp.dhis.query.operators.TranslatableOperator;
 import org.hisp.dhis.schema.Property;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
+import org.hisp.dhis.translation.TranslationProperty;
+import org.hisp.dhis.user.UserSettingKey;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
  */
+@Slf4j
 @Component( "org.hisp.dhis.query.planner.QueryPlanner" )
 public class DefaultQueryPlanner implements QueryPlanner
 {
+    private static final String TRANSLATIONS_PROPERTY = "translations";
+
+    private static final Map<String, TranslationProperty> DISPLAY_PROPERTIES = ImmutableMap.of(
+        "displayName", TranslationProperty.NAME,
+        "displayShortName", TranslationProperty.SHORT_NAME,
+        "displayDescription", TranslationProperty.DESCRIPTION );
+
+    private static final Set<Class<?>> STANDARD_DISPLAY_GETTER_CLASSES = ImmutableSet.of(
+        BaseIdentifiableObject.class, BaseNameableObject.class );
+
     private final SchemaService schemaService;
 
     @Autowired
@@ -80,9 +104,12 @@ public class DefaultQueryPlanner implements QueryPlanner
     {
         // if only one filter, always set to Junction.Type AND
         Junction.Type junctionType = query.getCriterions().size() <= 1 ? Junction.Type.AND : query.getRootJunctionType();
-        
-        if ( (!isFilterOnPersistedFieldOnly( query ) || Junction.Type.OR == junctionType) && !persistedOnly )
+
+        if ( !isFilterOnPersistedFieldOnly( query ) && Junction.Type.OR == junctionType && !persistedOnly )
         {
+            log.debug( "Planned {} query in memory, OR junction with non-persisted criterions: {}",
+                query.getSchema().getName(), query.getCriterions() );
+
             return QueryPlan.QueryPlanBuilder.newBuilder()
                 .persistedQuery( Query.from( query.getSchema() ).setPlannedQuery( true ) )
                 .nonPersistedQuery( Query.from( query ).setPlannedQuery( true ) )
@@ -91,10 +118,26 @@ public class DefaultQueryPlanner implements QueryPlanner
 
         Query npQuery = Query.from( query ).setUser( query.getUser() ).setPlannedQuery( true );
 
+        List<Criterion> pushedDown = pushDownDisplayProperties( npQuery );
+
+        // criterions which can not be fully evaluated in the database are evaluated as a whole in memory
+        List<Criterion> inMemory = new ArrayList<>();
+
+        if ( !persistedOnly )
+        {
+            npQuery.getCriterions().stream()
+                .filter( criterion -> !isPersisted( npQuery.getSchema(), criterion, 0 ) )
+                .forEach( inMemory::add );
+
+            npQuery.getCriterions().removeAll( inMemory );
+        }
+
         Query pQuery = getQuery( npQuery, persistedOnly ).setUser( query.getUser() ).setPlannedQuery( true );
+        pQuery.getCriterions().addAll( pushedDown );
+        npQuery.getCriterions().addAll( inMemory );
 
-        // if there are any non persisted criterions left, we leave the paging to the in-memory engine
-        if ( !npQuery.getCriterions().isEmpty() )
+        // if there are any non persisted criterions or orders left, we leave the paging to the in-memory engine
+        if ( !npQuery.getCriterions().isEmpty() || !npQuery.getOrders().isEmpty() )
         {
             pQuery.setSkipPaging( true );
         }
@@ -104,6 +147,10 @@ public class DefaultQueryPlanner implements QueryPlanner
             pQuery.setMaxResults( npQuery.getMaxResults() );
         }
 
+        log.debug( "Planned {} query, persisted: {} {}, in memory: {} {}, paging in memory: {}",
+            query.getSchema().getName(), pQuery.getCriterions(), pQuery.getOrders(),
+            npQuery.getCriterions(), npQuery.getOrders(), pQuery.isSkipPaging() );
+
         return QueryPlan.QueryPlanBuilder
             .newBuilder()
             .persistedQuery( pQuery )
@@ -310,6 +357,113 @@ public class DefaultQueryPlanner implements QueryPlanner
         return criteriaJunction;
     }
 
+    /**
+     * Rewrites top level restrictions on display properties, like
+     * <code>displayName</code>, into restrictions which can be evaluated in the
+     * database. Without a database locale the display property equals the
+     * underlying persisted property, so the restriction is simply moved to that
+     * property. With a locale, restrictions whose operator supports it are
+     * evaluated against the translations of the underlying property; these
+     * are removed from the query and returned so they can be added to the
+     * persisted query.
+     *
+     * @param query the query to rewrite.
+     * @return the restrictions to be evaluated against translations.
+     */
+    private List<Criterion> pushDownDisplayProperties( Query query )
+    {
+        List<Criterion> pushedDown = new ArrayList<>();
+        Schema schema = query.getSchema();
+        Locale locale = UserContext.getUserSetting( UserSettingKey.DB_LOCALE, Locale.class );
+
+        ListIterator<Criterion> iterator = query.getCriterions().listIterator();
+
+        while ( iterator.hasNext() )
+        {
+            Criterion criterion = iterator.next();
+
+            if ( !Restriction.class.isInstance( criterion ) )
+            {
+                continue;
+            }
+
+            Restriction restriction = (Restriction) criterion;
+            TranslationProperty translationProperty = getDisplayTranslationProperty( schema, restriction.getPath() );
+
+            if ( translationProperty == null )
+            {
+                continue;
+            }
+
+            if ( locale == null )
+            {
+                iterator.set( new Restriction( translationProperty.getName(), restriction.getOperator() ) );
+            }
+            else if ( schema.havePersistedProperty( TRANSLATIONS_PROPERTY ) )
+            {
+                QueryPath queryPath = getQueryPath( schema, translationProperty.getName() );
+
+                if ( restriction.getOperator().getTranslatableHibernateCriterion( queryPath, translationProperty, locale ) != null )
+                {
+                    pushedDown.add( new Restriction( restriction.getPath(),
+                        new TranslatableOperator( restriction.getOperator(), translationProperty, locale ) )
+                        .setQueryPath( queryPath ) );
+                    iterator.remove();
+                }
+            }
+        }
+
+        return pushedDown;
+    }
+
+    /**
+     * Returns the translation property backing the given display property path
+     * if the display property is resolved from a persisted property using the
+     * standard translation lookup, or null otherwise.
+     */
+    private TranslationProperty getDisplayTranslationProperty( Schema schema, String path )
+    {
+        TranslationProperty translationProperty = DISPLAY_PROPERTIES.get( path );
+
+        if ( translationProperty == null || !schema.haveProperty( path ) || !schema.havePersistedProperty( translationProperty.getName() ) )
+        {
+            return null;
+        }
+
+        Property property = schema.getProperty( path );
+
+        // subclasses overriding the display getter might not fall back to the persisted property
+        if ( property.isPersisted() || property.getGetterMethod() == null ||
+            !STANDARD_DISPLAY_GETTER_CLASSES.contains( property.getGetterMethod().getDeclaringClass() ) )
+        {
+            return null;
+        }
+
+        return translationProperty;
+    }
+
+    /**
+     * Indicates whether the given criterion can be fully evaluated in the
+     * database, mirroring the conditions under which {@link #getQuery(Query, boolean)}
+     * moves criterions to the persisted query.
+     */
+    private boolean isPersisted( Schema schema, Criterion criterion, int depth )
+    {
+        if ( Restriction.class.isInstance( criterion ) )
+        {
+            QueryPath queryPath = getQueryPath( schema, ((Restriction) criterion).getPath() );
+
+            return queryPath.isPersisted() && (depth == 0 ? !queryPath.haveAlias() : !queryPath.haveAlias( 1 ));
+        }
+        else if ( Junction.class.isInstance( criterion ) )
+        {
+            return ((Junction) criterion).getCriterions().stream()
+                .allMatch( c -> isPersisted( schema, c, depth + 1 ) );
+        }
+
+        return false;
+    }
+
     /**
      * Check if all the criteria for the given query are associated to "persisted" properties
      *
@@ -42,13 +42,18 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -62,6 +67,11 @@ public class DefaultReservedValueService
 {
     private static final long GENERATION_TIMEOUT = (1000 * 30); // 30 seconds
 
+    /**
+     * Max number of random candidates drawn and looked up at once.
+     */
+    private static final long MAX_RANDOM_CANDIDATES = 10_000;
+
     private TextPatternService textPatternService;
 
     private ReservedValueStore reservedValueStore;
@@ -94,19 +104,13 @@ public class DefaultReservedValueService
 
         String key = textPatternService.resolvePattern( textPattern, values );
 
-        // Used for searching value tables
-        String valueKey = ( generatedSegment != null ?
-            key.replaceAll( Pattern.quote( generatedSegment.getRawSegment() ), "%" ) :
-            key );
+        ReservedValue reservedValue = getReservedValue( textPattern, generatedSegment, key, expires );
 
-        ReservedValue reservedValue = new ReservedValue( textPattern.getOwnerObject().name(), textPattern.getOwnerUid(),
-            key,
-            valueKey,
-            expires );
+        long totalValues = TextPatternValidationUtils.getTotalValuesPotential( generatedSegment );
+
+        int usedValues = reservedValueStore.getNumberOfUsedValues( reservedValue );
 
-        if ( !hasEnoughValuesLeft( reservedValue,
-            TextPatternValidationUtils.getTotalValuesPotential( generatedSegment ),
-            numberOfReservations ) )
+        if ( totalValues < numberOfReservations + usedValues )
         {
             throw new ReserveValueException( "Not enough values left to reserve " + numberOfReservations + " values." );
         }
@@ -138,22 +142,33 @@ public class DefaultReservedValueService
 
                 while ( generatedValues.size() < numberOfValuesLeftToGenerate && maxGenerateAttempts-- > 0 )
                 {
-                    generatedValues.addAll( generateValues( textPattern, key, numberOfReservations - resultList.size() ) );
+                    generatedValues.addAll( generateValues( textPattern, key, numberOfValuesLeftToGenerate,
+                        usedValues + resultList.size(), totalValues ) );
                     generatedValues.removeAll( usedGeneratedValues );
                 }
 
                 usedGeneratedValues.addAll( generatedValues );
 
                 // Get a list of resolved patterns
-                for ( int i = 0; i < numberOfReservations - resultList.size(); i++ )
+                for ( String generatedValue : generatedValues )
                 {
                     resolvedPatterns.add( textPatternService.resolvePattern( textPattern,
                         ImmutableMap.<String, String>builder()
                             .putAll( values )
-                            .put( generatedSegment.getMethod().name(), generatedValues.get( i ) )
+                            .put( generatedSegment.getMethod().name(), generatedValue )
                             .build() ) );
                 }
 
+                // Random candidates are drawn in excess, so only as many of the
+                // available ones as are still needed are reserved
+                if ( resolvedPatterns.size() > numberOfValuesLeftToGenerate )
+                {
+                    List<String> availableValues = reservedValueStore.getAvailableValues( reservedValue, resolvedPatterns );
+
+                    resolvedPatterns = new ArrayList<>( availableValues.subList( 0,
+                        Math.min( numberOfValuesLeftToGenerate, availableValues.size() ) ) );
+                }
+
                 resultList.addAll( reservedValueStore.reserveValues( reservedValue, resolvedPatterns ) );
 
                 numberOfValuesLeftToGenerate = numberOfReservations - resultList.size();
@@ -169,6 +184,22 @@ public class DefaultReservedValueService
         return resultList;
     }
 
+    @Override
+    @Transactional( readOnly = true )
+    public long getNumberOfAvailableValues( TextPattern textPattern, Map<String, String> values )
+        throws TextPatternGenerationException
+    {
+        TextPatternSegment generatedSegment = getGeneratedSegment( textPattern );
+
+        String key = textPatternService.resolvePattern( textPattern, values );
+
+        ReservedValue reservedValue = getReservedValue( textPattern, generatedSegment, key, null );
+
+        long totalValues = TextPatternValidationUtils.getTotalValuesPotential( generatedSegment );
+
+        return Math.max( 0, totalValues - reservedValueStore.getNumberOfUsedValues( reservedValue ) );
+    }
+
     @Override
     @Transactional
     public boolean useReservedValue( TextPattern textPattern, String value )
@@ -210,7 +241,20 @@ public class DefaultReservedValueService
             .orElse( null );
     }
 
-    private List<String> generateValues( TextPattern textPattern, String key, int numberOfValues )
+    private ReservedValue getReservedValue( TextPattern textPattern, TextPatternSegment generatedSegment, String key, Date expires )
+    {
+        // Used for searching value tables
+        String valueKey = ( generatedSegment != null ?
+            key.replaceAll( Pattern.quote( generatedSegment.getRawSegment() ), "%" ) :
+            key );
+
+        return new ReservedValue( textPattern.getOwnerObject().name(), textPattern.getOwnerUid(),
+            key,
+            valueKey,
+            expires );
+    }
+
+    private List<String> generateValues( TextPattern textPattern, String key, int numberOfValues, long usedValues, long totalValues )
     {
         List<String> generatedValues = new ArrayList<>();
         TextPatternSegment segment = getGeneratedSegment( textPattern );
@@ -225,19 +269,47 @@ public class DefaultReservedValueService
         }
         else if ( segment.getMethod().equals( TextPatternMethod.RANDOM ) )
         {
-            for ( int i = 0; i < numberOfValues; i++ )
+            for ( long index : getRandomCandidateIndexes( numberOfValues, usedValues, totalValues ) )
             {
-                generatedValues.add( TextPatternMethodUtils.generateRandom( new Random(), segment.getParameter() ) );
+                generatedValues.add( TextPatternMethodUtils.getRandomValue( segment.getParameter(), index ) );
             }
         }
 
         return generatedValues;
     }
 
-    private boolean hasEnoughValuesLeft( ReservedValue reservedValue, long totalValues, int valuesRequired )
+    /**
+     * Returns distinct random positions in the value space of a random
+     * segment. More candidates than values are drawn the fuller the value
+     * space is, so that enough of them are still available when looking up
+     * the candidates. Small or almost full value spaces are shuffled as a
+     * whole, which avoids repeated draws of used values.
+     */
+    private Collection<Long> getRandomCandidateIndexes( int numberOfValues, long usedValues, long totalValues )
     {
-        int used = reservedValueStore.getNumberOfUsedValues( reservedValue );
+        long freeValues = Math.max( 1, totalValues - usedValues );
+
+        long numberOfCandidates = Math.min( totalValues, Math.max( numberOfValues,
+            Math.min( MAX_RANDOM_CANDIDATES, (long) Math.ceil( 2.0 * numberOfValues * totalValues / freeValues ) ) ) );
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if ( numberOfCandidates * 2 > totalValues )
+        {
+            List<Long> indexes = LongStream.range( 0, totalValues ).boxed().collect( Collectors.toList() );
+
+            Collections.shuffle( indexes, random );
+
+            return indexes.subList( 0, (int) numberOfCandidates );
+        }
+
+        Set<Long> indexes = new HashSet<>();
+
+        while ( indexes.size() < numberOfCandidates )
+        {
+            indexes.add( random.nextLong( totalValues ) );
+        }
 
-        return totalValues >= valuesRequired + used;
+        return indexes;
     }
 }
@@ -167,6 +167,12 @@ public class HibernateReservedValueStore
         return count.intValue();
     }
 
+    @Override
+    public List<String> getAvailableValues( ReservedValue reservedValue, List<String> values )
+    {
+        return getIfAvailable( reservedValue, new ArrayList<>( values ) );
+    }
+
     @Override
     public void removeExpiredReservations()
     {
@@ -212,6 +218,11 @@ public class HibernateReservedValueStore
 
     private List<String> getIfAvailable( ReservedValue reservedValue, List<String> values )
     {
+        if ( values.isEmpty() )
+        {
+            return values;
+        }
+
         List<String> reservedValues = getIfReservedValues( reservedValue, values ).stream()
             .map( ReservedValue::getValue )
             .collect( Collectors.toList() );
@@ -35,6 +35,7 @@ import static org.hisp.dhis.util.DateUtils.getMediumDateString;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -42,9 +43,15 @@ import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
 
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.DateUtils;
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.leader.election.LeaderManager;
 import org.hisp.dhis.message.MessageService;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -70,6 +77,18 @@ public class DefaultSchedulingManager
 {
     private static final int DEFAULT_INITIAL_DELAY_S = 10;
 
+    private static final int JOB_QUEUE_POLL_DELAY_S = 5;
+
+    private static final int JOB_QUEUE_HEARTBEAT_S = 30;
+
+    private static final int JOB_QUEUE_HEARTBEAT_TIMEOUT_S = 180;
+
+    private static final int JOB_QUEUE_MAX_ATTEMPTS = 3;
+
+    private static final int JOB_QUEUE_RETENTION_DAYS = 7;
+
+    private static final int JOB_QUEUE_STATISTICS_HOURS = 24;
+
     private Map<String, ScheduledFuture<?>> futures = new HashMap<>();
 
     private Map<String, ListenableFuture<?>> currentTasks = new HashMap<>();
@@ -90,9 +109,14 @@ public class DefaultSchedulingManager
 
     private final ApplicationContext applicationContext;
 
+    private final JobQueueStore jobQueueStore;
+
+    private final DhisConfigurationProvider dhisConfig;
+
     public DefaultSchedulingManager( JobConfigurationService jobConfigurationService, MessageService messageService,
         LeaderManager leaderManager, @Qualifier( "taskScheduler" ) TaskScheduler jobScheduler,
-        @Qualifier( "taskScheduler" ) AsyncListenableTaskExecutor jobExecutor, ApplicationContext applicationContext )
+        @Qualifier( "taskScheduler" ) AsyncListenableTaskExecutor jobExecutor, ApplicationContext applicationContext,
+        JobQueueStore jobQueueStore, DhisConfigurationProvider dhisConfig )
     {
         checkNotNull( jobConfigurationService );
         checkNotNull( messageService );
@@ -100,6 +124,8 @@ public class DefaultSchedulingManager
         checkNotNull( jobScheduler );
         checkNotNull( jobExecutor );
         checkNotNull( applicationContext );
+        checkNotNull( jobQueueStore );
+        checkNotNull( dhisConfig );
 
         this.jobConfigurationService = jobConfigurationService;
         this.messageService = messageService;
@@ -107,12 +133,25 @@ public class DefaultSchedulingManager
         this.jobScheduler = jobScheduler;
         this.jobExecutor = jobExecutor;
         this.applicationContext = applicationContext;
+        this.jobQueueStore = jobQueueStore;
+        this.dhisConfig = dhisConfig;
     }
 
     @PostConstruct
     public void init()
     {
         leaderManager.setSchedulingManager( this );
+
+        if ( isJobQueueEnabled() )
+        {
+            nodeId = StringUtils.defaultIfBlank( dhisConfig.getProperty( ConfigurationKey.NODE_ID ), CodeGenerator.generateUid() );
+            jobQueueCapacity = Integer.parseInt( dhisConfig.getProperty( ConfigurationKey.SYSTEM_JOB_QUEUE_CAPACITY ) );
+
+            jobScheduler.scheduleWithFixedDelay( this::pollJobQueue, Instant.now().plusSeconds( DEFAULT_INITIAL_DELAY_S ),
+                Duration.of( JOB_QUEUE_POLL_DELAY_S, ChronoUnit.SECONDS ) );
+
+            log.info( String.format( "Job queue enabled on node: '%s' with capacity: %d", nodeId, jobQueueCapacity ) );
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -124,6 +163,21 @@ public class DefaultSchedulingManager
      */
     private List<JobConfiguration> runningJobConfigurations = new CopyOnWriteArrayList<>();
 
+    /**
+     * Identifier of this node in the job queue.
+     */
+    private String nodeId;
+
+    /**
+     * Max number of job queue entries this node runs concurrently.
+     */
+    private int jobQueueCapacity;
+
+    /**
+     * Number of job queue entries currently running on this node.
+     */
+    private final AtomicInteger runningQueueEntries = new AtomicInteger();
+
     @Override
     public boolean isJobConfigurationRunning( JobConfiguration jobConfiguration )
     {
@@ -132,8 +186,15 @@ public class DefaultSchedulingManager
             return false;
         }
 
-        return runningJobConfigurations.stream().anyMatch(
-            jc -> jc.getJobType().equals( jobConfiguration.getJobType() ) );
+        if ( runningJobConfigurations.stream().anyMatch(
+            jc -> jc.getJobType().equals( jobConfiguration.getJobType() ) ) )
+        {
+            return true;
+        }
+
+        // Jobs of the same type may have been claimed from the job queue by other nodes
+
+        return nodeId != null && jobQueueStore.isRunningOnOtherNode( jobConfiguration.getJobType(), nodeId );
     }
 
     @Override
@@ -183,14 +244,15 @@ public class DefaultSchedulingManager
 
                 ScheduledFuture<?> future = null;
 
+                Runnable task = getScheduledTask( jobInstance, jobConfiguration );
+
                 if ( jobConfiguration.getJobType().isCronSchedulingType() )
                 {
-                    future = jobScheduler.schedule( () -> jobInstance.execute( jobConfiguration ),
-                        new CronTrigger( jobConfiguration.getCronExpression() ) );
+                    future = jobScheduler.schedule( task, new CronTrigger( jobConfiguration.getCronExpression() ) );
                 }
                 else if ( jobConfiguration.getJobType().isFixedDelaySchedulingType() )
                 {
-                    future = jobScheduler.scheduleWithFixedDelay( () -> jobInstance.execute( jobConfiguration ),
+                    future = jobScheduler.scheduleWithFixedDelay( task,
                         Instant.now().plusSeconds( DEFAULT_INITIAL_DELAY_S ),
                         Duration.of( jobConfiguration.getDelay(), ChronoUnit.SECONDS ) );
                 }
@@ -212,7 +274,7 @@ public class DefaultSchedulingManager
             if ( jobConfiguration.getUid() != null && !futures.containsKey( jobConfiguration.getUid() ) )
             {
                 ScheduledFuture<?> future = jobScheduler.schedule(
-                    () -> jobInstance.execute( jobConfiguration ), startTime );
+                    getScheduledTask( jobInstance, jobConfiguration ), startTime );
 
                 futures.put( jobConfiguration.getUid(), future );
 
@@ -271,6 +333,17 @@ public class DefaultSchedulingManager
         return jobExecutor.submitListenable( callable );
     }
 
+    @Override
+    public List<JobQueueNodeStatistics> getJobQueueNodeStatistics()
+    {
+        if ( !isJobQueueEnabled() )
+        {
+            return new ArrayList<>();
+        }
+
+        return jobQueueStore.getNodeStatistics( DateUtils.addHours( new Date(), -JOB_QUEUE_STATISTICS_HOURS ) );
+    }
+
     // -------------------------------------------------------------------------
     // Supportive methods
     // -------------------------------------------------------------------------
@@ -286,6 +359,145 @@ public class DefaultSchedulingManager
         log.info( String.format( "Scheduler initiated execution of job: %s", jobConfiguration ) );
     }
 
+    private boolean isJobQueueEnabled()
+    {
+        return dhisConfig.isEnabled( ConfigurationKey.SYSTEM_JOB_QUEUE_ENABLED );
+    }
+
+    /**
+     * Indicates whether the given job configuration is run through the job
+     * queue. Applies to persisted, configurable jobs. Leader only system jobs
+     * and in-memory jobs are always run by the node which triggers them.
+     */
+    private boolean isQueueable( JobConfiguration jobConfiguration )
+    {
+        return isJobQueueEnabled() && !jobConfiguration.isInMemoryJob() && !jobConfiguration.isLeaderOnlyJob() &&
+            jobConfiguration.getJobType().isConfigurable();
+    }
+
+    /**
+     * Returns the task to run when the given job configuration is triggered.
+     * For queueable jobs, the task enqueues the job on the leader node so that
+     * it is claimed by any node in the cluster with spare capacity.
+     */
+    private Runnable getScheduledTask( JobInstance jobInstance, JobConfiguration jobConfiguration )
+    {
+        if ( isQueueable( jobConfiguration ) )
+        {
+            return () -> enqueueJob( jobConfiguration );
+        }
+
+        return () -> jobInstance.execute( jobConfiguration );
+    }
+
+    private void enqueueJob( JobConfiguration jobConfiguration )
+    {
+        if ( !jobConfiguration.isEnabled() || !leaderManager.isLeader() )
+        {
+            return;
+        }
+
+        if ( jobQueueStore.enqueue( jobConfiguration ) )
+        {
+            log.info( String.format( "Enqueued job: %s", jobConfiguration.getUid() ) );
+        }
+        else
+        {
+            log.info( String.format( "Job already queued or running: %s", jobConfiguration.getUid() ) );
+        }
+    }
+
+    /**
+     * Requeues entries of failed nodes if this node is the leader, then claims
+     * queued entries until the capacity of this node is reached.
+     */
+    private void pollJobQueue()
+    {
+        try
+        {
+            if ( leaderManager.isLeader() )
+            {
+                int requeued = jobQueueStore.requeueStale( JOB_QUEUE_HEARTBEAT_TIMEOUT_S, JOB_QUEUE_MAX_ATTEMPTS );
+
+                if ( requeued > 0 )
+                {
+                    log.warn( String.format( "Requeued %d job queue entries without heartbeat", requeued ) );
+                }
+
+                jobQueueStore.deleteFinished( DateUtils.addDays( new Date(), -JOB_QUEUE_RETENTION_DAYS ) );
+            }
+
+            while ( runningQueueEntries.get() < jobQueueCapacity )
+            {
+                JobQueueEntry entry = jobQueueStore.claim( nodeId );
+
+                if ( entry == null )
+                {
+                    break;
+                }
+
+                runningQueueEntries.incrementAndGet();
+
+                jobExecutor.execute( () -> executeQueueEntry( entry ) );
+            }
+        }
+        catch ( Exception ex )
+        {
+            log.error( "Job queue poll failed", ex );
+        }
+    }
+
+    private void executeQueueEntry( JobQueueEntry entry )
+    {
+        JobStatus status = JobStatus.FAILED;
+
+        ScheduledFuture<?> heartbeat = jobScheduler.scheduleAtFixedRate( () -> heartbeat( entry ),
+            Duration.of( JOB_QUEUE_HEARTBEAT_S, ChronoUnit.SECONDS ) );
+
+        try
+        {
+            JobConfiguration jobConfiguration = jobConfigurationService.getJobConfigurationByUid( entry.getJobConfigurationUid() );
+
+            if ( jobConfiguration == null || !jobConfiguration.isEnabled() )
+            {
+                log.info( String.format( "Job configuration removed or disabled, skipping job queue entry: %s", entry ) );
+
+                status = JobStatus.STOPPED;
+            }
+            else
+            {
+                log.info( String.format( "Node: '%s' claimed job queue entry: %s", nodeId, entry ) );
+
+                new DefaultJobInstance( this, messageService, leaderManager ).execute( jobConfiguration );
+
+                status = jobConfiguration.getLastExecutedStatus() == JobStatus.COMPLETED ? JobStatus.COMPLETED : JobStatus.FAILED;
+            }
+        }
+        catch ( Exception ex )
+        {
+            log.error( String.format( "Job queue entry failed: %s", entry ), ex );
+        }
+        finally
+        {
+            heartbeat.cancel( false );
+
+            if ( !jobQueueStore.finish( entry, status ) )
+            {
+                log.warn( String.format( "Job queue entry was requeued while running, status not recorded: %s", entry ) );
+            }
+
+            runningQueueEntries.decrementAndGet();
+        }
+    }
+
+    private void heartbeat( JobQueueEntry entry )
+    {
+        if ( !jobQueueStore.heartbeat( entry ) )
+        {
+            log.warn( String.format( "Job queue entry is no longer claimed by node: '%s', entry: %s", nodeId, entry ) );
+        }
+    }
+
     private boolean internalStopJob( String uid )
     {
         if ( uid != null )
@@ -0,0 +1,187 @@
+package org.hisp.dhis.scheduling.jdbc;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Date;
+import java.util.List;
+
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobQueueEntry;
+import org.hisp.dhis.scheduling.JobQueueNodeStatistics;
+import org.hisp.dhis.scheduling.JobQueueStore;
+import org.hisp.dhis.scheduling.JobStatus;
+import org.hisp.dhis.scheduling.JobType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Job queue store backed by the jobqueue table. Entries are claimed with
+ * {@code for update skip locked} so that concurrent nodes never block on or
+ * claim the same entry. Requires PostgreSQL.
+ */
+@Repository( "org.hisp.dhis.scheduling.JobQueueStore" )
+public class JdbcJobQueueStore
+    implements JobQueueStore
+{
+    private static final String STATUS_QUEUED = "QUEUED";
+
+    private static final String STATUS_RUNNING = "RUNNING";
+
+    // -------------------------------------------------------------------------
+    // Dependencies
+    // -------------------------------------------------------------------------
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcJobQueueStore( JdbcTemplate jdbcTemplate )
+    {
+        checkNotNull( jdbcTemplate );
+
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // -------------------------------------------------------------------------
+    // JobQueueStore implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public boolean enqueue( JobConfiguration jobConfiguration )
+    {
+        // Conflicts with the partial unique index on queued and running entries
+
+        final String sql =
+            "insert into jobqueue (jobqueueid, jobconfigurationuid, jobtype, status, attempts, created) " +
+            "values (nextval('hibernate_sequence'), ?, ?, '" + STATUS_QUEUED + "', 0, now()) " +
+            "on conflict do nothing";
+
+        return jdbcTemplate.update( sql, jobConfiguration.getUid(), jobConfiguration.getJobType().name() ) > 0;
+    }
+
+    @Override
+    public JobQueueEntry claim( String nodeId )
+    {
+        final String sql =
+            "update jobqueue set status = '" + STATUS_RUNNING + "', nodeid = ?, claimed = now(), heartbeat = now(), attempts = attempts + 1 " +
+            "where jobqueueid = (" +
+                "select jobqueueid from jobqueue " +
+                "where status = '" + STATUS_QUEUED + "' " +
+                "order by created " +
+                "limit 1 " +
+                "for update skip locked) " +
+            "returning jobqueueid, jobconfigurationuid, nodeid, attempts";
+
+        final ResultSetExtractor<JobQueueEntry> extractor = rs -> rs.next() ?
+            new JobQueueEntry( rs.getLong( "jobqueueid" ), rs.getString( "jobconfigurationuid" ), rs.getString( "nodeid" ),
+                rs.getInt( "attempts" ) ) : null;
+
+        return jdbcTemplate.query( sql, extractor, nodeId );
+    }
+
+    @Override
+    public boolean heartbeat( JobQueueEntry entry )
+    {
+        // Attempts distinguishes a claim from a later claim by the same node
+
+        final String sql =
+            "update jobqueue set heartbeat = now() " +
+            "where jobqueueid = ? and nodeid = ? and attempts = ? and status = '" + STATUS_RUNNING + "'";
+
+        return jdbcTemplate.update( sql, entry.getId(), entry.getNodeId(), entry.getAttempts() ) > 0;
+    }
+
+    @Override
+    public boolean finish( JobQueueEntry entry, JobStatus status )
+    {
+        final String sql =
+            "update jobqueue set status = ?, finished = now() " +
+            "where jobqueueid = ? and nodeid = ? and attempts = ? and status = '" + STATUS_RUNNING + "'";
+
+        return jdbcTemplate.update( sql, status.name(), entry.getId(), entry.getNodeId(), entry.getAttempts() ) > 0;
+    }
+
+    @Override
+    public boolean isRunningOnOtherNode( JobType jobType, String nodeId )
+    {
+        final String sql =
+            "select exists (" +
+                "select 1 from jobqueue " +
+                "where status = '" + STATUS_RUNNING + "' " +
+                "and jobtype = ? " +
+                "and nodeid <> ?)";
+
+        return jdbcTemplate.queryForObject( sql, Boolean.class, jobType.name(), nodeId );
+    }
+
+    @Override
+    public int requeueStale( int heartbeatTimeoutSeconds, int maxAttempts )
+    {
+        final String sql =
+            "update jobqueue set " +
+                "status = case when attempts >= ? then '" + JobStatus.FAILED.name() + "' else '" + STATUS_QUEUED + "' end, " +
+                "finished = case when attempts >= ? then now() else null end " +
+            "where status = '" + STATUS_RUNNING + "' " +
+            "and heartbeat < now() - ? * interval '1 second'";
+
+        return jdbcTemplate.update( sql, maxAttempts, maxAttempts, heartbeatTimeoutSeconds );
+    }
+
+    @Override
+    public int deleteFinished( Date finishedBefore )
+    {
+        final String sql =
+            "delete from jobqueue " +
+            "where status not in ('" + STATUS_QUEUED + "', '" + STATUS_RUNNING + "') " +
+            "and finished < ?";
+
+        return jdbcTemplate.update( sql, finishedBefore );
+    }
+
+    @Override
+    public List<JobQueueNodeStatistics> getNodeStatistics( Date claimedAfter )
+    {
+        final String sql =
+            "select nodeid, " +
+                "sum(case when status = '" + STATUS_RUNNING + "' then 1 else 0 end) as running, " +
+                "sum(case when status = '" + JobStatus.COMPLETED.name() + "' then 1 else 0 end) as completed, " +
+                "sum(case when status = '" + JobStatus.FAILED.name() + "' then 1 else 0 end) as failed, " +
+                "coalesce(avg(case when status = '" + JobStatus.COMPLETED.name() + "' then extract(epoch from finished - claimed) end), 0) as runtime " +
+            "from jobqueue " +
+            "where nodeid is not null " +
+            "and claimed >= ? " +
+            "group by nodeid " +
+            "order by nodeid";
+
+        return jdbcTemplate.query( sql, ( rs, rowNum ) -> new JobQueueNodeStatistics( rs.getString( "nodeid" ),
+            rs.getLong( "running" ), rs.getLong( "completed" ), rs.getLong( "failed" ), rs.getDouble( "runtime" ) ),
+            claimedAfter );
+    }
+}
@@ -36,7 +36,6 @@ import static org.hisp.dhis.commons.util.TextUtils.getQuotedCommaDelimitedString
 import static org.hisp.dhis.commons.util.TextUtils.getTokens;
 import static org.hisp.dhis.commons.util.TextUtils.removeLastAnd;
 import static org.hisp.dhis.commons.util.TextUtils.removeLastComma;
-import static org.hisp.dhis.commons.util.TextUtils.removeLastOr;
 import static org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams.CREATED_ID;
 import static org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams.DELETED;
 import static org.hisp.dhis.trackedentity.TrackedEntityInstanceQueryParams.INACTIVE_ID;
@@ -634,20 +633,21 @@ public class HibernateTrackedEntityInstanceStore
 
             List<String> queryTokens = getTokens( params.getQuery().getFilter() );
 
+            // Match each token with a sub query on the attribute values rather
+            // than on the joined attribute columns, which allows the trigram
+            // index on lower(value) to be used
+
+            final String attributeIds = getCommaDelimitedString( params.getAttributesAndFilters().stream()
+                .map( item -> item.getItem().getId() )
+                .collect( Collectors.toList() ) );
+
             for ( String queryToken : queryTokens )
             {
                 final String query = statementBuilder.encode( queryToken, false );
 
-                sql += "(";
-
-                for ( QueryItem item : params.getAttributesAndFilters() )
-                {
-                    final String col = statementBuilder.columnQuote( item.getItemId() );
-
-                    sql += col + ".value " + regexp + " '" + start + StringUtils.lowerCase( query ) + end + "' or ";
-                }
-
-                sql = removeLastOr( sql ) + ") and ";
+                sql += "tei.trackedentityinstanceid in (select teav.trackedentityinstanceid from trackedentityattributevalue teav " +
+                    "where teav.trackedentityattributeid in (" + attributeIds + ") " +
+                    "and lower(teav.value) " + regexp + " '" + start + StringUtils.lowerCase( query ) + end + "') and ";
             }
 
             sql = removeLastAnd( sql ) + ") ";
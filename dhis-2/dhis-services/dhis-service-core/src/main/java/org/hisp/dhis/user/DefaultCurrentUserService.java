@@ -38,8 +38,11 @@ import org.springframework.core.env.Environment;
 import org.springframework.security.core.session.SessionRegistry;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.annotation.PostConstruct;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -65,6 +68,13 @@ public class DefaultCurrentUserService
      */
     private static Cache<Long> USERNAME_ID_CACHE;
 
+    /**
+     * Cache for user group IDs which the user is a member of. Key is user ID.
+     * Used to resolve sharing through user groups without joining on group
+     * members. Invalidated when user group memberships change.
+     */
+    private static Cache<HashSet> USER_GROUP_ID_CACHE;
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -105,6 +115,13 @@ public class DefaultCurrentUserService
             .forceInMemory()
             .withMaximumSize( SystemUtils.isTestRun( env.getActiveProfiles() ) ? 0 : 4000 )
             .build();
+
+        USER_GROUP_ID_CACHE = cacheProvider.newCacheBuilder( HashSet.class )
+            .forRegion( "userGroupIdCache" )
+            .expireAfterWrite( 1, TimeUnit.HOURS )
+            .withInitialCapacity( 200 )
+            .withMaximumSize( SystemUtils.isTestRun( env.getActiveProfiles() ) ? 0 : 4000 )
+            .build();
     }
 
     @Override
@@ -150,7 +167,18 @@ public class DefaultCurrentUserService
             return null;
         }
 
-        return new UserInfo( userId, currentUsername, getCurrentUserAuthorities() );
+        Set<Long> userGroupIds = getUserGroupIds( userId );
+
+        return new UserInfo( userId, currentUsername, getCurrentUserAuthorities(), userGroupIds );
+    }
+
+    @Override
+    @Transactional( readOnly = true )
+    @SuppressWarnings( "unchecked" )
+    public Set<Long> getUserGroupIds( long userId )
+    {
+        return USER_GROUP_ID_CACHE.get( String.valueOf( userId ),
+            key -> new HashSet<>( userStore.getUserGroupIds( userId ) ) ).orElse( null );
     }
 
     private Long getUserId( String username )
@@ -192,4 +220,38 @@ public class DefaultCurrentUserService
     {
         return userStore.getUserCredentialsByUsername( getCurrentUsername() );
     }
+
+    @Override
+    public void invalidateUserGroupCache()
+    {
+        invalidateUserGroupCache( USER_GROUP_ID_CACHE::invalidateAll );
+    }
+
+    @Override
+    public void invalidateUserGroupCache( Collection<Long> userIds )
+    {
+        Set<Long> keys = new HashSet<>( userIds );
+
+        invalidateUserGroupCache( () -> keys.forEach( userId -> USER_GROUP_ID_CACHE.invalidate( String.valueOf( userId ) ) ) );
+    }
+
+    private void invalidateUserGroupCache( Runnable invalidation )
+    {
+        invalidation.run();
+
+        // Memberships loaded by other threads before the commit are stale, so
+        // invalidate again once the transaction completes
+
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCompletion( int status )
+                {
+                    invalidation.run();
+                }
+            } );
+        }
+    }
 }
@@ -83,6 +83,7 @@ public class DefaultUserGroupService
     public long addUserGroup( UserGroup userGroup )
     {
         userGroupStore.save( userGroup );
+        currentUserService.invalidateUserGroupCache();
         return userGroup.getId();
     }
 
@@ -91,6 +92,7 @@ public class DefaultUserGroupService
     public void deleteUserGroup( UserGroup userGroup )
     {
         userGroupStore.delete( userGroup );
+        currentUserService.invalidateUserGroupCache();
     }
 
     @Override
@@ -102,6 +104,7 @@ public class DefaultUserGroupService
         // Clear query cache due to sharing and user group membership
 
         cacheManager.clearQueryCache();
+        currentUserService.invalidateUserGroupCache();
     }
 
     @Override
@@ -169,6 +172,8 @@ public class DefaultUserGroupService
                 userGroupStore.updateNoAcl( userGroup );
             }
         }
+
+        currentUserService.invalidateUserGroupCache();
     }
 
     @Override
@@ -184,6 +189,8 @@ public class DefaultUserGroupService
                 userGroupStore.updateNoAcl( userGroup );
             }
         }
+
+        currentUserService.invalidateUserGroupCache();
     }
 
     @Override
@@ -215,6 +222,8 @@ public class DefaultUserGroupService
                 userGroupStore.updateNoAcl( userGroup );
             }
         }
+
+        currentUserService.invalidateUserGroupCache();
     }
 
     private Collection<UserGroup> getUserGroupsByUid( Collection<String> uids )
@@ -33,6 +33,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -411,4 +412,15 @@ public class HibernateUserStore
 
         return QueryUtils.getSingleResult( typedQuery );
     }
+
+    @Override
+    public Set<Long> getUserGroupIds( long userId )
+    {
+        String hql = "select ug.id from UserGroup ug join ug.members m where m.id = :userId";
+
+        TypedQuery<Long> typedQuery = sessionFactory.getCurrentSession().createQuery( hql, Long.class );
+        typedQuery.setParameter( "userId", userId );
+
+        return new HashSet<>( typedQuery.getResultList() );
+    }
 }
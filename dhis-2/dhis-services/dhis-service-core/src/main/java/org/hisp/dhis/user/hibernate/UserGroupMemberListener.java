@@ -0,0 +1,166 @@
+package org.hisp.dhis.user.hibernate;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PreCollectionRecreateEvent;
+import org.hibernate.event.spi.PreCollectionRecreateEventListener;
+import org.hibernate.event.spi.PreCollectionRemoveEvent;
+import org.hibernate.event.spi.PreCollectionRemoveEventListener;
+import org.hibernate.event.spi.PreCollectionUpdateEvent;
+import org.hibernate.event.spi.PreCollectionUpdateEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hisp.dhis.user.CurrentUserService;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserGroup;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Invalidates the cached user group memberships of the users which are added
+ * to or removed from a user group, whichever way the members of the group are
+ * changed. The entries are invalidated when the change is flushed and again
+ * when the transaction completes.
+ */
+@Component
+public class UserGroupMemberListener
+    implements PreCollectionRecreateEventListener, PreCollectionUpdateEventListener, PreCollectionRemoveEventListener
+{
+    private static final String MEMBERS_ROLE = UserGroup.class.getName() + ".members";
+
+    @PersistenceUnit
+    private EntityManagerFactory emf;
+
+    private final CurrentUserService currentUserService;
+
+    public UserGroupMemberListener( CurrentUserService currentUserService )
+    {
+        checkNotNull( currentUserService );
+
+        this.currentUserService = currentUserService;
+    }
+
+    @PostConstruct
+    protected void init()
+    {
+        SessionFactoryImpl sessionFactory = emf.unwrap( SessionFactoryImpl.class );
+
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService( EventListenerRegistry.class );
+
+        registry.getEventListenerGroup( EventType.PRE_COLLECTION_RECREATE ).appendListener( this );
+        registry.getEventListenerGroup( EventType.PRE_COLLECTION_UPDATE ).appendListener( this );
+        registry.getEventListenerGroup( EventType.PRE_COLLECTION_REMOVE ).appendListener( this );
+    }
+
+    @Override
+    public void onPreRecreateCollection( PreCollectionRecreateEvent event )
+    {
+        onMembersChange( event );
+    }
+
+    @Override
+    public void onPreUpdateCollection( PreCollectionUpdateEvent event )
+    {
+        onMembersChange( event );
+    }
+
+    @Override
+    public void onPreRemoveCollection( PreCollectionRemoveEvent event )
+    {
+        onMembersChange( event );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Invalidates the entries of the current members and of the members in
+     * the snapshot, which holds the members before the change. When the
+     * members of a removed group were never loaded, all entries are
+     * invalidated.
+     */
+    private void onMembersChange( AbstractCollectionEvent event )
+    {
+        PersistentCollection collection = event.getCollection();
+
+        if ( !MEMBERS_ROLE.equals( collection.getRole() ) )
+        {
+            return;
+        }
+
+        if ( !collection.wasInitialized() )
+        {
+            currentUserService.invalidateUserGroupCache();
+            return;
+        }
+
+        Set<Long> userIds = new HashSet<>();
+
+        addUserIds( userIds, collection );
+        addUserIds( userIds, collection.getStoredSnapshot() );
+
+        currentUserService.invalidateUserGroupCache( userIds );
+
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            event.getSession().getActionQueue().registerProcess( ( success, session ) ->
+                currentUserService.invalidateUserGroupCache( userIds ) );
+        }
+    }
+
+    private static void addUserIds( Set<Long> userIds, Object members )
+    {
+        Collection<?> users = members instanceof Map ? ((Map<?, ?>) members).values()
+            : members instanceof Collection ? (Collection<?>) members : Collections.emptyList();
+
+        for ( Object user : users )
+        {
+            if ( user instanceof User )
+            {
+                userIds.add( ((User) user).getId() );
+            }
+        }
+    }
+}
@@ -36,12 +36,14 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.hibernate.SessionFactory;
 import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementGroup;
 import org.hisp.dhis.dataelement.DataElementOperand;
@@ -52,12 +54,15 @@ import org.hisp.dhis.hibernate.exception.UpdateAccessDeniedException;
 import org.hisp.dhis.indicator.Indicator;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.security.acl.AccessStringHelper;
+import org.hisp.dhis.user.DefaultCurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserGroup;
 import org.hisp.dhis.user.UserGroupAccess;
+import org.hisp.dhis.user.UserGroupService;
 import org.hisp.dhis.user.UserService;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
@@ -81,6 +86,11 @@ public class IdentifiableObjectManagerTest
     @Autowired
     private UserService _userService;
 
+    private static final String USER_GROUP_ID_CACHE = "USER_GROUP_ID_CACHE";
+
+    @Autowired
+    private UserGroupService userGroupService;
+
     @Override public boolean emptyDatabaseAfterTest()
     {
         return true;
@@ -412,6 +422,63 @@ public class IdentifiableObjectManagerTest
         assertEquals( 4, identifiableObjectManager.getAll( DataElement.class ).size() );
     }
 
+    @Test
+    public void readUserGroupSharedObjectsAfterMembershipChange()
+    {
+        User loginUser = createUserAndInjectSecurityContext( false, "F_DATAELEMENT_PUBLIC_ADD", "F_USER_ADD",
+            "F_USERGROUP_PUBLIC_ADD", UserGroup.AUTH_ADD_MEMBERS_TO_READ_ONLY_USER_GROUPS );
+
+        User user = createUser( 'B' );
+        identifiableObjectManager.save( user );
+
+        UserGroup userGroup = createUserGroup( 'A', Sets.newHashSet( user ) );
+        identifiableObjectManager.save( userGroup );
+
+        identifiableObjectManager.save( createDataElement( 'A' ) );
+        identifiableObjectManager.save( createDataElement( 'B' ) );
+
+        for ( DataElement dataElement : identifiableObjectManager.getAll( DataElement.class ) )
+        {
+            dataElement.setUser( user );
+            dataElement.setPublicAccess( AccessStringHelper.newInstance().build() );
+
+            UserGroupAccess userGroupAccess = new UserGroupAccess();
+            userGroupAccess.setAccess( AccessStringHelper.READ );
+            userGroupAccess.setUserGroup( userGroup );
+
+            sessionFactory.getCurrentSession().save( userGroupAccess );
+
+            dataElement.getUserGroupAccesses().add( userGroupAccess );
+            sessionFactory.getCurrentSession().update( dataElement );
+        }
+
+        // Memberships are cached in production, the cache is disabled in
+        // test runs
+
+        Object userGroupIdCache = ReflectionTestUtils.getField( DefaultCurrentUserService.class,
+            USER_GROUP_ID_CACHE );
+
+        ReflectionTestUtils.setField( DefaultCurrentUserService.class, USER_GROUP_ID_CACHE,
+            new SimpleCacheBuilder<HashSet>().forRegion( "userGroupIdCache" ).withMaximumSize( 100 ).build() );
+
+        try
+        {
+            assertEquals( 0, identifiableObjectManager.getAll( DataElement.class ).size() );
+
+            userGroupService.addUserToGroups( loginUser, Sets.newHashSet( userGroup.getUid() ), loginUser );
+
+            assertEquals( 2, identifiableObjectManager.getAll( DataElement.class ).size() );
+
+            userGroupService.removeUserFromGroups( loginUser, Sets.newHashSet( userGroup.getUid() ) );
+
+            assertEquals( 0, identifiableObjectManager.getAll( DataElement.class ).size() );
+        }
+        finally
+        {
+            ReflectionTestUtils.setField( DefaultCurrentUserService.class, USER_GROUP_ID_CACHE, userGroupIdCache );
+        }
+    }
+
     @Test
     public void getByUidTest()
     {
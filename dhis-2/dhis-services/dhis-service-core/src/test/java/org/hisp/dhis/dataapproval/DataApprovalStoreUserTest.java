@@ -225,4 +225,43 @@ public class DataApprovalStoreUserTest
 
         assertEquals( 0, statuses.size() );
     }
+
+    @Test
+    public void testGetDataApprovalStatusesAfterDataSetAssignment()
+    {
+        CategoryOption catOptionA = new CategoryOption( "CategoryOptionA" );
+        categoryService.addCategoryOption( catOptionA );
+
+        org.hisp.dhis.category.Category catA = createCategory( 'A', catOptionA );
+        categoryService.addCategory( catA );
+
+        CategoryCombo catComboA = createCategoryCombo( 'A', catA );
+        categoryService.addCategoryCombo( catComboA );
+
+        CategoryOptionCombo catOptionComboA = createCategoryOptionCombo( catComboA, catOptionA );
+        categoryService.addCategoryOptionCombo( catOptionComboA );
+
+        OrganisationUnit orgUnitE = createOrganisationUnit( 'E', orgUnitA );
+        organisationUnitService.addOrganisationUnit( orgUnitE );
+
+        List<DataApprovalStatus> statuses = dataApprovalStore.getDataApprovalStatuses( workflowA, periodA,
+            Lists.newArrayList( orgUnitE ), orgUnitE.getHierarchyLevel(), catComboA, null, dataApprovalLevelService
+                .getUserDataApprovalLevelsOrLowestLevel( mockCurrentUserService.getCurrentUser(), workflowA ),
+            dataApprovalLevelService.getDataApprovalLevelMap() );
+
+        assertEquals( 0, statuses.size() );
+
+        DataSet dataSet = dataSetService.getAllDataSets().get( 0 );
+        dataSet.addOrganisationUnit( orgUnitE );
+        dataSetService.updateDataSet( dataSet );
+
+        statuses = dataApprovalStore.getDataApprovalStatuses( workflowA, periodA,
+            Lists.newArrayList( orgUnitE ), orgUnitE.getHierarchyLevel(), catComboA, null, dataApprovalLevelService
+                .getUserDataApprovalLevelsOrLowestLevel( mockCurrentUserService.getCurrentUser(), workflowA ),
+            dataApprovalLevelService.getDataApprovalLevelMap() );
+
+        assertEquals( 1, statuses.size() );
+        assertEquals( DataApprovalState.UNAPPROVED_READY, statuses.get( 0 ).getState() );
+        assertEquals( orgUnitE.getUid(), statuses.get( 0 ).getOrganisationUnitUid() );
+    }
 }
@@ -30,22 +30,29 @@ package org.hisp.dhis.fileresource;
 
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
 import java.util.Map;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hisp.dhis.common.IllegalQueryException;
+import org.hisp.dhis.fileresource.events.BinaryFileSavedEvent;
 import org.hisp.dhis.fileresource.events.FileDeletedEvent;
 import org.hisp.dhis.fileresource.events.FileSavedEvent;
 import org.hisp.dhis.fileresource.events.ImageFileSavedEvent;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
@@ -61,6 +68,8 @@ import com.google.common.collect.ImmutableMap;
  */
 public class FileResourceServiceTest
 {
+    private static final byte[] CONTENT = { 1, 2, 3, 4 };
+
     @Mock
     private FileResourceStore fileResourceStore;
 
@@ -91,6 +100,9 @@ public class FileResourceServiceTest
     @Rule
     public MockitoRule rule = MockitoJUnit.rule();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private FileResourceService subject;
 
     @Before
@@ -125,6 +137,56 @@ public class FileResourceServiceTest
         assertThat( event.getFile(), is( file ) );
     }
 
+    @Test
+    public void verifySaveFileReusesStoredContent()
+        throws IOException
+    {
+        FileResource stored = new FileResource( "mycat.pdf", "application/pdf", 4, "md5",
+            FileResourceDomain.PUSH_ANALYSIS );
+
+        FileResource fileResource = new FileResource( "mycopy.pdf", "application/pdf", 4, "md5",
+            FileResourceDomain.PUSH_ANALYSIS );
+
+        File file = temporaryFolder.newFile();
+        Files.write( file.toPath(), CONTENT );
+
+        when( fileResourceStore.getByContent( "md5", 4, "application/pdf", FileResourceDomain.PUSH_ANALYSIS ) )
+            .thenReturn( Collections.singletonList( stored ) );
+        when( fileResourceContentStore.getFileResourceContent( stored.getStorageKey() ) )
+            .thenReturn( new ByteArrayInputStream( CONTENT ) );
+
+        subject.saveFileResource( fileResource, file );
+
+        verify( fileResourceStore ).save( fileResource );
+        verifyZeroInteractions( fileEventPublisher );
+
+        assertThat( fileResource.getStorageKey(), is( stored.getStorageKey() ) );
+        assertThat( fileResource.getStorageStatus(), is( FileResourceStorageStatus.STORED ) );
+    }
+
+    @Test
+    public void verifySaveBytesDoesNotReuseStoredContentWithSameHash()
+    {
+        FileResource stored = new FileResource( "mycat.pdf", "application/pdf", 4, "md5",
+            FileResourceDomain.PUSH_ANALYSIS );
+
+        FileResource fileResource = new FileResource( "mycopy.pdf", "application/pdf", 4, "md5",
+            FileResourceDomain.PUSH_ANALYSIS );
+
+        when( fileResourceStore.getByContent( "md5", 4, "application/pdf", FileResourceDomain.PUSH_ANALYSIS ) )
+            .thenReturn( Collections.singletonList( stored ) );
+        when( fileResourceContentStore.getFileResourceContent( stored.getStorageKey() ) )
+            .thenReturn( new ByteArrayInputStream( new byte[] { 1, 2, 3, 5 } ) );
+        when( sessionFactory.getCurrentSession() ).thenReturn( session );
+
+        subject.saveFileResource( fileResource, CONTENT );
+
+        verify( fileEventPublisher ).publishEvent( any( BinaryFileSavedEvent.class ) );
+
+        assertThat( fileResource.getStorageKey(), is( not( stored.getStorageKey() ) ) );
+        assertThat( fileResource.getStorageStatus(), is( FileResourceStorageStatus.PENDING ) );
+    }
+
     @Test( expected = IllegalQueryException.class )
     public void verifySaveIllegalFileTypeResourceA()
     {
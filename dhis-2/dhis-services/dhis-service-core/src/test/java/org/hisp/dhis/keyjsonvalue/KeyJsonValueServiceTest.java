@@ -92,4 +92,20 @@ public class KeyJsonValueServiceTest
         assertEquals( "Lilly", dogA.getName() );
         assertEquals( "Teddy", dogB.getName() );
     }
+
+    @Test
+    public void testPatchValue()
+    {
+        KeyJsonValue keyJsonValue = new KeyJsonValue( namespace, "3",
+            "{\"name\":\"Fido\",\"color\":\"Brown\",\"owner\":{\"name\":\"Ann\",\"age\":30}}", false );
+
+        keyJsonValueService.addKeyJsonValue( keyJsonValue );
+        keyJsonValueService.patchKeyJsonValue( keyJsonValue,
+            "{\"color\":null,\"owner\":{\"age\":31},\"tags\":[\"a\"]}" );
+
+        keyJsonValue = keyJsonValueService.getKeyJsonValue( namespace, "3", true );
+
+        assertEquals( "{\"name\":\"Fido\",\"owner\":{\"name\":\"Ann\",\"age\":31},\"tags\":[\"a\"]}",
+            keyJsonValue.getValue() );
+    }
 }
@@ -0,0 +1,163 @@
+package org.hisp.dhis.keyjsonvalue;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserAccess;
+import org.hisp.dhis.user.UserGroup;
+import org.hisp.dhis.user.UserGroupAccess;
+import org.hisp.dhis.user.UserGroupService;
+import org.hisp.dhis.user.UserService;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests the sharing restrictions of the key JSON value entry queries, which
+ * require PostgreSQL.
+ */
+public class KeyJsonValueStoreSharingTest
+    extends IntegrationTestBase
+{
+    private static final String NAMESPACE = "sharing";
+
+    @Autowired
+    private KeyJsonValueStore keyJsonValueStore;
+
+    @Autowired
+    private UserGroupService userGroupService;
+
+    @Autowired
+    private UserService _userService;
+
+    private User owner;
+
+    private User userReader;
+
+    private User groupReader;
+
+    private User stranger;
+
+    @Override
+    public boolean emptyDatabaseAfterTest()
+    {
+        return true;
+    }
+
+    @Override
+    public void setUpTest()
+    {
+        userService = _userService;
+
+        owner = createUser( "owner" );
+        userReader = createUser( "userreader" );
+        groupReader = createUser( "groupreader" );
+        stranger = createUser( "stranger" );
+
+        UserGroup userGroup = createUserGroup( 'A', Sets.newHashSet( groupReader ) );
+        userGroupService.addUserGroup( userGroup );
+
+        addValue( "public", owner, "r-------" );
+        addValue( "dataReadOnly", owner, "--r-----" );
+        addValue( "ownerless", null, "--------" );
+
+        KeyJsonValue shared = newValue( "shared", owner, "--------" );
+        shared.getUserAccesses().add( new UserAccess( userReader, "r-------" ) );
+        shared.getUserGroupAccesses().add( new UserGroupAccess( userGroup, "r-------" ) );
+        keyJsonValueStore.save( shared, false );
+
+        dbmsManager.flushSession();
+    }
+
+    @Test
+    public void testOwnerReadsOwnValues()
+    {
+        assertEquals( Lists.newArrayList( "dataReadOnly", "ownerless", "public", "shared" ), getKeys( owner ) );
+    }
+
+    @Test
+    public void testUserAccessGrantsRead()
+    {
+        assertEquals( Lists.newArrayList( "ownerless", "public", "shared" ), getKeys( userReader ) );
+    }
+
+    @Test
+    public void testUserGroupAccessGrantsRead()
+    {
+        assertEquals( Lists.newArrayList( "ownerless", "public", "shared" ), getKeys( groupReader ) );
+    }
+
+    @Test
+    public void testNoAccessHidesValues()
+    {
+        assertEquals( Lists.newArrayList( "ownerless", "public" ), getKeys( stranger ) );
+    }
+
+    private List<String> getKeys( User user )
+    {
+        injectSecurityContext( user );
+
+        try
+        {
+            KeyJsonValueQueryParams params = new KeyJsonValueQueryParams().setNamespace( NAMESPACE );
+
+            return keyJsonValueStore.getKeyJsonValueEntries( params ).stream()
+                .map( KeyJsonValueEntry::getKey )
+                .collect( Collectors.toList() );
+        }
+        finally
+        {
+            clearSecurityContext();
+        }
+    }
+
+    private void addValue( String key, User user, String publicAccess )
+    {
+        keyJsonValueStore.save( newValue( key, user, publicAccess ), false );
+    }
+
+    private KeyJsonValue newValue( String key, User user, String publicAccess )
+    {
+        KeyJsonValue keyJsonValue = new KeyJsonValue();
+        keyJsonValue.setNamespace( NAMESPACE );
+        keyJsonValue.setKey( key );
+        keyJsonValue.setValue( "{}" );
+        keyJsonValue.setUser( user );
+        keyJsonValue.setPublicAccess( publicAccess );
+        return keyJsonValue;
+    }
+}
@@ -29,21 +29,33 @@
 package org.hisp.dhis.query.planner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.beans.PropertyDescriptor;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 import org.apache.commons.beanutils.PropertyUtils;
+import org.hibernate.Criteria;
+import org.hibernate.criterion.CriteriaQuery;
 import org.hisp.dhis.attribute.Attribute;
+import org.hisp.dhis.common.UserContext;
 import org.hisp.dhis.query.Junction;
 import org.hisp.dhis.query.Query;
+import org.hisp.dhis.query.Restriction;
 import org.hisp.dhis.query.Restrictions;
+import org.hisp.dhis.query.operators.MatchMode;
+import org.hisp.dhis.query.operators.TranslatableLikeCriterion;
+import org.hisp.dhis.query.operators.TranslatableOperator;
 import org.hisp.dhis.schema.Property;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.schema.descriptors.OrganisationUnitSchemaDescriptor;
+import org.hisp.dhis.user.UserSettingKey;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -185,6 +197,153 @@ public class DefaultQueryPlannerTest
         assertEquals( nonPersistedQuery.getRootJunctionType(), Junction.Type.AND );
     }
 
+    @Test
+    public void verifyPlanQuerySplitsPersistedAndNonPersistedCriterions()
+        throws Exception
+    {
+        final Attribute attribute = new Attribute();
+        final Map<String, Property> propertyMap = new HashMap<>();
+        addProperty( propertyMap, attribute, "id", true );
+        addProperty( propertyMap, attribute, "name", false );
+        Schema schema = new OrganisationUnitSchemaDescriptor().getSchema();
+        schema.setPropertyMap( propertyMap );
+
+        Query query = Query.from( schema, Junction.Type.AND );
+        query.setMaxResults( 10 );
+        query.setFirstResult( 500 );
+
+        query.add( Restrictions.eq( "name", "test" ) );
+        query.add( Restrictions.eq( "id", 100 ) );
+
+        QueryPlan queryPlan = subject.planQuery( query, false );
+
+        Query persistedQuery = queryPlan.getPersistedQuery();
+        assertEquals( 1, persistedQuery.getCriterions().size() );
+        assertEquals( "id", ((Restriction) persistedQuery.getCriterions().get( 0 )).getPath() );
+        assertTrue( persistedQuery.isSkipPaging() );
+
+        Query nonPersistedQuery = queryPlan.getNonPersistedQuery();
+        assertEquals( 1, nonPersistedQuery.getCriterions().size() );
+        assertEquals( "name", ((Restriction) nonPersistedQuery.getCriterions().get( 0 )).getPath() );
+        assertEquals( 500, nonPersistedQuery.getFirstResult().intValue() );
+        assertEquals( 10, nonPersistedQuery.getMaxResults().intValue() );
+    }
+
+    @Test
+    public void verifyPlanQueryPushesDownDisplayNameWithoutLocale()
+        throws Exception
+    {
+        final Attribute attribute = new Attribute();
+        final Map<String, Property> propertyMap = new HashMap<>();
+        addProperty( propertyMap, attribute, "id", true );
+        addProperty( propertyMap, attribute, "name", true );
+        addProperty( propertyMap, attribute, "displayName", false );
+        Schema schema = new OrganisationUnitSchemaDescriptor().getSchema();
+        schema.setPropertyMap( propertyMap );
+
+        Query query = Query.from( schema, Junction.Type.AND );
+        query.setMaxResults( 50 );
+        query.add( Restrictions.ilike( "displayName", "malaria", MatchMode.ANYWHERE ) );
+
+        QueryPlan queryPlan = subject.planQuery( query, false );
+
+        Query persistedQuery = queryPlan.getPersistedQuery();
+        assertEquals( 1, persistedQuery.getCriterions().size() );
+        assertEquals( "name", ((Restriction) persistedQuery.getCriterions().get( 0 )).getPath() );
+        assertFalse( persistedQuery.isSkipPaging() );
+        assertEquals( 50, persistedQuery.getMaxResults().intValue() );
+
+        assertTrue( queryPlan.getNonPersistedQuery().isEmpty() );
+    }
+
+    @Test
+    public void verifyPlanQueryPushesDownDisplayNameWithLocale()
+        throws Exception
+    {
+        final Attribute attribute = new Attribute();
+        final Map<String, Property> propertyMap = new HashMap<>();
+        addProperty( propertyMap, attribute, "id", true );
+        addProperty( propertyMap, attribute, "name", true );
+        addProperty( propertyMap, attribute, "translations", true );
+        addProperty( propertyMap, attribute, "displayName", false );
+        Schema schema = new OrganisationUnitSchemaDescriptor().getSchema();
+        schema.setPropertyMap( propertyMap );
+
+        Query query = Query.from( schema, Junction.Type.AND );
+        query.add( Restrictions.ilike( "displayName", "malaria", MatchMode.ANYWHERE ) );
+
+        UserContext.setUserSetting( UserSettingKey.DB_LOCALE, Locale.FRENCH );
+
+        try
+        {
+            QueryPlan queryPlan = subject.planQuery( query, false );
+
+            Query persistedQuery = queryPlan.getPersistedQuery();
+            assertEquals( 1, persistedQuery.getCriterions().size() );
+
+            Restriction restriction = (Restriction) persistedQuery.getCriterions().get( 0 );
+            assertTrue( restriction.getOperator() instanceof TranslatableOperator );
+            assertEquals( "name", restriction.getQueryPath().getPath() );
+            assertTrue( restriction.getOperator().getHibernateCriterion( restriction.getQueryPath() ) instanceof TranslatableLikeCriterion );
+
+            assertTrue( queryPlan.getNonPersistedQuery().isEmpty() );
+        }
+        finally
+        {
+            UserContext.reset();
+        }
+    }
+
+    @Test
+    public void verifyPlanQueryPushesDownNegatedDisplayNameWithLocale()
+        throws Exception
+    {
+        final Attribute attribute = new Attribute();
+        final Map<String, Property> propertyMap = new HashMap<>();
+        addProperty( propertyMap, attribute, "id", true );
+        addProperty( propertyMap, attribute, "name", true );
+        addProperty( propertyMap, attribute, "translations", true );
+        addProperty( propertyMap, attribute, "displayName", false );
+        Schema schema = new OrganisationUnitSchemaDescriptor().getSchema();
+        schema.setPropertyMap( propertyMap );
+
+        Query query = Query.from( schema, Junction.Type.AND );
+        query.add( Restrictions.notIlike( "displayName", "malaria", MatchMode.ANYWHERE ) );
+
+        UserContext.setUserSetting( UserSettingKey.DB_LOCALE, Locale.FRENCH );
+
+        try
+        {
+            QueryPlan queryPlan = subject.planQuery( query, false );
+
+            Query persistedQuery = queryPlan.getPersistedQuery();
+            assertEquals( 1, persistedQuery.getCriterions().size() );
+
+            Restriction restriction = (Restriction) persistedQuery.getCriterions().get( 0 );
+            assertTrue( restriction.getOperator() instanceof TranslatableOperator );
+
+            Criteria criteria = mock( Criteria.class );
+            CriteriaQuery criteriaQuery = mock( CriteriaQuery.class );
+            when( criteriaQuery.getColumnsUsingProjection( criteria, "name" ) ).thenReturn( new String[] { "name" } );
+            when( criteriaQuery.getColumnsUsingProjection( criteria, "translations" ) )
+                .thenReturn( new String[] { "translations" } );
+
+            String sql = restriction.getOperator().getHibernateCriterion( restriction.getQueryPath() )
+                .toSqlString( criteria, criteriaQuery );
+
+            assertTrue( sql.startsWith( "not " ) );
+            assertTrue( sql.contains( "lower(coalesce(" ) );
+
+            assertFalse( restriction.getOperator().test( "Malaria program" ) );
+            assertTrue( restriction.getOperator().test( "Polio program" ) );
+            assertTrue( queryPlan.getNonPersistedQuery().isEmpty() );
+        }
+        finally
+        {
+            UserContext.reset();
+        }
+    }
+
     private void addProperty( Map<String, Property> propertyMap, Object bean, String property, boolean persisted )
         throws Exception
     {
@@ -80,6 +80,8 @@ public class DefaultReservedValueServiceTest
 
     private static TextPattern simpleStringPattern;
 
+    private static TextPattern smallRandomTextPattern;
+
     private static ReservedValue simpleReservedValue;
 
     @BeforeClass
@@ -98,6 +100,7 @@ public class DefaultReservedValueServiceTest
         simpleSequentialTextPattern = createTextPattern( tea, "\"TEST-\"+SEQUENTIAL(##)" );
         simpleRandomTextPattern = createTextPattern( tea, "\"TEST-\"+RANDOM(XXX)" );
         simpleStringPattern = createTextPattern( tea, "\"TEST-\"+ORG_UNIT_CODE(..)" );
+        smallRandomTextPattern = createTextPattern( tea, "\"TEST-\"+RANDOM(#)" );
 
         // Set up reserved values
         simpleReservedValue = createReservedValue( tea, "FOOBAR" );
@@ -185,6 +188,24 @@ public class DefaultReservedValueServiceTest
         assertEquals( 3, all.size() );
     }
 
+    @Test
+    public void testReserveReserveAllRandomValues()
+        throws Exception
+    {
+        assertEquals( 10, reservedValueService.getNumberOfAvailableValues( smallRandomTextPattern, new HashMap<>() ) );
+
+        List<ReservedValue> res = reservedValueService.reserve( smallRandomTextPattern, 6, new HashMap<>(), future );
+
+        assertEquals( 6, res.size() );
+        assertEquals( 4, reservedValueService.getNumberOfAvailableValues( smallRandomTextPattern, new HashMap<>() ) );
+
+        res.addAll( reservedValueService.reserve( smallRandomTextPattern, 4, new HashMap<>(), future ) );
+
+        assertEquals( 10, res.stream().map( ReservedValue::getValue ).distinct().count() );
+        assertEquals( 10, reservedValueStore.getCount() );
+        assertEquals( 0, reservedValueService.getNumberOfAvailableValues( smallRandomTextPattern, new HashMap<>() ) );
+    }
+
     @Test
     public void testReserveReserveASequentialValueWhenNotUsed()
         throws Exception
@@ -217,6 +217,17 @@ public class HibernateReservedValueStoreTest
         assertEquals( 1, res.size() );
     }
 
+    @Test
+    public void getAvailableValuesExcludesReservedAndUsedValues()
+    {
+        List<String> candidates = Lists.newArrayList( "001", "002", "003", "004" );
+
+        List<String> res = reservedValueStore.getAvailableValues( reservedValueA, candidates );
+
+        assertEquals( Lists.newArrayList( "003", "004" ), res );
+        assertEquals( 4, candidates.size() );
+    }
+
     @Test
     public void removeExpiredReservationsRemovesExpiredReservation()
     {
@@ -0,0 +1,191 @@
+package org.hisp.dhis.scheduling;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.leader.election.LeaderManager;
+import org.hisp.dhis.message.MessageService;
+import org.hisp.dhis.scheduling.parameters.AnalyticsJobParameters;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+
+public class DefaultSchedulingManagerTest
+{
+    @Mock
+    private JobConfigurationService jobConfigurationService;
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private LeaderManager leaderManager;
+
+    @Mock
+    private TaskScheduler jobScheduler;
+
+    @Mock
+    private AsyncListenableTaskExecutor jobExecutor;
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Mock
+    private JobQueueStore jobQueueStore;
+
+    @Mock
+    private DhisConfigurationProvider dhisConfig;
+
+    @Captor
+    private ArgumentCaptor<Runnable> runnableCaptor;
+
+    @Rule
+    public MockitoRule rule = MockitoJUnit.rule();
+
+    private DefaultSchedulingManager subject;
+
+    private JobConfiguration jobConfiguration;
+
+    @Before
+    public void setUp()
+    {
+        when( dhisConfig.isEnabled( ConfigurationKey.SYSTEM_JOB_QUEUE_ENABLED ) ).thenReturn( true );
+        when( dhisConfig.getProperty( ConfigurationKey.NODE_ID ) ).thenReturn( "nodeA" );
+        when( dhisConfig.getProperty( ConfigurationKey.SYSTEM_JOB_QUEUE_CAPACITY ) ).thenReturn( "2" );
+
+        subject = new DefaultSchedulingManager( jobConfigurationService, messageService, leaderManager, jobScheduler,
+            jobExecutor, applicationContext, jobQueueStore, dhisConfig );
+
+        jobConfiguration = new JobConfiguration( "Analytics", JobType.ANALYTICS_TABLE, "0 0 3 ? * *", new AnalyticsJobParameters() );
+        jobConfiguration.setUid( "jobConfigA" );
+    }
+
+    @Test
+    public void testScheduledJobIsEnqueuedByLeader()
+    {
+        when( leaderManager.isLeader() ).thenReturn( true );
+
+        subject.scheduleJob( jobConfiguration );
+
+        verify( jobScheduler ).schedule( runnableCaptor.capture(), any( Trigger.class ) );
+
+        runnableCaptor.getValue().run();
+
+        verify( jobQueueStore ).enqueue( jobConfiguration );
+        verifyZeroInteractions( jobExecutor );
+    }
+
+    @Test
+    public void testScheduledJobIsNotEnqueuedByFollower()
+    {
+        when( leaderManager.isLeader() ).thenReturn( false );
+
+        subject.scheduleJob( jobConfiguration );
+
+        verify( jobScheduler ).schedule( runnableCaptor.capture(), any( Trigger.class ) );
+
+        runnableCaptor.getValue().run();
+
+        verify( jobQueueStore, never() ).enqueue( any() );
+    }
+
+    @Test
+    public void testPollClaimsUpToCapacity()
+    {
+        when( leaderManager.isLeader() ).thenReturn( false );
+        when( jobQueueStore.claim( anyString() ) ).thenReturn(
+            new JobQueueEntry( 1L, "jobConfigA", "nodeA", 1 ), new JobQueueEntry( 2L, "jobConfigB", "nodeA", 1 ),
+            new JobQueueEntry( 3L, "jobConfigC", "nodeA", 1 ) );
+
+        subject.init();
+
+        verify( jobScheduler ).scheduleWithFixedDelay( runnableCaptor.capture(), any( Instant.class ), any( Duration.class ) );
+
+        runnableCaptor.getValue().run();
+
+        verify( jobQueueStore, times( 2 ) ).claim( "nodeA" );
+        verify( jobQueueStore, never() ).requeueStale( anyInt(), anyInt() );
+        verify( jobExecutor, times( 2 ) ).execute( any( Runnable.class ) );
+    }
+
+    @Test
+    public void testPollRequeuesStaleEntriesOnLeader()
+    {
+        when( leaderManager.isLeader() ).thenReturn( true );
+
+        subject.init();
+
+        verify( jobScheduler ).scheduleWithFixedDelay( runnableCaptor.capture(), any( Instant.class ), any( Duration.class ) );
+
+        runnableCaptor.getValue().run();
+
+        verify( jobQueueStore ).requeueStale( anyInt(), anyInt() );
+        verify( jobQueueStore ).claim( "nodeA" );
+        verifyZeroInteractions( jobExecutor );
+    }
+
+    @Test
+    public void testJobConfigurationIsRunningOnOtherNode()
+    {
+        when( jobQueueStore.isRunningOnOtherNode( JobType.ANALYTICS_TABLE, "nodeA" ) ).thenReturn( true );
+
+        subject.init();
+
+        assertTrue( subject.isJobConfigurationRunning( jobConfiguration ) );
+    }
+
+    @Test
+    public void testJobConfigurationIsNotRunning()
+    {
+        when( jobQueueStore.isRunningOnOtherNode( JobType.ANALYTICS_TABLE, "nodeA" ) ).thenReturn( false );
+
+        subject.init();
+
+        assertFalse( subject.isJobConfigurationRunning( jobConfiguration ) );
+    }
+}
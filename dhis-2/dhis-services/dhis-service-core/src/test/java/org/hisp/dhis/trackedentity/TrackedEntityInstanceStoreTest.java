@@ -32,6 +32,7 @@ import org.hisp.dhis.DhisSpringTest;
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.OrganisationUnitSelectionMode;
+import org.hisp.dhis.common.QueryFilter;
 import org.hisp.dhis.common.QueryItem;
 import org.hisp.dhis.common.QueryOperator;
 import org.hisp.dhis.common.ValueType;
@@ -45,10 +46,14 @@ import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValueServ
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.core.Is.is;
@@ -319,4 +324,42 @@ public class TrackedEntityInstanceStoreTest
         assertThat( grid.get( 0 ).get( atC.getUid() ), is( "OrganisationUnitC" ) );
 
     }
+
+    @Test
+    public void testQueryGridByAttributeValueToken()
+    {
+        TrackedEntityType trackedEntityTypeA = createTrackedEntityType( 'A' );
+        trackedEntityTypeService.addTrackedEntityType( trackedEntityTypeA );
+
+        teiD.setTrackedEntityType( trackedEntityTypeA );
+        teiE.setTrackedEntityType( trackedEntityTypeA );
+        teiF.setTrackedEntityType( trackedEntityTypeA );
+
+        teiStore.save( teiD );
+        teiStore.save( teiE );
+        teiStore.save( teiF );
+
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( atA, teiD, "Male" ) );
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( atA, teiE, "Female" ) );
+        attributeValueService.addTrackedEntityAttributeValue( new TrackedEntityAttributeValue( atB, teiF, "Fem" ) );
+
+        dbmsManager.flushSession();
+
+        QueryItem itemA = new QueryItem( atA );
+        itemA.setValueType( atA.getValueType() );
+        QueryItem itemB = new QueryItem( atB );
+        itemB.setValueType( atB.getValueType() );
+
+        TrackedEntityInstanceQueryParams params = new TrackedEntityInstanceQueryParams()
+            .setTrackedEntityType( trackedEntityTypeA )
+            .setOrganisationUnitMode( OrganisationUnitSelectionMode.ALL )
+            .setAttributes( Lists.newArrayList( itemA, itemB ) )
+            .setQuery( new QueryFilter( QueryOperator.LIKE, "FEM" ) );
+
+        List<Map<String, String>> grid = teiStore.getTrackedEntityInstancesGrid( params );
+
+        assertThat( grid, hasSize( 2 ) );
+        assertThat( grid.stream().map( row -> row.get( TrackedEntityInstanceQueryParams.TRACKED_ENTITY_INSTANCE_ID ) ).collect( Collectors.toSet() ),
+            is( Sets.newHashSet( teiE.getUid(), teiF.getUid() ) ) );
+    }
 }
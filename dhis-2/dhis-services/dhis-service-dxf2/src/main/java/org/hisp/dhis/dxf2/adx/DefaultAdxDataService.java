@@ -28,37 +28,19 @@ package org.hisp.dhis.dxf2.adx;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
-import static org.apache.commons.lang3.StringUtils.trimToNull;
 import static org.hisp.dhis.system.notification.NotificationLevel.INFO;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PipedOutputStream;
 import java.util.*;
-import java.util.concurrent.*;
 
-import javax.xml.stream.XMLOutputFactory;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamWriter;
-
-import org.apache.commons.lang3.StringUtils;
-// TODO: XMLChar is the only used class from Xerces lib, (which is huge) try to find another lib/way to same functionality
-import org.apache.xerces.util.XMLChar;
-import org.hibernate.SessionFactory;
-import org.hisp.dhis.category.Category;
 import org.hisp.dhis.category.CategoryCombo;
-import org.hisp.dhis.category.CategoryComboMap;
-import org.hisp.dhis.category.CategoryComboMap.CategoryComboMapException;
 import org.hisp.dhis.category.CategoryOptionCombo;
-import org.hisp.dhis.common.IdScheme;
 import org.hisp.dhis.common.IdSchemes;
 import org.hisp.dhis.common.IdentifiableObjectManager;
-import org.hisp.dhis.common.IdentifiableProperty;
-import org.hisp.dhis.commons.collection.CachingMap;
 import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.commons.util.StreamUtils;
-import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataset.DataSet;
 import org.hisp.dhis.datavalue.DataExportParams;
 import org.hisp.dhis.datavalue.DataValue;
@@ -74,12 +56,10 @@ import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodService;
 import org.hisp.dhis.scheduling.JobConfiguration;
 import org.hisp.dhis.scheduling.JobType;
-import org.hisp.dhis.system.callable.IdentifiableObjectCallable;
 import org.hisp.dhis.system.notification.NotificationLevel;
 import org.hisp.dhis.system.notification.Notifier;
 import org.hisp.dhis.util.ObjectUtils;
 import org.hisp.staxwax.factory.XMLFactory;
-import org.hisp.staxwax.reader.XMLReader;
 import org.hisp.staxwax.writer.XMLWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -95,8 +75,6 @@ import lombok.extern.slf4j.Slf4j;
 public class DefaultAdxDataService
     implements AdxDataService
 {
-    private static final int TOTAL_MINUTES_TO_WAIT = 5;
-
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -113,9 +91,6 @@ public class DefaultAdxDataService
     @Autowired
     private IdentifiableObjectManager identifiableObjectManager;
 
-    @Autowired
-    private SessionFactory sessionFactory;
-
     @Autowired
     private Notifier notifier;
 
@@ -256,93 +231,29 @@ public class DefaultAdxDataService
         ImportOptions adxImportOptions = ObjectUtils.firstNonNull( importOptions, ImportOptions.getDefaultImportOptions() )
             .instance().setNotificationLevel( NotificationLevel.OFF );
 
-        // Get import options
-        IdScheme dataSetIdScheme = importOptions.getIdSchemes().getDataSetIdScheme();
-        IdScheme dataElementIdScheme = importOptions.getIdSchemes().getDataElementIdScheme();
-
-        // Create meta-data maps
-        CachingMap<String, DataSet> dataSetMap = new CachingMap<>();
-        CachingMap<String, DataElement> dataElementMap = new CachingMap<>();
-
-        // Get meta-data maps
-        IdentifiableObjectCallable<DataSet> dataSetCallable = new IdentifiableObjectCallable<>(
-            identifiableObjectManager, DataSet.class, dataSetIdScheme, null );
-        IdentifiableObjectCallable<DataElement> dataElementCallable = new IdentifiableObjectCallable<>(
-            identifiableObjectManager, DataElement.class, dataElementIdScheme, null );
-
-        // Heat cache
-        if ( importOptions.isPreheatCacheDefaultFalse() )
-        {
-            dataSetMap.load( identifiableObjectManager.getAll( DataSet.class ), o -> o.getPropertyValue( dataSetIdScheme ) );
-            dataElementMap.load( identifiableObjectManager.getAll( DataElement.class ), o -> o.getPropertyValue( dataElementIdScheme ) );
-        }
-
-        XMLReader adxReader = XMLFactory.getXMLReader( in );
-
-        ImportSummary importSummary;
-
-        adxReader.moveToStartElement( AdxDataService.ROOT, AdxDataService.NAMESPACE );
-
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-
         // For Async runs, give the DXF import a different notification task ID so it doesn't conflict with notifications from this level.
         JobConfiguration dxfJobId = ( id == null ) ? null : new JobConfiguration( "dxfJob", JobType.DATAVALUE_IMPORT_INTERNAL, id.getUserUid(), true );
 
-        int groupCount = 0;
-
-        try ( PipedOutputStream pipeOut = new PipedOutputStream() )
-        {
-            Future<ImportSummary> futureImportSummary = executor.submit( new AdxPipedImporter(
-                dataValueSetService, adxImportOptions, dxfJobId, pipeOut, sessionFactory ) );
-            XMLOutputFactory factory = XMLOutputFactory.newInstance();
-            XMLStreamWriter dxfWriter = factory.createXMLStreamWriter( pipeOut );
-
-            List<ImportConflict> adxConflicts = new LinkedList<>();
-
-            dxfWriter.writeStartDocument( "1.0" );
-            dxfWriter.writeStartElement( "dataValueSet" );
-            dxfWriter.writeDefaultNamespace( "http://dhis2.org/schema/dxf/2.0" );
-
-            notifier.notify( id, "Starting to import ADX data groups." );
-
-            while ( adxReader.moveToStartElement( AdxDataService.GROUP, AdxDataService.NAMESPACE ) )
-            {
-                notifier.update( id, "Importing ADX data group: " + groupCount );
-
-                // note this returns conflicts which are detected at ADX level
-                adxConflicts.addAll( parseAdxGroupToDxf( adxReader, dxfWriter, adxImportOptions,
-                    dataSetMap, dataSetCallable, dataElementMap, dataElementCallable) );
-                groupCount++;
-            }
+        notifier.notify( id, "Starting to import ADX data groups." );
 
-            dxfWriter.writeEndElement(); // end dataValueSet
-            dxfWriter.writeEndDocument();
+        // ADX data values are translated while the import pulls them, without an intermediate DXF stream
+        StreamingAdxDataValueSet dataValueSet = new StreamingAdxDataValueSet(
+            XMLFactory.getXMLReader( in ), adxImportOptions, identifiableObjectManager );
 
-            pipeOut.flush();
+        ImportSummary importSummary = dataValueSetService.saveDataValueSet( dataValueSet, adxImportOptions, dxfJobId );
 
-            importSummary = futureImportSummary.get( TOTAL_MINUTES_TO_WAIT, TimeUnit.MINUTES );
-            importSummary.getConflicts().addAll( adxConflicts );
-            importSummary.getImportCount().incrementIgnored( adxConflicts.size() );
-        }
-        catch ( AdxException ex )
-        {
-            importSummary = new ImportSummary();
-            importSummary.setStatus( ImportStatus.ERROR );
-            importSummary.setDescription( "Data set import failed within group number: " + groupCount );
-            importSummary.getConflicts().add( ex.getImportConflict() );
-            notifier.update( id, NotificationLevel.ERROR, "ADX data import done", true );
-            log.warn( "Import failed: " + DebugUtils.getStackTrace( ex ) );
-        }
-        catch ( IOException | XMLStreamException | InterruptedException | ExecutionException | TimeoutException ex )
+        if ( dataValueSet.getGroupError() != null )
         {
-            importSummary = new ImportSummary();
             importSummary.setStatus( ImportStatus.ERROR );
-            importSummary.setDescription( "Data set import failed within group number: " + groupCount );
+            importSummary.setDescription( "Data set import failed within group number: " + dataValueSet.getGroupCount() );
+            importSummary.getConflicts().add( dataValueSet.getGroupError().getImportConflict() );
             notifier.update( id, NotificationLevel.ERROR, "ADX data import done", true );
-            log.warn( "Import failed: " + DebugUtils.getStackTrace( ex ) );
         }
 
-        executor.shutdown();
+        List<ImportConflict> adxConflicts = dataValueSet.getAdxConflicts();
+
+        importSummary.getConflicts().addAll( adxConflicts );
+        importSummary.getImportCount().incrementIgnored( adxConflicts.size() );
 
         notifier.update( id, INFO, "ADX data import done", true ).addJobSummary( id, importSummary, ImportSummary.class );
 
@@ -351,264 +262,4 @@ public class DefaultAdxDataService
 
         return importSummary;
     }
-
-    // -------------------------------------------------------------------------
-    // Utility methods
-    // -------------------------------------------------------------------------
-
-    private List<ImportConflict> parseAdxGroupToDxf( XMLReader adxReader, XMLStreamWriter dxfWriter, ImportOptions importOptions,
-        CachingMap<String, DataSet> dataSetMap, IdentifiableObjectCallable<DataSet> dataSetCallable,
-        CachingMap<String, DataElement> dataElementMap, IdentifiableObjectCallable<DataElement> dataElementCallable )
-        throws XMLStreamException, AdxException
-    {
-        List<ImportConflict> adxConflicts = new LinkedList<>();
-
-        IdScheme categoryOptionComboIdScheme = importOptions.getIdSchemes().getCategoryOptionComboIdScheme();
-        IdScheme categoryOptionIdScheme = importOptions.getIdSchemes().getCategoryOptionIdScheme();
-
-        Map<String, String> groupAttributes = adxReader.readAttributes();
-
-        if ( !groupAttributes.containsKey( AdxDataService.PERIOD ) )
-        {
-            throw new AdxException( AdxDataService.PERIOD + " attribute is required on 'group'" );
-        }
-
-        if ( !groupAttributes.containsKey( AdxDataService.ORGUNIT ) )
-        {
-            throw new AdxException( AdxDataService.ORGUNIT + " attribute is required on 'group'" );
-        }
-
-        // translate ADX period to DXF
-        String periodStr = groupAttributes.get( AdxDataService.PERIOD );
-        groupAttributes.remove( AdxDataService.PERIOD );
-        Period period = AdxPeriod.parse( periodStr );
-        groupAttributes.put( AdxDataService.PERIOD, period.getIsoDate() );
-
-        // process ADX group attributes
-        if ( !groupAttributes.containsKey( AdxDataService.ATTOPTCOMBO )
-            && groupAttributes.containsKey( AdxDataService.DATASET ) )
-        {
-            log.debug( "No attribute option combo present, check data set for attribute category combo" );
-
-            String dataSetStr = trimToNull( groupAttributes.get( AdxDataService.DATASET ) );
-            final DataSet dataSet = dataSetMap.get( dataSetStr, dataSetCallable.setId( dataSetStr ) );
-
-            if ( dataSet == null )
-            {
-                throw new AdxException( "No data set matching " + dataSetCallable.getIdScheme().name().toLowerCase()
-                    + " '" + groupAttributes.get( AdxDataService.DATASET ) + "'" );
-            }
-
-            groupAttributes.put( AdxDataService.DATASET, dataSet.getUid() );
-            CategoryCombo attributeCombo = dataSet.getCategoryCombo();
-            convertAttributesToDxf( groupAttributes, AdxDataService.ATTOPTCOMBO, attributeCombo,
-                    categoryOptionIdScheme, categoryOptionComboIdScheme );
-        }
-
-        // process the dataValues
-        while ( adxReader.moveToStartElement( AdxDataService.DATAVALUE, AdxDataService.GROUP ) )
-        {
-            try
-            {
-                parseADXDataValueToDxf( adxReader, dxfWriter, groupAttributes, importOptions,
-                    dataElementMap, dataElementCallable );
-            }
-            catch ( AdxException ex )
-            {
-                adxConflicts.add( ex.getImportConflict() );
-
-                log.info( "ADX data value conflict: " + ex.getImportConflict() );
-            }
-        }
-
-        return adxConflicts;
-    }
-
-    private void parseADXDataValueToDxf( XMLReader adxReader, XMLStreamWriter dxfWriter,
-        Map<String, String> groupAttributes, ImportOptions importOptions,
-        CachingMap<String, DataElement> dataElementMap, IdentifiableObjectCallable<DataElement> dataElementCallable )
-        throws XMLStreamException, AdxException
-    {
-        Map<String, String> dvAttributes = adxReader.readAttributes();
-
-        log.debug( "Processing data value: " + dvAttributes );
-
-        if ( !dvAttributes.containsKey( AdxDataService.DATAELEMENT ) )
-        {
-            throw new AdxException( AdxDataService.DATAELEMENT + " attribute is required on 'dataValue'" );
-        }
-
-        if ( !dvAttributes.containsKey( AdxDataService.VALUE ) )
-        {
-            throw new AdxException( AdxDataService.VALUE + " attribute is required on 'dataValue'" );
-        }
-
-        IdScheme categoryOptionComboIdScheme = importOptions.getIdSchemes().getCategoryOptionComboIdScheme();
-        IdScheme categoryOptionIdScheme = importOptions.getIdSchemes().getCategoryOptionIdScheme();
-
-        String dataElementStr = trimToNull( dvAttributes.get( AdxDataService.DATAELEMENT ) );
-        final DataElement dataElement = dataElementMap.get( dataElementStr, dataElementCallable.setId( dataElementStr ) );
-
-        if ( dataElement == null )
-        {
-            throw new AdxException( "No data element matching " + dataElementCallable.getIdScheme().name().toLowerCase()
-                + " '" + dataElementStr + "'" );
-        }
-
-        // process ADX data value attributes
-        if ( !dvAttributes.containsKey( AdxDataService.CATOPTCOMBO ) )
-        {
-            log.debug( "No category option combo present" );
-
-            //TODO expand to allow for category combos part of DataSetElements.
-
-            CategoryCombo categoryCombo = dataElement.getCategoryCombo();
-
-            convertAttributesToDxf( dvAttributes, AdxDataService.CATOPTCOMBO, categoryCombo,
-                    categoryOptionIdScheme, categoryOptionComboIdScheme );
-        }
-
-        // if data element type is not numeric we need to pick out the
-        // 'annotation' element
-        if ( !dataElement.getValueType().isNumeric() )
-        {
-            adxReader.moveToStartElement( AdxDataService.ANNOTATION, AdxDataService.DATAVALUE );
-
-            if ( adxReader.isStartElement( AdxDataService.ANNOTATION ) )
-            {
-                String textValue = adxReader.getElementValue();
-                dvAttributes.put( AdxDataService.VALUE, textValue );
-            }
-            else
-            {
-                throw new AdxException( dvAttributes.get( AdxDataService.DATAELEMENT ),
-                    "DataElement expects text annotation" );
-            }
-        }
-
-        log.debug( "Processing data value as DXF: " + dvAttributes );
-
-        dxfWriter.writeStartElement( "dataValue" );
-
-        // write the group attributes through to DXF stream
-        for ( String attribute : groupAttributes.keySet() )
-        {
-            dxfWriter.writeAttribute( attribute, groupAttributes.get( attribute ) );
-        }
-
-        // pass through the remaining attributes to DXF
-        for ( String attribute : dvAttributes.keySet() )
-        {
-            dxfWriter.writeAttribute( attribute, dvAttributes.get( attribute ) );
-        }
-
-        dxfWriter.writeEndElement(); // dataValue
-    }
-
-    private Map<String, Category> getCodeCategoryMap( CategoryCombo categoryCombo )
-        throws AdxException
-    {
-        Map<String, Category> categoryMap = new HashMap<>();
-
-        List<Category> categories = categoryCombo.getCategories();
-
-        for ( Category category : categories )
-        {
-            String categoryCode = category.getCode();
-
-            if ( categoryCode == null || !XMLChar.isValidName( categoryCode ) )
-            {
-                throw new AdxException(
-                    "Category code for " + category.getName() + " is missing or invalid: " + categoryCode );
-            }
-
-            categoryMap.put( category.getCode(), category );
-        }
-
-        return categoryMap;
-    }
-
-    private CategoryOptionCombo getCatOptComboFromAttributes( Map<String, String> attributes,
-        CategoryCombo catcombo, IdentifiableProperty scheme )
-        throws AdxException
-    {
-        CategoryComboMap catcomboMap;
-
-        try
-        {
-            catcomboMap = new CategoryComboMap( catcombo, scheme );
-        }
-        catch ( CategoryComboMapException ex )
-        {
-            log.info( "Failed to create category combo map from: " + catcombo );
-            throw new AdxException( ex.getMessage() );
-        }
-
-        String compositeIdentifier = StringUtils.EMPTY;
-
-        for ( Category category : catcomboMap.getCategories() )
-        {
-            String categoryCode = category.getCode();
-
-            if ( categoryCode == null )
-            {
-                throw new AdxException( "No category matching: " + categoryCode );
-            }
-
-            String catAttribute = attributes.get( categoryCode );
-
-            if ( catAttribute == null )
-            {
-                throw new AdxException( "Missing required attribute from category combo: " + categoryCode );
-            }
-
-            compositeIdentifier += "\"" + catAttribute + "\"";
-        }
-
-        CategoryOptionCombo catOptionCombo = catcomboMap.getCategoryOptionCombo( compositeIdentifier );
-
-        if ( catOptionCombo == null )
-        {
-            throw new AdxException( "Invalid attributes:" + attributes );
-        }
-
-        return catOptionCombo;
-    }
-
-    private void convertAttributesToDxf( Map<String, String> attributes, String optionComboName,
-            CategoryCombo catCombo,
-            IdScheme catOptIdScheme, IdScheme catOptComboIdScheme )
-        throws AdxException
-    {
-        log.debug( "ADX attributes: " + attributes );
-
-        if ( catCombo.isDefault() )
-        {
-            return;
-        }
-
-        Map<String, Category> categoryMap = getCodeCategoryMap( catCombo );
-
-        Map<String, String> attributeOptions = new HashMap<>();
-
-        for ( String category : categoryMap.keySet() )
-        {
-            if ( attributes.containsKey( category ) )
-            {
-                attributeOptions.put( category, attributes.get( category ) );
-                attributes.remove( category );
-            }
-            else
-            {
-                throw new AdxException(
-                    "Category combo " + catCombo.getName() + " must have " + categoryMap.get( category ).getName() );
-            }
-        }
-
-        CategoryOptionCombo catOptCombo = getCatOptComboFromAttributes( attributeOptions, catCombo, catOptIdScheme.getIdentifiableProperty() );
-
-        attributes.put( optionComboName, catOptCombo.getPropertyValue( catOptComboIdScheme ) );
-
-        log.debug( "DXF attributes: " + attributes );
-    }
 }
@@ -0,0 +1,471 @@
+package org.hisp.dhis.dxf2.adx;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.apache.commons.lang3.StringUtils.trimToNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+// TODO: XMLChar is the only used class from Xerces lib, (which is huge) try to find another lib/way to same functionality
+import org.apache.xerces.util.XMLChar;
+import org.hisp.dhis.category.Category;
+import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.category.CategoryComboMap;
+import org.hisp.dhis.category.CategoryComboMap.CategoryComboMapException;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.common.IdScheme;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.IdentifiableProperty;
+import org.hisp.dhis.commons.collection.CachingMap;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataset.DataSet;
+import org.hisp.dhis.dxf2.common.ImportOptions;
+import org.hisp.dhis.dxf2.datavalue.DataValue;
+import org.hisp.dhis.dxf2.datavalueset.DataValueSet;
+import org.hisp.dhis.dxf2.importsummary.ImportConflict;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.system.callable.IdentifiableObjectCallable;
+import org.hisp.staxwax.reader.XMLReader;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Data value set which reads data values directly from an ADX stream. Group
+ * and data value attributes are translated to DXF data values on the fly, so
+ * the ADX message can be passed straight to the data value set import without
+ * an intermediate DXF document.
+ * <p>
+ * Conflicts on individual data values are collected and the offending value is
+ * skipped. Errors on group level stop the iteration, and are available through
+ * {@link #getGroupError()}.
+ */
+@Slf4j
+public class StreamingAdxDataValueSet
+    extends DataValueSet
+{
+    private static final String STORED_BY = "storedBy";
+    private static final String LAST_UPDATED = "lastUpdated";
+    private static final String COMMENT = "comment";
+    private static final String FOLLOW_UP = "followUp";
+    private static final String DELETED = "deleted";
+
+    private final XMLReader reader;
+
+    private final IdScheme categoryOptionComboIdScheme;
+
+    private final IdScheme categoryOptionIdScheme;
+
+    private final CachingMap<String, DataSet> dataSetMap = new CachingMap<>();
+
+    private final CachingMap<String, DataElement> dataElementMap = new CachingMap<>();
+
+    private final IdentifiableObjectCallable<DataSet> dataSetCallable;
+
+    private final IdentifiableObjectCallable<DataElement> dataElementCallable;
+
+    private final List<ImportConflict> adxConflicts = new ArrayList<>();
+
+    private Map<String, String> groupAttributes;
+
+    private DataValue nextDataValue;
+
+    private AdxException groupError;
+
+    private int groupCount = 0;
+
+    //--------------------------------------------------------------------------
+    // Constructor
+    //--------------------------------------------------------------------------
+
+    public StreamingAdxDataValueSet( XMLReader reader, ImportOptions importOptions, IdentifiableObjectManager identifiableObjectManager )
+    {
+        this.reader = reader;
+
+        IdScheme dataSetIdScheme = importOptions.getIdSchemes().getDataSetIdScheme();
+        IdScheme dataElementIdScheme = importOptions.getIdSchemes().getDataElementIdScheme();
+
+        this.categoryOptionComboIdScheme = importOptions.getIdSchemes().getCategoryOptionComboIdScheme();
+        this.categoryOptionIdScheme = importOptions.getIdSchemes().getCategoryOptionIdScheme();
+
+        this.dataSetCallable = new IdentifiableObjectCallable<>(
+            identifiableObjectManager, DataSet.class, dataSetIdScheme, null );
+        this.dataElementCallable = new IdentifiableObjectCallable<>(
+            identifiableObjectManager, DataElement.class, dataElementIdScheme, null );
+
+        if ( importOptions.isPreheatCacheDefaultFalse() )
+        {
+            dataSetMap.load( identifiableObjectManager.getAll( DataSet.class ), o -> o.getPropertyValue( dataSetIdScheme ) );
+            dataElementMap.load( identifiableObjectManager.getAll( DataElement.class ), o -> o.getPropertyValue( dataElementIdScheme ) );
+        }
+
+        this.reader.moveToStartElement( AdxDataService.ROOT, AdxDataService.NAMESPACE );
+    }
+
+    //--------------------------------------------------------------------------
+    // Getters
+    //--------------------------------------------------------------------------
+
+    /**
+     * Returns the conflicts detected at ADX level, i.e. data values which
+     * could not be translated and were skipped.
+     */
+    public List<ImportConflict> getAdxConflicts()
+    {
+        return adxConflicts;
+    }
+
+    /**
+     * Returns the error which stopped the iteration on group level, or null
+     * if all groups were read.
+     */
+    public AdxException getGroupError()
+    {
+        return groupError;
+    }
+
+    /**
+     * Returns the number of groups read so far.
+     */
+    public int getGroupCount()
+    {
+        return groupCount;
+    }
+
+    //--------------------------------------------------------------------------
+    // Logic
+    //--------------------------------------------------------------------------
+
+    @Override
+    public boolean hasNextDataValue()
+    {
+        while ( nextDataValue == null )
+        {
+            if ( groupAttributes == null && !moveToNextGroup() )
+            {
+                return false;
+            }
+
+            if ( !reader.moveToStartElement( AdxDataService.DATAVALUE, AdxDataService.GROUP ) )
+            {
+                groupAttributes = null;
+                continue;
+            }
+
+            try
+            {
+                nextDataValue = parseAdxDataValue();
+            }
+            catch ( AdxException ex )
+            {
+                adxConflicts.add( ex.getImportConflict() );
+
+                log.info( "ADX data value conflict: " + ex.getImportConflict() );
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public DataValue getNextDataValue()
+    {
+        if ( !hasNextDataValue() )
+        {
+            return null;
+        }
+
+        DataValue dataValue = nextDataValue;
+        nextDataValue = null;
+        return dataValue;
+    }
+
+    //--------------------------------------------------------------------------
+    // Supportive methods
+    //--------------------------------------------------------------------------
+
+    private boolean moveToNextGroup()
+    {
+        if ( groupError != null || !reader.moveToStartElement( AdxDataService.GROUP, AdxDataService.NAMESPACE ) )
+        {
+            return false;
+        }
+
+        try
+        {
+            groupAttributes = parseAdxGroup();
+            groupCount++;
+            return true;
+        }
+        catch ( AdxException ex )
+        {
+            groupError = ex;
+
+            log.warn( "ADX group error within group number " + groupCount + ": " + ex.getMessage() );
+
+            return false;
+        }
+    }
+
+    private Map<String, String> parseAdxGroup()
+        throws AdxException
+    {
+        Map<String, String> attributes = reader.readAttributes();
+
+        if ( !attributes.containsKey( AdxDataService.PERIOD ) )
+        {
+            throw new AdxException( AdxDataService.PERIOD + " attribute is required on 'group'" );
+        }
+
+        if ( !attributes.containsKey( AdxDataService.ORGUNIT ) )
+        {
+            throw new AdxException( AdxDataService.ORGUNIT + " attribute is required on 'group'" );
+        }
+
+        // translate ADX period to DXF
+        Period period = AdxPeriod.parse( attributes.get( AdxDataService.PERIOD ) );
+        attributes.put( AdxDataService.PERIOD, period.getIsoDate() );
+
+        // process ADX group attributes
+        if ( !attributes.containsKey( AdxDataService.ATTOPTCOMBO )
+            && attributes.containsKey( AdxDataService.DATASET ) )
+        {
+            log.debug( "No attribute option combo present, check data set for attribute category combo" );
+
+            String dataSetStr = trimToNull( attributes.get( AdxDataService.DATASET ) );
+            final DataSet dataSet = dataSetMap.get( dataSetStr, dataSetCallable.setId( dataSetStr ) );
+
+            if ( dataSet == null )
+            {
+                throw new AdxException( "No data set matching " + dataSetCallable.getIdScheme().name().toLowerCase()
+                    + " '" + attributes.get( AdxDataService.DATASET ) + "'" );
+            }
+
+            attributes.put( AdxDataService.DATASET, dataSet.getUid() );
+            CategoryCombo attributeCombo = dataSet.getCategoryCombo();
+            convertAttributesToDxf( attributes, AdxDataService.ATTOPTCOMBO, attributeCombo );
+        }
+
+        return attributes;
+    }
+
+    private DataValue parseAdxDataValue()
+        throws AdxException
+    {
+        Map<String, String> dvAttributes = reader.readAttributes();
+
+        log.debug( "Processing data value: " + dvAttributes );
+
+        if ( !dvAttributes.containsKey( AdxDataService.DATAELEMENT ) )
+        {
+            throw new AdxException( AdxDataService.DATAELEMENT + " attribute is required on 'dataValue'" );
+        }
+
+        if ( !dvAttributes.containsKey( AdxDataService.VALUE ) )
+        {
+            throw new AdxException( AdxDataService.VALUE + " attribute is required on 'dataValue'" );
+        }
+
+        String dataElementStr = trimToNull( dvAttributes.get( AdxDataService.DATAELEMENT ) );
+        final DataElement dataElement = dataElementMap.get( dataElementStr, dataElementCallable.setId( dataElementStr ) );
+
+        if ( dataElement == null )
+        {
+            throw new AdxException( "No data element matching " + dataElementCallable.getIdScheme().name().toLowerCase()
+                + " '" + dataElementStr + "'" );
+        }
+
+        // process ADX data value attributes
+        if ( !dvAttributes.containsKey( AdxDataService.CATOPTCOMBO ) )
+        {
+            log.debug( "No category option combo present" );
+
+            //TODO expand to allow for category combos part of DataSetElements.
+
+            CategoryCombo categoryCombo = dataElement.getCategoryCombo();
+
+            convertAttributesToDxf( dvAttributes, AdxDataService.CATOPTCOMBO, categoryCombo );
+        }
+
+        // if data element type is not numeric we need to pick out the
+        // 'annotation' element
+        if ( !dataElement.getValueType().isNumeric() )
+        {
+            reader.moveToStartElement( AdxDataService.ANNOTATION, AdxDataService.DATAVALUE );
+
+            if ( reader.isStartElement( AdxDataService.ANNOTATION ) )
+            {
+                String textValue = reader.getElementValue();
+                dvAttributes.put( AdxDataService.VALUE, textValue );
+            }
+            else
+            {
+                throw new AdxException( dvAttributes.get( AdxDataService.DATAELEMENT ),
+                    "DataElement expects text annotation" );
+            }
+        }
+
+        Map<String, String> attributes = new HashMap<>( groupAttributes );
+        attributes.putAll( dvAttributes );
+
+        log.debug( "Processing data value as DXF: " + attributes );
+
+        DataValue dataValue = new DataValue();
+        dataValue.setDataElement( attributes.get( AdxDataService.DATAELEMENT ) );
+        dataValue.setPeriod( attributes.get( AdxDataService.PERIOD ) );
+        dataValue.setOrgUnit( attributes.get( AdxDataService.ORGUNIT ) );
+        dataValue.setCategoryOptionCombo( attributes.get( AdxDataService.CATOPTCOMBO ) );
+        dataValue.setAttributeOptionCombo( attributes.get( AdxDataService.ATTOPTCOMBO ) );
+        dataValue.setValue( attributes.get( AdxDataService.VALUE ) );
+        dataValue.setStoredBy( attributes.get( STORED_BY ) );
+        dataValue.setLastUpdated( attributes.get( LAST_UPDATED ) );
+        dataValue.setComment( attributes.get( COMMENT ) );
+
+        if ( attributes.containsKey( FOLLOW_UP ) )
+        {
+            dataValue.setFollowup( Boolean.valueOf( attributes.get( FOLLOW_UP ) ) );
+        }
+
+        if ( attributes.containsKey( DELETED ) )
+        {
+            dataValue.setDeleted( Boolean.valueOf( attributes.get( DELETED ) ) );
+        }
+
+        return dataValue;
+    }
+
+    private Map<String, Category> getCodeCategoryMap( CategoryCombo categoryCombo )
+        throws AdxException
+    {
+        Map<String, Category> categoryMap = new HashMap<>();
+
+        List<Category> categories = categoryCombo.getCategories();
+
+        for ( Category category : categories )
+        {
+            String categoryCode = category.getCode();
+
+            if ( categoryCode == null || !XMLChar.isValidName( categoryCode ) )
+            {
+                throw new AdxException(
+                    "Category code for " + category.getName() + " is missing or invalid: " + categoryCode );
+            }
+
+            categoryMap.put( category.getCode(), category );
+        }
+
+        return categoryMap;
+    }
+
+    private CategoryOptionCombo getCatOptComboFromAttributes( Map<String, String> attributes,
+        CategoryCombo catcombo, IdentifiableProperty scheme )
+        throws AdxException
+    {
+        CategoryComboMap catcomboMap;
+
+        try
+        {
+            catcomboMap = new CategoryComboMap( catcombo, scheme );
+        }
+        catch ( CategoryComboMapException ex )
+        {
+            log.info( "Failed to create category combo map from: " + catcombo );
+            throw new AdxException( ex.getMessage() );
+        }
+
+        String compositeIdentifier = StringUtils.EMPTY;
+
+        for ( Category category : catcomboMap.getCategories() )
+        {
+            String categoryCode = category.getCode();
+
+            if ( categoryCode == null )
+            {
+                throw new AdxException( "No category matching: " + categoryCode );
+            }
+
+            String catAttribute = attributes.get( categoryCode );
+
+            if ( catAttribute == null )
+            {
+                throw new AdxException( "Missing required attribute from category combo: " + categoryCode );
+            }
+
+            compositeIdentifier += "\"" + catAttribute + "\"";
+        }
+
+        CategoryOptionCombo catOptionCombo = catcomboMap.getCategoryOptionCombo( compositeIdentifier );
+
+        if ( catOptionCombo == null )
+        {
+            throw new AdxException( "Invalid attributes:" + attributes );
+        }
+
+        return catOptionCombo;
+    }
+
+    private void convertAttributesToDxf( Map<String, String> attributes, String optionComboName, CategoryCombo catCombo )
+        throws AdxException
+    {
+        log.debug( "ADX attributes: " + attributes );
+
+        if ( catCombo.isDefault() )
+        {
+            return;
+        }
+
+        Map<String, Category> categoryMap = getCodeCategoryMap( catCombo );
+
+        Map<String, String> attributeOptions = new HashMap<>();
+
+        for ( String category : categoryMap.keySet() )
+        {
+            if ( attributes.containsKey( category ) )
+            {
+                attributeOptions.put( category, attributes.get( category ) );
+                attributes.remove( category );
+            }
+            else
+            {
+                throw new AdxException(
+                    "Category combo " + catCombo.getName() + " must have " + categoryMap.get( category ).getName() );
+            }
+        }
+
+        CategoryOptionCombo catOptCombo = getCatOptComboFromAttributes( attributeOptions, catCombo,
+            categoryOptionIdScheme.getIdentifiableProperty() );
+
+        attributes.put( optionComboName, catOptCombo.getPropertyValue( categoryOptionComboIdScheme ) );
+
+        log.debug( "DXF attributes: " + attributes );
+    }
+}
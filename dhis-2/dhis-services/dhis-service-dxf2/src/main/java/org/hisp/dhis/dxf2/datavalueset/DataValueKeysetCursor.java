@@ -0,0 +1,240 @@
+package org.hisp.dhis.dxf2.datavalueset;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.util.DateUtils;
+
+/**
+ * Cursor for reading data values last updated within a fixed change window in
+ * pages. Data values are ordered by their primary key, and each page starts
+ * after the key of the last data value of the previous page. Unlike offset
+ * based paging this is stable while data values are updated, and the position
+ * can be persisted as a checkpoint and resumed later.
+ */
+public class DataValueKeysetCursor
+{
+    private static final String SEPARATOR = ";";
+
+    private static final char KEY_SEPARATOR = ',';
+
+    private static final String KEY_COLUMNS = "dv.dataelementid, dv.periodid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid";
+
+    private static final String[] KEY_COLUMN_LABELS = { "dataelementid", "periodid", "sourceid", "categoryoptioncomboid", "attributeoptioncomboid" };
+
+    /**
+     * Inclusive start of the change window.
+     */
+    private final Date lastUpdatedFrom;
+
+    /**
+     * Exclusive end of the change window.
+     */
+    private final Date lastUpdatedTo;
+
+    private final int pageSize;
+
+    /**
+     * Primary key of the last data value read, null if no data value has been
+     * read yet.
+     */
+    private long[] key;
+
+    private int pageCount = 0;
+
+    private boolean exhausted = false;
+
+    public DataValueKeysetCursor( Date lastUpdatedFrom, Date lastUpdatedTo, int pageSize )
+    {
+        checkNotNull( lastUpdatedFrom );
+        checkNotNull( lastUpdatedTo );
+        checkArgument( pageSize > 0, "Page size must be greater than zero" );
+
+        this.lastUpdatedFrom = lastUpdatedFrom;
+        this.lastUpdatedTo = lastUpdatedTo;
+        this.pageSize = pageSize;
+    }
+
+    // -------------------------------------------------------------------------
+    // Logic
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether more pages may be available.
+     */
+    public boolean hasNextPage()
+    {
+        return !exhausted;
+    }
+
+    /**
+     * Returns the SQL restriction, ordering and limit selecting the next page.
+     * Must be appended to a query on the {@code datavalue} table aliased as
+     * {@code dv} which restricts on last updated after the start of the
+     * window, and which selects the key columns.
+     */
+    public String getNextPageSql()
+    {
+        String sql = "and dv.lastupdated < '" + DateUtils.getLongDateString( lastUpdatedTo ) + "' ";
+
+        if ( key != null )
+        {
+            sql += "and (" + KEY_COLUMNS + ") > (" + StringUtils.join( key, KEY_SEPARATOR ) + ") ";
+        }
+
+        return sql + "order by " + KEY_COLUMNS + " limit " + pageSize;
+    }
+
+    /**
+     * Resets the count of values read for the next page.
+     */
+    public void startPage()
+    {
+        pageCount = 0;
+    }
+
+    /**
+     * Moves the cursor to the data value in the current row.
+     */
+    public void next( ResultSet rs )
+        throws SQLException
+    {
+        long[] rowKey = new long[KEY_COLUMN_LABELS.length];
+
+        for ( int i = 0; i < KEY_COLUMN_LABELS.length; i++ )
+        {
+            rowKey[i] = rs.getLong( KEY_COLUMN_LABELS[i] );
+        }
+
+        key = rowKey;
+        pageCount++;
+    }
+
+    /**
+     * Completes the current page. The cursor is exhausted when the page
+     * contained fewer values than the page size.
+     */
+    public void endPage()
+    {
+        exhausted = pageCount < pageSize;
+    }
+
+    /**
+     * Returns the position of this cursor as a string which can be persisted
+     * and passed to {@link #fromCheckpoint(String, int)}.
+     */
+    public String getCheckpoint()
+    {
+        String checkpoint = lastUpdatedFrom.getTime() + SEPARATOR + lastUpdatedTo.getTime();
+
+        return key != null ? checkpoint + SEPARATOR + StringUtils.join( key, KEY_SEPARATOR ) : checkpoint;
+    }
+
+    /**
+     * Creates a cursor positioned at the given checkpoint.
+     *
+     * @param checkpoint the checkpoint, see {@link #getCheckpoint()}.
+     * @param pageSize the page size.
+     * @return a cursor, or null if the checkpoint is not valid.
+     */
+    public static DataValueKeysetCursor fromCheckpoint( String checkpoint, int pageSize )
+    {
+        String[] parts = StringUtils.split( checkpoint, SEPARATOR );
+
+        if ( parts == null || parts.length < 2 || parts.length > 3 )
+        {
+            return null;
+        }
+
+        try
+        {
+            DataValueKeysetCursor cursor = new DataValueKeysetCursor(
+                new Date( Long.parseLong( parts[0] ) ), new Date( Long.parseLong( parts[1] ) ), pageSize );
+
+            if ( parts.length == 3 )
+            {
+                long[] key = Arrays.stream( StringUtils.split( parts[2], KEY_SEPARATOR ) ).mapToLong( Long::parseLong ).toArray();
+
+                if ( key.length != KEY_COLUMN_LABELS.length )
+                {
+                    return null;
+                }
+
+                cursor.key = key;
+            }
+
+            return cursor;
+        }
+        catch ( NumberFormatException ex )
+        {
+            return null;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Getters
+    // -------------------------------------------------------------------------
+
+    public Date getLastUpdatedFrom()
+    {
+        return lastUpdatedFrom;
+    }
+
+    public Date getLastUpdatedTo()
+    {
+        return lastUpdatedTo;
+    }
+
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+
+    /**
+     * Returns the number of values read in the current page.
+     */
+    public int getPageCount()
+    {
+        return pageCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getCheckpoint();
+    }
+}
@@ -102,6 +102,17 @@ public interface DataValueSetService
     void writeDataValueSetJson( Date lastUpdated, OutputStream outputStream, IdSchemes idSchemes, int pageSize,
         int page );
 
+    /**
+     * Query for the next page of {@link DataValueSet DataValueSets} of the
+     * given cursor and write result as JSON. The cursor is advanced to the
+     * last data value written.
+     *
+     * @param cursor the {@link DataValueKeysetCursor}
+     * @param outputStream the stream to write to
+     * @param idSchemes idSchemes
+     */
+    void writeDataValueSetJson( DataValueKeysetCursor cursor, OutputStream outputStream, IdSchemes idSchemes );
+
     void writeDataValueSetCsv( DataExportParams params, Writer writer );
 
     RootNode getDataValueSetTemplate( DataSet dataSet, Period period, List<String> orgUnits, boolean writeComments,
@@ -126,4 +137,16 @@ public interface DataValueSetService
     ImportSummary saveDataValueSetCsv( InputStream in, ImportOptions importOptions, JobConfiguration id );
 
     ImportSummary saveDataValueSetPdf( InputStream in, ImportOptions importOptions, JobConfiguration id );
+
+    /**
+     * Imports the data values of the given data value set. Intended for
+     * streaming data value set implementations which translate other formats
+     * into data values while the import reads them.
+     *
+     * @param dataValueSet the {@link DataValueSet}.
+     * @param importOptions the {@link ImportOptions}.
+     * @param id the {@link JobConfiguration}.
+     * @return an {@link ImportSummary}.
+     */
+    ImportSummary saveDataValueSet( DataValueSet dataValueSet, ImportOptions importOptions, JobConfiguration id );
 }
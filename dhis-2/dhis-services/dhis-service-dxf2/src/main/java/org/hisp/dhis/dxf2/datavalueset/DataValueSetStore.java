@@ -66,4 +66,15 @@ public interface DataValueSetStore
      */
     void writeDataValueSetJson( Date lastUpdated, OutputStream outputStream, IdSchemes idSchemes, int pageSize,
         int page );
+
+    /**
+     * Query for the next page of {@link DataValueSet DataValueSets} of the
+     * given cursor and write result as JSON. The cursor is advanced to the
+     * last data value written.
+     *
+     * @param cursor the {@link DataValueKeysetCursor}
+     * @param outputStream the stream to write to
+     * @param idSchemes idSchemes
+     */
+    void writeDataValueSetJson( DataValueKeysetCursor cursor, OutputStream outputStream, IdSchemes idSchemes );
 }
@@ -30,6 +30,7 @@ package org.hisp.dhis.dxf2.datavalueset;
 
 import com.csvreader.CsvReader;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.BooleanUtils;
 import org.hisp.dhis.calendar.CalendarService;
@@ -77,6 +78,7 @@ import org.hisp.dhis.i18n.I18nManager;
 import org.hisp.dhis.importexport.ImportStrategy;
 import org.hisp.dhis.jdbc.batchhandler.DataValueAuditBatchHandler;
 import org.hisp.dhis.jdbc.batchhandler.DataValueBatchHandler;
+import org.hisp.dhis.monitoring.metrics.ApplicationMetrics;
 import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.RootNode;
@@ -127,6 +129,8 @@ import static org.hisp.dhis.system.notification.NotificationLevel.*;
 import static org.hisp.dhis.util.DateUtils.parseDate;
 
 import static org.hisp.dhis.external.conf.ConfigurationKey.CHANGELOG_AGGREGATE;
+import static org.hisp.dhis.monitoring.metrics.ApplicationMetrics.DATA_VALUE_IMPORT;
+import static org.hisp.dhis.monitoring.metrics.ApplicationMetrics.DATA_VALUE_IMPORT_VALUES;
 
 /**
  * Note that a mock BatchHandler factory is being injected.
@@ -468,6 +472,13 @@ public class DefaultDataValueSetService
         dataValueSetStore.writeDataValueSetJson( lastUpdated, outputStream, idSchemes, pageSize, page );
     }
 
+    @Override
+    @Transactional
+    public void writeDataValueSetJson( DataValueKeysetCursor cursor, OutputStream outputStream, IdSchemes idSchemes )
+    {
+        dataValueSetStore.writeDataValueSetJson( cursor, outputStream, idSchemes );
+    }
+
     @Override
     @Transactional
     public void writeDataValueSetCsv( DataExportParams params, Writer writer )
@@ -724,6 +735,44 @@ public class DefaultDataValueSetService
         return saveDataValueSetPdf( in, importOptions, null );
     }
 
+    @Override
+    @Transactional
+    public ImportSummary saveDataValueSet( DataValueSet dataValueSet, ImportOptions importOptions, JobConfiguration id )
+    {
+        try
+        {
+            return saveDataValueSet( importOptions, id, dataValueSet );
+        }
+        catch ( RuntimeException ex )
+        {
+            log.error( DebugUtils.getStackTrace( ex ) );
+            notifier.notify( id, ERROR, "Process failed: " + ex.getMessage(), true );
+            return new ImportSummary( ImportStatus.ERROR, "The import process failed: " + ex.getMessage() );
+        }
+    }
+
+    /**
+     * Imports the given data value set, recording the import duration and the
+     * number of imported, updated and deleted data values as metrics.
+     */
+    private ImportSummary saveDataValueSet( ImportOptions importOptions, JobConfiguration id, DataValueSet dataValueSet )
+    {
+        Timer.Sample sample = ApplicationMetrics.start();
+
+        ImportSummary summary = importDataValueSet( importOptions, id, dataValueSet );
+
+        ApplicationMetrics.stop( sample, DATA_VALUE_IMPORT, "status", summary.getStatus().name() );
+
+        ImportCount count = summary.getImportCount();
+
+        if ( count != null )
+        {
+            ApplicationMetrics.record( DATA_VALUE_IMPORT_VALUES, count.getImported() + count.getUpdated() + count.getDeleted() );
+        }
+
+        return summary;
+    }
+
     /**
      * There are specific id schemes for data elements and organisation units and
      * a generic id scheme for all objects. The specific id schemes will take
@@ -741,7 +790,7 @@ public class DefaultDataValueSetService
      * If id scheme is specific in the data value set, any id schemes in the import
      * options will be ignored.
      */
-    private ImportSummary saveDataValueSet( ImportOptions importOptions, JobConfiguration id, DataValueSet dataValueSet )
+    private ImportSummary importDataValueSet( ImportOptions importOptions, JobConfiguration id, DataValueSet dataValueSet )
     {
         importOptions = ObjectUtils.firstNonNull( importOptions, ImportOptions.getDefaultImportOptions() );
 
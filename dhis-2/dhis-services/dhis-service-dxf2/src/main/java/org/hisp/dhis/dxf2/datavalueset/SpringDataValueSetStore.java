@@ -147,6 +147,20 @@ public class SpringDataValueSetStore
         writeDataValueSet( sql, new DataExportParams(), null, dataValueSet );
     }
 
+    @Override
+    public void writeDataValueSetJson( DataValueKeysetCursor cursor, OutputStream outputStream, IdSchemes idSchemes )
+    {
+        DataValueSet dataValueSet = new StreamingJsonDataValueSet( outputStream );
+
+        final String sql = buildDataValueSql( cursor.getLastUpdatedFrom(), idSchemes ) + cursor.getNextPageSql();
+
+        cursor.startPage();
+
+        writeDataValueSet( sql, new DataExportParams(), null, dataValueSet, cursor );
+
+        cursor.endPage();
+    }
+
     private String buildDataValueSql( Date lastUpdated, IdSchemes idSchemes )
     {
         String deScheme = idSchemes.getDataElementIdScheme().getIdentifiableString().toLowerCase();
@@ -156,7 +170,8 @@ public class SpringDataValueSetStore
         final String sql =
             "select de." + deScheme + " as deid, pe.startdate as pestart, pt.name as ptname, ou." + ouScheme + " as ouid, " +
                 "coc." + ocScheme + " as cocid, aoc." + ocScheme + " as aocid, " +
-                "dv.value, dv.storedby, dv.created, dv.lastupdated, dv.comment, dv.followup, dv.deleted " +
+                "dv.value, dv.storedby, dv.created, dv.lastupdated, dv.comment, dv.followup, dv.deleted, " +
+                "dv.dataelementid, dv.periodid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid " +
                 "from datavalue dv " +
                 "join dataelement de on (dv.dataelementid=de.dataelementid) " +
                 "join period pe on (dv.periodid=pe.periodid) " +
@@ -170,6 +185,12 @@ public class SpringDataValueSetStore
     }
 
     private void writeDataValueSet( String sql, DataExportParams params, Date completeDate, final DataValueSet dataValueSet )
+    {
+        writeDataValueSet( sql, params, completeDate, dataValueSet, null );
+    }
+
+    private void writeDataValueSet( String sql, DataExportParams params, Date completeDate, final DataValueSet dataValueSet,
+        final DataValueKeysetCursor cursor )
     {
         if ( params.isSingleDataValueSet() )
         {
@@ -212,6 +233,11 @@ public class SpringDataValueSetStore
                 }
 
                 dataValue.close();
+
+                if ( cursor != null )
+                {
+                    cursor.next( rs );
+                }
             }
         } );
 
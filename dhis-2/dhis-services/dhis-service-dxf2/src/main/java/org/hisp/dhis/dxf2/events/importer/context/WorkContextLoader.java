@@ -28,28 +28,59 @@ package org.hisp.dhis.dxf2.events.importer.context;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.CompletableFuture.allOf;
+
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.hibernate.SessionFactory;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.commons.util.SystemUtils;
+import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dxf2.common.ImportOptions;
 import org.hisp.dhis.dxf2.events.event.Event;
+import org.hisp.dhis.dxf2.events.event.Note;
 import org.hisp.dhis.hibernate.HibernateUtils;
+import org.hisp.dhis.monitoring.metrics.ApplicationMetrics;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.Program;
 import org.hisp.dhis.program.ProgramInstance;
 import org.hisp.dhis.program.ProgramStageInstance;
 import org.hisp.dhis.trackedentity.TrackedEntityInstance;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserCredentials;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * @author Luciano Fiandesio
  */
+@Slf4j
 @Component
 public class WorkContextLoader
 {
+    /**
+     * Maximum number of suppliers which are loaded concurrently, over all
+     * imports. Each of them holds a database connection while loading.
+     */
+    private static final int POOL_SIZE = Math.min( SystemUtils.getCpuCores(), 6 );
+
     private final ProgramSupplier programSupplier;
 
     private final OrganisationUnitSupplier organisationUnitSupplier;
@@ -74,6 +105,11 @@ public class WorkContextLoader
 
     private final SessionFactory sessionFactory;
 
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool( POOL_SIZE,
+        new ThreadFactoryBuilder().setNameFormat( "event-import-context-%d" ).setDaemon( true ).build() );
+
     public WorkContextLoader(
     // @formatter:off
         ProgramSupplier programSupplier,
@@ -86,7 +122,8 @@ public class WorkContextLoader
         NoteSupplier noteSupplier,
         AssignedUserSupplier assignedUserSupplier,
         ServiceDelegatorSupplier serviceDelegatorSupplier,
-        SessionFactory sessionFactory
+        SessionFactory sessionFactory,
+        PlatformTransactionManager transactionManager
     // @formatter:on
     )
     {
@@ -101,48 +138,189 @@ public class WorkContextLoader
         this.assignedUserSupplier = assignedUserSupplier;
         this.serviceDelegatorSupplier = serviceDelegatorSupplier;
         this.sessionFactory = sessionFactory;
+
+        this.readOnlyTransactionTemplate = new TransactionTemplate( transactionManager );
+        this.readOnlyTransactionTemplate.setReadOnly( true );
     }
 
-    @Transactional( readOnly = true )
-    public WorkContext load( ImportOptions importOptions, List<Event> events )
+    @PreDestroy
+    public void shutdown()
     {
-        sessionFactory.getCurrentSession().flush();
+        executor.shutdownNow();
+    }
 
-        ImportOptions localImportOptions = importOptions;
+    public WorkContext load( ImportOptions importOptions, List<Event> events )
+    {
         // API allows a null Import Options
-        if ( localImportOptions == null )
+        final ImportOptions localImportOptions = importOptions != null ? importOptions
+            : ImportOptions.getDefaultImportOptions();
+
+        // Make sure all events have the 'uid' field populated
+        final List<Event> localEvents = uidGen.assignUidToEvents( events );
+
+        //
+        // Suppliers must see the uncommitted changes of an enclosing
+        // transaction, so they run in sequence on it.
+        //
+        if ( TransactionSynchronizationManager.isActualTransactionActive() )
         {
-            localImportOptions = ImportOptions.getDefaultImportOptions();
+            sessionFactory.getCurrentSession().flush();
+
+            initializeUser( localImportOptions );
+
+            return loadSequentially( localImportOptions, localEvents );
         }
 
-        initializeUser( localImportOptions );
+        //
+        // Otherwise suppliers run concurrently on their own connections. The
+        // calling thread holds no connection while it waits for them, so that
+        // concurrent imports cannot starve the connection pool.
+        //
+        readOnlyTransactionTemplate.execute( status -> {
+            initializeUser( localImportOptions );
+            return null;
+        } );
 
-        // Make sure all events have the 'uid' field populated
-        events = uidGen.assignUidToEvents( events );
+        return loadConcurrently( localImportOptions, localEvents );
+    }
 
-        final Map<String, ProgramStageInstance> programStageInstanceMap = programStageInstanceSupplier
-            .get( localImportOptions, events );
+    private WorkContext loadSequentially( ImportOptions importOptions, List<Event> events )
+    {
+        final Map<String, ProgramStageInstance> programStageInstanceMap = timed( "programStageInstance",
+            () -> programStageInstanceSupplier.get( importOptions, events ) );
 
-        final Map<String, Pair<TrackedEntityInstance, Boolean>> teiMap = trackedEntityInstanceSupplier
-            .get( localImportOptions, events );
+        final Map<String, Pair<TrackedEntityInstance, Boolean>> teiMap = timed( "trackedEntityInstance",
+            () -> trackedEntityInstanceSupplier.get( importOptions, events ) );
 
         return WorkContext.builder()
-            .importOptions( localImportOptions )
-            .programsMap( programSupplier.get( localImportOptions, events ) )
+            .importOptions( importOptions )
+            .programsMap( timed( "program", () -> programSupplier.get( importOptions, events ) ) )
             .programStageInstanceMap( programStageInstanceMap )
-            .organisationUnitMap( organisationUnitSupplier.get( localImportOptions, events ) )
+            .organisationUnitMap(
+                timed( "organisationUnit", () -> organisationUnitSupplier.get( importOptions, events ) ) )
             .trackedEntityInstanceMap( teiMap )
-            .programInstanceMap( programInstanceSupplier.get( localImportOptions, teiMap, events ) )
-            .categoryOptionComboMap( categoryOptionComboSupplier.get( localImportOptions, events ) )
-            .dataElementMap( dataElementSupplier.get( localImportOptions, events ) )
-            .notesMap( noteSupplier.get( localImportOptions, events ) )
-            .assignedUserMap( assignedUserSupplier.get( localImportOptions, events ) )
+            .programInstanceMap(
+                timed( "programInstance", () -> programInstanceSupplier.get( importOptions, teiMap, events ) ) )
+            .categoryOptionComboMap(
+                timed( "categoryOptionCombo", () -> categoryOptionComboSupplier.get( importOptions, events ) ) )
+            .dataElementMap( timed( "dataElement", () -> dataElementSupplier.get( importOptions, events ) ) )
+            .notesMap( timed( "note", () -> noteSupplier.get( importOptions, events ) ) )
+            .assignedUserMap( timed( "assignedUser", () -> assignedUserSupplier.get( importOptions, events ) ) )
+            .eventDataValueMap( new EventDataValueAggregator().aggregateDataValues( events, programStageInstanceMap,
+                importOptions ) )
+            .serviceDelegator( serviceDelegatorSupplier.get() )
+            .build();
+    }
+
+    /**
+     * Loads the suppliers on the executor, each in its own read-only
+     * transaction. Suppliers which need programs start after the programs are
+     * loaded, so that they read them from the program cache, and program
+     * instances start after tracked entity instances. Data elements are loaded
+     * through the Hibernate session and therefore on the calling thread, in a
+     * read-only transaction of their own.
+     */
+    private WorkContext loadConcurrently( ImportOptions importOptions, List<Event> events )
+    {
+        CompletableFuture<Map<String, Program>> programs = async( "program",
+            () -> programSupplier.get( importOptions, events ) );
+
+        CompletableFuture<Map<String, Pair<TrackedEntityInstance, Boolean>>> teis = async( "trackedEntityInstance",
+            () -> trackedEntityInstanceSupplier.get( importOptions, events ) );
+
+        CompletableFuture<Map<String, OrganisationUnit>> organisationUnits = async(
+            "organisationUnit", () -> organisationUnitSupplier.get( importOptions, events ) );
+
+        CompletableFuture<Map<String, Note>> notes = async( "note",
+            () -> noteSupplier.get( importOptions, events ) );
+
+        CompletableFuture<Map<String, User>> assignedUsers = async( "assignedUser",
+            () -> assignedUserSupplier.get( importOptions, events ) );
+
+        CompletableFuture<Map<String, ProgramStageInstance>> programStageInstances = after( programs,
+            "programStageInstance", () -> programStageInstanceSupplier.get( importOptions, events ) );
+
+        CompletableFuture<Map<String, CategoryOptionCombo>> categoryOptionCombos = after(
+            programs, "categoryOptionCombo", () -> categoryOptionComboSupplier.get( importOptions, events ) );
+
+        CompletableFuture<Map<String, ProgramInstance>> programInstances = after( allOf( programs, teis ),
+            "programInstance", () -> programInstanceSupplier.get( importOptions, teis.join(), events ) );
+
+        final Map<String, DataElement> dataElementMap = inReadOnlyTransaction( "dataElement",
+            () -> dataElementSupplier.get( importOptions, events ) );
+
+        final Map<String, ProgramStageInstance> programStageInstanceMap = join( programStageInstances );
+
+        return WorkContext.builder()
+            .importOptions( importOptions )
+            .programsMap( join( programs ) )
+            .programStageInstanceMap( programStageInstanceMap )
+            .organisationUnitMap( join( organisationUnits ) )
+            .trackedEntityInstanceMap( join( teis ) )
+            .programInstanceMap( join( programInstances ) )
+            .categoryOptionComboMap( join( categoryOptionCombos ) )
+            .dataElementMap( dataElementMap )
+            .notesMap( join( notes ) )
+            .assignedUserMap( join( assignedUsers ) )
             .eventDataValueMap( new EventDataValueAggregator().aggregateDataValues( events, programStageInstanceMap,
-                localImportOptions ) )
+                importOptions ) )
             .serviceDelegator( serviceDelegatorSupplier.get() )
             .build();
     }
 
+    private <T> CompletableFuture<T> async( String name, Supplier<T> supplier )
+    {
+        return CompletableFuture.supplyAsync( () -> inReadOnlyTransaction( name, supplier ), executor );
+    }
+
+    private <T> CompletableFuture<T> after( CompletableFuture<?> dependency, String name, Supplier<T> supplier )
+    {
+        return dependency.thenApplyAsync( v -> inReadOnlyTransaction( name, supplier ), executor );
+    }
+
+    private <T> T inReadOnlyTransaction( String name, Supplier<T> supplier )
+    {
+        return readOnlyTransactionTemplate.execute( status -> timed( name, supplier ) );
+    }
+
+    /**
+     * Gets the value of the supplier and reports the time it took.
+     */
+    private <T> T timed( String name, Supplier<T> supplier )
+    {
+        final long start = nanoTime();
+
+        try
+        {
+            return supplier.get();
+        }
+        finally
+        {
+            final long duration = nanoTime() - start;
+
+            log.debug( "::: event import context supplier " + name + " took : "
+                + TimeUnit.NANOSECONDS.toMillis( duration ) + " ms" );
+
+            ApplicationMetrics.recordTime( ApplicationMetrics.EVENT_IMPORT_CONTEXT, duration, "supplier", name );
+        }
+    }
+
+    /**
+     * Waits for the given future and rethrows the exception of a supplier
+     * which failed.
+     */
+    private static <T> T join( CompletableFuture<T> future )
+    {
+        try
+        {
+            return future.join();
+        }
+        catch ( CompletionException e )
+        {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
     /**
      * Make sure that the {@see User} object's properties are properly initialized,
      * to avoid running into Hibernate-related issues during validation
@@ -162,6 +340,7 @@ public class WorkContextLoader
             {
                 UserCredentials userCredentials = currentUser.getUserCredentials();
                 initUserCredentials( userCredentials );
+                HibernateUtils.initializeProxy( currentUser.getGroups() );
                 importOptions.setUser( currentUser );
             }
         }
@@ -170,6 +349,7 @@ public class WorkContextLoader
             final User user = importOptions.getUser();
             UserCredentials userCredentials = user.getUserCredentials();
             initUserCredentials( userCredentials );
+            HibernateUtils.initializeProxy( user.getGroups() );
         }
     }
 
@@ -28,6 +28,7 @@ package org.hisp.dhis.dxf2.metadata;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Enums;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -40,6 +41,7 @@ import org.hisp.dhis.category.CategoryOption;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.chart.Chart;
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.InterpretableObject;
 import org.hisp.dhis.common.SetMap;
 import org.hisp.dhis.commons.timer.SystemTimer;
@@ -68,6 +70,7 @@ import org.hisp.dhis.legend.LegendSet;
 import org.hisp.dhis.mapping.MapView;
 import org.hisp.dhis.node.NodeUtils;
 import org.hisp.dhis.node.config.InclusionStrategy;
+import org.hisp.dhis.node.serializers.Jackson2JsonNodeSerializer;
 import org.hisp.dhis.node.types.CollectionNode;
 import org.hisp.dhis.node.types.ComplexNode;
 import org.hisp.dhis.node.types.RootNode;
@@ -86,8 +89,12 @@ import org.hisp.dhis.programrule.ProgramRuleAction;
 import org.hisp.dhis.programrule.ProgramRuleService;
 import org.hisp.dhis.programrule.ProgramRuleVariable;
 import org.hisp.dhis.programrule.ProgramRuleVariableService;
+import org.hisp.dhis.query.Disjunction;
+import org.hisp.dhis.query.Junction;
+import org.hisp.dhis.query.Order;
 import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.QueryService;
+import org.hisp.dhis.query.Restrictions;
 import org.hisp.dhis.report.Report;
 import org.hisp.dhis.reporttable.ReportTable;
 import org.hisp.dhis.schema.Schema;
@@ -101,9 +108,11 @@ import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.visualization.Visualization;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nonnull;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -117,6 +126,8 @@ import java.util.Map;
 @Service( "org.hisp.dhis.dxf2.metadata.MetadataExportService" )
 public class DefaultMetadataExportService implements MetadataExportService
 {
+    private static final int STREAM_PAGE_SIZE = 500;
+
     @Autowired
     private SchemaService schemaService;
 
@@ -141,47 +152,26 @@ public class DefaultMetadataExportService implements MetadataExportService
     @Autowired
     private AttributeService attributeService;
 
+    @Autowired
+    private IdentifiableObjectManager manager;
+
+    @Autowired
+    @Qualifier( "jsonMapper" )
+    private ObjectMapper jsonMapper;
+
     @Override
-    @SuppressWarnings( "unchecked" )
     public Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> getMetadata( MetadataExportParams params )
     {
         Timer timer = new SystemTimer().start();
         Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> metadata = new HashMap<>();
 
-        if ( params.getUser() == null )
-        {
-            params.setUser( currentUserService.getCurrentUser() );
-        }
-
-        if ( params.getClasses().isEmpty() )
-        {
-            schemaService.getMetadataSchemas().stream().filter( Schema::isIdentifiableObject ).filter( s -> !s.isSecondaryMetadata() )
-                .forEach( schema -> params.getClasses().add( (Class<? extends IdentifiableObject>) schema.getKlass() ) );
-        }
+        initParams( params );
 
         log.info( "(" + params.getUsername() + ") Export:Start" );
 
         for ( Class<? extends IdentifiableObject> klass : params.getClasses() )
         {
-            Query query;
-
-            if ( params.getQuery( klass ) != null )
-            {
-                query = params.getQuery( klass );
-            }
-            else
-            {
-                OrderParams orderParams = new OrderParams( Sets.newHashSet( params.getDefaultOrder() ) );
-                query = queryService.getQueryFromUrl( klass, params.getDefaultFilter(), orderParams.getOrders( schemaService.getDynamicSchema( klass ) ) );
-            }
-
-            if ( query.getUser() == null )
-            {
-                query.setUser( params.getUser() );
-            }
-
-            query.setDefaultOrder();
-            query.setDefaults( params.getDefaults() );
+            Query query = getQuery( params, klass );
 
             List<? extends IdentifiableObject> objects = queryService.query( query );
 
@@ -202,14 +192,7 @@ public class DefaultMetadataExportService implements MetadataExportService
     {
         RootNode rootNode = NodeUtils.createMetadata();
         rootNode.getConfig().setInclusionStrategy( params.getInclusionStrategy() );
-
-        SystemInfo systemInfo = systemService.getSystemInfo();
-
-        ComplexNode system = rootNode.addChild( new ComplexNode( "system" ) );
-        system.addChild( new SimpleNode( "id", systemInfo.getSystemId() ) );
-        system.addChild( new SimpleNode( "rev", systemInfo.getRevision() ) );
-        system.addChild( new SimpleNode( "version", systemInfo.getVersion() ) );
-        system.addChild( new SimpleNode( "date", systemInfo.getServerDate() ) );
+        rootNode.addChild( getSystemNode() );
 
         Map<Class<? extends IdentifiableObject>, List<? extends IdentifiableObject>> metadata = getMetadata( params );
 
@@ -229,6 +212,40 @@ public class DefaultMetadataExportService implements MetadataExportService
         return rootNode;
     }
 
+    @Override
+    public void writeMetadataAsJson( MetadataExportParams params, OutputStream outputStream )
+    {
+        Timer timer = new SystemTimer().start();
+
+        initParams( params );
+
+        log.info( "(" + params.getUsername() + ") Streamed export:Start" );
+
+        RootNode rootNode = NodeUtils.createMetadata();
+        rootNode.getConfig().setInclusionStrategy( params.getInclusionStrategy() );
+
+        Jackson2JsonNodeSerializer serializer = new Jackson2JsonNodeSerializer( jsonMapper );
+
+        try
+        {
+            serializer.startStream( rootNode, outputStream );
+            serializer.writeStreamNode( getSystemNode() );
+
+            for ( Class<? extends IdentifiableObject> klass : params.getClasses() )
+            {
+                writeMetadataAsJson( params, klass, serializer );
+            }
+
+            serializer.endStream();
+        }
+        catch ( Exception ex )
+        {
+            throw new MetadataExportException( "Streamed metadata export failed: " + ex.getMessage(), ex );
+        }
+
+        log.info( "(" + params.getUsername() + ") Streamed export:Done took " + timer.toString() );
+    }
+
     @Override
     public void validate( MetadataExportParams params )
     {
@@ -415,6 +432,177 @@ public class DefaultMetadataExportService implements MetadataExportService
         return values.stream().anyMatch( "true"::equalsIgnoreCase );
     }
 
+    @SuppressWarnings( "unchecked" )
+    private void initParams( MetadataExportParams params )
+    {
+        if ( params.getUser() == null )
+        {
+            params.setUser( currentUserService.getCurrentUser() );
+        }
+
+        if ( params.getClasses().isEmpty() )
+        {
+            schemaService.getMetadataSchemas().stream().filter( Schema::isIdentifiableObject ).filter( s -> !s.isSecondaryMetadata() )
+                .forEach( schema -> params.getClasses().add( (Class<? extends IdentifiableObject>) schema.getKlass() ) );
+        }
+    }
+
+    private Query getQuery( MetadataExportParams params, Class<? extends IdentifiableObject> klass )
+    {
+        Query query;
+
+        if ( params.getQuery( klass ) != null )
+        {
+            query = params.getQuery( klass );
+        }
+        else
+        {
+            OrderParams orderParams = new OrderParams( Sets.newHashSet( params.getDefaultOrder() ) );
+            query = queryService.getQueryFromUrl( klass, params.getDefaultFilter(), orderParams.getOrders( schemaService.getDynamicSchema( klass ) ) );
+        }
+
+        if ( query.getUser() == null )
+        {
+            query.setUser( params.getUser() );
+        }
+
+        query.setDefaultOrder();
+        query.setDefaults( params.getDefaults() );
+
+        return query;
+    }
+
+    private ComplexNode getSystemNode()
+    {
+        SystemInfo systemInfo = systemService.getSystemInfo();
+
+        ComplexNode system = new ComplexNode( "system" );
+        system.addChild( new SimpleNode( "id", systemInfo.getSystemId() ) );
+        system.addChild( new SimpleNode( "rev", systemInfo.getRevision() ) );
+        system.addChild( new SimpleNode( "version", systemInfo.getVersion() ) );
+        system.addChild( new SimpleNode( "date", systemInfo.getServerDate() ) );
+
+        return system;
+    }
+
+    /**
+     * Writes all objects of the given class page by page. The session is
+     * cleared after each page so that memory usage is bounded by the page
+     * size rather than by the number of objects of the class. Objects with a
+     * persisted identifier are ordered by it and each page starts after the
+     * last identifier of the previous page, so that pages do not skip over
+     * the rows of earlier pages.
+     */
+    private void writeMetadataAsJson( MetadataExportParams params, Class<? extends IdentifiableObject> klass,
+        Jackson2JsonNodeSerializer serializer ) throws Exception
+    {
+        Query query = getQuery( params, klass );
+
+        boolean keyset = query.getSchema().havePersistedProperty( "id" );
+
+        CollectionNode firstPage = null;
+        String lastId = null;
+        int firstResult = 0;
+        int exported = 0;
+        boolean hasMore = true;
+
+        while ( hasMore )
+        {
+            Query pageQuery = keyset ? getKeysetPageQuery( query, lastId ) : Query.from( query );
+            pageQuery.setDefaults( query.getDefaults() );
+            pageQuery.setFirstResult( keyset ? 0 : firstResult );
+            pageQuery.setMaxResults( STREAM_PAGE_SIZE );
+
+            List<? extends IdentifiableObject> objects = queryService.query( pageQuery );
+
+            if ( !objects.isEmpty() )
+            {
+                FieldFilterParams fieldFilterParams = new FieldFilterParams( objects, params.getFields( klass ), params.getDefaults(), params.getSkipSharing() );
+                fieldFilterParams.setUser( params.getUser() );
+
+                CollectionNode collectionNode = fieldFilterService.toCollectionNode( klass, fieldFilterParams );
+
+                if ( !collectionNode.getChildren().isEmpty() )
+                {
+                    if ( firstPage == null )
+                    {
+                        firstPage = collectionNode;
+                        serializer.startStreamCollection( firstPage );
+                    }
+
+                    serializer.writeStreamCollectionItems( collectionNode );
+                }
+
+                exported += objects.size();
+            }
+
+            hasMore = objects.size() >= STREAM_PAGE_SIZE;
+            firstResult += STREAM_PAGE_SIZE;
+            lastId = objects.isEmpty() ? lastId : objects.get( objects.size() - 1 ).getUid();
+
+            detachSession( params, query );
+        }
+
+        if ( firstPage != null )
+        {
+            serializer.endStreamCollection( firstPage );
+            log.info( "(" + params.getUsername() + ") Exported " + exported + " objects of type " + klass.getSimpleName() );
+        }
+    }
+
+    /**
+     * Returns the query for the page after the object with the given
+     * identifier, ordered by identifier. The criteria of the given query are
+     * nested in a disjunction when its root junction is a disjunction, so
+     * that the identifier restriction applies to all of them.
+     *
+     * @param query  the query of the export.
+     * @param lastId the identifier of the last object of the previous page,
+     *               or null for the first page.
+     */
+    private Query getKeysetPageQuery( Query query, String lastId )
+    {
+        Query pageQuery = Query.from( query.getSchema() );
+        pageQuery.setUser( query.getUser() );
+        pageQuery.setLocale( query.getLocale() );
+        pageQuery.setObjects( query.getObjects() );
+        pageQuery.addOrder( Order.asc( query.getSchema().getPersistedProperty( "id" ) ) );
+
+        if ( query.getRootJunctionType() == Junction.Type.OR && !query.getCriterions().isEmpty() )
+        {
+            Disjunction disjunction = new Disjunction( query.getSchema() );
+            disjunction.add( query.getCriterions() );
+            pageQuery.add( disjunction );
+        }
+        else
+        {
+            pageQuery.add( query.getCriterions() );
+        }
+
+        if ( lastId != null )
+        {
+            pageQuery.add( Restrictions.gt( "id", lastId ) );
+        }
+
+        return pageQuery;
+    }
+
+    /**
+     * Clears the session and re-attaches the export user, as the user is
+     * needed in a managed state to resolve sharing for the next page.
+     */
+    private void detachSession( MetadataExportParams params, Query query )
+    {
+        manager.clear();
+
+        if ( params.getUser() != null )
+        {
+            User user = manager.getNoAcl( User.class, params.getUser().getUid() );
+            params.setUser( user );
+            query.setUser( user );
+        }
+    }
+
     private SetMap<Class<? extends IdentifiableObject>, IdentifiableObject> handleDataSet( SetMap<Class<? extends IdentifiableObject>, IdentifiableObject> metadata, DataSet dataSet )
     {
         metadata.putValue( DataSet.class, dataSet );
@@ -28,6 +28,9 @@ package org.hisp.dhis.dxf2.metadata;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import static org.hisp.dhis.monitoring.metrics.ApplicationMetrics.METADATA_IMPORT;
+import static org.hisp.dhis.monitoring.metrics.ApplicationMetrics.METADATA_IMPORT_OBJECTS;
+
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +50,7 @@ import org.hisp.dhis.dxf2.metadata.objectbundle.feedback.ObjectBundleValidationR
 import org.hisp.dhis.feedback.Status;
 import org.hisp.dhis.feedback.TypeReport;
 import org.hisp.dhis.importexport.ImportStrategy;
+import org.hisp.dhis.monitoring.metrics.ApplicationMetrics;
 import org.hisp.dhis.preheat.PreheatIdentifier;
 import org.hisp.dhis.preheat.PreheatMode;
 import org.hisp.dhis.scheduling.JobConfiguration;
@@ -139,6 +143,7 @@ public class DefaultMetadataImportService implements MetadataImportService
             }
 
             log.info( "(" + bundle.getUsername() + ") Import:Commit took " + commitTimer.toString() );
+            ApplicationMetrics.recordTime( METADATA_IMPORT, commitTimer.duration(), "phase", "commit" );
         }
         else
         {
@@ -152,6 +157,9 @@ public class DefaultMetadataImportService implements MetadataImportService
 
         log.info( message );
 
+        ApplicationMetrics.recordTime( METADATA_IMPORT, timer.duration(), "phase", "total" );
+        ApplicationMetrics.record( METADATA_IMPORT_OBJECTS, importReport.getStats().getTotal() );
+
         if ( bundle.hasJobId() )
         {
             notifier.notify( bundle.getJobId(), NotificationLevel.INFO, message, true )
@@ -38,4 +38,9 @@ public class MetadataExportException
     {
         super( message );
     }
+
+    public MetadataExportException( String message, Throwable cause )
+    {
+        super( message, cause );
+    }
 }
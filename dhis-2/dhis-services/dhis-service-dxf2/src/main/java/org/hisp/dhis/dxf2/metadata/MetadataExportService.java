@@ -32,6 +32,7 @@ import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.node.types.RootNode;
 
 import javax.annotation.Nonnull;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -57,6 +58,16 @@ public interface MetadataExportService
      */
     RootNode getMetadataAsNode( MetadataExportParams params );
 
+    /**
+     * Exports metadata using provided params and writes it as JSON directly to
+     * the given output stream. Objects are loaded, converted and written page
+     * by page, so memory usage does not depend on the size of the export.
+     *
+     * @param params       Export parameters
+     * @param outputStream Stream to write JSON to, not closed by this method
+     */
+    void writeMetadataAsJson( MetadataExportParams params, OutputStream outputStream );
+
     /**
      * Validates the import params. Not currently implemented.
      *
@@ -28,14 +28,25 @@ package org.hisp.dhis.dxf2.metadata.objectbundle.hooks;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundle;
+import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.UserGroup;
 import org.springframework.stereotype.Component;
 
 @Component
 public class UserGroupObjectBundleHook extends AbstractObjectBundleHook
 {
+    private final CurrentUserService currentUserService;
+
+    public UserGroupObjectBundleHook( CurrentUserService currentUserService )
+    {
+        checkNotNull( currentUserService );
+        this.currentUserService = currentUserService;
+    }
+
     @Override
     public <T extends IdentifiableObject> void preUpdate( T object, T persistedObject, ObjectBundle bundle )
     {
@@ -43,6 +54,14 @@ public class UserGroupObjectBundleHook extends AbstractObjectBundleHook
         handleCreatedUserProperty( object, persistedObject, bundle );
     }
 
+    @Override
+    public void postCommit( ObjectBundle bundle )
+    {
+        if ( !bundle.getObjectMap().containsKey( UserGroup.class ) ) return;
+
+        currentUserService.invalidateUserGroupCache();
+    }
+
     /**
      * As User property of UserGroup is marked with @JsonIgnore ( see {@link UserGroup} ), the new object will always has User = NULL.
      * So we need to get this from persisted UserGroup, otherwise it will always be set to current User when updating.
@@ -204,6 +204,8 @@ public class UserObjectBundleHook extends AbstractObjectBundleHook
     {
         if ( !bundle.getObjectMap().containsKey( User.class ) ) return;
 
+        currentUserService.invalidateUserGroupCache();
+
         List<IdentifiableObject> objects = bundle.getObjectMap().get( User.class );
         Map<String, Map<String, Object>> userReferences = bundle.getObjectReferences( User.class );
         Map<String, Map<String, Object>> userCredentialsReferences = bundle.getObjectReferences( UserCredentials.class );
@@ -29,21 +29,38 @@ package org.hisp.dhis.dxf2.sync;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.IOException;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
 import lombok.extern.slf4j.Slf4j;
 import org.hisp.dhis.common.IdSchemes;
 import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.dxf2.datavalueset.DataValueKeysetCursor;
 import org.hisp.dhis.dxf2.datavalueset.DataValueSetService;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.util.Clock;
-import org.hisp.dhis.system.util.CodecUtils;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestTemplate;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
+ * Synchronizes data values changed since the last successful synchronization
+ * to the remote server.
+ * <p>
+ * The change window is read in pages by primary key, see
+ * {@link DataValueKeysetCursor}. Pages are gzip compressed and up to
+ * {@link SettingKey#MAX_CONCURRENT_SYNC_REQUESTS} pages are sent concurrently.
+ * The position after the last page of an unbroken sequence of sent pages is
+ * persisted as a checkpoint, so that a failed run is resumed from there
+ * within the same change window.
+ *
  * @author David Katuscak <katuscak.d@gmail.com>
  */
 @Slf4j
@@ -54,21 +71,34 @@ public class DataValueSynchronization extends DataSynchronizationWithPaging
     private final DataValueSetService dataValueSetService;
     private final SystemSettingManager systemSettingManager;
     private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private DataValueKeysetCursor cursor;
+    private SyncThroughput throughput;
+
+    private ExecutorService executor;
+    private Semaphore inFlight;
 
-    private Date lastUpdatedAfter;
+    private volatile boolean pageFailed;
+    private Map<Integer, String> sentPageCheckpoints;
+    private int lastCheckpointPage;
+    private String lastCheckpoint;
+    private String persistedCheckpoint;
 
     public DataValueSynchronization( DataValueService dataValueService, DataValueSetService dataValueSetService,
-        SystemSettingManager systemSettingManager, RestTemplate restTemplate )
+        SystemSettingManager systemSettingManager, RestTemplate restTemplate, MeterRegistry meterRegistry )
     {
         checkNotNull( dataValueService );
         checkNotNull( dataValueSetService );
         checkNotNull( systemSettingManager );
         checkNotNull( restTemplate );
+        checkNotNull( meterRegistry );
 
         this.dataValueService = dataValueService;
         this.dataValueSetService = dataValueSetService;
         this.systemSettingManager = systemSettingManager;
         this.restTemplate = restTemplate;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -93,15 +123,19 @@ public class DataValueSynchronization extends DataSynchronizationWithPaging
 
         runSyncWithPaging( pageSize );
 
+        log.info( "DataValueSynchronization throughput: " + throughput.getSummary() );
+
         if ( syncResult )
         {
             clock.logTime( "SUCCESS! DataValueSynchronization job is done. It took" );
-            SyncUtils.setLastSyncSuccess( systemSettingManager, SettingKey.LAST_SUCCESSFUL_DATA_VALUE_SYNC, new Date( clock.getStartTime() ));
+            SyncUtils.setLastSyncSuccess( systemSettingManager, SettingKey.LAST_SUCCESSFUL_DATA_VALUE_SYNC, cursor.getLastUpdatedTo() );
+            systemSettingManager.deleteSystemSetting( SettingKey.DATA_VALUE_SYNC_CHECKPOINT );
             return SynchronizationResult
-                .newSuccessResultWithMessage( "DataValueSynchronization done. It took " + clock.getTime() + " ms." );
+                .newSuccessResultWithMessage( "DataValueSynchronization done. It took " + clock.getTime() + " ms. " + throughput.getSummary() );
         }
 
-        return SynchronizationResult.newFailureResultWithMessage( "DataValueSynchronization failed." );
+        return SynchronizationResult.newFailureResultWithMessage( "DataValueSynchronization failed. " +
+            "The next run resumes from checkpoint: " + lastCheckpoint );
     }
 
     private void initializeSyncVariables( final int pageSize )
@@ -109,7 +143,10 @@ public class DataValueSynchronization extends DataSynchronizationWithPaging
         clock = new Clock( log ).startClock().logTime( "Starting DataValueSynchronization job" );
         final Date lastSuccessTime = SyncUtils.getLastSyncSuccess( systemSettingManager, SettingKey.LAST_SUCCESSFUL_DATA_VALUE_SYNC );
         final Date skipChangedBefore = (Date) systemSettingManager.getSystemSetting( SettingKey.SKIP_SYNCHRONIZATION_FOR_DATA_CHANGED_BEFORE );
-        lastUpdatedAfter = lastSuccessTime.after( skipChangedBefore ) ? lastSuccessTime : skipChangedBefore;
+        final Date lastUpdatedAfter = lastSuccessTime.after( skipChangedBefore ) ? lastSuccessTime : skipChangedBefore;
+
+        cursor = getCursor( lastUpdatedAfter, pageSize );
+        throughput = new SyncThroughput( meterRegistry, SyncEndpoint.DATA_VALUE_SETS );
 
         objectsToSynchronize = dataValueService.getDataValueCountLastUpdatedAfter( lastUpdatedAfter, true );
 
@@ -124,32 +161,179 @@ public class DataValueSynchronization extends DataSynchronizationWithPaging
 
             log.info( objectsToSynchronize + " DataValues to synchronize were found." );
             log.info( "Remote server URL for DataValues POST sync: " + instance.getUrl() );
-            log.info( "DataValueSynchronization job has " + pages + " pages to sync. With page size: " + pageSize );
+            log.info( "DataValueSynchronization job has at most " + pages + " pages to sync. With page size: " + pageSize );
+        }
+    }
+
+    /**
+     * Returns a cursor resuming from the persisted checkpoint if the checkpoint
+     * belongs to a change window starting at the given date, otherwise a cursor
+     * for a new change window ending at the start of this run.
+     */
+    private DataValueKeysetCursor getCursor( Date lastUpdatedAfter, int pageSize )
+    {
+        String checkpoint = (String) systemSettingManager.getSystemSetting( SettingKey.DATA_VALUE_SYNC_CHECKPOINT );
+
+        DataValueKeysetCursor resumed = checkpoint != null ? DataValueKeysetCursor.fromCheckpoint( checkpoint, pageSize ) : null;
+
+        if ( resumed != null && resumed.getLastUpdatedFrom().equals( lastUpdatedAfter ) )
+        {
+            log.info( "Resuming DataValueSynchronization from checkpoint: " + checkpoint );
+            lastCheckpoint = checkpoint;
+            persistedCheckpoint = checkpoint;
+            return resumed;
         }
+
+        DataValueKeysetCursor newCursor = new DataValueKeysetCursor( lastUpdatedAfter, new Date( clock.getStartTime() ), pageSize );
+        lastCheckpoint = newCursor.getCheckpoint();
+        persistedCheckpoint = null;
+        return newCursor;
     }
 
+    @Override
+    protected void runSyncWithPaging( int pageSize )
+    {
+        final int maxConcurrentRequests = Math.max( 1, (int) systemSettingManager.getSystemSetting( SettingKey.MAX_CONCURRENT_SYNC_REQUESTS ) );
+
+        executor = Executors.newFixedThreadPool( maxConcurrentRequests );
+        inFlight = new Semaphore( maxConcurrentRequests );
+
+        pageFailed = false;
+        sentPageCheckpoints = new HashMap<>();
+        lastCheckpointPage = 0;
+
+        try
+        {
+            for ( int page = 1; !pageFailed && cursor.hasNextPage(); page++ )
+            {
+                synchronizePage( page, pageSize );
+                persistCheckpoint();
+            }
+
+            // Wait for the pages in flight
+            inFlight.acquireUninterruptibly( maxConcurrentRequests );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        persistCheckpoint();
+
+        syncResult = !pageFailed;
+    }
+
+    /**
+     * Reads the next page from the cursor and sends it asynchronously. Blocks
+     * while the maximum number of pages are in flight.
+     */
+    @Override
     protected void synchronizePage( int page, int pageSize )
     {
-        log.info( String.format( "Synchronizing page %d with page size %d", page, pageSize ) );
+        final byte[] payload = getPagePayload( page );
+
+        if ( payload == null || cursor.getPageCount() == 0 )
+        {
+            return;
+        }
+
+        final int values = cursor.getPageCount();
+        final String checkpoint = cursor.getCheckpoint();
+
+        inFlight.acquireUninterruptibly();
 
-        if ( !sendSyncRequest( pageSize, page ) )
+        if ( pageFailed )
         {
-            syncResult = false;
+            inFlight.release();
+            return;
         }
+
+        executor.execute( () -> {
+            try
+            {
+                sendPage( page, checkpoint, values, payload );
+            }
+            finally
+            {
+                inFlight.release();
+            }
+        } );
+    }
+
+    private byte[] getPagePayload( int page )
+    {
+        try
+        {
+            byte[] payload = SyncUtils.getGzipPayload( out -> dataValueSetService.writeDataValueSetJson( cursor, out, new IdSchemes() ) );
+
+            log.info( String.format( "Read page %d with %d values, %d compressed bytes", page, cursor.getPageCount(), payload.length ) );
+
+            return payload;
+        }
+        catch ( IOException ex )
+        {
+            log.error( "Writing DataValueSynchronization page " + page + " failed", ex );
+            pageFailed = true;
+            return null;
+        }
+    }
+
+    private void sendPage( int page, String checkpoint, int values, byte[] payload )
+    {
+        boolean success = false;
+
+        try
+        {
+            success = SyncUtils.sendSyncRequest( systemSettingManager, restTemplate,
+                SyncUtils.getJsonRequestCallback( instance, payload ), instance, SyncEndpoint.DATA_VALUE_SETS );
+        }
+        catch ( RuntimeException ex )
+        {
+            log.error( "Sending DataValueSynchronization page " + page + " failed", ex );
+        }
+
+        if ( success )
+        {
+            throughput.record( values, payload.length );
+        }
+
+        completePage( page, checkpoint, success );
     }
 
-    private boolean sendSyncRequest( int syncPageSize, int page )
+    /**
+     * Marks the given page as completed and advances the checkpoint over the
+     * unbroken sequence of sent pages.
+     */
+    private synchronized void completePage( int page, String checkpoint, boolean success )
     {
-        final RequestCallback requestCallback = request ->
+        if ( !success )
         {
-            request.getHeaders().setContentType( MediaType.APPLICATION_JSON );
-            request.getHeaders().add( SyncUtils.HEADER_AUTHORIZATION,
-                CodecUtils.getBasicAuthString( instance.getUsername(), instance.getPassword() ) );
+            pageFailed = true;
+            return;
+        }
 
-            dataValueSetService.writeDataValueSetJson( lastUpdatedAfter, request.getBody(), new IdSchemes(),
-                syncPageSize, page );
-        };
+        sentPageCheckpoints.put( page, checkpoint );
 
-        return SyncUtils.sendSyncRequest( systemSettingManager, restTemplate, requestCallback, instance, SyncEndpoint.DATA_VALUE_SETS );
+        while ( sentPageCheckpoints.containsKey( lastCheckpointPage + 1 ) )
+        {
+            lastCheckpointPage++;
+            lastCheckpoint = sentPageCheckpoints.remove( lastCheckpointPage );
+        }
+    }
+
+    private void persistCheckpoint()
+    {
+        String checkpoint;
+
+        synchronized ( this )
+        {
+            checkpoint = lastCheckpoint;
+        }
+
+        if ( checkpoint != null && !checkpoint.equals( persistedCheckpoint ) )
+        {
+            systemSettingManager.saveSystemSetting( SettingKey.DATA_VALUE_SYNC_CHECKPOINT, checkpoint );
+            persistedCheckpoint = checkpoint;
+        }
     }
-}
\ No newline at end of file
+}
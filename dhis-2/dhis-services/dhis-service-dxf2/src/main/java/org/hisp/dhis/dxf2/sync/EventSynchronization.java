@@ -30,6 +30,7 @@ package org.hisp.dhis.dxf2.sync;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.IOException;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -44,12 +45,10 @@ import org.hisp.dhis.render.RenderService;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.util.Clock;
-import org.hisp.dhis.system.util.CodecUtils;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestTemplate;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 /**
  * @author David Katuscak <katuscak.d@gmail.com>
@@ -63,24 +62,28 @@ public class EventSynchronization extends DataSynchronizationWithPaging
     private final RestTemplate restTemplate;
     private final RenderService renderService;
     private final ProgramStageDataElementService programStageDataElementService;
+    private final MeterRegistry meterRegistry;
 
     private Date skipChangedBefore;
     private Map<String, Set<String>> psdesWithSkipSyncTrue;
+    private SyncThroughput throughput;
 
     public EventSynchronization( EventService eventService, SystemSettingManager systemSettingManager, RestTemplate restTemplate, RenderService renderService,
-        ProgramStageDataElementService programStageDataElementService )
+        ProgramStageDataElementService programStageDataElementService, MeterRegistry meterRegistry )
     {
         checkNotNull( eventService );
         checkNotNull( systemSettingManager );
         checkNotNull( renderService );
         checkNotNull( programStageDataElementService );
         checkNotNull( restTemplate );
+        checkNotNull( meterRegistry );
 
         this.eventService = eventService;
         this.systemSettingManager = systemSettingManager;
         this.restTemplate = restTemplate;
         this.renderService = renderService;
         this.programStageDataElementService = programStageDataElementService;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -101,10 +104,12 @@ public class EventSynchronization extends DataSynchronizationWithPaging
 
         runSyncWithPaging( pageSize );
 
+        log.info( "Event programs data synchronization throughput: " + throughput.getSummary() );
+
         if ( syncResult )
         {
             clock.logTime( "SUCCESS! Event programs data sync was successfully done! It took " );
-            return SynchronizationResult.newSuccessResultWithMessage( "Event programs data synchronization done. It took " + clock.getTime() + " ms." );
+            return SynchronizationResult.newSuccessResultWithMessage( "Event programs data synchronization done. It took " + clock.getTime() + " ms. " + throughput.getSummary() );
         }
 
         return SynchronizationResult.newFailureResultWithMessage( "Event programs data synchronization failed." );
@@ -115,6 +120,7 @@ public class EventSynchronization extends DataSynchronizationWithPaging
         clock = new Clock( log ).startClock().logTime( "Starting Event programs data synchronization job." );
         skipChangedBefore = (Date) systemSettingManager.getSystemSetting( SettingKey.SKIP_SYNCHRONIZATION_FOR_DATA_CHANGED_BEFORE );
         objectsToSynchronize = eventService.getAnonymousEventReadyForSynchronizationCount( skipChangedBefore );
+        throughput = new SyncThroughput( meterRegistry, SyncEndpoint.EVENTS );
 
         log.info( "Events last changed before " + skipChangedBefore + " will not be synchronized." );
 
@@ -172,13 +178,26 @@ public class EventSynchronization extends DataSynchronizationWithPaging
 
     private boolean sendSyncRequest( Events events )
     {
-        final RequestCallback requestCallback = request ->
+        final byte[] payload;
+
+        try
         {
-            request.getHeaders().setContentType( MediaType.APPLICATION_JSON );
-            request.getHeaders().add( SyncUtils.HEADER_AUTHORIZATION, CodecUtils.getBasicAuthString( instance.getUsername(), instance.getPassword() ) );
-            renderService.toJson( request.getBody(), events );
-        };
+            payload = SyncUtils.getGzipPayload( out -> renderService.toJson( out, events ) );
+        }
+        catch ( IOException ex )
+        {
+            log.error( "Writing events for synchronization failed", ex );
+            return false;
+        }
+
+        boolean success = SyncUtils.sendSyncRequest( systemSettingManager, restTemplate,
+            SyncUtils.getJsonRequestCallback( instance, payload ), instance, SyncEndpoint.EVENTS );
+
+        if ( success )
+        {
+            throughput.record( events.getEvents().size(), payload.length );
+        }
 
-        return SyncUtils.sendSyncRequest( systemSettingManager, restTemplate, requestCallback, instance, SyncEndpoint.EVENTS );
+        return success;
     }
 }
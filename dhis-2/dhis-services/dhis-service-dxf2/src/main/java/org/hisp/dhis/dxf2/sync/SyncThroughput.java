@@ -0,0 +1,109 @@
+package org.hisp.dhis.dxf2.sync;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records the throughput of a synchronization run. Values and bytes sent are
+ * counted in the meter registry per endpoint, and summarized per run for the
+ * job log and result message.
+ */
+public class SyncThroughput
+{
+    private static final String METER_VALUES = "sync.values";
+
+    private static final String METER_BYTES = "sync.bytes";
+
+    private static final String TAG_ENDPOINT = "endpoint";
+
+    private final Counter valuesCounter;
+
+    private final Counter bytesCounter;
+
+    private final AtomicLong values = new AtomicLong();
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    private final long startTime = System.currentTimeMillis();
+
+    public SyncThroughput( MeterRegistry meterRegistry, SyncEndpoint endpoint )
+    {
+        String endpointTag = endpoint.name().toLowerCase();
+
+        this.valuesCounter = Counter.builder( METER_VALUES )
+            .description( "Number of values sent to the remote server" )
+            .tag( TAG_ENDPOINT, endpointTag )
+            .register( meterRegistry );
+
+        this.bytesCounter = Counter.builder( METER_BYTES )
+            .description( "Number of compressed bytes sent to the remote server" )
+            .baseUnit( "bytes" )
+            .tag( TAG_ENDPOINT, endpointTag )
+            .register( meterRegistry );
+    }
+
+    /**
+     * Records a successfully sent request. Safe to call from multiple threads.
+     *
+     * @param sentValues the number of values in the request.
+     * @param sentBytes the number of bytes in the request body.
+     */
+    public void record( long sentValues, long sentBytes )
+    {
+        values.addAndGet( sentValues );
+        bytes.addAndGet( sentBytes );
+        valuesCounter.increment( sentValues );
+        bytesCounter.increment( sentBytes );
+    }
+
+    public long getValues()
+    {
+        return values.get();
+    }
+
+    public long getBytes()
+    {
+        return bytes.get();
+    }
+
+    /**
+     * Returns a summary of the throughput since this object was created.
+     */
+    public String getSummary()
+    {
+        double seconds = Math.max( 1, System.currentTimeMillis() - startTime ) / 1000d;
+
+        return String.format( "Sent %d values and %d bytes, %.1f values/s, %.1f KB/s",
+            values.get(), bytes.get(), values.get() / seconds, bytes.get() / 1024d / seconds );
+    }
+}
@@ -30,8 +30,12 @@ package org.hisp.dhis.dxf2.sync;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Date;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 import org.hisp.dhis.dxf2.common.ImportSummariesResponseExtractor;
 import org.hisp.dhis.dxf2.common.ImportSummaryResponseExtractor;
@@ -65,6 +69,57 @@ public class SyncUtils
     {
     }
 
+    /**
+     * Writer of a synchronization request payload.
+     */
+    @FunctionalInterface
+    interface PayloadWriter
+    {
+        void write( OutputStream out )
+            throws IOException;
+    }
+
+    /**
+     * Writes a synchronization request payload and compresses it with gzip.
+     * The import endpoints of the remote server detect the compression format
+     * from the content, so the payload can be posted with the content type of
+     * the uncompressed payload.
+     *
+     * @param writer the payload writer
+     * @return the compressed payload
+     * @throws IOException if writing the payload failed
+     */
+    static byte[] getGzipPayload( PayloadWriter writer )
+        throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try ( GZIPOutputStream out = new GZIPOutputStream( bytes ) )
+        {
+            writer.write( out );
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Creates a request callback which posts the given JSON payload with basic
+     * authentication for the given instance.
+     *
+     * @param instance SystemInstance of remote system
+     * @param payload  the payload, possibly gzip compressed
+     * @return a request callback
+     */
+    static RequestCallback getJsonRequestCallback( SystemInstance instance, byte[] payload )
+    {
+        return request ->
+        {
+            request.getHeaders().setContentType( MediaType.APPLICATION_JSON );
+            request.getHeaders().add( HEADER_AUTHORIZATION, CodecUtils.getBasicAuthString( instance.getUsername(), instance.getPassword() ) );
+            request.getBody().write( payload );
+        };
+    }
+
     /**
      * Sends a synchronization request to the {@code syncUrl} and analyzes the returned summary
      *
@@ -0,0 +1,151 @@
+package org.hisp.dhis.dxf2.adx;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.common.DataDimensionType;
+import org.hisp.dhis.common.IdScheme;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dxf2.common.ImportOptions;
+import org.hisp.dhis.dxf2.datavalue.DataValue;
+import org.hisp.staxwax.factory.XMLFactory;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+public class StreamingAdxDataValueSetTest
+{
+    @Mock
+    private IdentifiableObjectManager identifiableObjectManager;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Before
+    public void setUp()
+    {
+        CategoryCombo categoryCombo = new CategoryCombo( CategoryCombo.DEFAULT_CATEGORY_COMBO_NAME, DataDimensionType.DISAGGREGATION );
+
+        DataElement dataElement = new DataElement( "DataElementA" );
+        dataElement.setUid( "deabcdefghA" );
+        dataElement.setCode( "DE_A" );
+        dataElement.setValueType( ValueType.INTEGER );
+        dataElement.setCategoryCombo( categoryCombo );
+
+        when( identifiableObjectManager.getObject( eq( DataElement.class ), any( IdScheme.class ), eq( "DE_A" ) ) )
+            .thenReturn( dataElement );
+    }
+
+    @Test
+    public void testReadDataValues()
+    {
+        String adx = "<adx xmlns=\"urn:ihe:qrph:adx:2015\">" +
+            "<group orgUnit=\"OU_A\" period=\"2015-01-01/P1M\">" +
+            "<dataValue dataElement=\"DE_A\" value=\"10\"/>" +
+            "<dataValue dataElement=\"DE_UNKNOWN\" value=\"11\"/>" +
+            "<dataValue dataElement=\"DE_A\" value=\"12\" comment=\"Checked\"/>" +
+            "</group>" +
+            "<group orgUnit=\"OU_B\" period=\"2015-02-01/P1M\">" +
+            "<dataValue dataElement=\"DE_A\" value=\"13\"/>" +
+            "</group>" +
+            "</adx>";
+
+        StreamingAdxDataValueSet dataValueSet = getDataValueSet( adx );
+
+        assertTrue( dataValueSet.hasNextDataValue() );
+        DataValue dataValue = dataValueSet.getNextDataValue();
+        assertEquals( "DE_A", dataValue.getDataElement() );
+        assertEquals( "201501", dataValue.getPeriod() );
+        assertEquals( "OU_A", dataValue.getOrgUnit() );
+        assertEquals( "10", dataValue.getValue() );
+
+        assertTrue( dataValueSet.hasNextDataValue() );
+        dataValue = dataValueSet.getNextDataValue();
+        assertEquals( "12", dataValue.getValue() );
+        assertEquals( "Checked", dataValue.getComment() );
+
+        assertTrue( dataValueSet.hasNextDataValue() );
+        dataValue = dataValueSet.getNextDataValue();
+        assertEquals( "201502", dataValue.getPeriod() );
+        assertEquals( "OU_B", dataValue.getOrgUnit() );
+        assertEquals( "13", dataValue.getValue() );
+
+        assertFalse( dataValueSet.hasNextDataValue() );
+        assertNull( dataValueSet.getNextDataValue() );
+
+        assertEquals( 1, dataValueSet.getAdxConflicts().size() );
+        assertEquals( 2, dataValueSet.getGroupCount() );
+        assertNull( dataValueSet.getGroupError() );
+    }
+
+    @Test
+    public void testGroupErrorStopsIteration()
+    {
+        String adx = "<adx xmlns=\"urn:ihe:qrph:adx:2015\">" +
+            "<group orgUnit=\"OU_A\" period=\"2015-01-01/P1M\">" +
+            "<dataValue dataElement=\"DE_A\" value=\"10\"/>" +
+            "</group>" +
+            "<group period=\"2015-02-01/P1M\">" +
+            "<dataValue dataElement=\"DE_A\" value=\"11\"/>" +
+            "</group>" +
+            "</adx>";
+
+        StreamingAdxDataValueSet dataValueSet = getDataValueSet( adx );
+
+        assertTrue( dataValueSet.hasNextDataValue() );
+        assertEquals( "10", dataValueSet.getNextDataValue().getValue() );
+        assertFalse( dataValueSet.hasNextDataValue() );
+
+        assertNotNull( dataValueSet.getGroupError() );
+        assertEquals( 1, dataValueSet.getGroupCount() );
+    }
+
+    private StreamingAdxDataValueSet getDataValueSet( String adx )
+    {
+        return new StreamingAdxDataValueSet( XMLFactory.getXMLReader( new ByteArrayInputStream( adx.getBytes( StandardCharsets.UTF_8 ) ) ),
+            ImportOptions.getDefaultImportOptions(), identifiableObjectManager );
+    }
+}
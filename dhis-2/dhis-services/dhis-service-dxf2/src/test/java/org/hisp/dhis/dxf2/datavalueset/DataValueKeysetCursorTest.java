@@ -0,0 +1,99 @@
+package org.hisp.dhis.dxf2.datavalueset;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Date;
+
+import org.junit.Test;
+
+public class DataValueKeysetCursorTest
+{
+    @Test
+    public void testCheckpointRoundTrip()
+        throws SQLException
+    {
+        DataValueKeysetCursor cursor = new DataValueKeysetCursor( new Date( 1000L ), new Date( 2000L ), 2 );
+
+        assertEquals( "1000;2000", cursor.getCheckpoint() );
+        assertFalse( cursor.getNextPageSql().contains( ") > (" ) );
+
+        ResultSet rs = mock( ResultSet.class );
+        when( rs.getLong( anyString() ) ).thenReturn( 7L );
+
+        cursor.startPage();
+        cursor.next( rs );
+        cursor.next( rs );
+        cursor.endPage();
+
+        assertTrue( cursor.hasNextPage() );
+        assertEquals( "1000;2000;7,7,7,7,7", cursor.getCheckpoint() );
+
+        DataValueKeysetCursor resumed = DataValueKeysetCursor.fromCheckpoint( cursor.getCheckpoint(), 10 );
+
+        assertEquals( new Date( 1000L ), resumed.getLastUpdatedFrom() );
+        assertEquals( new Date( 2000L ), resumed.getLastUpdatedTo() );
+        assertEquals( cursor.getCheckpoint(), resumed.getCheckpoint() );
+        assertTrue( resumed.getNextPageSql().contains( ") > (7,7,7,7,7) " ) );
+        assertTrue( resumed.getNextPageSql().endsWith( " limit 10" ) );
+    }
+
+    @Test
+    public void testCursorIsExhaustedAfterPartialPage()
+        throws SQLException
+    {
+        DataValueKeysetCursor cursor = new DataValueKeysetCursor( new Date( 1000L ), new Date( 2000L ), 2 );
+
+        ResultSet rs = mock( ResultSet.class );
+        when( rs.getLong( anyString() ) ).thenReturn( 1L );
+
+        cursor.startPage();
+        cursor.next( rs );
+        cursor.endPage();
+
+        assertFalse( cursor.hasNextPage() );
+    }
+
+    @Test
+    public void testInvalidCheckpoint()
+    {
+        assertNull( DataValueKeysetCursor.fromCheckpoint( "1000", 2 ) );
+        assertNull( DataValueKeysetCursor.fromCheckpoint( "1000;2000;1,2", 2 ) );
+        assertNull( DataValueKeysetCursor.fromCheckpoint( "1000;abc", 2 ) );
+    }
+}
@@ -0,0 +1,244 @@
+package org.hisp.dhis.dxf2.events.importer.context;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hisp.dhis.dxf2.common.ImportOptions;
+import org.hisp.dhis.dxf2.events.event.Event;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.trackedentity.TrackedEntityInstance;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserCredentials;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class WorkContextLoaderTest
+{
+    @Rule
+    public MockitoRule rule = MockitoJUnit.rule();
+
+    @Mock
+    private ProgramSupplier programSupplier;
+
+    @Mock
+    private OrganisationUnitSupplier organisationUnitSupplier;
+
+    @Mock
+    private TrackedEntityInstanceSupplier trackedEntityInstanceSupplier;
+
+    @Mock
+    private ProgramInstanceSupplier programInstanceSupplier;
+
+    @Mock
+    private ProgramStageInstanceSupplier programStageInstanceSupplier;
+
+    @Mock
+    private CategoryOptionComboSupplier categoryOptionComboSupplier;
+
+    @Mock
+    private DataElementSupplier dataElementSupplier;
+
+    @Mock
+    private NoteSupplier noteSupplier;
+
+    @Mock
+    private AssignedUserSupplier assignedUserSupplier;
+
+    @Mock
+    private ServiceDelegatorSupplier serviceDelegatorSupplier;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Session session;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WorkContextLoader subject;
+
+    private ImportOptions importOptions;
+
+    private List<Event> events;
+
+    @Before
+    public void setUp()
+    {
+        subject = new WorkContextLoader( programSupplier, organisationUnitSupplier, trackedEntityInstanceSupplier,
+            programInstanceSupplier, programStageInstanceSupplier, categoryOptionComboSupplier, dataElementSupplier,
+            noteSupplier, assignedUserSupplier, serviceDelegatorSupplier, sessionFactory, transactionManager );
+
+        when( transactionManager.getTransaction( any() ) ).thenReturn( new SimpleTransactionStatus() );
+        when( sessionFactory.getCurrentSession() ).thenReturn( session );
+
+        User user = new User();
+        user.setUserCredentials( new UserCredentials() );
+
+        importOptions = ImportOptions.getDefaultImportOptions();
+        importOptions.setUser( user );
+
+        Event event = new Event();
+        event.setEvent( "eventUid001" );
+        events = Collections.singletonList( event );
+    }
+
+    @After
+    public void tearDown()
+    {
+        subject.shutdown();
+    }
+
+    @Test
+    public void verifyDependentSuppliersStartAfterTheirDependencies()
+    {
+        Map<String, Pair<TrackedEntityInstance, Boolean>> teiMap = Collections.singletonMap( "teiUid00001",
+            Pair.of( new TrackedEntityInstance(), true ) );
+
+        AtomicBoolean programsLoaded = new AtomicBoolean();
+        AtomicBoolean teisLoaded = new AtomicBoolean();
+        Map<String, Boolean> startedAfterDependencies = new ConcurrentHashMap<>();
+
+        when( programSupplier.get( any(), anyList() ) ).thenAnswer( invocation -> {
+            Thread.sleep( 100 );
+            programsLoaded.set( true );
+            return Collections.<String, Program> emptyMap();
+        } );
+        when( trackedEntityInstanceSupplier.get( any(), anyList() ) ).thenAnswer( invocation -> {
+            Thread.sleep( 50 );
+            teisLoaded.set( true );
+            return teiMap;
+        } );
+        when( programStageInstanceSupplier.get( any(), anyList() ) ).thenAnswer( invocation -> {
+            startedAfterDependencies.put( "programStageInstance", programsLoaded.get() );
+            return Collections.emptyMap();
+        } );
+        when( categoryOptionComboSupplier.get( any(), anyList() ) ).thenAnswer( invocation -> {
+            startedAfterDependencies.put( "categoryOptionCombo", programsLoaded.get() );
+            return Collections.emptyMap();
+        } );
+        when( programInstanceSupplier.get( any(), eq( teiMap ), anyList() ) ).thenAnswer( invocation -> {
+            startedAfterDependencies.put( "programInstance", programsLoaded.get() && teisLoaded.get() );
+            return Collections.emptyMap();
+        } );
+
+        WorkContext context = subject.load( importOptions, events );
+
+        assertThat( startedAfterDependencies, allOf( hasEntry( "programStageInstance", true ),
+            hasEntry( "categoryOptionCombo", true ), hasEntry( "programInstance", true ) ) );
+        assertThat( context.getTrackedEntityInstanceMap(), is( teiMap ) );
+        assertThat( context.getEventDataValueMap(), hasKey( "eventUid001" ) );
+
+        verify( programInstanceSupplier ).get( any(), eq( teiMap ), anyList() );
+        verify( session, never() ).flush();
+    }
+
+    @Test
+    public void verifySuppliersRunOnTheCallingThreadWithinATransaction()
+    {
+        Map<String, Thread> threads = new ConcurrentHashMap<>();
+
+        when( programSupplier.get( any(), anyList() ) ).thenAnswer( invocation -> {
+            threads.put( "program", Thread.currentThread() );
+            return Collections.emptyMap();
+        } );
+        when( organisationUnitSupplier.get( any(), anyList() ) ).thenAnswer( invocation -> {
+            threads.put( "organisationUnit", Thread.currentThread() );
+            return Collections.emptyMap();
+        } );
+        when( programInstanceSupplier.get( any(), any(), anyList() ) ).thenAnswer( invocation -> {
+            threads.put( "programInstance", Thread.currentThread() );
+            return Collections.emptyMap();
+        } );
+
+        TransactionSynchronizationManager.setActualTransactionActive( true );
+
+        try
+        {
+            subject.load( importOptions, events );
+        }
+        finally
+        {
+            TransactionSynchronizationManager.setActualTransactionActive( false );
+        }
+
+        assertThat( threads.values(), everyItem( is( Thread.currentThread() ) ) );
+        assertThat( threads.keySet(), containsInAnyOrder( "program", "organisationUnit", "programInstance" ) );
+
+        verify( session ).flush();
+        verify( transactionManager, never() ).getTransaction( any() );
+    }
+
+    @Test
+    public void verifySupplierExceptionIsPropagated()
+    {
+        IllegalStateException failure = new IllegalStateException( "Programs could not be loaded" );
+
+        when( programSupplier.get( any(), anyList() ) ).thenThrow( failure );
+
+        try
+        {
+            subject.load( importOptions, events );
+            fail( "Expected the exception of the program supplier" );
+        }
+        catch ( IllegalStateException e )
+        {
+            assertTrue( e == failure );
+        }
+
+        verify( programStageInstanceSupplier, never() ).get( any(), anyList() );
+        verify( categoryOptionComboSupplier, never() ).get( any(), anyList() );
+        verify( programInstanceSupplier, never() ).get( any(), any(), anyList() );
+    }
+}
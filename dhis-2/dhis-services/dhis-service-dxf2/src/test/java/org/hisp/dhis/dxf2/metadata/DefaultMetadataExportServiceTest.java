@@ -28,19 +28,29 @@ package org.hisp.dhis.dxf2.metadata;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hisp.dhis.attribute.Attribute;
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.SetMap;
 import org.hisp.dhis.fieldfilter.FieldFilterParams;
 import org.hisp.dhis.fieldfilter.FieldFilterService;
 import org.hisp.dhis.node.types.CollectionNode;
+import org.hisp.dhis.node.types.ComplexNode;
+import org.hisp.dhis.node.types.SimpleNode;
 import org.hisp.dhis.option.Option;
 import org.hisp.dhis.programrule.ProgramRuleService;
 import org.hisp.dhis.programrule.ProgramRuleVariableService;
+import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.QueryService;
+import org.hisp.dhis.query.Restriction;
+import org.hisp.dhis.query.operators.GreaterThanOperator;
 import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.schema.Property;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
+import org.hisp.dhis.system.SystemInfo;
 import org.hisp.dhis.system.SystemService;
 import org.hisp.dhis.user.CurrentUserService;
 import org.junit.Assert;
@@ -49,10 +59,15 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 import org.mockito.stubbing.Answer;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -88,6 +103,12 @@ public class DefaultMetadataExportServiceTest
     @Mock
     private SystemService systemService;
 
+    @Mock
+    private IdentifiableObjectManager manager;
+
+    @Spy
+    private ObjectMapper jsonMapper = new ObjectMapper();
+
     @InjectMocks
     private DefaultMetadataExportService service;
 
@@ -189,4 +210,117 @@ public class DefaultMetadataExportServiceTest
         Assert.assertFalse( exportParams.getClasses().contains( JobConfiguration.class ) );
         Assert.assertTrue( exportParams.getClasses().contains( Option.class ) );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void writeMetadataAsJsonPaged()
+    {
+        SystemInfo systemInfo = new SystemInfo();
+        systemInfo.setSystemId( "systemA" );
+        Mockito.when( systemService.getSystemInfo() ).thenReturn( systemInfo );
+
+        Mockito.when( queryService.getQueryFromUrl( Mockito.eq( Option.class ), Mockito.any(), Mockito.any() ) )
+            .thenReturn( Query.from( new Schema( Option.class, "option", "options" ) ) );
+
+        List<Option> fullPage = Collections.nCopies( 500, new Option() );
+        List<Option> lastPage = Collections.singletonList( new Option() );
+        Mockito.doAnswer( invocation ->
+        {
+            Query query = invocation.getArgument( 0 );
+            return query.getFirstResult() == 0 ? fullPage : lastPage;
+        } ).when( queryService ).query( Mockito.any() );
+
+        Mockito.when( fieldFilterService.toCollectionNode( Mockito.eq( Option.class ), Mockito.any() ) ).then( (Answer<CollectionNode>) invocation ->
+        {
+            FieldFilterParams fieldFilterParams = invocation.getArgument( 1 );
+            CollectionNode collectionNode = new CollectionNode( "options" );
+            ComplexNode complexNode = collectionNode.addChild( new ComplexNode( "option" ) );
+            complexNode.addChild( new SimpleNode( "size", fieldFilterParams.getObjects().size() ) );
+            return collectionNode;
+        } );
+
+        MetadataExportParams params = new MetadataExportParams();
+        params.addClass( Option.class );
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        service.writeMetadataAsJson( params, outputStream );
+
+        JsonNode json = readTree( outputStream );
+        Assert.assertEquals( "systemA", json.get( "system" ).get( "id" ).asText() );
+        Assert.assertEquals( 2, json.get( "options" ).size() );
+        Assert.assertEquals( 500, json.get( "options" ).get( 0 ).get( "size" ).asInt() );
+        Assert.assertEquals( 1, json.get( "options" ).get( 1 ).get( "size" ).asInt() );
+
+        Mockito.verify( queryService, Mockito.times( 2 ) ).query( Mockito.any() );
+        Mockito.verify( manager, Mockito.times( 2 ) ).clear();
+    }
+
+    @Test
+    public void writeMetadataAsJsonKeysetPaged()
+    {
+        SystemInfo systemInfo = new SystemInfo();
+        systemInfo.setSystemId( "systemA" );
+        Mockito.when( systemService.getSystemInfo() ).thenReturn( systemInfo );
+
+        Property idProperty = new Property( String.class );
+        idProperty.setName( "id" );
+        idProperty.setFieldName( "uid" );
+        idProperty.setPersisted( true );
+
+        Schema schema = new Schema( Option.class, "option", "options" );
+        schema.addProperty( idProperty );
+
+        Mockito.when( queryService.getQueryFromUrl( Mockito.eq( Option.class ), Mockito.any(), Mockito.any() ) )
+            .thenReturn( Query.from( schema ) );
+
+        List<Option> fullPage = new ArrayList<>();
+
+        for ( int i = 0; i < 500; i++ )
+        {
+            Option option = new Option();
+            option.setUid( String.format( "option%05d", i ) );
+            fullPage.add( option );
+        }
+
+        List<Option> lastPage = Collections.singletonList( new Option() );
+        List<Query> queries = new ArrayList<>();
+
+        Mockito.doAnswer( invocation ->
+        {
+            Query query = invocation.getArgument( 0 );
+            queries.add( query );
+            return query.getCriterions().isEmpty() ? fullPage : lastPage;
+        } ).when( queryService ).query( Mockito.any() );
+
+        Mockito.when( fieldFilterService.toCollectionNode( Mockito.eq( Option.class ), Mockito.any() ) )
+            .thenReturn( new CollectionNode( "options" ) );
+
+        MetadataExportParams params = new MetadataExportParams();
+        params.addClass( Option.class );
+
+        service.writeMetadataAsJson( params, new ByteArrayOutputStream() );
+
+        Assert.assertEquals( 2, queries.size() );
+        Assert.assertEquals( "id", queries.get( 0 ).getOrders().get( 0 ).getProperty().getName() );
+
+        Query secondPage = queries.get( 1 );
+        Assert.assertEquals( 0, (int) secondPage.getFirstResult() );
+        Assert.assertEquals( 1, secondPage.getCriterions().size() );
+
+        Restriction restriction = (Restriction) secondPage.getCriterions().get( 0 );
+        Assert.assertEquals( "id", restriction.getPath() );
+        Assert.assertTrue( restriction.getOperator() instanceof GreaterThanOperator );
+        Assert.assertEquals( "option00499", restriction.getOperator().getArgs().get( 0 ) );
+    }
+
+    private JsonNode readTree( ByteArrayOutputStream outputStream )
+    {
+        try
+        {
+            return jsonMapper.readTree( outputStream.toByteArray() );
+        }
+        catch ( IOException ex )
+        {
+            throw new UncheckedIOException( ex );
+        }
+    }
+}
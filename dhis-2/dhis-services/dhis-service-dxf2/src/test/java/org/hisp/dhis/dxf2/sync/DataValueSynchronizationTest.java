@@ -0,0 +1,203 @@
+package org.hisp.dhis.dxf2.sync;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hisp.dhis.common.IdSchemes;
+import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.dxf2.datavalueset.DataValueKeysetCursor;
+import org.hisp.dhis.dxf2.datavalueset.DataValueSetService;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class DataValueSynchronizationTest
+{
+    private static final String URL = "http://localhost:8080";
+
+    private static final String SUCCESS_SUMMARY = "{\"responseType\":\"ImportSummary\",\"status\":\"SUCCESS\"}";
+
+    @Mock
+    private DataValueService dataValueService;
+
+    @Mock
+    private DataValueSetService dataValueSetService;
+
+    @Mock
+    private SystemSettingManager systemSettingManager;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    private RestTemplate restTemplate;
+
+    private MockRestServiceServer remoteServer;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DataValueSynchronization synchronization;
+
+    private final AtomicLong rowKey = new AtomicLong();
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        restTemplate = new RestTemplate();
+        remoteServer = MockRestServiceServer.bindTo( restTemplate ).ignoreExpectOrder( true ).build();
+        meterRegistry = new SimpleMeterRegistry();
+
+        when( systemSettingManager.getSystemSetting( SettingKey.REMOTE_INSTANCE_URL ) ).thenReturn( URL );
+        when( systemSettingManager.getSystemSetting( SettingKey.REMOTE_INSTANCE_USERNAME ) ).thenReturn( "admin" );
+        when( systemSettingManager.getSystemSetting( SettingKey.REMOTE_INSTANCE_PASSWORD ) ).thenReturn( "district" );
+        when( systemSettingManager.getSystemSetting( SettingKey.MAX_REMOTE_SERVER_AVAILABILITY_CHECK_ATTEMPTS ) ).thenReturn( 1 );
+        when( systemSettingManager.getSystemSetting( SettingKey.DELAY_BETWEEN_REMOTE_SERVER_AVAILABILITY_CHECK_ATTEMPTS ) ).thenReturn( 0 );
+        when( systemSettingManager.getSystemSetting( SettingKey.MAX_SYNC_ATTEMPTS ) ).thenReturn( 0 );
+        when( systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_DATA_VALUE_SYNC ) ).thenReturn( new Date( 0 ) );
+        when( systemSettingManager.getSystemSetting( SettingKey.SKIP_SYNCHRONIZATION_FOR_DATA_CHANGED_BEFORE ) ).thenReturn( new Date( 0 ) );
+
+        when( dataValueService.getDataValueCountLastUpdatedAfter( any( Date.class ), anyBoolean() ) ).thenReturn( 5 );
+
+        ResultSet rs = mock( ResultSet.class );
+        when( rs.getLong( anyString() ) ).thenAnswer( invocation -> rowKey.get() );
+
+        // Writes the next page of a window of 5 data values and advances the cursor
+        doAnswer( invocation -> {
+            DataValueKeysetCursor cursor = invocation.getArgument( 0 );
+            OutputStream out = invocation.getArgument( 1 );
+
+            cursor.startPage();
+
+            while ( cursor.getPageCount() < cursor.getPageSize() && rowKey.get() < 5 )
+            {
+                rowKey.incrementAndGet();
+                cursor.next( rs );
+            }
+
+            cursor.endPage();
+
+            out.write( "{\"dataValues\":[]}".getBytes( StandardCharsets.UTF_8 ) );
+            return null;
+        } ).when( dataValueSetService ).writeDataValueSetJson( any( DataValueKeysetCursor.class ), any( OutputStream.class ), any( IdSchemes.class ) );
+
+        synchronization = new DataValueSynchronization( dataValueService, dataValueSetService, systemSettingManager,
+            restTemplate, meterRegistry );
+
+        remoteServer.expect( once(), requestTo( URL + "/api/system/ping" ) )
+            .andExpect( method( HttpMethod.GET ) )
+            .andRespond( withSuccess( "pong", MediaType.TEXT_PLAIN ) );
+    }
+
+    @Test
+    public void testSynchronizeDataSendsCompressedPagesConcurrently()
+    {
+        when( systemSettingManager.getSystemSetting( SettingKey.MAX_CONCURRENT_SYNC_REQUESTS ) ).thenReturn( 2 );
+
+        remoteServer.expect( times( 3 ), requestTo( URL + SyncEndpoint.DATA_VALUE_SETS.getPath() ) )
+            .andExpect( method( HttpMethod.POST ) )
+            .andExpect( request -> assertGzip( ( (MockClientHttpRequest) request ).getBodyAsBytes() ) )
+            .andRespond( withSuccess( SUCCESS_SUMMARY, MediaType.APPLICATION_JSON ) );
+
+        SynchronizationResult result = synchronization.synchronizeData( 2 );
+
+        remoteServer.verify();
+
+        assertEquals( SynchronizationStatus.SUCCESS, result.status );
+        assertEquals( 5, (long) meterRegistry.get( "sync.values" ).counter().count() );
+        verify( systemSettingManager ).saveSystemSetting( eq( SettingKey.LAST_SUCCESSFUL_DATA_VALUE_SYNC ), any( Date.class ) );
+        verify( systemSettingManager ).deleteSystemSetting( SettingKey.DATA_VALUE_SYNC_CHECKPOINT );
+    }
+
+    @Test
+    public void testFailedSynchronizationPersistsCheckpointOfSentPages()
+    {
+        when( systemSettingManager.getSystemSetting( SettingKey.MAX_CONCURRENT_SYNC_REQUESTS ) ).thenReturn( 1 );
+
+        remoteServer.expect( once(), requestTo( URL + SyncEndpoint.DATA_VALUE_SETS.getPath() ) )
+            .andRespond( withSuccess( SUCCESS_SUMMARY, MediaType.APPLICATION_JSON ) );
+        remoteServer.expect( once(), requestTo( URL + SyncEndpoint.DATA_VALUE_SETS.getPath() ) )
+            .andRespond( withServerError() );
+
+        SynchronizationResult result = synchronization.synchronizeData( 2 );
+
+        assertEquals( SynchronizationStatus.FAILURE, result.status );
+
+        ArgumentCaptor<Serializable> checkpoints = ArgumentCaptor.forClass( Serializable.class );
+        verify( systemSettingManager, atLeastOnce() ).saveSystemSetting( eq( SettingKey.DATA_VALUE_SYNC_CHECKPOINT ), checkpoints.capture() );
+
+        DataValueKeysetCursor resumed = DataValueKeysetCursor.fromCheckpoint( (String) checkpoints.getValue(), 2 );
+
+        assertEquals( new Date( 0 ), resumed.getLastUpdatedFrom() );
+        assertTrue( ( (String) checkpoints.getValue() ).endsWith( ";2,2,2,2,2" ) );
+        verify( systemSettingManager, never() ).saveSystemSetting( eq( SettingKey.LAST_SUCCESSFUL_DATA_VALUE_SYNC ), any( Date.class ) );
+    }
+
+    private static void assertGzip( byte[] body )
+    {
+        assertTrue( body.length > 2 && ( body[0] & 0xff ) == 0x1f && ( body[1] & 0xff ) == 0x8b );
+    }
+}
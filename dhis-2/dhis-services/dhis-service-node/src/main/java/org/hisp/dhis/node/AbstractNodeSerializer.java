@@ -58,6 +58,10 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
 
     protected Config config;
 
+    private RootNode streamRootNode;
+
+    private OutputStream streamOutputStream;
+
     @Override
     public void serialize( RootNode rootNode, OutputStream outputStream ) throws Exception
     {
@@ -68,6 +72,98 @@ public abstract class AbstractNodeSerializer implements NodeSerializer
         this.config = null;
     }
 
+    /**
+     * Starts a streamed serialization of the given root node. Instead of
+     * walking a fully materialized node tree, callers write the children of
+     * the root node one by one using {@link #writeStreamNode(Node)} and
+     * {@link #writeStreamCollectionItems(CollectionNode)}, which allows the
+     * nodes of each chunk to be discarded as soon as they have been written.
+     * The serialization must be completed with {@link #endStream()}.
+     * <p>
+     * As serializers are stateful, streamed serialization must be done on an
+     * instance which is not shared with other threads.
+     *
+     * @param rootNode     the root node, children of the root node are ignored.
+     * @param outputStream the output stream to write to.
+     */
+    public void startStream( RootNode rootNode, OutputStream outputStream ) throws Exception
+    {
+        this.config = rootNode.getConfig();
+        this.streamRootNode = rootNode;
+        this.streamOutputStream = outputStream;
+        startSerialize( rootNode, outputStream );
+        startWriteRootNode( rootNode );
+    }
+
+    /**
+     * Writes a single (simple, complex or collection) child of the root node
+     * of an ongoing streamed serialization.
+     *
+     * @param node the node to write.
+     */
+    public void writeStreamNode( Node node ) throws Exception
+    {
+        ((AbstractNode) node).setParent( streamRootNode );
+        dispatcher( node );
+        flushStream();
+    }
+
+    /**
+     * Starts writing a collection child of the root node of an ongoing
+     * streamed serialization. The items of the collection are written with
+     * {@link #writeStreamCollectionItems(CollectionNode)}, and the collection
+     * must be closed with {@link #endStreamCollection(CollectionNode)}.
+     *
+     * @param collectionNode the collection node, typically the first chunk of
+     *        the collection, which provides name, namespace and wrapping.
+     */
+    public void startStreamCollection( CollectionNode collectionNode ) throws Exception
+    {
+        ((AbstractNode) collectionNode).setParent( streamRootNode );
+        startWriteCollectionNode( collectionNode );
+    }
+
+    /**
+     * Writes the children of the given collection node chunk as items of the
+     * collection started with {@link #startStreamCollection(CollectionNode)}.
+     *
+     * @param collectionNode the collection node chunk.
+     */
+    public void writeStreamCollectionItems( CollectionNode collectionNode ) throws Exception
+    {
+        for ( Node node : collectionNode.getChildren() )
+        {
+            dispatcher( node );
+        }
+
+        flushStream();
+    }
+
+    /**
+     * Ends the collection started with {@link #startStreamCollection(CollectionNode)}.
+     *
+     * @param collectionNode the collection node passed when starting the collection.
+     */
+    public void endStreamCollection( CollectionNode collectionNode ) throws Exception
+    {
+        endWriteCollectionNode( collectionNode );
+        flushStream();
+    }
+
+    /**
+     * Ends the streamed serialization started with
+     * {@link #startStream(RootNode, OutputStream)}.
+     */
+    public void endStream() throws Exception
+    {
+        endWriteRootNode( streamRootNode );
+        flushStream();
+        endSerialize( streamRootNode, streamOutputStream );
+        this.config = null;
+        this.streamRootNode = null;
+        this.streamOutputStream = null;
+    }
+
     protected abstract void startWriteRootNode( RootNode rootNode ) throws Exception;
 
     protected void writeRootNode( RootNode rootNode ) throws Exception
@@ -0,0 +1,56 @@
+package org.hisp.dhis.tracker;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+/**
+ * How the objects of a tracker bundle are written to the database.
+ */
+public enum CommitMode
+{
+    /**
+     * Persist every object through the Hibernate session.
+     */
+    SESSION,
+
+    /**
+     * Insert tracked entities, attribute values, enrollments and events with
+     * JDBC batch statements. Relationships are persisted through the session.
+     * <p>
+     * The written tables are registered with the session as bulk operations,
+     * so their second-level cache regions are evicted and cached queries on
+     * them are invalidated. Objects written with JDBC stay detached: later
+     * objects reference them by id only, and the session is cleared when
+     * the bundle is committed.
+     * <p>
+     * The Hibernate audit listeners do not see objects written with JDBC.
+     * Their create, update and delete audits are published by the bundle
+     * service instead, when the transaction commits.
+     */
+    JDBC_BATCH,
+}
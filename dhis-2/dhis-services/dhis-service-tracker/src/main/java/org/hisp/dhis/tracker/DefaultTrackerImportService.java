@@ -28,6 +28,8 @@ package org.hisp.dhis.tracker;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import static org.hisp.dhis.monitoring.metrics.ApplicationMetrics.TRACKER_IMPORT;
+
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -37,6 +39,7 @@ import org.hisp.dhis.common.IdScheme;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.commons.timer.SystemTimer;
 import org.hisp.dhis.commons.timer.Timer;
+import org.hisp.dhis.monitoring.metrics.ApplicationMetrics;
 import org.hisp.dhis.system.notification.Notifier;
 import org.hisp.dhis.tracker.bundle.TrackerBundle;
 import org.hisp.dhis.tracker.bundle.TrackerBundleMode;
@@ -126,6 +129,7 @@ public class DefaultTrackerImportService
         }
 
         importReport.getTimings().setTotalImport( requestTimer.toString() );
+        ApplicationMetrics.recordTime( TRACKER_IMPORT, requestTimer.duration(), "phase", "total" );
 
         TrackerBundleReportModeUtils.filter( importReport, params.getReportMode() );
 
@@ -149,6 +153,7 @@ public class DefaultTrackerImportService
         List<TrackerBundle> trackerBundles = trackerBundleService.create( bundleParams );
 
         importReport.getTimings().setPreheat( preheatTimer.toString() );
+        ApplicationMetrics.recordTime( TRACKER_IMPORT, preheatTimer.duration(), "phase", "preheat" );
         return trackerBundles;
     }
 
@@ -163,6 +168,7 @@ public class DefaultTrackerImportService
             .collect( Collectors.toList() );
 
         importReport.getTimings().setProgramrule( preProcessTimer.toString() );
+        ApplicationMetrics.recordTime( TRACKER_IMPORT, preProcessTimer.duration(), "phase", "programrule" );
         return trackerBundles;
     }
 
@@ -180,6 +186,7 @@ public class DefaultTrackerImportService
         }
 
         importReport.getTimings().setCommit( commitTimer.toString() );
+        ApplicationMetrics.recordTime( TRACKER_IMPORT, commitTimer.duration(), "phase", "commit" );
 
         if ( params.hasJobConfiguration() )
         {
@@ -200,6 +207,7 @@ public class DefaultTrackerImportService
         }
 
         importReport.getTimings().setCommit( commitTimer.toString() );
+        ApplicationMetrics.recordTime( TRACKER_IMPORT, commitTimer.duration(), "phase", "delete" );
 
         if ( params.hasJobConfiguration() )
         {
@@ -220,6 +228,7 @@ public class DefaultTrackerImportService
             validationReport.add( trackerValidationService.validate( tb ) ) );
 
         importReport.getTimings().setValidation( validationTimer.toString() );
+        ApplicationMetrics.recordTime( TRACKER_IMPORT, validationTimer.duration(), "phase", "validation" );
         importReport.setTrackerValidationReport( validationReport );
 
         if ( params.hasJobConfiguration() )
@@ -246,6 +255,8 @@ public class DefaultTrackerImportService
             TrackerImportStrategy.CREATE_AND_UPDATE ) );
         params.setAtomicMode( getEnumWithDefault( AtomicMode.class, parameters, "atomicMode", AtomicMode.ALL ) );
         params.setFlushMode( getEnumWithDefault( FlushMode.class, parameters, "flushMode", FlushMode.AUTO ) );
+        params.setCommitMode( getEnumWithDefault( CommitMode.class, parameters, "commitMode", CommitMode.SESSION ) );
+        params.setParallelValidation( getBooleanWithDefault( parameters, "parallelValidation", false ) );
 
         return params;
     }
@@ -299,6 +310,16 @@ public class DefaultTrackerImportService
         return Enums.getIfPresent( enumKlass, value ).or( defaultValue );
     }
 
+    private boolean getBooleanWithDefault( Map<String, List<String>> parameters, String key, boolean defaultValue )
+    {
+        if ( parameters == null || parameters.get( key ) == null || parameters.get( key ).isEmpty() )
+        {
+            return defaultValue;
+        }
+
+        return Boolean.parseBoolean( parameters.get( key ).get( 0 ) );
+    }
+
     private String getAttributeUidOrNull( Map<String, List<String>> parameters, String key )
     {
         if ( parameters == null || parameters.get( key ) == null || parameters.get( key ).isEmpty() )
@@ -100,6 +100,13 @@ public class TrackerImportParams
     @Builder.Default
     private FlushMode flushMode = FlushMode.AUTO;
 
+    /**
+     * Write objects through the Hibernate session or with JDBC batches.
+     */
+    @JsonProperty
+    @Builder.Default
+    private CommitMode commitMode = CommitMode.SESSION;
+
     /**
      * Validation mode to use, defaults to fully validated objects.
      */
@@ -119,6 +126,12 @@ public class TrackerImportParams
     @JsonProperty
     private boolean skipSideEffects;
 
+    /**
+     * Should objects be validated in parallel, default is not.
+     */
+    @JsonProperty
+    private boolean parallelValidation;
+
     /**
      * Name of file that was used for import (if available).
      */
@@ -196,9 +209,11 @@ public class TrackerImportParams
             .importStrategy( importStrategy )
             .skipTextPatternValidation( skipPatternValidation )
             .skipSideEffects( skipSideEffects )
+            .parallelValidation( parallelValidation )
             .identifiers( identifiers )
             .atomicMode( atomicMode )
             .flushMode( flushMode )
+            .commitMode( commitMode )
             .validationMode( validationMode )
             .reportMode( reportMode )
             .trackedEntities( trackedEntities )
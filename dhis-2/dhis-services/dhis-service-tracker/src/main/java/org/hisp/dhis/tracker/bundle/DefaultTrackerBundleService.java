@@ -38,7 +38,11 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hisp.dhis.audit.AuditType;
 import org.hisp.dhis.cache.HibernateCacheManager;
+import org.hisp.dhis.common.BaseIdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.ValueType;
 import org.hisp.dhis.dataelement.DataElement;
@@ -54,6 +58,7 @@ import org.hisp.dhis.trackedentity.TrackedEntityInstance;
 import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
 import org.hisp.dhis.trackedentitycomment.TrackedEntityComment;
 import org.hisp.dhis.trackedentitycomment.TrackedEntityCommentService;
+import org.hisp.dhis.tracker.CommitMode;
 import org.hisp.dhis.tracker.FlushMode;
 import org.hisp.dhis.tracker.TrackerIdScheme;
 import org.hisp.dhis.tracker.TrackerObjectDeletionService;
@@ -119,6 +124,10 @@ public class DefaultTrackerBundleService
 
     private TrackerObjectDeletionService deletionService;
 
+    private final JdbcTrackerBundleStore jdbcTrackerBundleStore;
+
+    private final JdbcTrackerBundleAuditor jdbcTrackerBundleAuditor;
+
     private List<TrackerBundleHook> bundleHooks = new ArrayList<>();
 
     private List<SideEffectHandlerService> sideEffectHandlers = new ArrayList<>();
@@ -164,7 +173,9 @@ public class DefaultTrackerBundleService
         ReservedValueService reservedValueService,
         TrackerProgramRuleService trackerProgramRuleService,
         TrackedEntityCommentService trackedEntityCommentService,
-        TrackerObjectDeletionService deletionService )
+        TrackerObjectDeletionService deletionService,
+        JdbcTrackerBundleStore jdbcTrackerBundleStore,
+        JdbcTrackerBundleAuditor jdbcTrackerBundleAuditor )
 
     {
         this.trackerPreheatService = trackerPreheatService;
@@ -181,6 +192,8 @@ public class DefaultTrackerBundleService
         this.trackerProgramRuleService = trackerProgramRuleService;
         this.trackedEntityCommentService = trackedEntityCommentService;
         this.deletionService = deletionService;
+        this.jdbcTrackerBundleStore = jdbcTrackerBundleStore;
+        this.jdbcTrackerBundleAuditor = jdbcTrackerBundleAuditor;
     }
 
     @Override
@@ -280,6 +293,10 @@ public class DefaultTrackerBundleService
 
         Date now = new Date();
 
+        AttributeValueBatch attributeValueBatch = getAttributeValueBatch( bundle );
+        List<TrackedEntity> batchTrackedEntities = new ArrayList<>();
+        List<TrackedEntityInstance> batchTeis = new ArrayList<>();
+
         for ( int idx = 0; idx < trackedEntities.size(); idx++ )
         {
             TrackedEntity trackedEntity = trackedEntities.get( idx );
@@ -292,22 +309,46 @@ public class DefaultTrackerBundleService
             TrackerObjectReport objectReport = new TrackerObjectReport( TrackerType.TRACKED_ENTITY, tei.getUid(), idx );
             typeReport.addObjectReport( objectReport );
 
+            // TODO: Implement support for update and delete and rollback/decrement create etc.
+            typeReport.getStats().incCreated();
+
+            if ( isJdbcBatch( bundle, tei ) )
+            {
+                batchTrackedEntities.add( trackedEntity );
+                batchTeis.add( tei );
+                continue;
+            }
+
             session.persist( tei );
 
             bundle.getPreheat().putTrackedEntities( bundle.getIdentifier(), Collections.singletonList( tei ) );
 
-            handleTrackedEntityAttributeValues( session, bundle.getPreheat(), trackedEntity.getAttributes(), tei );
+            handleTrackedEntityAttributeValues( session, bundle.getPreheat(), trackedEntity.getAttributes(), tei,
+                attributeValueBatch );
 
             if ( FlushMode.OBJECT == bundle.getFlushMode() )
             {
                 session.flush();
             }
+        }
 
-            // TODO: Implement support for update and delete and rollback/decrement create etc.
-            typeReport.getStats().incCreated();
+        if ( !batchTeis.isEmpty() )
+        {
+            jdbcTrackerBundleStore.saveTrackedEntityInstances( batchTeis );
+            registerJdbcTables( session, "trackedentityinstance" );
+            jdbcTrackerBundleAuditor.audit( AuditType.CREATE, batchTeis );
+
+            bundle.getPreheat().putTrackedEntities( bundle.getIdentifier(), batchTeis );
+
+            for ( int idx = 0; idx < batchTeis.size(); idx++ )
+            {
+                handleTrackedEntityAttributeValues( session, bundle.getPreheat(),
+                    batchTrackedEntities.get( idx ).getAttributes(), batchTeis.get( idx ), attributeValueBatch );
+            }
         }
 
         session.flush();
+        writeAttributeValueBatch( session, attributeValueBatch );
 
         trackedEntities
             .forEach( o -> bundleHooks.forEach( hook ->
@@ -326,6 +367,10 @@ public class DefaultTrackerBundleService
 
         Date now = new Date();
 
+        AttributeValueBatch attributeValueBatch = getAttributeValueBatch( bundle );
+        List<Enrollment> batchEnrollments = new ArrayList<>();
+        List<ProgramInstance> batchProgramInstances = new ArrayList<>();
+
         for ( int idx = 0; idx < enrollments.size(); idx++ )
         {
             Enrollment enrollment = enrollments.get( idx );
@@ -348,37 +393,54 @@ public class DefaultTrackerBundleService
                 programInstance.getUid(), idx );
             typeReport.addObjectReport( objectReport );
 
+            // TODO: Implement support for update and delete and rollback/decrement create etc.
+            typeReport.getStats().incCreated();
+
+            if ( isJdbcBatch( bundle, programInstance ) )
+            {
+                batchEnrollments.add( enrollment );
+                batchProgramInstances.add( programInstance );
+                continue;
+            }
+
             session.persist( programInstance );
 
             bundle.getPreheat().putEnrollments( bundle.getIdentifier(), Collections.singletonList( programInstance ) );
 
             handleTrackedEntityAttributeValues( session, bundle.getPreheat(), enrollment.getAttributes(),
-                programInstance.getEntityInstance() );
+                programInstance.getEntityInstance(), attributeValueBatch );
 
             if ( FlushMode.OBJECT == bundle.getFlushMode() )
             {
                 session.flush();
             }
 
-            // TODO: Implement support for update and delete and rollback/decrement create etc.
-            typeReport.getStats().incCreated();
+            handleSideEffects( bundle, ProgramInstance.class, programInstance );
+        }
 
-            if ( !bundle.isSkipSideEffects() )
+        if ( !batchProgramInstances.isEmpty() )
+        {
+            session.flush();
+            jdbcTrackerBundleStore.saveProgramInstances( batchProgramInstances );
+            registerJdbcTables( session, "programinstance", "programinstancecomments" );
+            jdbcTrackerBundleAuditor.audit( AuditType.CREATE, batchProgramInstances );
+
+            bundle.getPreheat().putEnrollments( bundle.getIdentifier(), batchProgramInstances );
+
+            for ( int idx = 0; idx < batchProgramInstances.size(); idx++ )
             {
-                TrackerSideEffectDataBundle sideEffectDataBundle = TrackerSideEffectDataBundle.builder()
-                    .klass( ProgramInstance.class )
-                    .enrollmentRuleEffects( bundle.getEnrollmentRuleEffects() )
-                    .eventRuleEffects( bundle.getEventRuleEffects() )
-                    .object( programInstance )
-                    .importStrategy( bundle.getImportStrategy() )
-                    .accessedBy( bundle.getUsername() )
-                    .build();
-
-                sideEffectHandlers.forEach( handler -> handler.handleSideEffect( sideEffectDataBundle ) );
+                ProgramInstance programInstance = batchProgramInstances.get( idx );
+
+                handleTrackedEntityAttributeValues( session, bundle.getPreheat(),
+                    batchEnrollments.get( idx ).getAttributes(), programInstance.getEntityInstance(),
+                    attributeValueBatch );
+
+                handleSideEffects( bundle, ProgramInstance.class, programInstance );
             }
         }
 
         session.flush();
+        writeAttributeValueBatch( session, attributeValueBatch );
         enrollments.forEach( o -> bundleHooks.forEach( hook -> hook.postCreate( Enrollment.class, o, bundle ) ) );
 
         return typeReport;
@@ -392,6 +454,8 @@ public class DefaultTrackerBundleService
         events.forEach( o -> bundleHooks.forEach( hook -> hook.preCreate( Event.class, o, bundle ) ) );
         session.flush();
 
+        List<ProgramStageInstance> batchProgramStageInstances = new ArrayList<>();
+
         for ( int idx = 0; idx < events.size(); idx++ )
         {
             Event event = events.get( idx );
@@ -417,6 +481,15 @@ public class DefaultTrackerBundleService
 
             handleDataValues( session, bundle.getPreheat(), event.getDataValues(), programStageInstance );
 
+            // TODO: Implement support for update and delete and rollback/decrement create etc.
+            typeReport.getStats().incCreated();
+
+            if ( isJdbcBatch( bundle, programStageInstance ) )
+            {
+                batchProgramStageInstances.add( programStageInstance );
+                continue;
+            }
+
             session.persist( programStageInstance );
 
             bundle.getPreheat().putEvents( bundle.getIdentifier(), Collections.singletonList( programStageInstance ) );
@@ -426,22 +499,19 @@ public class DefaultTrackerBundleService
                 session.flush();
             }
 
-            // TODO: Implement support for update and delete and rollback/decrement create etc.
-            typeReport.getStats().incCreated();
+            handleSideEffects( bundle, ProgramStageInstance.class, programStageInstance );
+        }
 
-            if ( !bundle.isSkipSideEffects() )
-            {
-                TrackerSideEffectDataBundle sideEffectDataBundle = TrackerSideEffectDataBundle.builder()
-                    .klass( ProgramStageInstance.class )
-                    .enrollmentRuleEffects( bundle.getEnrollmentRuleEffects() )
-                    .eventRuleEffects( bundle.getEventRuleEffects() )
-                    .object( programStageInstance )
-                    .importStrategy( bundle.getImportStrategy() )
-                    .accessedBy( bundle.getUsername() )
-                    .build();
-
-                sideEffectHandlers.forEach( handler -> handler.handleSideEffect( sideEffectDataBundle ) );
-            }
+        if ( !batchProgramStageInstances.isEmpty() )
+        {
+            session.flush();
+            jdbcTrackerBundleStore.saveProgramStageInstances( batchProgramStageInstances );
+            registerJdbcTables( session, "programstageinstance", "programstageinstancecomments" );
+            jdbcTrackerBundleAuditor.audit( AuditType.CREATE, batchProgramStageInstances );
+
+            bundle.getPreheat().putEvents( bundle.getIdentifier(), batchProgramStageInstances );
+
+            batchProgramStageInstances.forEach( psi -> handleSideEffects( bundle, ProgramStageInstance.class, psi ) );
         }
 
         session.flush();
@@ -490,9 +560,85 @@ public class DefaultTrackerBundleService
     // Utility Methods
     // -----------------------------------------------------------------------------------
 
+    /**
+     * Returns whether the given object is written with JDBC batches, which is
+     * the case for new objects when the commit mode is {@link CommitMode#JDBC_BATCH}.
+     * Objects which exist are attached to the session and are updated by it.
+     */
+    private boolean isJdbcBatch( TrackerBundle bundle, BaseIdentifiableObject object )
+    {
+        return CommitMode.JDBC_BATCH == bundle.getCommitMode() && object.getId() == 0;
+    }
+
+    private AttributeValueBatch getAttributeValueBatch( TrackerBundle bundle )
+    {
+        return CommitMode.JDBC_BATCH == bundle.getCommitMode() ? new AttributeValueBatch() : null;
+    }
+
+    private void writeAttributeValueBatch( Session session, AttributeValueBatch batch )
+    {
+        if ( batch != null && !batch.isEmpty() )
+        {
+            registerJdbcTables( session, "trackedentityattributevalue" );
+
+            if ( !batch.deleted.isEmpty() )
+            {
+                jdbcTrackerBundleStore.deleteTrackedEntityAttributeValues( batch.deleted.values() );
+                jdbcTrackerBundleAuditor.audit( AuditType.DELETE, batch.getExisting( batch.deleted, true ) );
+            }
+
+            if ( !batch.saved.isEmpty() )
+            {
+                jdbcTrackerBundleStore.saveTrackedEntityAttributeValues( batch.saved.values() );
+                jdbcTrackerBundleAuditor.audit( AuditType.CREATE, batch.getExisting( batch.saved, false ) );
+                jdbcTrackerBundleAuditor.audit( AuditType.UPDATE, batch.getExisting( batch.saved, true ) );
+            }
+        }
+    }
+
+    /**
+     * Registers tables written with JDBC with the session, as Hibernate does
+     * for native bulk statements. This evicts the entity and collection cache
+     * regions mapped to the tables, and invalidates cached queries on them
+     * when the transaction completes.
+     */
+    private void registerJdbcTables( Session session, String... tables )
+    {
+        SessionImplementor sessionImplementor = session.unwrap( SessionImplementor.class );
+
+        sessionImplementor.getActionQueue().addAction( new BulkOperationCleanupAction( sessionImplementor,
+            new HashSet<>( Arrays.asList( tables ) ) ) );
+    }
+
+    private void handleSideEffects( TrackerBundle bundle, Class<? extends BaseIdentifiableObject> klass,
+        BaseIdentifiableObject object )
+    {
+        if ( !bundle.isSkipSideEffects() )
+        {
+            TrackerSideEffectDataBundle sideEffectDataBundle = TrackerSideEffectDataBundle.builder()
+                .klass( klass )
+                .enrollmentRuleEffects( bundle.getEnrollmentRuleEffects() )
+                .eventRuleEffects( bundle.getEventRuleEffects() )
+                .object( object )
+                .importStrategy( bundle.getImportStrategy() )
+                .accessedBy( bundle.getUsername() )
+                .build();
+
+            sideEffectHandlers.forEach( handler -> handler.handleSideEffect( sideEffectDataBundle ) );
+        }
+    }
+
+    /**
+     * Handles the attribute values of the given tracked entity instance. If a
+     * batch is given and the instance was written with JDBC, values of
+     * attributes which are not confidential are added to the batch, otherwise
+     * they are persisted or removed through the session.
+     */
     private void handleTrackedEntityAttributeValues( Session session, TrackerPreheat preheat,
-        List<Attribute> payloadAttributes, TrackedEntityInstance trackedEntityInstance )
+        List<Attribute> payloadAttributes, TrackedEntityInstance trackedEntityInstance, AttributeValueBatch batch )
     {
+        boolean useBatch = batch != null && !session.contains( trackedEntityInstance );
+
         Map<String, TrackedEntityAttributeValue> attributeValueDBMap = trackedEntityInstance
             .getTrackedEntityAttributeValues()
             .stream()
@@ -506,6 +652,8 @@ public class DefaultTrackerBundleService
             checkNotNull( attribute,
                 "Attribute should never be NULL here if validation is enforced before commit." );
 
+            boolean exists = attributeValueDBMap.containsKey( at.getAttribute() );
+
             TrackedEntityAttributeValue attributeValue = attributeValueDBMap.getOrDefault( at.getAttribute(),
                 new TrackedEntityAttributeValue() );
 
@@ -523,7 +671,15 @@ public class DefaultTrackerBundleService
                 {
                     unassignFileResource( session, preheat, attributeValueDBMap.get( at.getAttribute() ).getValue() );
                 }
-                session.remove( attributeValue );
+
+                if ( useBatch && !attribute.getConfidential() )
+                {
+                    batch.delete( attributeValue, exists );
+                }
+                else
+                {
+                    session.remove( attributeValue );
+                }
             }
             else
             {
@@ -531,7 +687,15 @@ public class DefaultTrackerBundleService
                 {
                     assignFileResource( session, preheat, attributeValue.getValue() );
                 }
-                session.persist( attributeValue );
+
+                if ( useBatch && !attribute.getConfidential() )
+                {
+                    batch.save( attributeValue, exists );
+                }
+                else
+                {
+                    session.persist( attributeValue );
+                }
             }
 
             if ( attributeValue.getAttribute().isGenerated() && attributeValue.getAttribute().getTextPattern() != null )
@@ -637,4 +801,58 @@ public class DefaultTrackerBundleService
 
         return user;
     }
+
+    /**
+     * Attribute values to write with JDBC, keyed on tracked entity instance
+     * and attribute so that the last change of a value in a bundle wins. The
+     * keys of values which exist in the database are kept to audit the values
+     * as created, updated or deleted.
+     */
+    private static class AttributeValueBatch
+    {
+        private final Map<String, TrackedEntityAttributeValue> saved = new LinkedHashMap<>();
+
+        private final Map<String, TrackedEntityAttributeValue> deleted = new LinkedHashMap<>();
+
+        private final Set<String> existing = new HashSet<>();
+
+        void save( TrackedEntityAttributeValue value, boolean exists )
+        {
+            String key = getKey( value, exists );
+            deleted.remove( key );
+            saved.put( key, value );
+        }
+
+        void delete( TrackedEntityAttributeValue value, boolean exists )
+        {
+            String key = getKey( value, exists );
+            saved.remove( key );
+            deleted.put( key, value );
+        }
+
+        List<TrackedEntityAttributeValue> getExisting( Map<String, TrackedEntityAttributeValue> values, boolean exists )
+        {
+            return values.entrySet().stream()
+                .filter( entry -> existing.contains( entry.getKey() ) == exists )
+                .map( Map.Entry::getValue )
+                .collect( Collectors.toList() );
+        }
+
+        boolean isEmpty()
+        {
+            return saved.isEmpty() && deleted.isEmpty();
+        }
+
+        private String getKey( TrackedEntityAttributeValue value, boolean exists )
+        {
+            String key = value.getEntityInstance().getId() + "-" + value.getAttribute().getId();
+
+            if ( exists )
+            {
+                existing.add( key );
+            }
+
+            return key;
+        }
+    }
 }
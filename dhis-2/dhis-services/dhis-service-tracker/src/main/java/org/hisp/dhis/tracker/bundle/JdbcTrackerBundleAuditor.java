@@ -0,0 +1,135 @@
+package org.hisp.dhis.tracker.bundle;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.artemis.audit.Audit;
+import org.hisp.dhis.artemis.audit.AuditManager;
+import org.hisp.dhis.artemis.audit.AuditableEntity;
+import org.hisp.dhis.artemis.config.UsernameSupplier;
+import org.hisp.dhis.audit.AuditType;
+import org.hisp.dhis.audit.Auditable;
+import org.hisp.dhis.system.util.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Publishes audits for tracker objects written with JDBC batches, which
+ * bypass the Hibernate audit listeners. Audits are built as the listeners
+ * build them and are sent when the transaction commits, as the listeners
+ * send them after commit.
+ */
+@Component
+public class JdbcTrackerBundleAuditor
+{
+    private final AuditManager auditManager;
+
+    private final UsernameSupplier usernameSupplier;
+
+    public JdbcTrackerBundleAuditor( AuditManager auditManager, UsernameSupplier usernameSupplier )
+    {
+        this.auditManager = auditManager;
+        this.usernameSupplier = usernameSupplier;
+    }
+
+    /**
+     * Publishes an audit of the given type for each of the given objects which
+     * is auditable for the type. Audits are sent after the current transaction
+     * commits, or straight away if no transaction synchronization is active.
+     *
+     * @param auditType the audit type.
+     * @param objects the objects written with JDBC.
+     */
+    public void audit( AuditType auditType, Collection<?> objects )
+    {
+        String createdBy = usernameSupplier.get();
+
+        List<Audit> audits = objects.stream()
+            .map( object -> getAudit( auditType, object, createdBy ) )
+            .filter( Objects::nonNull )
+            .collect( Collectors.toList() );
+
+        if ( audits.isEmpty() )
+        {
+            return;
+        }
+
+        if ( TransactionSynchronizationManager.isSynchronizationActive() )
+        {
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronizationAdapter()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    audits.forEach( auditManager::send );
+                }
+            } );
+        }
+        else
+        {
+            audits.forEach( auditManager::send );
+        }
+    }
+
+    private Audit getAudit( AuditType auditType, Object object, String createdBy )
+    {
+        Auditable auditable = AnnotationUtils.getAnnotation( object.getClass(), Auditable.class );
+
+        if ( auditable == null )
+        {
+            return null;
+        }
+
+        String eventType = auditType.name().toLowerCase();
+
+        boolean shouldAudit = Arrays.stream( auditable.eventType() )
+            .anyMatch( s -> s.contains( "all" ) || s.contains( eventType ) );
+
+        if ( !shouldAudit )
+        {
+            return null;
+        }
+
+        return Audit.builder()
+            .auditType( auditType )
+            .auditScope( auditable.scope() )
+            .createdAt( LocalDateTime.now() )
+            .createdBy( createdBy )
+            .object( object )
+            .auditableEntity( new AuditableEntity( object ) )
+            .build();
+    }
+}
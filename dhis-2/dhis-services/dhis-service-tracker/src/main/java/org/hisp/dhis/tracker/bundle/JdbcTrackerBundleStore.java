@@ -0,0 +1,334 @@
+package org.hisp.dhis.tracker.bundle;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.hisp.dhis.dxf2.events.event.EventUtils.eventDataValuesToJson;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+import org.hisp.dhis.common.BaseIdentifiableObject;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.program.ProgramInstance;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.trackedentity.TrackedEntityInstance;
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
+import org.hisp.dhis.trackedentitycomment.TrackedEntityComment;
+import org.postgis.PGgeometry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Writes new tracker objects with JDBC batch statements, as an alternative to
+ * persisting them one by one through the Hibernate session. Identifiers are
+ * fetched from the sequences of the Hibernate mappings up front, in one query
+ * per batch, and set on the objects so that objects referring to them can be
+ * written in the same way.
+ * <p>
+ * Statements are executed with the {@link JdbcTemplate} and take part in the
+ * current transaction. The Hibernate session must be flushed before calling
+ * these methods when the written objects refer to objects persisted through
+ * the session.
+ * <p>
+ * Written objects are not attached to the session and bypass the second-level
+ * cache. Callers must register the written tables with the session as a bulk
+ * operation, and must not rely on the session state of these objects.
+ */
+@Repository
+public class JdbcTrackerBundleStore
+{
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_TEI_SQL = "insert into trackedentityinstance (" +
+        "trackedentityinstanceid, uid, code, created, lastupdated, lastupdatedby, createdatclient, " +
+        "lastupdatedatclient, storedby, inactive, deleted, geometry, organisationunitid, trackedentitytypeid) " +
+        "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_ATTRIBUTE_VALUE_SQL = "insert into trackedentityattributevalue (" +
+        "trackedentityinstanceid, trackedentityattributeid, created, lastupdated, value, storedby) " +
+        "values (?, ?, ?, ?, ?, ?) " +
+        "on conflict (trackedentityinstanceid, trackedentityattributeid) do update " +
+        "set lastupdated = excluded.lastupdated, value = excluded.value, storedby = excluded.storedby";
+
+    private static final String DELETE_ATTRIBUTE_VALUE_SQL = "delete from trackedentityattributevalue " +
+        "where trackedentityinstanceid = ? and trackedentityattributeid = ?";
+
+    private static final String INSERT_ENROLLMENT_SQL = "insert into programinstance (" +
+        "programinstanceid, uid, created, lastupdated, createdatclient, lastupdatedatclient, incidentdate, " +
+        "enrollmentdate, enddate, followup, completedby, geometry, deleted, storedby, status, " +
+        "trackedentityinstanceid, programid, organisationunitid) " +
+        "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ENROLLMENT_COMMENT_SQL = "insert into programinstancecomments (" +
+        "programinstanceid, sort_order, trackedentitycommentid) values (?, ?, ?)";
+
+    private static final String INSERT_EVENT_SQL = "insert into programstageinstance (" +
+        "programstageinstanceid, uid, code, created, lastupdated, createdatclient, lastupdatedatclient, " +
+        "programinstanceid, programstageid, attributeoptioncomboid, deleted, storedby, duedate, executiondate, " +
+        "organisationunitid, status, completedby, completeddate, geometry, assigneduserid, eventdatavalues) " +
+        "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_EVENT_COMMENT_SQL = "insert into programstageinstancecomments (" +
+        "programstageinstanceid, sort_order, trackedentitycommentid) values (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper jsonMapper;
+
+    public JdbcTrackerBundleStore( JdbcTemplate jdbcTemplate,
+        @Qualifier( "dataValueJsonMapper" ) ObjectMapper jsonMapper )
+    {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * Inserts the given new tracked entity instances and sets their
+     * identifiers.
+     *
+     * @param trackedEntityInstances the tracked entity instances.
+     */
+    public void saveTrackedEntityInstances( List<TrackedEntityInstance> trackedEntityInstances )
+    {
+        assignIds( "trackedentityinstance_sequence", trackedEntityInstances );
+
+        jdbcTemplate.batchUpdate( INSERT_TEI_SQL, trackedEntityInstances, BATCH_SIZE, ( ps, tei ) -> {
+            ps.setLong( 1, tei.getId() );
+            ps.setString( 2, tei.getUid() );
+            ps.setString( 3, tei.getCode() );
+            ps.setTimestamp( 4, toTimestamp( tei.getCreated() ) );
+            ps.setTimestamp( 5, toTimestamp( tei.getLastUpdated() ) );
+            setId( ps, 6, tei.getLastUpdatedBy() );
+            ps.setTimestamp( 7, toTimestamp( tei.getCreatedAtClient() ) );
+            ps.setTimestamp( 8, toTimestamp( tei.getLastUpdatedAtClient() ) );
+            ps.setString( 9, tei.getStoredBy() );
+            ps.setObject( 10, tei.isInactive(), Types.BOOLEAN );
+            ps.setBoolean( 11, tei.isDeleted() );
+            ps.setObject( 12, toGeometry( tei.getGeometry() ) );
+            ps.setLong( 13, tei.getOrganisationUnit().getId() );
+            setId( ps, 14, tei.getTrackedEntityType() );
+        } );
+    }
+
+    /**
+     * Inserts or updates the given attribute values. The values must belong to
+     * attributes which are not confidential, as encryption of values is done
+     * by Hibernate.
+     *
+     * @param attributeValues the attribute values.
+     */
+    public void saveTrackedEntityAttributeValues( Collection<TrackedEntityAttributeValue> attributeValues )
+    {
+        jdbcTemplate.batchUpdate( UPSERT_ATTRIBUTE_VALUE_SQL, attributeValues, BATCH_SIZE, ( ps, value ) -> {
+            ps.setLong( 1, value.getEntityInstance().getId() );
+            ps.setLong( 2, value.getAttribute().getId() );
+            ps.setTimestamp( 3, toTimestamp( value.getCreated() ) );
+            ps.setTimestamp( 4, toTimestamp( value.getLastUpdated() ) );
+            ps.setString( 5, value.getPlainValue() );
+            ps.setString( 6, value.getStoredBy() );
+        } );
+    }
+
+    /**
+     * Deletes the given attribute values.
+     *
+     * @param attributeValues the attribute values.
+     */
+    public void deleteTrackedEntityAttributeValues( Collection<TrackedEntityAttributeValue> attributeValues )
+    {
+        jdbcTemplate.batchUpdate( DELETE_ATTRIBUTE_VALUE_SQL, attributeValues, BATCH_SIZE, ( ps, value ) -> {
+            ps.setLong( 1, value.getEntityInstance().getId() );
+            ps.setLong( 2, value.getAttribute().getId() );
+        } );
+    }
+
+    /**
+     * Inserts the given new enrollments with the links to their comments and
+     * sets their identifiers. The comments must have been persisted.
+     *
+     * @param programInstances the enrollments.
+     */
+    public void saveProgramInstances( List<ProgramInstance> programInstances )
+    {
+        assignIds( "programinstance_sequence", programInstances );
+
+        jdbcTemplate.batchUpdate( INSERT_ENROLLMENT_SQL, programInstances, BATCH_SIZE, ( ps, pi ) -> {
+            ps.setLong( 1, pi.getId() );
+            ps.setString( 2, pi.getUid() );
+            ps.setTimestamp( 3, toTimestamp( pi.getCreated() ) );
+            ps.setTimestamp( 4, toTimestamp( pi.getLastUpdated() ) );
+            ps.setTimestamp( 5, toTimestamp( pi.getCreatedAtClient() ) );
+            ps.setTimestamp( 6, toTimestamp( pi.getLastUpdatedAtClient() ) );
+            ps.setTimestamp( 7, toTimestamp( pi.getIncidentDate() ) );
+            ps.setTimestamp( 8, toTimestamp( pi.getEnrollmentDate() ) );
+            ps.setTimestamp( 9, toTimestamp( pi.getEndDate() ) );
+            ps.setObject( 10, pi.getFollowup(), Types.BOOLEAN );
+            ps.setString( 11, pi.getCompletedBy() );
+            ps.setObject( 12, toGeometry( pi.getGeometry() ) );
+            ps.setBoolean( 13, pi.isDeleted() );
+            ps.setString( 14, pi.getStoredBy() );
+            ps.setString( 15, pi.getStatus() != null ? pi.getStatus().name() : null );
+            setId( ps, 16, pi.getEntityInstance() );
+            ps.setLong( 17, pi.getProgram().getId() );
+            setId( ps, 18, pi.getOrganisationUnit() );
+        } );
+
+        saveComments( INSERT_ENROLLMENT_COMMENT_SQL, programInstances, ProgramInstance::getComments );
+    }
+
+    /**
+     * Inserts the given new events with the links to their comments and sets
+     * their identifiers. The comments must have been persisted.
+     *
+     * @param programStageInstances the events.
+     */
+    public void saveProgramStageInstances( List<ProgramStageInstance> programStageInstances )
+    {
+        assignIds( "programstageinstance_sequence", programStageInstances );
+
+        jdbcTemplate.batchUpdate( INSERT_EVENT_SQL, programStageInstances, BATCH_SIZE, ( ps, psi ) -> {
+            ps.setLong( 1, psi.getId() );
+            ps.setString( 2, psi.getUid() );
+            ps.setString( 3, psi.getCode() );
+            ps.setTimestamp( 4, toTimestamp( psi.getCreated() ) );
+            ps.setTimestamp( 5, toTimestamp( psi.getLastUpdated() ) );
+            ps.setTimestamp( 6, toTimestamp( psi.getCreatedAtClient() ) );
+            ps.setTimestamp( 7, toTimestamp( psi.getLastUpdatedAtClient() ) );
+            ps.setLong( 8, psi.getProgramInstance().getId() );
+            ps.setLong( 9, psi.getProgramStage().getId() );
+            setId( ps, 10, psi.getAttributeOptionCombo() );
+            ps.setBoolean( 11, psi.isDeleted() );
+            ps.setString( 12, psi.getStoredBy() );
+            ps.setTimestamp( 13, toTimestamp( psi.getDueDate() ) );
+            ps.setTimestamp( 14, toTimestamp( psi.getExecutionDate() ) );
+            setId( ps, 15, psi.getOrganisationUnit() );
+            ps.setString( 16, psi.getStatus().toString() );
+            ps.setString( 17, psi.getCompletedBy() );
+            ps.setTimestamp( 18, toTimestamp( psi.getCompletedDate() ) );
+            ps.setObject( 19, toGeometry( psi.getGeometry() ) );
+            setId( ps, 20, psi.getAssignedUser() );
+
+            try
+            {
+                ps.setObject( 21, eventDataValuesToJson( psi.getEventDataValues(), jsonMapper ) );
+            }
+            catch ( JsonProcessingException ex )
+            {
+                throw new IllegalStateException( "Data values of event could not be serialized: " + psi.getUid(), ex );
+            }
+        } );
+
+        saveComments( INSERT_EVENT_COMMENT_SQL, programStageInstances, ProgramStageInstance::getComments );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Fetches the given number of values from the given sequence in one query
+     * and sets them as identifiers of the given objects.
+     */
+    private void assignIds( String sequence, List<? extends BaseIdentifiableObject> objects )
+    {
+        if ( objects.isEmpty() )
+        {
+            return;
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList( "select nextval('" + sequence + "') from generate_series(1, ?)",
+            Long.class, objects.size() );
+
+        for ( int i = 0; i < objects.size(); i++ )
+        {
+            objects.get( i ).setId( ids.get( i ) );
+        }
+    }
+
+    private <T extends IdentifiableObject> void saveComments( String sql, List<T> objects,
+        Function<T, List<TrackedEntityComment>> commentsFunction )
+    {
+        List<long[]> links = new ArrayList<>();
+
+        for ( T object : objects )
+        {
+            List<TrackedEntityComment> comments = commentsFunction.apply( object );
+
+            for ( int i = 0; i < comments.size(); i++ )
+            {
+                links.add( new long[] { object.getId(), i + 1, comments.get( i ).getId() } );
+            }
+        }
+
+        if ( !links.isEmpty() )
+        {
+            jdbcTemplate.batchUpdate( sql, links, BATCH_SIZE, ( ps, link ) -> {
+                ps.setLong( 1, link[0] );
+                ps.setLong( 2, link[1] );
+                ps.setLong( 3, link[2] );
+            } );
+        }
+    }
+
+    private static void setId( PreparedStatement ps, int index, IdentifiableObject object )
+        throws SQLException
+    {
+        if ( object != null )
+        {
+            ps.setLong( index, object.getId() );
+        }
+        else
+        {
+            ps.setNull( index, Types.BIGINT );
+        }
+    }
+
+    private static Timestamp toTimestamp( Date date )
+    {
+        return date != null ? new Timestamp( date.getTime() ) : null;
+    }
+
+    private static PGgeometry toGeometry( Geometry geometry )
+        throws SQLException
+    {
+        return geometry != null ? new PGgeometry( geometry.toText() ) : null;
+    }
+}
@@ -35,6 +35,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hisp.dhis.rules.models.RuleEffect;
 import org.hisp.dhis.tracker.AtomicMode;
+import org.hisp.dhis.tracker.CommitMode;
 import org.hisp.dhis.tracker.FlushMode;
 import org.hisp.dhis.tracker.TrackerBundleReportMode;
 import org.hisp.dhis.tracker.TrackerIdScheme;
@@ -57,7 +58,7 @@ import java.util.Map;
  * @author Morten Olav Hansen <mortenoh@gmail.com>
  */
 @Data
-@Builder
+@Builder( toBuilder = true )
 @NoArgsConstructor
 @AllArgsConstructor
 public class TrackerBundle
@@ -97,6 +98,12 @@ public class TrackerBundle
     @JsonProperty
     private boolean skipSideEffects;
 
+    /**
+     * Should objects be validated in parallel, default is not.
+     */
+    @JsonProperty
+    private boolean parallelValidation;
+
     /**
      * Should import be treated as a atomic import (all or nothing).
      */
@@ -109,6 +116,12 @@ public class TrackerBundle
     @Builder.Default
     private FlushMode flushMode = FlushMode.AUTO;
 
+    /**
+     * Write objects through the Hibernate session or with JDBC batches.
+     */
+    @Builder.Default
+    private CommitMode commitMode = CommitMode.SESSION;
+
     /**
      * Validation mode to use, defaults to fully validated objects.
      */
@@ -35,6 +35,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hisp.dhis.tracker.AtomicMode;
+import org.hisp.dhis.tracker.CommitMode;
 import org.hisp.dhis.tracker.FlushMode;
 import org.hisp.dhis.tracker.TrackerBundleReportMode;
 import org.hisp.dhis.tracker.TrackerIdentifierParams;
@@ -94,6 +95,12 @@ public class TrackerBundleParams
     @JsonProperty
     private boolean skipSideEffects;
 
+    /**
+     * Should objects be validated in parallel, default is not.
+     */
+    @JsonProperty
+    private boolean parallelValidation;
+
     /**
      * Sets import strategy (create, update, etc).
      */
@@ -122,6 +129,13 @@ public class TrackerBundleParams
     @Builder.Default
     private FlushMode flushMode = FlushMode.AUTO;
 
+    /**
+     * Write objects through the Hibernate session or with JDBC batches.
+     */
+    @JsonProperty
+    @Builder.Default
+    private CommitMode commitMode = CommitMode.SESSION;
+
     /**
      * Validation mode to use, defaults to fully validated objects.
      */
@@ -178,7 +192,9 @@ public class TrackerBundleParams
             .importStrategy( importStrategy )
             .skipTextPatternValidation( skipTextPatternValidation )
             .skipSideEffects( skipSideEffects )
+            .parallelValidation( parallelValidation )
             .flushMode( flushMode )
+            .commitMode( commitMode )
             .validationMode( validationMode )
             .reportMode( reportMode )
             .trackedEntities( trackedEntities )
@@ -57,6 +57,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -70,8 +71,10 @@ public class TrackerPreheat
 
     /**
      * Internal map of all objects mapped by identifier => class type => uid.
+     * Concurrent, as validation hooks may put objects while bundle partitions
+     * are validated in parallel.
      */
-    private Map<TrackerIdScheme, Map<Class<? extends IdentifiableObject>, Map<String, IdentifiableObject>>> map = new HashMap<>();
+    private Map<TrackerIdScheme, Map<Class<? extends IdentifiableObject>, Map<String, IdentifiableObject>>> map = new ConcurrentHashMap<>();
 
     /**
      * Internal map of all default object (like category option combo, etc).
@@ -221,7 +224,7 @@ public class TrackerPreheat
 
     public boolean containsKey( TrackerIdScheme identifier, Class<? extends IdentifiableObject> klass, String key )
     {
-        return !(isEmpty() || isEmpty( identifier ) || isEmpty( identifier, klass )) &&
+        return key != null && !(isEmpty() || isEmpty( identifier ) || isEmpty( identifier, klass )) &&
             map.get( identifier ).get( klass ).containsKey( key );
     }
 
@@ -232,7 +235,7 @@ public class TrackerPreheat
 
     public boolean isEmpty( TrackerIdScheme identifier )
     {
-        return !map.containsKey( identifier ) || map.get( identifier ).isEmpty();
+        return identifier == null || !map.containsKey( identifier ) || map.get( identifier ).isEmpty();
     }
 
     public boolean isEmpty( TrackerIdScheme identifier, Class<? extends IdentifiableObject> klass )
@@ -251,35 +254,24 @@ public class TrackerPreheat
         Class<? extends IdentifiableObject> klass = (Class<? extends IdentifiableObject>) getRealClass(
             object.getClass() );
 
-        if ( !map.containsKey( idScheme ) )
-            map.put( idScheme, new HashMap<>() );
-        if ( !map.get( idScheme ).containsKey( klass ) )
-            map.get( idScheme ).put( klass, new HashMap<>() );
-
         if ( User.class.isAssignableFrom( klass ) )
         {
-            if ( !map.get( idScheme ).containsKey( UserCredentials.class ) )
-            {
-                map.get( idScheme ).put( UserCredentials.class, new HashMap<>() );
-            }
-
             User user = (User) object;
 
-            Map<String, IdentifiableObject> identifierMap = map.get( idScheme ).get( UserCredentials.class );
+            Map<String, IdentifiableObject> identifierMap = getIdentifierMap( idScheme, UserCredentials.class );
 
-            if ( !StringUtils.isEmpty( identifier.getIdentifier( user ) ) &&
-                !identifierMap.containsKey( identifier.getIdentifier( user ) ) )
+            if ( !StringUtils.isEmpty( identifier.getIdentifier( user ) ) && user.getUserCredentials() != null )
             {
-                identifierMap.put( identifier.getIdentifier( user ), user.getUserCredentials() );
+                identifierMap.putIfAbsent( identifier.getIdentifier( user ), user.getUserCredentials() );
             }
         }
 
-        Map<String, IdentifiableObject> identifierMap = map.get( idScheme ).get( klass );
+        Map<String, IdentifiableObject> identifierMap = getIdentifierMap( idScheme, klass );
         String key = identifier.getIdentifier( object );
 
-        if ( !StringUtils.isEmpty( key ) && !identifierMap.containsKey( key ) )
+        if ( !StringUtils.isEmpty( key ) )
         {
-            identifierMap.put( key, object );
+            identifierMap.putIfAbsent( key, object );
         }
 
         return this;
@@ -295,30 +287,19 @@ public class TrackerPreheat
         Class<? extends IdentifiableObject> klass = (Class<? extends IdentifiableObject>) getRealClass(
             object.getClass() );
 
-        if ( !map.containsKey( idScheme ) )
-            map.put( idScheme, new HashMap<>() );
-        if ( !map.get( idScheme ).containsKey( klass ) )
-            map.get( idScheme ).put( klass, new HashMap<>() );
-
         if ( User.class.isAssignableFrom( klass ) )
         {
-            if ( !map.get( idScheme ).containsKey( UserCredentials.class ) )
-            {
-                map.get( idScheme ).put( UserCredentials.class, new HashMap<>() );
-            }
-
             User user = (User) object;
 
-            Map<String, IdentifiableObject> identifierMap = map.get( idScheme ).get( UserCredentials.class );
+            Map<String, IdentifiableObject> identifierMap = getIdentifierMap( idScheme, UserCredentials.class );
 
-            if ( !StringUtils.isEmpty( identifier.getIdentifier( user ) ) &&
-                !identifierMap.containsKey( identifier.getIdentifier( user ) ) )
+            if ( !StringUtils.isEmpty( identifier.getIdentifier( user ) ) && user.getUserCredentials() != null )
             {
-                identifierMap.put( identifier.getIdentifier( user ), user.getUserCredentials() );
+                identifierMap.putIfAbsent( identifier.getIdentifier( user ), user.getUserCredentials() );
             }
         }
 
-        Map<String, IdentifiableObject> identifierMap = map.get( idScheme ).get( klass );
+        Map<String, IdentifiableObject> identifierMap = getIdentifierMap( idScheme, klass );
         String key = identifier.getIdentifier( object );
 
         if ( !StringUtils.isEmpty( key ) )
@@ -329,6 +310,13 @@ public class TrackerPreheat
         return this;
     }
 
+    private Map<String, IdentifiableObject> getIdentifierMap( TrackerIdScheme idScheme,
+        Class<? extends IdentifiableObject> klass )
+    {
+        return map.computeIfAbsent( idScheme, k -> new ConcurrentHashMap<>() )
+            .computeIfAbsent( klass, k -> new ConcurrentHashMap<>() );
+    }
+
     public <T extends IdentifiableObject> TrackerPreheat put( TrackerIdentifier identifier, Collection<T> objects )
     {
         for ( T object : objects )
@@ -28,19 +28,45 @@ package org.hisp.dhis.tracker.validation;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+
 import lombok.extern.slf4j.Slf4j;
 import org.hisp.dhis.commons.timer.Timer;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.tracker.ValidationMode;
 import org.hisp.dhis.tracker.bundle.TrackerBundle;
+import org.hisp.dhis.tracker.domain.Enrollment;
+import org.hisp.dhis.tracker.domain.Event;
+import org.hisp.dhis.tracker.domain.Relationship;
+import org.hisp.dhis.tracker.domain.TrackedEntity;
 import org.hisp.dhis.tracker.report.TrackerErrorReport;
 import org.hisp.dhis.tracker.report.TrackerValidationHookTimerReport;
 import org.hisp.dhis.tracker.report.TrackerValidationReport;
+import org.hisp.dhis.tracker.report.ValidationErrorReporter;
 import org.hisp.dhis.user.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -50,8 +76,40 @@ import java.util.List;
 public class DefaultTrackerValidationService
     implements TrackerValidationService
 {
+    /**
+     * Minimum number of objects in a partition of a bundle which is validated
+     * in parallel.
+     */
+    private static final int PARTITION_SIZE = 250;
+
+    private static final Comparator<PartitionResult> FAILURE_ORDER = Comparator
+        .comparingInt( ( PartitionResult r ) -> r.failedHook )
+        .thenComparingInt( r -> r.failedType )
+        .thenComparingInt( r -> r.failedPosition );
+
+    /**
+     * Validation threads, shared by all imports. Each of them holds a
+     * database connection while validating a partition.
+     */
+    private final ExecutorService executor = Executors.newFixedThreadPool( SystemUtils.getCpuCores(),
+        new ThreadFactoryBuilder().setNameFormat( "tracker-validation-%d" ).setDaemon( true ).build() );
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final TrackerLazyLoadGuard lazyLoadGuard;
+
     private List<TrackerValidationHook> validationHooks = new ArrayList<>();
 
+    private int partitionSize = PARTITION_SIZE;
+
+    public DefaultTrackerValidationService( PlatformTransactionManager transactionManager,
+        TrackerLazyLoadGuard lazyLoadGuard )
+    {
+        this.readOnlyTransactionTemplate = new TransactionTemplate( transactionManager );
+        this.readOnlyTransactionTemplate.setReadOnly( true );
+        this.lazyLoadGuard = lazyLoadGuard;
+    }
+
     @Autowired( required = false )
     public void setValidationHooks( List<TrackerValidationHook> validationHooks )
     {
@@ -61,6 +119,12 @@ public class DefaultTrackerValidationService
         TrackerImportValidationConfig.sortHooks( validationHooks );
     }
 
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
     @Override
     public TrackerValidationReport validate( TrackerBundle bundle )
     {
@@ -75,6 +139,16 @@ public class DefaultTrackerValidationService
             return validationReport;
         }
 
+        if ( bundle.isParallelValidation() && !isInReadWriteTransaction() )
+        {
+            List<TrackerBundle> partitions = TrackerBundlePartitioner.partition( bundle, partitionSize );
+
+            if ( partitions.size() > 1 )
+            {
+                return validateInParallel( bundle, partitions );
+            }
+        }
+
         TrackerImportValidationContext context = new TrackerImportValidationContext( bundle );
 
         try
@@ -100,4 +174,223 @@ public class DefaultTrackerValidationService
 
         return validationReport;
     }
+
+    /**
+     * Partitions are validated in transactions of their own, which do not see
+     * data written but not yet committed by an enclosing transaction.
+     */
+    private boolean isInReadWriteTransaction()
+    {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+            && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Validates the given partitions of the bundle concurrently. Each partition
+     * is run through all hooks in order, in a read-only transaction of its
+     * own, after the lazy state of the user and preheat is initialized in the
+     * calling thread. Lazy state which was not initialized fails validation
+     * with a {@link org.hibernate.LazyInitializationException} instead of
+     * being loaded through the session of the calling thread. Reports are merged per hook in the order of the
+     * partitions, so that the result does not depend on the order in which
+     * partitions complete. With fail fast validation, the errors of the
+     * failure which sequential validation would have stopped at are returned,
+     * that is the failure of the first hook, object type and object position
+     * in the bundle. Objects which hooks removed from a partition are removed
+     * from the bundle.
+     */
+    private TrackerValidationReport validateInParallel( TrackerBundle bundle, List<TrackerBundle> partitions )
+    {
+        List<TrackerValidationHook> hooks = validationHooks.stream()
+            .filter( TrackerValidationHook::isEnabled )
+            .collect( Collectors.toList() );
+
+        TrackerPreheatInitializer.initialize( bundle.getPreheat(), bundle.getUser() );
+
+        AtomicInteger firstFailedHook = new AtomicInteger( Integer.MAX_VALUE );
+        List<PartitionResult> results = new ArrayList<>();
+
+        try
+        {
+            List<Future<PartitionResult>> futures = new ArrayList<>();
+
+            for ( TrackerBundle partition : partitions )
+            {
+                futures.add( executor.submit( () -> readOnlyTransactionTemplate
+                    .execute( status -> lazyLoadGuard.callInWorker(
+                        () -> validatePartition( bundle, partition, hooks, firstFailedHook ) ) ) ) );
+            }
+
+            for ( Future<PartitionResult> future : futures )
+            {
+                results.add( future.get() );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Validation was interrupted", e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                : new IllegalStateException( e.getCause() );
+        }
+
+        PartitionResult failure = results.stream()
+            .filter( r -> r.failFastErrors != null )
+            .min( FAILURE_ORDER )
+            .orElse( null );
+
+        int completedHooks = failure != null ? failure.failedHook : hooks.size();
+
+        TrackerValidationReport validationReport = new TrackerValidationReport();
+
+        for ( int h = 0; h < completedHooks; h++ )
+        {
+            long duration = 0;
+
+            for ( PartitionResult result : results )
+            {
+                validationReport.add( result.reporters.get( h ) );
+                duration += result.durations.get( h );
+            }
+
+            validationReport.add( TrackerValidationHookTimerReport.builder()
+                .name( hooks.get( h ).getClass().getName() )
+                .totalTime( String.format( "%f sec.", duration / (double) TimeUnit.SECONDS.toNanos( 1 ) ) )
+                .build() );
+        }
+
+        if ( failure != null )
+        {
+            validationReport.add( failure.failFastErrors );
+        }
+
+        removeObjectsNotIn( bundle, partitions );
+
+        return validationReport;
+    }
+
+    /**
+     * Runs the given partition through the hooks, until a hook fails fast or
+     * a hook after one which failed fast in another partition is reached.
+     */
+    private PartitionResult validatePartition( TrackerBundle bundle, TrackerBundle partition,
+        List<TrackerValidationHook> hooks, AtomicInteger firstFailedHook )
+    {
+        PartitionResult result = new PartitionResult();
+
+        TrackerImportValidationContext context = new TrackerImportValidationContext( partition );
+
+        for ( int h = 0; h < hooks.size() && h <= firstFailedHook.get(); h++ )
+        {
+            Timer hookTimer = Timer.startTimer();
+
+            try
+            {
+                result.reporters.add( hooks.get( h ).validate( context ) );
+                result.durations.add( hookTimer.duration() );
+            }
+            catch ( ValidationFailFastException e )
+            {
+                result.failFastErrors = e.getErrors();
+                result.failedHook = h;
+                setFailedObject( result, bundle, e.getErrors() );
+                firstFailedHook.accumulateAndGet( h, Math::min );
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Sets the type and position in the bundle of the object the first of the
+     * given errors was reported for. Hooks validate the objects of a bundle
+     * type by type, in the order of {@link org.hisp.dhis.tracker.TrackerType}.
+     */
+    private void setFailedObject( PartitionResult result, TrackerBundle bundle, List<TrackerErrorReport> errors )
+    {
+        if ( errors.isEmpty() )
+        {
+            return;
+        }
+
+        TrackerErrorReport error = errors.get( 0 );
+
+        if ( TrackedEntity.class.equals( error.getMainKlass() ) )
+        {
+            result.failedType = 0;
+            result.failedPosition = indexOf( bundle.getTrackedEntities(), TrackedEntity::getTrackedEntity,
+                error.getMainId() );
+        }
+        else if ( Enrollment.class.equals( error.getMainKlass() ) )
+        {
+            result.failedType = 1;
+            result.failedPosition = indexOf( bundle.getEnrollments(), Enrollment::getEnrollment, error.getMainId() );
+        }
+        else if ( Event.class.equals( error.getMainKlass() ) )
+        {
+            result.failedType = 2;
+            result.failedPosition = indexOf( bundle.getEvents(), Event::getEvent, error.getMainId() );
+        }
+        else if ( Relationship.class.equals( error.getMainKlass() ) )
+        {
+            result.failedType = 3;
+            result.failedPosition = indexOf( bundle.getRelationships(), Relationship::getRelationship,
+                error.getMainId() );
+        }
+    }
+
+    private static <T> int indexOf( List<T> objects, Function<T, String> uid, String mainId )
+    {
+        for ( int i = 0; i < objects.size(); i++ )
+        {
+            if ( Objects.equals( uid.apply( objects.get( i ) ), mainId ) )
+            {
+                return i;
+            }
+        }
+
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Removes the objects from the bundle which are not in any of the given
+     * partitions, as hooks remove objects which failed validation from the
+     * bundle they validate.
+     */
+    private void removeObjectsNotIn( TrackerBundle bundle, List<TrackerBundle> partitions )
+    {
+        Set<Object> retained = Collections.newSetFromMap( new IdentityHashMap<>() );
+
+        for ( TrackerBundle partition : partitions )
+        {
+            retained.addAll( partition.getTrackedEntities() );
+            retained.addAll( partition.getEnrollments() );
+            retained.addAll( partition.getEvents() );
+            retained.addAll( partition.getRelationships() );
+        }
+
+        bundle.getTrackedEntities().removeIf( o -> !retained.contains( o ) );
+        bundle.getEnrollments().removeIf( o -> !retained.contains( o ) );
+        bundle.getEvents().removeIf( o -> !retained.contains( o ) );
+        bundle.getRelationships().removeIf( o -> !retained.contains( o ) );
+    }
+
+    private static class PartitionResult
+    {
+        private final List<ValidationErrorReporter> reporters = new ArrayList<>();
+
+        private final List<Long> durations = new ArrayList<>();
+
+        private List<TrackerErrorReport> failFastErrors;
+
+        private int failedHook = Integer.MAX_VALUE;
+
+        private int failedType = Integer.MAX_VALUE;
+
+        private int failedPosition = Integer.MAX_VALUE;
+    }
 }
@@ -0,0 +1,167 @@
+package org.hisp.dhis.tracker.validation;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hisp.dhis.tracker.bundle.TrackerBundle;
+import org.hisp.dhis.tracker.domain.Enrollment;
+import org.hisp.dhis.tracker.domain.Event;
+import org.hisp.dhis.tracker.domain.Relationship;
+import org.hisp.dhis.tracker.domain.TrackedEntity;
+
+/**
+ * Partitions a {@link TrackerBundle} into bundles which can be validated
+ * independently of each other. A tracked entity is always in the same
+ * partition as the enrollments of the tracked entity in the bundle, and an
+ * enrollment in the same partition as its events. All relationships are put in
+ * the last partition. Partitions share the preheat and all other properties
+ * of the bundle and are formed by consecutive groups of objects until they
+ * hold at least the given number of objects, so that the partitioning of a
+ * bundle does not depend on the machine.
+ */
+final class TrackerBundlePartitioner
+{
+    private TrackerBundlePartitioner()
+    {
+    }
+
+    /**
+     * Partitions the given bundle.
+     *
+     * @param bundle the bundle.
+     * @param partitionSize the minimum number of objects in a partition.
+     * @return a list of bundles, in the order of the objects in the given
+     *         bundle.
+     */
+    static List<TrackerBundle> partition( TrackerBundle bundle, int partitionSize )
+    {
+        Map<Object, Group> groups = new LinkedHashMap<>();
+        Map<String, Group> enrollmentGroups = new HashMap<>();
+
+        for ( TrackedEntity trackedEntity : bundle.getTrackedEntities() )
+        {
+            getGroup( groups, trackedEntityKey( trackedEntity.getTrackedEntity() ) ).trackedEntities
+                .add( trackedEntity );
+        }
+
+        for ( Enrollment enrollment : bundle.getEnrollments() )
+        {
+            Group group = getGroup( groups, trackedEntityKey( enrollment.getTrackedEntity() ) );
+            group.enrollments.add( enrollment );
+
+            if ( enrollment.getEnrollment() != null )
+            {
+                enrollmentGroups.put( enrollment.getEnrollment(), group );
+            }
+        }
+
+        for ( Event event : bundle.getEvents() )
+        {
+            Group group = event.getEnrollment() != null ? enrollmentGroups.get( event.getEnrollment() ) : null;
+
+            if ( group == null )
+            {
+                group = getGroup( groups, event.getEnrollment() != null ? "enrollment:" + event.getEnrollment() : null );
+            }
+
+            group.events.add( event );
+        }
+
+        List<TrackerBundle> partitions = new ArrayList<>();
+        Group partition = new Group();
+
+        for ( Group group : groups.values() )
+        {
+            partition.add( group );
+
+            if ( partition.size() >= partitionSize )
+            {
+                partitions.add( toBundle( bundle, partition, new ArrayList<>() ) );
+                partition = new Group();
+            }
+        }
+
+        if ( partition.size() > 0 || !bundle.getRelationships().isEmpty() )
+        {
+            partitions.add( toBundle( bundle, partition, new ArrayList<>( bundle.getRelationships() ) ) );
+        }
+
+        return partitions;
+    }
+
+    /**
+     * Returns the group of the given key, or a new group if the key is null.
+     */
+    private static Group getGroup( Map<Object, Group> groups, String key )
+    {
+        return groups.computeIfAbsent( key != null ? key : new Object(), k -> new Group() );
+    }
+
+    private static String trackedEntityKey( String trackedEntity )
+    {
+        return trackedEntity != null ? "trackedEntity:" + trackedEntity : null;
+    }
+
+    private static TrackerBundle toBundle( TrackerBundle bundle, Group group,
+        List<Relationship> relationships )
+    {
+        return bundle.toBuilder()
+            .trackedEntities( group.trackedEntities )
+            .enrollments( group.enrollments )
+            .events( group.events )
+            .relationships( relationships )
+            .build();
+    }
+
+    private static class Group
+    {
+        private final List<TrackedEntity> trackedEntities = new ArrayList<>();
+
+        private final List<Enrollment> enrollments = new ArrayList<>();
+
+        private final List<Event> events = new ArrayList<>();
+
+        void add( Group group )
+        {
+            trackedEntities.addAll( group.trackedEntities );
+            enrollments.addAll( group.enrollments );
+            events.addAll( group.events );
+        }
+
+        int size()
+        {
+            return trackedEntities.size() + enrollments.size() + events.size();
+        }
+    }
+}
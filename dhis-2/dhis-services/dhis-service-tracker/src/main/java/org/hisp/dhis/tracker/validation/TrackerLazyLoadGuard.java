@@ -0,0 +1,127 @@
+package org.hisp.dhis.tracker.validation;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.hibernate.LazyInitializationException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fails fast when a partition validated on a worker thread loads lazy state
+ * through a session other than the session of the worker, which is the
+ * session of the importing thread the preheated objects were loaded in.
+ * Sessions are not thread safe, so such state must be initialized by
+ * {@link TrackerPreheatInitializer} before partitions are submitted.
+ */
+@Component
+public class TrackerLazyLoadGuard
+    implements LoadEventListener, InitializeCollectionEventListener
+{
+    private static final ThreadLocal<Session> WORKER_SESSION = new ThreadLocal<>();
+
+    private final SessionFactory sessionFactory;
+
+    public TrackerLazyLoadGuard( SessionFactory sessionFactory )
+    {
+        checkNotNull( sessionFactory );
+
+        this.sessionFactory = sessionFactory;
+    }
+
+    @PostConstruct
+    protected void init()
+    {
+        EventListenerRegistry registry = sessionFactory.unwrap( SessionFactoryImpl.class ).getServiceRegistry()
+            .getService( EventListenerRegistry.class );
+
+        registry.getEventListenerGroup( EventType.LOAD ).prependListener( this );
+        registry.getEventListenerGroup( EventType.INIT_COLLECTION ).prependListener( this );
+    }
+
+    /**
+     * Calls the given supplier on a worker thread, which must be in a
+     * transaction of its own. Loads through any other session fail with a
+     * {@link LazyInitializationException} while the supplier runs.
+     *
+     * @param supplier the supplier.
+     * @return the value of the supplier.
+     */
+    public <T> T callInWorker( Supplier<T> supplier )
+    {
+        WORKER_SESSION.set( sessionFactory.getCurrentSession() );
+
+        try
+        {
+            return supplier.get();
+        }
+        finally
+        {
+            WORKER_SESSION.remove();
+        }
+    }
+
+    @Override
+    public void onLoad( LoadEvent event, LoadType loadType )
+    {
+        check( event.getSession(), event.getEntityClassName() );
+    }
+
+    @Override
+    public void onInitializeCollection( InitializeCollectionEvent event )
+    {
+        check( event.getSession(), event.getCollection().getRole() );
+    }
+
+    private void check( EventSource session, String name )
+    {
+        Session workerSession = WORKER_SESSION.get();
+
+        if ( workerSession != null && workerSession != session )
+        {
+            throw new LazyInitializationException( String.format(
+                "Validation thread '%s' loaded '%s' through the session of the importing thread, " +
+                    "it must be initialized before partitions are validated", Thread.currentThread().getName(), name ) );
+        }
+    }
+}
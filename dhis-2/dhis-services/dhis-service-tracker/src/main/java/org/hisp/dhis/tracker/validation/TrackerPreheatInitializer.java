@@ -0,0 +1,310 @@
+package org.hisp.dhis.tracker.validation;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Hibernate;
+import org.hisp.dhis.category.Category;
+import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.category.CategoryOption;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.option.OptionSet;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramInstance;
+import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.program.ProgramStageDataElement;
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.program.ProgramTrackedEntityAttribute;
+import org.hisp.dhis.relationship.RelationshipConstraint;
+import org.hisp.dhis.relationship.RelationshipType;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.hisp.dhis.trackedentity.TrackedEntityInstance;
+import org.hisp.dhis.trackedentity.TrackedEntityType;
+import org.hisp.dhis.trackedentity.TrackedEntityTypeAttribute;
+import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
+import org.hisp.dhis.tracker.TrackerIdScheme;
+import org.hisp.dhis.tracker.preheat.TrackerPreheat;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserAccess;
+import org.hisp.dhis.user.UserGroupAccess;
+
+/**
+ * Initializes the lazy associations of the user and the preheated objects
+ * which validation hooks read. Bundle partitions are validated on other
+ * threads than the one owning the Hibernate session the objects were loaded
+ * in, and must not load lazy state through that session, which
+ * {@link TrackerLazyLoadGuard} enforces. The parents of org units are
+ * initialized up to the root, as hooks check org units against the
+ * hierarchy.
+ */
+final class TrackerPreheatInitializer
+{
+    private TrackerPreheatInitializer()
+    {
+    }
+
+    static void initialize( TrackerPreheat preheat, User user )
+    {
+        initializeUser( user );
+        initializeUser( preheat.getUser() );
+
+        for ( Map<Class<? extends IdentifiableObject>, Map<String, IdentifiableObject>> classMap : preheat.getMap()
+            .values() )
+        {
+            for ( Map<String, IdentifiableObject> objects : classMap.values() )
+            {
+                objects.values().forEach( TrackerPreheatInitializer::initializeMetadata );
+            }
+        }
+
+        for ( TrackerIdScheme idScheme : TrackerIdScheme.values() )
+        {
+            values( preheat.getTrackedEntities().get( idScheme ) )
+                .forEach( TrackerPreheatInitializer::initializeTrackedEntityInstance );
+            values( preheat.getEnrollments().get( idScheme ) )
+                .forEach( TrackerPreheatInitializer::initializeProgramInstance );
+            values( preheat.getEvents().get( idScheme ) )
+                .forEach( TrackerPreheatInitializer::initializeProgramStageInstance );
+        }
+
+        for ( List<ProgramInstance> programInstances : preheat.getProgramInstances().values() )
+        {
+            programInstances.forEach( TrackerPreheatInitializer::initializeProgramInstance );
+        }
+    }
+
+    private static void initializeUser( User user )
+    {
+        if ( user == null )
+        {
+            return;
+        }
+
+        user.getOrganisationUnits().forEach( TrackerPreheatInitializer::initializeOrganisationUnit );
+        user.getTeiSearchOrganisationUnits().forEach( TrackerPreheatInitializer::initializeOrganisationUnit );
+        user.getDataViewOrganisationUnits().forEach( TrackerPreheatInitializer::initializeOrganisationUnit );
+        Hibernate.initialize( user.getGroups() );
+
+        if ( user.getUserCredentials() != null )
+        {
+            user.getUserCredentials().getAllAuthorities();
+            user.getUserCredentials().isSuper();
+        }
+    }
+
+    private static void initializeMetadata( IdentifiableObject object )
+    {
+        initializeSharing( object );
+
+        if ( object instanceof Program )
+        {
+            Program program = (Program) object;
+            Hibernate.initialize( program.getTrackedEntityType() );
+            Hibernate.initialize( program.getOrganisationUnits() );
+            Hibernate.initialize( program.getProgramStages() );
+            initializeCategoryCombo( program.getCategoryCombo() );
+
+            for ( ProgramTrackedEntityAttribute attribute : program.getProgramAttributes() )
+            {
+                Hibernate.initialize( attribute.getAttribute() );
+
+                if ( attribute.getAttribute() != null )
+                {
+                    initializeOptionSet( attribute.getAttribute().getOptionSet() );
+                }
+            }
+        }
+        else if ( object instanceof ProgramStage )
+        {
+            ProgramStage programStage = (ProgramStage) object;
+            Hibernate.initialize( programStage.getProgram() );
+
+            for ( ProgramStageDataElement programStageDataElement : programStage.getProgramStageDataElements() )
+            {
+                DataElement dataElement = programStageDataElement.getDataElement();
+                Hibernate.initialize( dataElement );
+
+                if ( dataElement != null )
+                {
+                    initializeOptionSet( dataElement.getOptionSet() );
+                }
+            }
+        }
+        else if ( object instanceof OrganisationUnit )
+        {
+            initializeOrganisationUnit( (OrganisationUnit) object );
+        }
+        else if ( object instanceof DataElement )
+        {
+            initializeOptionSet( ((DataElement) object).getOptionSet() );
+        }
+        else if ( object instanceof TrackedEntityAttribute )
+        {
+            initializeOptionSet( ((TrackedEntityAttribute) object).getOptionSet() );
+        }
+        else if ( object instanceof TrackedEntityType )
+        {
+            for ( TrackedEntityTypeAttribute attribute : ((TrackedEntityType) object)
+                .getTrackedEntityTypeAttributes() )
+            {
+                Hibernate.initialize( attribute.getTrackedEntityAttribute() );
+            }
+        }
+        else if ( object instanceof CategoryOption )
+        {
+            Hibernate.initialize( ((CategoryOption) object).getOrganisationUnits() );
+        }
+        else if ( object instanceof CategoryOptionCombo )
+        {
+            CategoryOptionCombo optionCombo = (CategoryOptionCombo) object;
+            Hibernate.initialize( optionCombo.getCategoryOptions() );
+            initializeCategoryCombo( optionCombo.getCategoryCombo() );
+        }
+        else if ( object instanceof RelationshipType )
+        {
+            initializeConstraint( ((RelationshipType) object).getFromConstraint() );
+            initializeConstraint( ((RelationshipType) object).getToConstraint() );
+        }
+    }
+
+    private static void initializeSharing( IdentifiableObject object )
+    {
+        Hibernate.initialize( object.getUser() );
+
+        for ( UserGroupAccess userGroupAccess : object.getUserGroupAccesses() )
+        {
+            Hibernate.initialize( userGroupAccess.getUserGroup() );
+        }
+
+        for ( UserAccess userAccess : object.getUserAccesses() )
+        {
+            Hibernate.initialize( userAccess.getUser() );
+        }
+    }
+
+    private static void initializeOrganisationUnit( OrganisationUnit organisationUnit )
+    {
+        OrganisationUnit unit = organisationUnit;
+
+        while ( unit != null )
+        {
+            Hibernate.initialize( unit );
+            unit = unit.getParent();
+        }
+    }
+
+    private static void initializeOptionSet( OptionSet optionSet )
+    {
+        Hibernate.initialize( optionSet );
+
+        if ( optionSet != null )
+        {
+            Hibernate.initialize( optionSet.getOptions() );
+        }
+    }
+
+    private static void initializeCategoryCombo( CategoryCombo categoryCombo )
+    {
+        if ( categoryCombo == null )
+        {
+            return;
+        }
+
+        Hibernate.initialize( categoryCombo.getOptionCombos() );
+
+        for ( Category category : categoryCombo.getCategories() )
+        {
+            Hibernate.initialize( category.getCategoryOptions() );
+        }
+    }
+
+    private static void initializeConstraint( RelationshipConstraint constraint )
+    {
+        if ( constraint != null )
+        {
+            Hibernate.initialize( constraint.getTrackedEntityType() );
+            Hibernate.initialize( constraint.getProgram() );
+            Hibernate.initialize( constraint.getProgramStage() );
+        }
+    }
+
+    private static void initializeTrackedEntityInstance( TrackedEntityInstance trackedEntityInstance )
+    {
+        Hibernate.initialize( trackedEntityInstance.getTrackedEntityType() );
+        initializeOrganisationUnit( trackedEntityInstance.getOrganisationUnit() );
+        Hibernate.initialize( trackedEntityInstance.getProgramInstances() );
+
+        for ( TrackedEntityAttributeValue attributeValue : trackedEntityInstance.getTrackedEntityAttributeValues() )
+        {
+            Hibernate.initialize( attributeValue.getAttribute() );
+        }
+    }
+
+    private static void initializeProgramInstance( ProgramInstance programInstance )
+    {
+        Hibernate.initialize( programInstance.getProgram() );
+        Hibernate.initialize( programInstance.getEntityInstance() );
+        initializeOrganisationUnit( programInstance.getOrganisationUnit() );
+        Hibernate.initialize( programInstance.getComments() );
+        Hibernate.initialize( programInstance.getProgramStageInstances() );
+    }
+
+    private static void initializeProgramStageInstance( ProgramStageInstance programStageInstance )
+    {
+        ProgramStage programStage = programStageInstance.getProgramStage();
+
+        Hibernate.initialize( programStage );
+
+        if ( programStage != null )
+        {
+            Hibernate.initialize( programStage.getProgram() );
+        }
+
+        initializeOrganisationUnit( programStageInstance.getOrganisationUnit() );
+        Hibernate.initialize( programStageInstance.getAttributeOptionCombo() );
+        Hibernate.initialize( programStageInstance.getComments() );
+
+        if ( programStageInstance.getProgramInstance() != null )
+        {
+            initializeProgramInstance( programStageInstance.getProgramInstance() );
+        }
+    }
+
+    private static <T> Collection<T> values( Map<String, T> map )
+    {
+        return map != null ? map.values() : Collections.emptyList();
+    }
+}
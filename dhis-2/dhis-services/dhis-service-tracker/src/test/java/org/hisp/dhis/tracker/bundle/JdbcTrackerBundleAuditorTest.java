@@ -0,0 +1,131 @@
+package org.hisp.dhis.tracker.bundle;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.hisp.dhis.artemis.audit.Audit;
+import org.hisp.dhis.artemis.audit.AuditManager;
+import org.hisp.dhis.artemis.config.UsernameSupplier;
+import org.hisp.dhis.audit.AuditScope;
+import org.hisp.dhis.audit.AuditType;
+import org.hisp.dhis.program.ProgramInstance;
+import org.hisp.dhis.trackedentity.TrackedEntityInstance;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class JdbcTrackerBundleAuditorTest
+{
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private AuditManager auditManager;
+
+    @Mock
+    private UsernameSupplier usernameSupplier;
+
+    @Captor
+    private ArgumentCaptor<Audit> auditCaptor;
+
+    private JdbcTrackerBundleAuditor auditor;
+
+    @Before
+    public void setUp()
+    {
+        when( usernameSupplier.get() ).thenReturn( "admin" );
+
+        auditor = new JdbcTrackerBundleAuditor( auditManager, usernameSupplier );
+    }
+
+    @Test
+    public void testAuditCreatedObjects()
+    {
+        TrackedEntityInstance tei = new TrackedEntityInstance();
+        ProgramInstance programInstance = new ProgramInstance();
+
+        auditor.audit( AuditType.CREATE, Arrays.asList( tei, programInstance ) );
+
+        verify( auditManager, times( 2 ) ).send( auditCaptor.capture() );
+
+        Audit audit = auditCaptor.getAllValues().get( 0 );
+
+        assertEquals( AuditType.CREATE, audit.getAuditType() );
+        assertEquals( AuditScope.TRACKER, audit.getAuditScope() );
+        assertEquals( "admin", audit.getCreatedBy() );
+        assertSame( tei, audit.getAuditableEntity().getEntity() );
+        assertSame( programInstance, auditCaptor.getAllValues().get( 1 ).getAuditableEntity().getEntity() );
+    }
+
+    @Test
+    public void testIgnoreObjectsWhichAreNotAuditable()
+    {
+        auditor.audit( AuditType.CREATE, Collections.singletonList( "value" ) );
+
+        verify( auditManager, never() ).send( any() );
+    }
+
+    @Test
+    public void testAuditSentAfterCommit()
+    {
+        TransactionSynchronizationManager.initSynchronization();
+
+        try
+        {
+            auditor.audit( AuditType.CREATE, Collections.singletonList( new TrackedEntityInstance() ) );
+
+            verify( auditManager, never() ).send( any() );
+
+            TransactionSynchronizationManager.getSynchronizations().forEach( TransactionSynchronization::afterCommit );
+
+            verify( auditManager ).send( any() );
+        }
+        finally
+        {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.hisp.dhis.tracker.bundle;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.hisp.dhis.program.ProgramStageInstance;
+import org.hisp.dhis.trackedentity.TrackedEntityInstance;
+import org.hisp.dhis.trackedentitycomment.TrackedEntityComment;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JdbcTrackerBundleStoreTest
+{
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Captor
+    private ArgumentCaptor<Collection<long[]>> linkCaptor;
+
+    private JdbcTrackerBundleStore store;
+
+    @Before
+    public void setUp()
+    {
+        store = new JdbcTrackerBundleStore( jdbcTemplate, new ObjectMapper() );
+    }
+
+    @Test
+    public void testSaveTrackedEntityInstancesAssignsIdsFromSequence()
+    {
+        List<TrackedEntityInstance> teis = Arrays.asList( new TrackedEntityInstance(), new TrackedEntityInstance() );
+
+        when( jdbcTemplate.queryForList( startsWith( "select nextval('trackedentityinstance_sequence')" ),
+            eq( Long.class ), eq( 2 ) ) ).thenReturn( Arrays.asList( 101L, 102L ) );
+
+        store.saveTrackedEntityInstances( teis );
+
+        assertEquals( 101L, teis.get( 0 ).getId() );
+        assertEquals( 102L, teis.get( 1 ).getId() );
+
+        verify( jdbcTemplate ).batchUpdate( startsWith( "insert into trackedentityinstance" ), eq( teis ), anyInt(),
+            any() );
+    }
+
+    @Test
+    public void testSaveProgramStageInstancesLinksComments()
+    {
+        TrackedEntityComment commentA = new TrackedEntityComment();
+        commentA.setId( 11L );
+        TrackedEntityComment commentB = new TrackedEntityComment();
+        commentB.setId( 12L );
+
+        ProgramStageInstance psiA = new ProgramStageInstance();
+        psiA.setComments( new ArrayList<>( Arrays.asList( commentA, commentB ) ) );
+        ProgramStageInstance psiB = new ProgramStageInstance();
+
+        List<ProgramStageInstance> psis = Arrays.asList( psiA, psiB );
+
+        when( jdbcTemplate.queryForList( anyString(), eq( Long.class ), eq( 2 ) ) )
+            .thenReturn( Arrays.asList( 201L, 202L ) );
+
+        store.saveProgramStageInstances( psis );
+
+        assertEquals( 201L, psiA.getId() );
+        assertEquals( 202L, psiB.getId() );
+
+        verify( jdbcTemplate ).batchUpdate( startsWith( "insert into programstageinstancecomments" ),
+            linkCaptor.capture(), anyInt(), any() );
+
+        List<long[]> links = new ArrayList<>( linkCaptor.getValue() );
+
+        assertEquals( 2, links.size() );
+        assertTrue( Arrays.equals( new long[] { 201L, 1L, 11L }, links.get( 0 ) ) );
+        assertTrue( Arrays.equals( new long[] { 201L, 2L, 12L }, links.get( 1 ) ) );
+    }
+}
@@ -0,0 +1,245 @@
+package org.hisp.dhis.tracker.bundle;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.dbms.DbmsManager;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundle;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleMode;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleParams;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleService;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleValidationService;
+import org.hisp.dhis.importexport.ImportStrategy;
+import org.hisp.dhis.render.RenderFormat;
+import org.hisp.dhis.render.RenderService;
+import org.hisp.dhis.tracker.CommitMode;
+import org.hisp.dhis.tracker.TrackerImportParams;
+import org.hisp.dhis.tracker.TrackerImportService;
+import org.hisp.dhis.tracker.report.TrackerImportReport;
+import org.hisp.dhis.tracker.report.TrackerStatus;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserService;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Imports the same payload with each {@link CommitMode} and compares the
+ * reports and the persisted rows. Generated identifiers and timestamps differ
+ * between imports, so rows are compared by uid.
+ */
+public class TrackerCommitModeTest
+    extends IntegrationTestBase
+{
+    private static final String ADMIN_USER_UID = "M5zQapPyTZI";
+
+    private static final String[] SNAPSHOT_QUERIES = {
+        "select tei.uid, tet.uid as type, ou.uid as orgunit, tei.featuretype, tei.inactive, tei.deleted, tei.storedby "
+            + "from trackedentityinstance tei "
+            + "join trackedentitytype tet on tet.trackedentitytypeid = tei.trackedentitytypeid "
+            + "join organisationunit ou on ou.organisationunitid = tei.organisationunitid "
+            + "order by tei.uid",
+        "select tei.uid as tei, tea.uid as attribute, teav.value, teav.storedby "
+            + "from trackedentityattributevalue teav "
+            + "join trackedentityinstance tei on tei.trackedentityinstanceid = teav.trackedentityinstanceid "
+            + "join trackedentityattribute tea on tea.trackedentityattributeid = teav.trackedentityattributeid "
+            + "order by tei.uid, tea.uid",
+        "select pi.uid, tei.uid as tei, p.uid as program, ou.uid as orgunit, pi.status, pi.followup, "
+            + "pi.enrollmentdate, pi.incidentdate, pi.deleted, pi.storedby "
+            + "from programinstance pi "
+            + "join trackedentityinstance tei on tei.trackedentityinstanceid = pi.trackedentityinstanceid "
+            + "join program p on p.programid = pi.programid "
+            + "join organisationunit ou on ou.organisationunitid = pi.organisationunitid "
+            + "order by pi.uid",
+        "select psi.uid, pi.uid as enrollment, ps.uid as programstage, ou.uid as orgunit, coc.uid as aoc, "
+            + "psi.status, psi.duedate, psi.executiondate, psi.completedby, psi.completeddate, psi.deleted, "
+            + "psi.storedby, psi.eventdatavalues::text as datavalues "
+            + "from programstageinstance psi "
+            + "join programinstance pi on pi.programinstanceid = psi.programinstanceid "
+            + "join programstage ps on ps.programstageid = psi.programstageid "
+            + "join organisationunit ou on ou.organisationunitid = psi.organisationunitid "
+            + "join categoryoptioncombo coc on coc.categoryoptioncomboid = psi.attributeoptioncomboid "
+            + "order by psi.uid",
+        "select pi.uid as owner, pic.sort_order, tec.uid, tec.commenttext, tec.creator "
+            + "from programinstancecomments pic "
+            + "join programinstance pi on pi.programinstanceid = pic.programinstanceid "
+            + "join trackedentitycomment tec on tec.trackedentitycommentid = pic.trackedentitycommentid "
+            + "union all "
+            + "select psi.uid as owner, psic.sort_order, tec.uid, tec.commenttext, tec.creator "
+            + "from programstageinstancecomments psic "
+            + "join programstageinstance psi on psi.programstageinstanceid = psic.programstageinstanceid "
+            + "join trackedentitycomment tec on tec.trackedentitycommentid = psic.trackedentitycommentid "
+            + "order by owner, sort_order" };
+
+    private static final String[] TRACKER_TABLES = { "programstageinstancecomments", "programinstancecomments",
+        "trackedentitycomment", "trackedentitydatavalueaudit", "trackedentityattributevalueaudit",
+        "programstageinstance", "programinstance", "trackedentityprogramowner", "trackedentityattributevalue",
+        "trackedentityinstance" };
+
+    @Autowired
+    private TrackerImportService trackerImportService;
+
+    @Autowired
+    private ObjectBundleService objectBundleService;
+
+    @Autowired
+    private ObjectBundleValidationService objectBundleValidationService;
+
+    @Autowired
+    private DbmsManager dbmsManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RenderService _renderService;
+
+    @Autowired
+    private UserService _userService;
+
+    private User user;
+
+    @Override
+    public boolean emptyDatabaseAfterTest()
+    {
+        return true;
+    }
+
+    @Override
+    public void setUpTest()
+        throws IOException
+    {
+        renderService = _renderService;
+        userService = _userService;
+
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> metadata = renderService.fromMetadata(
+            new ClassPathResource( "tracker/tracker_basic_metadata.json" ).getInputStream(), RenderFormat.JSON );
+
+        ObjectBundleParams params = new ObjectBundleParams();
+        params.setObjectBundleMode( ObjectBundleMode.COMMIT );
+        params.setImportStrategy( ImportStrategy.CREATE );
+        params.setObjects( metadata );
+
+        ObjectBundle bundle = objectBundleService.create( params );
+        assertTrue( objectBundleValidationService.validate( bundle ).getErrorReports().isEmpty() );
+        objectBundleService.commit( bundle );
+
+        user = userService.getUser( ADMIN_USER_UID );
+    }
+
+    @Override
+    public void tearDownTest()
+    {
+        // Comment tables are not emptied by the DBMS manager
+        deleteTrackerData();
+    }
+
+    @Test
+    public void testJdbcBatchCommitEqualsSessionCommit()
+        throws IOException
+    {
+        TrackerImportReport sessionReport = importTracker( CommitMode.SESSION );
+        List<List<Map<String, Object>>> sessionRows = getSnapshot();
+
+        deleteTrackerData();
+
+        TrackerImportReport jdbcReport = importTracker( CommitMode.JDBC_BATCH );
+        List<List<Map<String, Object>>> jdbcRows = getSnapshot();
+
+        assertEquals( TrackerStatus.OK, sessionReport.getStatus() );
+        assertEquals( sessionReport.getStatus(), jdbcReport.getStatus() );
+        assertEquals( sessionReport.getTrackerValidationReport().getErrorReports(),
+            jdbcReport.getTrackerValidationReport().getErrorReports() );
+        assertEquals( sessionReport.getBundleReports().size(), jdbcReport.getBundleReports().size() );
+
+        for ( int i = 0; i < sessionReport.getBundleReports().size(); i++ )
+        {
+            TrackerBundleReport sessionBundleReport = sessionReport.getBundleReports().get( i );
+            TrackerBundleReport jdbcBundleReport = jdbcReport.getBundleReports().get( i );
+
+            assertEquals( sessionBundleReport.getStatus(), jdbcBundleReport.getStatus() );
+            assertEquals( sessionBundleReport.getTypeReportMap(), jdbcBundleReport.getTypeReportMap() );
+        }
+
+        sessionRows.forEach( rows -> assertFalse( rows.isEmpty() ) );
+        assertEquals( sessionRows, jdbcRows );
+    }
+
+    private TrackerImportReport importTracker( CommitMode commitMode )
+        throws IOException
+    {
+        TrackerBundleParams params = renderService.fromJson(
+            new ClassPathResource( "tracker/commit_mode_data.json" ).getInputStream(), TrackerBundleParams.class );
+
+        TrackerImportReport report = trackerImportService.importTracker( TrackerImportParams.builder()
+            .user( user )
+            .commitMode( commitMode )
+            .trackedEntities( params.getTrackedEntities() )
+            .enrollments( params.getEnrollments() )
+            .events( params.getEvents() )
+            .build() );
+
+        dbmsManager.clearSession();
+
+        return report;
+    }
+
+    private List<List<Map<String, Object>>> getSnapshot()
+    {
+        List<List<Map<String, Object>>> snapshot = new ArrayList<>();
+
+        for ( String query : SNAPSHOT_QUERIES )
+        {
+            snapshot.add( jdbcTemplate.queryForList( query ) );
+        }
+
+        return snapshot;
+    }
+
+    private void deleteTrackerData()
+    {
+        for ( String table : TRACKER_TABLES )
+        {
+            jdbcTemplate.update( "delete from " + table );
+        }
+
+        dbmsManager.clearSession();
+    }
+}
@@ -0,0 +1,104 @@
+package org.hisp.dhis.tracker.validation;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.hisp.dhis.tracker.bundle.TrackerBundle;
+import org.hisp.dhis.tracker.domain.Enrollment;
+import org.hisp.dhis.tracker.domain.Event;
+import org.hisp.dhis.tracker.domain.Relationship;
+import org.hisp.dhis.tracker.domain.TrackedEntity;
+import org.junit.Test;
+
+public class TrackerBundlePartitionerTest
+{
+    @Test
+    public void testPartitionKeepsTrackedEntityWithEnrollmentsAndEvents()
+    {
+        TrackedEntity teiA = TrackedEntity.builder().trackedEntity( "teiA" ).build();
+        TrackedEntity teiB = TrackedEntity.builder().trackedEntity( "teiB" ).build();
+        Enrollment enrollmentA = Enrollment.builder().enrollment( "enrA" ).trackedEntity( "teiA" ).build();
+        Enrollment enrollmentB = Enrollment.builder().enrollment( "enrB" ).trackedEntity( "teiB" ).build();
+        Event eventA = Event.builder().event( "evA" ).enrollment( "enrA" ).build();
+        Event eventB = Event.builder().event( "evB" ).enrollment( "enrB" ).build();
+        Event eventC = Event.builder().event( "evC" ).build();
+        Relationship relationship = Relationship.builder().relationship( "rel" ).build();
+
+        TrackerBundle bundle = TrackerBundle.builder()
+            .trackedEntities( Arrays.asList( teiA, teiB ) )
+            .enrollments( Arrays.asList( enrollmentB, enrollmentA ) )
+            .events( Arrays.asList( eventB, eventC, eventA ) )
+            .relationships( Arrays.asList( relationship ) )
+            .build();
+
+        List<TrackerBundle> partitions = TrackerBundlePartitioner.partition( bundle, 2 );
+
+        assertEquals( 3, partitions.size() );
+
+        assertEquals( Arrays.asList( teiA ), partitions.get( 0 ).getTrackedEntities() );
+        assertEquals( Arrays.asList( enrollmentA ), partitions.get( 0 ).getEnrollments() );
+        assertEquals( Arrays.asList( eventA ), partitions.get( 0 ).getEvents() );
+        assertTrue( partitions.get( 0 ).getRelationships().isEmpty() );
+
+        assertEquals( Arrays.asList( teiB ), partitions.get( 1 ).getTrackedEntities() );
+        assertEquals( Arrays.asList( enrollmentB ), partitions.get( 1 ).getEnrollments() );
+        assertEquals( Arrays.asList( eventB ), partitions.get( 1 ).getEvents() );
+
+        assertTrue( partitions.get( 2 ).getTrackedEntities().isEmpty() );
+        assertEquals( Arrays.asList( eventC ), partitions.get( 2 ).getEvents() );
+        assertEquals( Arrays.asList( relationship ), partitions.get( 2 ).getRelationships() );
+    }
+
+    @Test
+    public void testPartitionSharesPreheatAndUser()
+    {
+        TrackerBundle bundle = TrackerBundle.builder()
+            .trackedEntities( Arrays.asList( TrackedEntity.builder().trackedEntity( "teiA" ).build(),
+                TrackedEntity.builder().trackedEntity( "teiB" ).build() ) )
+            .parallelValidation( true )
+            .build();
+
+        List<TrackerBundle> partitions = TrackerBundlePartitioner.partition( bundle, 1 );
+
+        assertEquals( 2, partitions.size() );
+
+        for ( TrackerBundle partition : partitions )
+        {
+            assertSame( bundle.getPreheat(), partition.getPreheat() );
+            assertSame( bundle.getUser(), partition.getUser() );
+            assertTrue( partition.isParallelValidation() );
+        }
+    }
+}
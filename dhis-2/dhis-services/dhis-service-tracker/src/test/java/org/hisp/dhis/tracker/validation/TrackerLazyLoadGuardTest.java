@@ -0,0 +1,138 @@
+package org.hisp.dhis.tracker.validation;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import org.hibernate.Hibernate;
+import org.hibernate.LazyInitializationException;
+import org.hibernate.SessionFactory;
+import org.hisp.dhis.DhisSpringTest;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests that validation threads fail fast instead of loading lazy state
+ * through the session of the importing thread.
+ */
+public class TrackerLazyLoadGuardTest
+    extends DhisSpringTest
+{
+    @Autowired
+    private IdentifiableObjectManager manager;
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TrackerLazyLoadGuard lazyLoadGuard;
+
+    @Test
+    public void testLazyLoadThroughImportingSessionFails()
+        throws Exception
+    {
+        OrganisationUnit parent = loadParentWithChild();
+
+        assertFalse( Hibernate.isInitialized( parent.getChildren() ) );
+
+        try
+        {
+            callInWorker( () -> parent.getChildren().size() );
+            fail( "Expected lazy load from a validation thread to fail" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertTrue( e.getCause() instanceof LazyInitializationException );
+        }
+
+        assertFalse( Hibernate.isInitialized( parent.getChildren() ) );
+    }
+
+    @Test
+    public void testInitializedStateIsRead()
+        throws Exception
+    {
+        OrganisationUnit parent = loadParentWithChild();
+
+        Hibernate.initialize( parent.getChildren() );
+
+        assertEquals( 1, (int) callInWorker( () -> parent.getChildren().size() ) );
+    }
+
+    private OrganisationUnit loadParentWithChild()
+    {
+        OrganisationUnit parent = createOrganisationUnit( 'A' );
+        manager.save( parent );
+        manager.save( createOrganisationUnit( 'B', parent ) );
+
+        sessionFactory.getCurrentSession().flush();
+        sessionFactory.getCurrentSession().clear();
+
+        return manager.get( OrganisationUnit.class, parent.getUid() );
+    }
+
+    /**
+     * Calls the given supplier as a partition is validated: on another
+     * thread, in a read-only transaction of its own, guarded against lazy
+     * loads through the session of this thread.
+     */
+    private <T> T callInWorker( Supplier<T> supplier )
+        throws Exception
+    {
+        TransactionTemplate transactionTemplate = new TransactionTemplate( transactionManager );
+        transactionTemplate.setReadOnly( true );
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            return executor.submit( () -> transactionTemplate
+                .execute( status -> lazyLoadGuard.callInWorker( supplier ) ) ).get();
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
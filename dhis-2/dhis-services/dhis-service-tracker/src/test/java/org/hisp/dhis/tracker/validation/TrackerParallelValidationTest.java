@@ -0,0 +1,229 @@
+package org.hisp.dhis.tracker.validation;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.IntegrationTestBase;
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundle;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleMode;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleParams;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleService;
+import org.hisp.dhis.dxf2.metadata.objectbundle.ObjectBundleValidationService;
+import org.hisp.dhis.importexport.ImportStrategy;
+import org.hisp.dhis.render.RenderFormat;
+import org.hisp.dhis.render.RenderService;
+import org.hisp.dhis.tracker.TrackerImportStrategy;
+import org.hisp.dhis.tracker.ValidationMode;
+import org.hisp.dhis.tracker.bundle.TrackerBundle;
+import org.hisp.dhis.tracker.bundle.TrackerBundleParams;
+import org.hisp.dhis.tracker.bundle.TrackerBundleService;
+import org.hisp.dhis.tracker.domain.Enrollment;
+import org.hisp.dhis.tracker.domain.Event;
+import org.hisp.dhis.tracker.domain.TrackedEntity;
+import org.hisp.dhis.tracker.report.TrackerStatus;
+import org.hisp.dhis.tracker.report.TrackerValidationReport;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserService;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Validates the same bundle sequentially and in parallel. Partitions are
+ * validated in transactions of their own, so the data they read must be
+ * committed, which is why this is an integration test.
+ */
+public class TrackerParallelValidationTest
+    extends IntegrationTestBase
+{
+    private static final String ADMIN_USER_UID = "M5zQapPyTZI";
+
+    @Autowired
+    private TrackerBundleService trackerBundleService;
+
+    @Autowired
+    private DefaultTrackerValidationService trackerValidationService;
+
+    @Autowired
+    private ObjectBundleService objectBundleService;
+
+    @Autowired
+    private ObjectBundleValidationService objectBundleValidationService;
+
+    @Autowired
+    private RenderService _renderService;
+
+    @Autowired
+    private UserService _userService;
+
+    private User user;
+
+    @Override
+    public boolean emptyDatabaseAfterTest()
+    {
+        return true;
+    }
+
+    @Override
+    public void setUpTest()
+        throws IOException
+    {
+        renderService = _renderService;
+        userService = _userService;
+
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> metadata = renderService.fromMetadata(
+            new ClassPathResource( "tracker/tracker_basic_metadata.json" ).getInputStream(), RenderFormat.JSON );
+
+        ObjectBundleParams params = new ObjectBundleParams();
+        params.setObjectBundleMode( ObjectBundleMode.COMMIT );
+        params.setImportStrategy( ImportStrategy.CREATE );
+        params.setObjects( metadata );
+
+        ObjectBundle bundle = objectBundleService.create( params );
+        assertTrue( objectBundleValidationService.validate( bundle ).getErrorReports().isEmpty() );
+        objectBundleService.commit( bundle );
+
+        user = userService.getUser( ADMIN_USER_UID );
+
+        TrackerBundle trackerBundle = trackerBundleService
+            .create( fromJson( "tracker/validations/enrollments_te_te-data.json" ) ).get( 0 );
+
+        assertTrue( trackerValidationService.validate( trackerBundle ).getErrorReports().isEmpty() );
+        assertEquals( TrackerStatus.OK, trackerBundleService.commit( trackerBundle ).getStatus() );
+    }
+
+    @Test
+    public void testParallelValidationEqualsSequentialValidation()
+        throws IOException
+    {
+        assertSameValidation( ValidationMode.FULL );
+    }
+
+    @Test
+    public void testParallelFailFastValidationEqualsSequentialValidation()
+        throws IOException
+    {
+        assertSameValidation( ValidationMode.FAIL_FAST );
+    }
+
+    private void assertSameValidation( ValidationMode validationMode )
+        throws IOException
+    {
+        ReflectionTestUtils.setField( trackerValidationService, "partitionSize", 1 );
+
+        TrackerBundle sequential = createBundle( validationMode, false );
+        TrackerValidationReport sequentialReport = trackerValidationService.validate( sequential );
+
+        TrackerBundle parallel = createBundle( validationMode, true );
+        TrackerValidationReport parallelReport = trackerValidationService.validate( parallel );
+
+        assertFalse( sequentialReport.getErrorReports().isEmpty() );
+        assertEquals( errors( sequentialReport ), errors( parallelReport ) );
+        assertEquals( warnings( sequentialReport ), warnings( parallelReport ) );
+
+        assertEquals( sequential.getTrackedEntities().stream().map( TrackedEntity::getTrackedEntity )
+            .collect( Collectors.toList() ),
+            parallel.getTrackedEntities().stream().map( TrackedEntity::getTrackedEntity )
+                .collect( Collectors.toList() ) );
+        assertEquals( sequential.getEnrollments().stream().map( Enrollment::getEnrollment )
+            .collect( Collectors.toList() ),
+            parallel.getEnrollments().stream().map( Enrollment::getEnrollment ).collect( Collectors.toList() ) );
+        assertEquals( sequential.getEvents().stream().map( Event::getEvent ).collect( Collectors.toList() ),
+            parallel.getEvents().stream().map( Event::getEvent ).collect( Collectors.toList() ) );
+    }
+
+    /**
+     * Creates a bundle of new tracked entities, some of which are invalid,
+     * and enrollments and events of the tracked entities committed in set up.
+     */
+    private TrackerBundle createBundle( ValidationMode validationMode, boolean parallelValidation )
+        throws IOException
+    {
+        List<TrackedEntity> trackedEntities = new ArrayList<>();
+
+        for ( String file : Arrays.asList( "tracker/validations/te-data_ok.json",
+            "tracker/validations/te-data_error_orgunit-non-existing.json",
+            "tracker/validations/te-data_error_teType-non-existing.json" ) )
+        {
+            trackedEntities.addAll( fromJson( file ).getTrackedEntities() );
+        }
+
+        TrackerBundleParams params = fromJson( "tracker/validations/enrollments_te_enrollments-data.json" );
+        params.setImportStrategy( TrackerImportStrategy.CREATE_AND_UPDATE );
+        params.setValidationMode( validationMode );
+        params.setParallelValidation( parallelValidation );
+        params.setTrackedEntities( trackedEntities );
+        params.setEvents( new ArrayList<>( fromJson( "tracker/validations/events-data.json" ).getEvents() ) );
+
+        return trackerBundleService.create( params ).get( 0 );
+    }
+
+    private TrackerBundleParams fromJson( String file )
+        throws IOException
+    {
+        TrackerBundleParams params = renderService.fromJson( new ClassPathResource( file ).getInputStream(),
+            TrackerBundleParams.class );
+        params.setUser( user );
+
+        return params;
+    }
+
+    /**
+     * Errors of parallel validation are in the order of the partitions, so
+     * reports are compared ignoring the order of errors.
+     */
+    private List<String> errors( TrackerValidationReport report )
+    {
+        return report.getErrorReports().stream()
+            .map( e -> e.getErrorCode() + ":" + e.getMainKlass().getSimpleName() + ":" + e.getMainId() + ":" +
+                e.getMessage() )
+            .sorted()
+            .collect( Collectors.toList() );
+    }
+
+    private List<String> warnings( TrackerValidationReport report )
+    {
+        return report.getWarningReports().stream()
+            .map( w -> w.getWarningCode() + ":" + w.getMainKlass().getSimpleName() + ":" + w.getMainId() )
+            .sorted()
+            .collect( Collectors.toList() );
+    }
+}
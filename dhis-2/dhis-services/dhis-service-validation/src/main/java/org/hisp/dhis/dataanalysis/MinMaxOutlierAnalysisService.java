@@ -31,24 +31,30 @@ package org.hisp.dhis.dataanalysis;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import javax.annotation.PreDestroy;
+
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.datavalue.DeflatedDataValue;
-import org.hisp.dhis.jdbc.batchhandler.MinMaxDataElementBatchHandler;
-import org.hisp.dhis.minmax.MinMaxDataElement;
 import org.hisp.dhis.minmax.MinMaxDataElementService;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
-import org.hisp.dhis.system.util.MathUtils;
-import org.hisp.quick.BatchHandler;
-import org.hisp.quick.BatchHandlerFactory;
-import org.joda.time.DateTime;
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.system.notification.NotificationLevel;
+import org.hisp.dhis.system.notification.Notifier;
 import org.springframework.stereotype.Service;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -60,6 +66,19 @@ import lombok.extern.slf4j.Slf4j;
 public class MinMaxOutlierAnalysisService
     implements MinMaxDataAnalysisService
 {
+    /**
+     * Number of data elements for which min-max values are generated in
+     * a single statement.
+     */
+    private static final int DATA_ELEMENT_PARTITION_SIZE = 20;
+
+    /**
+     * Generation threads, shared by all requests. Each of them holds a
+     * database connection while generating values for a partition.
+     */
+    private final ExecutorService executor = Executors.newFixedThreadPool( SystemUtils.getCpuCores(),
+        new ThreadFactoryBuilder().setNameFormat( "min-max-generation-%d" ).setDaemon( true ).build() );
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -68,18 +87,18 @@ public class MinMaxOutlierAnalysisService
 
     private final MinMaxDataElementService minMaxDataElementService;
 
-    private final BatchHandlerFactory batchHandlerFactory;
+    private final Notifier notifier;
 
     public MinMaxOutlierAnalysisService( DataAnalysisStore dataAnalysisStore,
-        MinMaxDataElementService minMaxDataElementService, BatchHandlerFactory batchHandlerFactory )
+        MinMaxDataElementService minMaxDataElementService, Notifier notifier )
     {
         checkNotNull( dataAnalysisStore );
         checkNotNull( minMaxDataElementService );
-        checkNotNull( batchHandlerFactory );
+        checkNotNull( notifier );
 
         this.dataAnalysisStore = dataAnalysisStore;
         this.minMaxDataElementService = minMaxDataElementService;
-        this.batchHandlerFactory = batchHandlerFactory;
+        this.notifier = notifier;
     }
 
     // -------------------------------------------------------------------------
@@ -108,57 +127,74 @@ public class MinMaxOutlierAnalysisService
     @Override
     public void generateMinMaxValues( OrganisationUnit parent, Collection<DataElement> dataElements, Double stdDevFactor )
     {
-        log.info( "Starting min-max value generation, no of data elements: " + dataElements.size() + ", parent: " + parent.getUid() );
+        generateMinMaxValues( null, parent, dataElements, stdDevFactor );
+    }
 
-        //Set<Integer> orgUnitIds = new HashSet<>( IdentifiableObjectUtils.getIdentifiers( organisationUnits ) );
+    @Override
+    public void generateMinMaxValues( JobConfiguration jobId, OrganisationUnit parent, Collection<DataElement> dataElements, Double stdDevFactor )
+    {
+        log.info( "Starting min-max value generation, no of data elements: " + dataElements.size() + ", parent: " + parent.getUid() );
 
-        Date from = new DateTime( 1, 1, 1, 1, 1 ).toDate();
+        notifier.notify( jobId, "Starting min-max value generation" );
 
         minMaxDataElementService.removeMinMaxDataElements( dataElements, parent );
 
         log.debug( "Deleted existing min-max values" );
 
-        List<String> parentPaths = Lists.newArrayList( parent.getPath() );
+        List<DataElement> elements = dataElements.stream()
+            .filter( de -> de.getValueType().isNumeric() )
+            .distinct()
+            .collect( Collectors.toList() );
+
+        // Initialize category option combos in the session of the caller, as
+        // partitions are generated in sessions of their own
+
+        elements.forEach( DataElement::getCategoryOptionCombos );
+
+        List<List<DataElement>> partitions = Lists.partition( elements, DATA_ELEMENT_PARTITION_SIZE );
+
+        AtomicInteger completed = new AtomicInteger();
 
-        BatchHandler<MinMaxDataElement> batchHandler = batchHandlerFactory.createBatchHandler( MinMaxDataElementBatchHandler.class ).init();
+        List<Future<Integer>> futures = partitions.stream()
+            .map( partition -> executor.submit( () -> {
+                int values = minMaxDataElementService.generateMinMaxDataElements( partition, parent, stdDevFactor );
 
-        for ( DataElement dataElement : dataElements )
+                notifier.notify( jobId, "Generated min-max values for " + completed.incrementAndGet() + " of " + partitions.size() + " data element partitions" );
+
+                return values;
+            } ) )
+            .collect( Collectors.toList() );
+
+        int generated = 0;
+
+        try
         {
-            if ( dataElement.getValueType().isNumeric() )
+            for ( Future<Integer> future : futures )
             {
-                Set<CategoryOptionCombo> categoryOptionCombos = dataElement.getCategoryOptionCombos();
-
-                List<DataAnalysisMeasures> measuresList = dataAnalysisStore.getDataAnalysisMeasures( dataElement, categoryOptionCombos, parentPaths, from );
-
-                for ( DataAnalysisMeasures measures : measuresList )
-                {
-                    int min = (int) Math.round( MathUtils.getLowBound( measures.getStandardDeviation(), stdDevFactor, measures.getAverage() ) );
-                    int max = (int) Math.round( MathUtils.getHighBound( measures.getStandardDeviation(), stdDevFactor, measures.getAverage() ) );
-
-                    switch ( dataElement.getValueType() )
-                    {
-                        case INTEGER_POSITIVE:
-                        case INTEGER_ZERO_OR_POSITIVE:
-                            min = Math.max( 0, min ); // Cannot be < 0
-                            break;
-                        case INTEGER_NEGATIVE:
-                            max = Math.min( 0, max ); // Cannot be > 0
-                            break;
-                    }
-
-                    OrganisationUnit orgUnit = new OrganisationUnit();
-                    orgUnit.setId( measures.getOrgUnitId() );
-
-                    CategoryOptionCombo categoryOptionCombo = new CategoryOptionCombo();
-                    categoryOptionCombo.setId( measures.getCategoryOptionComboId() );
-
-                    batchHandler.addObject( new MinMaxDataElement( orgUnit, dataElement, categoryOptionCombo, min, max, true ) );
-                }
+                generated += future.get();
             }
         }
+        catch ( InterruptedException e )
+        {
+            futures.forEach( future -> future.cancel( true ) );
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Min-max value generation was interrupted", e );
+        }
+        catch ( ExecutionException e )
+        {
+            futures.forEach( future -> future.cancel( true ) );
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                : new IllegalStateException( e.getCause() );
+        }
 
-        log.info( "Min-max value generation done" );
+        log.info( "Min-max value generation done, no of values: " + generated );
 
-        batchHandler.flush();
+        notifier.notify( jobId, NotificationLevel.INFO, "Min-max value generation done, no of values: " + generated, true );
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
     }
 }
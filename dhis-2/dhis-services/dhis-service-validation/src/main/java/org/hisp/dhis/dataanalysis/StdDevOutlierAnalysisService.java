@@ -31,17 +31,26 @@ package org.hisp.dhis.dataanalysis;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.PreDestroy;
 
 import org.hisp.dhis.category.CategoryOptionCombo;
-import org.hisp.dhis.common.MapMap;
+import org.hisp.dhis.commons.util.SystemUtils;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.datavalue.DeflatedDataValue;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
-import org.hisp.dhis.system.util.MathUtils;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -56,6 +65,18 @@ public class StdDevOutlierAnalysisService
     // Dependencies
     // -------------------------------------------------------------------------
 
+    /**
+     * Number of data elements to analyse in a single query.
+     */
+    private static final int DATA_ELEMENT_PARTITION_SIZE = 20;
+
+    /**
+     * Analysis threads, shared by all requests. Each of them holds a database
+     * connection while analysing a partition.
+     */
+    private final ExecutorService executor = Executors.newFixedThreadPool( SystemUtils.getCpuCores(),
+        new ThreadFactoryBuilder().setNameFormat( "std-dev-analysis-%d" ).setDaemon( true ).build() );
+
     private final DataAnalysisStore dataAnalysisStore;
 
     public StdDevOutlierAnalysisService( DataAnalysisStore dataAnalysisStore )
@@ -74,48 +95,100 @@ public class StdDevOutlierAnalysisService
     {
         log.info( "Starting std dev analysis, no of org units: " + parents.size() + ", factor: " + stdDevFactor + ", from: " + from );
 
-        List<DeflatedDataValue> outlierCollection = new ArrayList<>();
+        if ( stdDevFactor == null )
+        {
+            return new ArrayList<>();
+        }
 
         List<String> parentsPaths = parents.stream().map( OrganisationUnit::getPath ).collect( Collectors.toList() );
 
-        loop : for ( DataElement dataElement : dataElements )
-        {
-            // TODO filter periods with data element period type
+        // TODO filter periods with data element period type
 
-            if ( dataElement.getValueType().isNumeric() && stdDevFactor != null )
-            {
-                Set<CategoryOptionCombo> categoryOptionCombos = dataElement.getCategoryOptionCombos();
+        List<DataElement> numericDataElements = dataElements.stream()
+            .filter( de -> de.getValueType().isNumeric() )
+            .collect( Collectors.toList() );
 
-                List<DataAnalysisMeasures> measuresList = dataAnalysisStore.getDataAnalysisMeasures( dataElement, categoryOptionCombos, parentsPaths, from );
+        List<List<DataElement>> partitions = Lists.partition( numericDataElements, DATA_ELEMENT_PARTITION_SIZE );
 
-                MapMap<Long, Long, Integer> lowBoundMapMap = new MapMap<>(); // catOptionComboId, orgUnitId, lowBound
-                MapMap<Long, Long, Integer> highBoundMapMap = new MapMap<>(); // catOptionComboId, orgUnitId, highBound
+        log.debug( "Std dev analysis data element partitions: " + partitions.size() );
 
-                for ( DataAnalysisMeasures measures : measuresList )
-                {
-                    int lowBound = (int) Math.round( MathUtils.getLowBound( measures.getStandardDeviation(), stdDevFactor, measures.getAverage() ) );
-                    int highBound = (int) Math.round( MathUtils.getHighBound( measures.getStandardDeviation(), stdDevFactor, measures.getAverage() ) );
+        // Resolve category option combos up front as partitions are analysed
+        // in separate threads outside of the current session
 
-                    lowBoundMapMap.putEntry( measures.getCategoryOptionComboId(), measures.getOrgUnitId(), lowBound );
-                    highBoundMapMap.putEntry( measures.getCategoryOptionComboId(), measures.getOrgUnitId(), highBound );
-                }
+        List<Set<CategoryOptionCombo>> partitionCategoryOptionCombos = partitions.stream()
+            .map( this::getCategoryOptionCombos )
+            .collect( Collectors.toList() );
 
-                for ( CategoryOptionCombo categoryOptionCombo : categoryOptionCombos )
-                {
-                    Map<Long, Integer> lowBoundMap = lowBoundMapMap.get( categoryOptionCombo.getId() );
-                    Map<Long, Integer> highBoundMap = highBoundMapMap.get( categoryOptionCombo.getId() );
+        // One more than the max outliers is returned to allow for detecting overflow
 
-                    outlierCollection.addAll( dataAnalysisStore.getDeflatedDataValues( dataElement, categoryOptionCombo, periods,
-                        lowBoundMap, highBoundMap ) );
+        List<Future<List<DeflatedDataValue>>> futures = IntStream.range( 0, partitions.size() )
+            .mapToObj( i -> executor.submit( () -> dataAnalysisStore.getStdDevOutliers( partitions.get( i ),
+                partitionCategoryOptionCombos.get( i ), periods, parentsPaths, from, stdDevFactor, MAX_OUTLIERS + 1 ) ) )
+            .collect( Collectors.toList() );
 
-                    if ( outlierCollection.size() > MAX_OUTLIERS )
-                    {
-                        break loop;
-                    }
-                }
+        List<DeflatedDataValue> outliers = new ArrayList<>();
+
+        try
+        {
+            for ( Future<List<DeflatedDataValue>> future : futures )
+            {
+                outliers.addAll( future.get() );
             }
         }
+        catch ( InterruptedException e )
+        {
+            futures.forEach( future -> future.cancel( true ) );
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Std dev analysis was interrupted", e );
+        }
+        catch ( ExecutionException e )
+        {
+            futures.forEach( future -> future.cancel( true ) );
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                : new IllegalStateException( e.getCause() );
+        }
+
+        return outliers.stream()
+            .sorted( Comparator.comparingDouble( StdDevOutlierAnalysisService::getDeviation ).reversed() )
+            .limit( MAX_OUTLIERS + 1 )
+            .collect( Collectors.toList() );
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the deviation of the value of the given outlier from the middle
+     * of its bounds, relative to the width of the bounds. This orders outliers
+     * like their number of standard deviations, up to rounding of the bounds.
+     * Bounds which are rounded to the same value give no width to relate to,
+     * and the deviation is then 0.
+     */
+    static double getDeviation( DeflatedDataValue outlier )
+    {
+        double width = outlier.getMax() - outlier.getMin();
+
+        if ( width <= 0 )
+        {
+            return 0d;
+        }
 
-        return outlierCollection;
+        double middle = ( outlier.getMin() + outlier.getMax() ) / 2d;
+
+        return Math.abs( Double.parseDouble( outlier.getValue() ) - middle ) / width;
+    }
+
+    private Set<CategoryOptionCombo> getCategoryOptionCombos( Collection<DataElement> dataElements )
+    {
+        return dataElements.stream()
+            .flatMap( de -> de.getCategoryOptionCombos().stream() )
+            .collect( Collectors.toSet() );
     }
 }
@@ -135,6 +135,71 @@ public class JdbcDataAnalysisStore implements DataAnalysisStore
         return measures;
     }
 
+    @Override
+    public List<DeflatedDataValue> getStdDevOutliers( Collection<DataElement> dataElements,
+        Collection<CategoryOptionCombo> categoryOptionCombos, Collection<Period> periods,
+        Collection<String> parentPaths, Date from, double stdDevFactor, int limit )
+    {
+        if ( dataElements.isEmpty() || categoryOptionCombos.isEmpty() || periods.isEmpty() || parentPaths.isEmpty() )
+        {
+            return new ArrayList<>();
+        }
+
+        String dataElementIds = getCommaDelimitedString( getIdentifiers( dataElements ) );
+        String periodIds = getCommaDelimitedString( getIdentifiers( periods ) );
+        String categoryOptionComboIds = getCommaDelimitedString( getIdentifiers( categoryOptionCombos ) );
+        String doubleType = statementBuilder.getDoubleColumnType();
+
+        String matchPaths = "(";
+        for ( String path : parentPaths )
+        {
+            matchPaths += "ou.path like '" + path + "%' or ";
+        }
+        matchPaths = TextUtils.removeLastOr( matchPaths ) + ") ";
+
+        // Measures are computed per data element, category option combo and
+        // org unit with window functions in the same scan as the data values,
+        // bounds are rounded half up to match previous Java based rounding,
+        // outliers are ordered by deviation so that the limit keeps the
+        // largest deviations
+
+        String sql = "select dvs.*, "
+            + "cast( floor( dvs.average - dvs.standarddeviation * " + stdDevFactor + " + 0.5 ) as integer ) as minimumvalue, "
+            + "cast( floor( dvs.average + dvs.standarddeviation * " + stdDevFactor + " + 0.5 ) as integer ) as maximumvalue "
+            + "from ( "
+            + "select dv.dataelementid, dv.periodid, dv.sourceid, dv.categoryoptioncomboid, dv.attributeoptioncomboid, dv.value, dv.storedby, dv.lastupdated, "
+            + "dv.created, dv.comment, dv.followup, ou.name as sourcename, de.name as dataelementname, "
+            + "pt.name as periodtypename, pe.startdate, pe.enddate, coc.name as categoryoptioncomboname, "
+            + "cast( dv.value as " + doubleType + " ) as numericvalue, "
+            + "avg( cast( dv.value as " + doubleType + " ) ) over w as average, "
+            + "stddev_pop( cast( dv.value as " + doubleType + " ) ) over w as standarddeviation "
+            + "from datavalue dv "
+            + "join dataelement de on dv.dataelementid = de.dataelementid "
+            + "join period pe on dv.periodid = pe.periodid "
+            + "join periodtype pt on pe.periodtypeid = pt.periodtypeid "
+            + "join organisationunit ou on dv.sourceid = ou.organisationunitid "
+            + "join categoryoptioncombo coc on dv.categoryoptioncomboid = coc.categoryoptioncomboid "
+            + "where dv.dataelementid in (" + dataElementIds + ") "
+            + "and dv.categoryoptioncomboid in (" + categoryOptionComboIds + ") "
+            + "and pe.startdate >= '" + DateUtils.getMediumDateString( from ) + "' "
+            + "and " + matchPaths
+            + "and dv.deleted is false "
+            + "window w as ( partition by dv.dataelementid, dv.sourceid, dv.categoryoptioncomboid ) "
+            + ") as dvs "
+            + "where dvs.periodid in (" + periodIds + ") "
+            + "and dvs.standarddeviation != 0.0 "
+            + "and ( dvs.numericvalue < floor( dvs.average - dvs.standarddeviation * " + stdDevFactor + " + 0.5 ) "
+            + "or dvs.numericvalue > floor( dvs.average + dvs.standarddeviation * " + stdDevFactor + " + 0.5 ) ) "
+            + "order by abs( dvs.numericvalue - dvs.average ) / dvs.standarddeviation desc, "
+            + "dvs.dataelementid, dvs.sourceid, dvs.categoryoptioncomboid, dvs.periodid, dvs.attributeoptioncomboid ";
+
+        sql += statementBuilder.limitRecord( 0, limit );
+
+        log.debug( "Std dev outlier SQL: " + sql );
+
+        return jdbcTemplate.query( sql, new DeflatedDataValueNameMinMaxRowMapper( null, null ) );
+    }
+
     @Override
     public List<DeflatedDataValue> getMinMaxViolations( Collection<DataElement> dataElements,
         Collection<CategoryOptionCombo> categoryOptionCombos, Collection<Period> periods,
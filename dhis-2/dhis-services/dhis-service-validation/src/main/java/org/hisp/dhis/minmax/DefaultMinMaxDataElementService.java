@@ -144,6 +144,12 @@ public class DefaultMinMaxDataElementService
     {
         minMaxDataElementStore.delete( dataElements, parent );
     }
+
+    @Override
+    public int generateMinMaxDataElements( Collection<DataElement> dataElements, OrganisationUnit parent, double stdDevFactor )
+    {
+        return minMaxDataElementStore.generate( dataElements, parent, stdDevFactor );
+    }
 }
 
 
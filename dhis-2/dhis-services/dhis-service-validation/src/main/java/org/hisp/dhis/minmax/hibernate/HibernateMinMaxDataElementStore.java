@@ -30,10 +30,13 @@ package org.hisp.dhis.minmax.hibernate;
 
 import org.hibernate.SessionFactory;
 import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.common.Pager;
+import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.hibernate.HibernateGenericStore;
 import org.hisp.dhis.hibernate.JpaQueryParameters;
+import org.hisp.dhis.jdbc.StatementBuilder;
 import org.hisp.dhis.minmax.MinMaxDataElement;
 import org.hisp.dhis.minmax.MinMaxDataElementQueryParams;
 import org.hisp.dhis.minmax.MinMaxDataElementStore;
@@ -56,12 +59,16 @@ import javax.persistence.criteria.Root;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import lombok.extern.slf4j.Slf4j;
+
 /**
  * @author Kristian Nordal
  */
+@Slf4j
 @Repository( "org.hisp.dhis.minmax.MinMaxDataElementStore" )
 public class HibernateMinMaxDataElementStore
     extends HibernateGenericStore<MinMaxDataElement>
@@ -73,18 +80,23 @@ public class HibernateMinMaxDataElementStore
 
     private final SchemaService schemaService;
 
+    private final StatementBuilder statementBuilder;
+
     public HibernateMinMaxDataElementStore( SessionFactory sessionFactory, JdbcTemplate jdbcTemplate,
-        ApplicationEventPublisher publisher, QueryParser queryParser, QueryPlanner queryPlanner, SchemaService schemaService )
+        ApplicationEventPublisher publisher, QueryParser queryParser, QueryPlanner queryPlanner, SchemaService schemaService,
+        StatementBuilder statementBuilder )
     {
         super( sessionFactory, jdbcTemplate, publisher, MinMaxDataElement.class, false );
 
         checkNotNull(queryParser);
         checkNotNull(queryPlanner);
         checkNotNull(schemaService);
+        checkNotNull(statementBuilder);
 
         this.queryParser = queryParser;
         this.queryPlanner = queryPlanner;
         this.schemaService = schemaService;
+        this.statementBuilder = statementBuilder;
     }
 
     // -------------------------------------------------------------------------
@@ -193,6 +205,62 @@ public class HibernateMinMaxDataElementStore
             .executeUpdate();
     }
 
+    @Override
+    public int generate( Collection<DataElement> dataElements, OrganisationUnit parent, double stdDevFactor )
+    {
+        // Values are generated for the category option combos of the
+        // category combo of each data element only
+
+        final List<String> dataElementFilters = new ArrayList<>();
+
+        for ( DataElement dataElement : dataElements )
+        {
+            Set<CategoryOptionCombo> categoryOptionCombos = dataElement.getCategoryOptionCombos();
+
+            if ( !categoryOptionCombos.isEmpty() )
+            {
+                dataElementFilters.add( "(dv.dataelementid = " + dataElement.getId() + " and dv.categoryoptioncomboid in (" +
+                    TextUtils.getCommaDelimitedString( IdentifiableObjectUtils.getIdentifiers( categoryOptionCombos ) ) + "))" );
+            }
+        }
+
+        if ( dataElementFilters.isEmpty() )
+        {
+            return 0;
+        }
+
+        final String numericValue = "cast( dv.value as " + statementBuilder.getDoubleColumnType() + " )";
+
+        // Bounds are rounded half up, positive and negative integer value
+        // types are bounded by zero
+
+        final String minValue = "cast( floor( avg( " + numericValue + " ) - stddev_pop( " + numericValue + " ) * " + stdDevFactor + " + 0.5 ) as integer )";
+        final String maxValue = "cast( floor( avg( " + numericValue + " ) + stddev_pop( " + numericValue + " ) * " + stdDevFactor + " + 0.5 ) as integer )";
+
+        final String sql =
+            "insert into minmaxdataelement (minmaxdataelementid, sourceid, dataelementid, categoryoptioncomboid, minimumvalue, maximumvalue, generatedvalue) " +
+            "select nextval('hibernate_sequence'), mm.sourceid, mm.dataelementid, mm.categoryoptioncomboid, " +
+            "case when mm.valuetype in ('INTEGER_POSITIVE', 'INTEGER_ZERO_OR_POSITIVE') and mm.minvalue < 0 then 0 else mm.minvalue end, " +
+            "case when mm.valuetype = 'INTEGER_NEGATIVE' and mm.maxvalue > 0 then 0 else mm.maxvalue end, " +
+            "true " +
+            "from (" +
+                "select dv.sourceid, dv.dataelementid, dv.categoryoptioncomboid, de.valuetype, " +
+                minValue + " as minvalue, " + maxValue + " as maxvalue " +
+                "from datavalue dv " +
+                "inner join dataelement de on dv.dataelementid = de.dataelementid " +
+                "inner join organisationunit ou on dv.sourceid = ou.organisationunitid " +
+                "where (" + String.join( " or ", dataElementFilters ) + ") " +
+                "and ou.path like '" + parent.getPath() + "%' " +
+                "and dv.deleted is false " +
+                "group by dv.sourceid, dv.dataelementid, dv.categoryoptioncomboid, de.valuetype " +
+                "having stddev_pop( " + numericValue + " ) != 0.0" +
+            ") as mm";
+
+        log.debug( "Generate min-max values SQL: " + sql );
+
+        return jdbcTemplate.update( sql );
+    }
+
     private Predicate parseFilter( CriteriaBuilder builder, Root<?> root, List<String> filters )
     {
         Predicate conjunction = builder.conjunction();
@@ -35,6 +35,7 @@ import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.category.CategoryService;
 import org.hisp.dhis.dataelement.*;
 import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.datavalue.DeflatedDataValue;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.period.MonthlyPeriodType;
@@ -160,4 +161,60 @@ public class DataAnalysisStoreTest
         assertEquals( 12.78, measures.get( 0 ).getAverage(), DELTA );
         assertEquals( 15.26, measures.get( 0 ).getStandardDeviation(), DELTA );
     }
+
+    @Test
+    public void testGetStdDevOutliers()
+    {
+        dataValueService.addDataValue( createDataValue( dataElementA, periodA, organisationUnitA, "5", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodB, organisationUnitA, "2", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodC, organisationUnitA, "1", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodD, organisationUnitA, "12", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodE, organisationUnitA, "10", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodF, organisationUnitA, "7", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodG, organisationUnitA, "52", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodH, organisationUnitA, "23", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodI, organisationUnitA, "3", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodJ, organisationUnitA, "15", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementB, periodA, organisationUnitB, "5", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementB, periodB, organisationUnitB, "5", categoryOptionCombo ) );
+
+        List<DeflatedDataValue> outliers = dataAnalysisStore.getStdDevOutliers( Lists.newArrayList( dataElementA, dataElementB ),
+            Lists.newArrayList( categoryOptionCombo ), Lists.newArrayList( periodA, periodB, periodG, periodH ),
+            Lists.newArrayList( organisationUnitA.getPath(), organisationUnitB.getPath() ), from, 2.0, 100 );
+
+        assertEquals( 1, outliers.size() );
+        assertEquals( "52", outliers.get( 0 ).getValue() );
+        assertEquals( dataElementA.getId(), outliers.get( 0 ).getDataElementId() );
+    }
+
+    @Test
+    public void testGetStdDevOutliersOrderedByDeviation()
+    {
+        List<Period> periods = Lists.newArrayList( periodA, periodB, periodC, periodD, periodE, periodF, periodG, periodH, periodI, periodJ );
+        List<String> valuesA = Lists.newArrayList( "5", "2", "1", "12", "10", "7", "52", "23", "3", "15" );
+        List<String> valuesB = Lists.newArrayList( "10", "10", "10", "10", "10", "10", "10", "10", "10", "30" );
+
+        for ( int i = 0; i < periods.size(); i++ )
+        {
+            dataValueService.addDataValue( createDataValue( dataElementA, periods.get( i ), organisationUnitA, valuesA.get( i ), categoryOptionCombo ) );
+            dataValueService.addDataValue( createDataValue( dataElementA, periods.get( i ), organisationUnitB, valuesB.get( i ), categoryOptionCombo ) );
+        }
+
+        List<String> paths = Lists.newArrayList( organisationUnitA.getPath(), organisationUnitB.getPath() );
+
+        // 30 deviates by 3.0 and 52 by 2.57 standard deviations
+
+        List<DeflatedDataValue> outliers = dataAnalysisStore.getStdDevOutliers( Lists.newArrayList( dataElementA ),
+            Lists.newArrayList( categoryOptionCombo ), periods, paths, from, 2.0, 100 );
+
+        assertEquals( 2, outliers.size() );
+        assertEquals( "30", outliers.get( 0 ).getValue() );
+        assertEquals( "52", outliers.get( 1 ).getValue() );
+
+        outliers = dataAnalysisStore.getStdDevOutliers( Lists.newArrayList( dataElementA ),
+            Lists.newArrayList( categoryOptionCombo ), periods, paths, from, 2.0, 1 );
+
+        assertEquals( 1, outliers.size() );
+        assertEquals( "30", outliers.get( 0 ).getValue() );
+    }
 }
@@ -54,6 +54,9 @@ import java.util.List;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author eirikmi
@@ -199,4 +202,38 @@ public class MinMaxOutlierAnalysisServiceTest
 
         assertEquals( 2, result.size() );
     }
+
+    @Test
+    public void testGenerateMinMaxValues()
+    {
+        dataValueService.addDataValue( createDataValue( dataElementA, periodA, organisationUnitA, "5", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodB, organisationUnitA, "-5", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodC, organisationUnitA, "5", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodD, organisationUnitA, "-5", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodE, organisationUnitA, "10", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodF, organisationUnitA, "-10", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodG, organisationUnitA, "13", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodH, organisationUnitA, "-13", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodI, organisationUnitA, "41", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementA, periodJ, organisationUnitA, "-41", categoryOptionCombo ) );
+
+        dataValueService.addDataValue( createDataValue( dataElementB, periodA, organisationUnitA, "10", categoryOptionCombo ) );
+        dataValueService.addDataValue( createDataValue( dataElementB, periodB, organisationUnitA, "10", categoryOptionCombo ) );
+
+        minMaxDataElementService.addMinMaxDataElement(
+            new MinMaxDataElement( organisationUnitA, dataElementA, categoryOptionCombo, -1, 1, false ) );
+
+        minMaxOutlierAnalysisService.generateMinMaxValues( organisationUnitA, dataElementsA, 2.0 );
+
+        MinMaxDataElement minMaxA = minMaxDataElementService.getMinMaxDataElement( organisationUnitA, dataElementA, categoryOptionCombo );
+
+        assertNotNull( minMaxA );
+        assertEquals( -40, minMaxA.getMin() );
+        assertEquals( 40, minMaxA.getMax() );
+        assertTrue( minMaxA.isGenerated() );
+
+        // No values generated when standard deviation is zero
+
+        assertNull( minMaxDataElementService.getMinMaxDataElement( organisationUnitA, dataElementB, categoryOptionCombo ) );
+    }
 }
@@ -219,4 +219,21 @@ public class StdDevOutlierAnalysisServiceTest extends DhisSpringTest
         assertTrue( values.contains( valueA ) );
         assertFalse( values.contains( valueB ) );
     }
+
+    @Test
+    public void testGetDeviation()
+    {
+        assertEquals( 0.5, StdDevOutlierAnalysisService.getDeviation( createOutlier( "30", 10, 30 ) ), 0.01 );
+        assertEquals( 0.0, StdDevOutlierAnalysisService.getDeviation( createOutlier( "30", 10, 10 ) ), 0.01 );
+    }
+
+    private DeflatedDataValue createOutlier( String value, int min, int max )
+    {
+        DeflatedDataValue outlier = new DeflatedDataValue();
+        outlier.setValue( value );
+        outlier.setMin( min );
+        outlier.setMax( max );
+
+        return outlier;
+    }
 }
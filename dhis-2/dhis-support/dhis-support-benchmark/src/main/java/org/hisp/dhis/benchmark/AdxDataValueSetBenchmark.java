@@ -0,0 +1,141 @@
+package org.hisp.dhis.benchmark;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.common.DataDimensionType;
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataset.DataSet;
+import org.hisp.dhis.dxf2.adx.StreamingAdxDataValueSet;
+import org.hisp.dhis.dxf2.common.ImportOptions;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.staxwax.factory.XMLFactory;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of reading an ADX document through
+ * {@link StreamingAdxDataValueSet}, which translates ADX groups and data
+ * values into DXF data values while the data value set import reads them.
+ * Data elements are preheated, so the benchmark measures parsing and
+ * translation without database access.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class AdxDataValueSetBenchmark
+{
+    private static final int PERIODS = 12;
+
+    private static final int DATA_ELEMENTS = 50;
+
+    @Param( { "10", "100" } )
+    private int orgUnits;
+
+    private byte[] adx;
+
+    private IdentifiableObjectManager manager;
+
+    private ImportOptions importOptions;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = BenchmarkFixtures.random();
+
+        CategoryCombo categoryCombo = new CategoryCombo( CategoryCombo.DEFAULT_CATEGORY_COMBO_NAME, DataDimensionType.DISAGGREGATION );
+
+        List<DataElement> dataElements = BenchmarkFixtures.dataElements( DATA_ELEMENTS );
+        dataElements.forEach( dataElement -> dataElement.setCategoryCombo( categoryCombo ) );
+
+        List<OrganisationUnit> organisationUnits = BenchmarkFixtures.organisationUnits( orgUnits );
+
+        StringBuilder builder = new StringBuilder( "<adx xmlns=\"urn:ihe:qrph:adx:2015\">" );
+
+        for ( OrganisationUnit organisationUnit : organisationUnits )
+        {
+            for ( int month = 1; month <= PERIODS; month++ )
+            {
+                builder.append( String.format( "<group orgUnit=\"%s\" period=\"2020-%02d-01/P1M\">", organisationUnit.getUid(), month ) );
+
+                for ( DataElement dataElement : dataElements )
+                {
+                    builder.append( String.format( "<dataValue dataElement=\"%s\" value=\"%d\"/>", dataElement.getUid(), random.nextInt( 1000 ) ) );
+                }
+
+                builder.append( "</group>" );
+            }
+        }
+
+        adx = builder.append( "</adx>" ).toString().getBytes( StandardCharsets.UTF_8 );
+
+        manager = Mockito.mock( IdentifiableObjectManager.class );
+        Mockito.when( manager.getAll( DataElement.class ) ).thenReturn( dataElements );
+        Mockito.when( manager.getAll( DataSet.class ) ).thenReturn( Collections.emptyList() );
+
+        importOptions = ImportOptions.getDefaultImportOptions().setPreheatCache( true );
+    }
+
+    @Benchmark
+    public int readDataValues()
+    {
+        StreamingAdxDataValueSet dataValueSet = new StreamingAdxDataValueSet(
+            XMLFactory.getXMLReader( new ByteArrayInputStream( adx ) ), importOptions, manager );
+
+        int count = 0;
+
+        while ( dataValueSet.getNextDataValue() != null )
+        {
+            count++;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,115 @@
+package org.hisp.dhis.benchmark;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares two JMH result files in JSON format, typically produced by running
+ * the benchmarks on two commits, and prints the score of each benchmark in
+ * both files with the relative change. Changes within the combined score
+ * error of the two runs are not considered significant.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar org.hisp.dhis.benchmark.BenchmarkComparison base.json head.json}
+ */
+public class BenchmarkComparison
+{
+    public static void main( String[] args )
+        throws IOException
+    {
+        if ( args.length != 2 )
+        {
+            System.err.println( "Usage: BenchmarkComparison <base-result.json> <head-result.json>" );
+            System.exit( 1 );
+        }
+
+        Map<String, JsonNode> base = readResults( new File( args[0] ) );
+        Map<String, JsonNode> head = readResults( new File( args[1] ) );
+
+        System.out.println( String.format( "%-90s %14s %14s %9s  %s", "Benchmark", "Base", "Head", "Change", "Unit" ) );
+
+        for ( Map.Entry<String, JsonNode> entry : head.entrySet() )
+        {
+            JsonNode headMetric = entry.getValue();
+            JsonNode baseMetric = base.get( entry.getKey() );
+
+            double headScore = headMetric.get( "score" ).asDouble();
+            String unit = headMetric.get( "scoreUnit" ).asText();
+
+            if ( baseMetric == null )
+            {
+                System.out.println( String.format( "%-90s %14s %14.3f %9s  %s", entry.getKey(), "-", headScore, "new", unit ) );
+                continue;
+            }
+
+            double baseScore = baseMetric.get( "score" ).asDouble();
+            double error = baseMetric.get( "scoreError" ).asDouble( 0 ) + headMetric.get( "scoreError" ).asDouble( 0 );
+            double change = baseScore != 0 ? ( headScore - baseScore ) / baseScore * 100 : 0;
+            String significance = Math.abs( headScore - baseScore ) > error ? "" : " (within error)";
+
+            System.out.println( String.format( "%-90s %14.3f %14.3f %+8.1f%%  %s%s",
+                entry.getKey(), baseScore, headScore, change, unit, significance ) );
+        }
+    }
+
+    /**
+     * Reads the primary metric of each benchmark in the given result file,
+     * keyed by benchmark name, mode and parameters.
+     */
+    private static Map<String, JsonNode> readResults( File file )
+        throws IOException
+    {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+
+        for ( JsonNode result : new ObjectMapper().readTree( file ) )
+        {
+            StringJoiner key = new StringJoiner( " " );
+            key.add( result.get( "benchmark" ).asText().replace( BenchmarkComparison.class.getPackage().getName() + ".", "" ) );
+            key.add( result.get( "mode" ).asText() );
+
+            JsonNode params = result.get( "params" );
+
+            if ( params != null )
+            {
+                params.fields().forEachRemaining( param -> key.add( param.getKey() + "=" + param.getValue().asText() ) );
+            }
+
+            results.put( key.toString(), result.get( "primaryMetric" ) );
+        }
+
+        return results;
+    }
+}
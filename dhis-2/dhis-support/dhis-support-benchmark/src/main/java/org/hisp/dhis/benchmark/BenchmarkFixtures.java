@@ -0,0 +1,182 @@
+package org.hisp.dhis.benchmark;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.hisp.dhis.DhisConvenienceTest.createConstant;
+import static org.hisp.dhis.DhisConvenienceTest.createDataElement;
+import static org.hisp.dhis.DhisConvenienceTest.createOrganisationUnit;
+import static org.hisp.dhis.DhisConvenienceTest.createPeriod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.ValueType;
+import org.hisp.dhis.constant.Constant;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.system.grid.ListGrid;
+
+/**
+ * Builders of synthetic fixtures for benchmarks, based on the object creation
+ * methods of {@link org.hisp.dhis.DhisConvenienceTest}. Objects get unique
+ * identifiers so that any number of them can be created. Identifiers and
+ * random values derive from a fixed seed so that runs on different commits
+ * measure identical input.
+ */
+public final class BenchmarkFixtures
+{
+    private static final long SEED = 20201019L;
+
+    private BenchmarkFixtures()
+    {
+    }
+
+    public static Random random()
+    {
+        return new Random( SEED );
+    }
+
+    public static List<DataElement> dataElements( int size )
+    {
+        Random random = random( DataElement.class );
+
+        List<DataElement> dataElements = new ArrayList<>( size );
+
+        for ( int i = 0; i < size; i++ )
+        {
+            DataElement dataElement = createDataElement( uniqueCharacter( i ) );
+            dataElement.setUid( CodeGenerator.generateUid( random ) );
+            dataElement.setName( "DataElement" + i );
+            dataElement.setCode( "DataElementCode" + i );
+            dataElements.add( dataElement );
+        }
+
+        return dataElements;
+    }
+
+    public static List<OrganisationUnit> organisationUnits( int size )
+    {
+        Random random = random( OrganisationUnit.class );
+
+        List<OrganisationUnit> organisationUnits = new ArrayList<>( size );
+
+        for ( int i = 0; i < size; i++ )
+        {
+            OrganisationUnit organisationUnit = createOrganisationUnit( uniqueCharacter( i ) );
+            organisationUnit.setUid( CodeGenerator.generateUid( random ) );
+            organisationUnit.setName( "OrganisationUnit" + i );
+            organisationUnit.setCode( "OrganisationUnitCode" + i );
+            organisationUnits.add( organisationUnit );
+        }
+
+        return organisationUnits;
+    }
+
+    /**
+     * Returns consecutive monthly periods, starting January 2000.
+     *
+     * @param size the number of periods.
+     */
+    public static List<Period> monthlyPeriods( int size )
+    {
+        List<Period> periods = new ArrayList<>( size );
+
+        for ( int i = 0; i < size; i++ )
+        {
+            periods.add( createPeriod( String.format( "%d%02d", 2000 + i / 12, i % 12 + 1 ) ) );
+        }
+
+        return periods;
+    }
+
+    public static List<Constant> constants( int size )
+    {
+        Random random = random();
+
+        List<Constant> constants = new ArrayList<>( size );
+
+        for ( int i = 0; i < size; i++ )
+        {
+            constants.add( createConstant( uniqueCharacter( i ), random.nextInt( 1000 ) ) );
+        }
+
+        return constants;
+    }
+
+    /**
+     * Returns a grid shaped like an analytics response, with data element,
+     * period and organisation unit columns and a numeric value column.
+     *
+     * @param rows the number of rows.
+     */
+    public static Grid analyticsGrid( int rows )
+    {
+        Random random = random();
+
+        List<DataElement> dataElements = dataElements( 50 );
+        List<Period> periods = monthlyPeriods( 24 );
+        List<OrganisationUnit> organisationUnits = organisationUnits( 200 );
+
+        Grid grid = new ListGrid()
+            .addHeader( new GridHeader( "dx", "Data", ValueType.TEXT, String.class.getName(), false, true ) )
+            .addHeader( new GridHeader( "pe", "Period", ValueType.TEXT, String.class.getName(), false, true ) )
+            .addHeader( new GridHeader( "ou", "Organisation unit", ValueType.TEXT, String.class.getName(), false, true ) )
+            .addHeader( new GridHeader( "value", "Value", ValueType.NUMBER, Double.class.getName(), false, false ) );
+
+        for ( int i = 0; i < rows; i++ )
+        {
+            grid.addRow()
+                .addValue( dataElements.get( random.nextInt( dataElements.size() ) ).getUid() )
+                .addValue( periods.get( random.nextInt( periods.size() ) ).getIsoDate() )
+                .addValue( organisationUnits.get( random.nextInt( organisationUnits.size() ) ).getUid() )
+                .addValue( random.nextDouble() * 1000 );
+        }
+
+        return grid;
+    }
+
+    /**
+     * Returns a random with a seed of its own for the given type, so that
+     * fixtures of different types do not share identifiers.
+     */
+    private static Random random( Class<?> type )
+    {
+        return new Random( SEED + type.getName().hashCode() );
+    }
+
+    private static char uniqueCharacter( int index )
+    {
+        return (char) ( 'A' + index % 26 );
+    }
+}
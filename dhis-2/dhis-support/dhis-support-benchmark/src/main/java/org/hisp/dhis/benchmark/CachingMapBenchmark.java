@@ -0,0 +1,122 @@
+package org.hisp.dhis.benchmark;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.commons.collection.CachingMap;
+import org.hisp.dhis.dataelement.DataElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link CachingMap} lookups as done by data value set import
+ * for the identifiers of each data value, with a cache which is preloaded and
+ * with a cache which is filled on miss.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class CachingMapBenchmark
+{
+    private static final int LOOKUPS = 10_000;
+
+    @Param( { "100", "10000" } )
+    private int size;
+
+    private List<DataElement> dataElements;
+
+    private Map<String, DataElement> store;
+
+    private String[] keys;
+
+    @Setup
+    public void setUp()
+    {
+        dataElements = BenchmarkFixtures.dataElements( size );
+
+        store = dataElements.stream().collect( Collectors.toMap( DataElement::getUid, Function.identity() ) );
+
+        Random random = BenchmarkFixtures.random();
+
+        keys = new String[LOOKUPS];
+
+        for ( int i = 0; i < LOOKUPS; i++ )
+        {
+            keys[i] = dataElements.get( random.nextInt( size ) ).getUid();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( LOOKUPS )
+    public CachingMap<String, DataElement> preloaded()
+    {
+        CachingMap<String, DataElement> map = new CachingMap<String, DataElement>()
+            .load( dataElements, DataElement::getUid );
+
+        for ( String key : keys )
+        {
+            map.get( key, () -> store.get( key ) );
+        }
+
+        return map;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( LOOKUPS )
+    public CachingMap<String, DataElement> loadOnMiss()
+    {
+        CachingMap<String, DataElement> map = new CachingMap<>();
+
+        for ( String key : keys )
+        {
+            map.get( key, () -> store.get( key ) );
+        }
+
+        return map;
+    }
+}
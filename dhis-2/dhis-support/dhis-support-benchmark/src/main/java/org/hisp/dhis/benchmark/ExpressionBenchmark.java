@@ -0,0 +1,123 @@
+package org.hisp.dhis.benchmark;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.hisp.dhis.parser.expression.ParserUtils.COMMON_EXPRESSION_ITEMS;
+import static org.hisp.dhis.parser.expression.ParserUtils.DEFAULT_SAMPLE_PERIODS;
+import static org.hisp.dhis.parser.expression.ParserUtils.ITEM_EVALUATE;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.antlr.Parser;
+import org.hisp.dhis.common.DimensionService;
+import org.hisp.dhis.constant.Constant;
+import org.hisp.dhis.expression.MissingValueStrategy;
+import org.hisp.dhis.organisationunit.OrganisationUnitGroupService;
+import org.hisp.dhis.parser.expression.CommonExpressionVisitor;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of parsing and evaluating expressions with
+ * {@link CommonExpressionVisitor}, as done for every indicator, validation
+ * rule and predictor value. Expressions use constants as data items, since
+ * the other data items require the services of the core module.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class ExpressionBenchmark
+{
+    /**
+     * The kind of operators and functions of the expression.
+     */
+    @Param( { "arithmetic", "functions", "logical" } )
+    private String type;
+
+    private String expression;
+
+    private CommonExpressionVisitor visitor;
+
+    @Setup
+    public void setUp()
+    {
+        List<Constant> constants = BenchmarkFixtures.constants( 4 );
+
+        Map<String, Constant> constantMap = constants.stream()
+            .collect( Collectors.toMap( Constant::getUid, Function.identity() ) );
+
+        Object[] ids = constants.stream().map( Constant::getUid ).toArray();
+
+        switch ( type )
+        {
+            case "arithmetic":
+                expression = String.format( "(C{%s} + C{%s}) * C{%s} / (C{%s} + 1) - C{%1$s} %% 7 + C{%2$s} ^ 2", ids );
+                break;
+            case "functions":
+                expression = String.format( "if(C{%s} > C{%s}, greatest(C{%1$s}, C{%s}, 10), least(C{%2$s}, C{%s}, 20)) " +
+                    "+ firstNonNull(C{%3$s}, 0)", ids );
+                break;
+            default:
+                expression = String.format( "C{%s} > 100 && (C{%s} < 500 || C{%s} == C{%s}) && !(C{%1$s} <= C{%4$s})", ids );
+        }
+
+        visitor = CommonExpressionVisitor.newBuilder()
+            .withItemMap( COMMON_EXPRESSION_ITEMS )
+            .withItemMethod( ITEM_EVALUATE )
+            .withConstantMap( constantMap )
+            .withDimensionService( Mockito.mock( DimensionService.class ) )
+            .withOrganisationUnitGroupService( Mockito.mock( OrganisationUnitGroupService.class ) )
+            .withSamplePeriods( DEFAULT_SAMPLE_PERIODS )
+            .withMissingValueStrategy( MissingValueStrategy.NEVER_SKIP )
+            .buildForExpressions();
+    }
+
+    @Benchmark
+    public Object evaluate()
+    {
+        return Parser.visit( expression, visitor );
+    }
+}
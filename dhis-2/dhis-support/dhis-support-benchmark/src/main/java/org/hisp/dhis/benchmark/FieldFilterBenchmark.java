@@ -0,0 +1,130 @@
+package org.hisp.dhis.benchmark;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hisp.dhis.attribute.AttributeService;
+import org.hisp.dhis.category.CategoryOption;
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.fieldfilter.DefaultFieldFilterService;
+import org.hisp.dhis.fieldfilter.DefaultFieldParser;
+import org.hisp.dhis.fieldfilter.FieldFilterParams;
+import org.hisp.dhis.node.transformers.PluckNodeTransformer;
+import org.hisp.dhis.node.types.CollectionNode;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.schema.DefaultSchemaService;
+import org.hisp.dhis.schema.Jackson2PropertyIntrospectorService;
+import org.hisp.dhis.schema.Property;
+import org.hisp.dhis.schema.SchemaService;
+import org.hisp.dhis.security.acl.AclService;
+import org.hisp.dhis.user.CurrentUserService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Benchmarks of {@link DefaultFieldFilterService} rendering of a metadata
+ * list with simple, nested and transformed fields. The service is set up like
+ * in its unit test, with schemas introspected through Jackson only.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class FieldFilterBenchmark
+{
+    @Param( { "50", "1000" } )
+    private int objects;
+
+    @Param( { "id,name,code", "id,name,organisationUnits[id,name,code]", "id,organisationUnits~pluck(name)" } )
+    private String fields;
+
+    private DefaultFieldFilterService fieldFilterService;
+
+    private List<CategoryOption> categoryOptions;
+
+    @Setup
+    public void setUp()
+    {
+        SchemaService schemaService = new DefaultSchemaService( new Jackson2PropertyIntrospectorService()
+        {
+            @Override
+            protected Map<String, Property> getPropertiesFromHibernate( Class<?> klass )
+            {
+                return Collections.emptyMap();
+            }
+        }, Mockito.mock( SessionFactory.class ) );
+
+        fieldFilterService = new DefaultFieldFilterService( new DefaultFieldParser(), schemaService,
+            Mockito.mock( AclService.class ), Mockito.mock( CurrentUserService.class ),
+            Mockito.mock( AttributeService.class ), Sets.newHashSet( new PluckNodeTransformer() ) );
+        fieldFilterService.init();
+
+        List<OrganisationUnit> organisationUnits = BenchmarkFixtures.organisationUnits( 20 );
+
+        categoryOptions = new ArrayList<>( objects );
+
+        for ( int i = 0; i < objects; i++ )
+        {
+            CategoryOption categoryOption = new CategoryOption( "CategoryOption" + i );
+            categoryOption.setAutoFields();
+            categoryOption.setUid( CodeGenerator.generateUid() );
+            categoryOption.setCode( "CategoryOptionCode" + i );
+            categoryOption.getOrganisationUnits().addAll( organisationUnits );
+            categoryOptions.add( categoryOption );
+        }
+    }
+
+    @Benchmark
+    public CollectionNode toCollectionNode()
+    {
+        FieldFilterParams params = new FieldFilterParams( categoryOptions, Collections.singletonList( fields ) );
+
+        return fieldFilterService.toCollectionNode( CategoryOption.class, params );
+    }
+}
@@ -0,0 +1,125 @@
+package org.hisp.dhis.benchmark;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.hisp.dhis.common.Grid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link org.hisp.dhis.system.grid.ListGrid} building, sorting
+ * and access on grids shaped like analytics responses.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class ListGridBenchmark
+{
+    /**
+     * Grid shared by benchmarks which do not modify it.
+     */
+    @State( Scope.Benchmark )
+    public static class GridState
+    {
+        @Param( { "1000", "100000" } )
+        int rows;
+
+        Grid grid;
+
+        @Setup( Level.Trial )
+        public void setUp()
+        {
+            grid = BenchmarkFixtures.analyticsGrid( rows );
+        }
+    }
+
+    /**
+     * Grid rebuilt before each invocation of benchmarks which modify it.
+     */
+    @State( Scope.Thread )
+    public static class MutableGridState
+    {
+        @Param( { "1000", "100000" } )
+        int rows;
+
+        Grid grid;
+
+        @Setup( Level.Invocation )
+        public void setUp()
+        {
+            grid = BenchmarkFixtures.analyticsGrid( rows );
+        }
+    }
+
+    @Benchmark
+    public Grid build( GridState state )
+    {
+        return BenchmarkFixtures.analyticsGrid( state.rows );
+    }
+
+    @Benchmark
+    public List<Object> getColumn( GridState state )
+    {
+        return state.grid.getColumn( 3 );
+    }
+
+    @Benchmark
+    public Map<String, Object> getAsMap( GridState state )
+    {
+        return state.grid.getAsMap( 3, "-" );
+    }
+
+    @Benchmark
+    public Grid sortGrid( MutableGridState state )
+    {
+        return state.grid.sortGrid( 4, -1 );
+    }
+
+    @Benchmark
+    public Grid limitGrid( MutableGridState state )
+    {
+        return state.grid.limitGrid( state.rows / 10 );
+    }
+}
@@ -0,0 +1,216 @@
+package org.hisp.dhis.benchmark;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the free text query of the tracked entity instance grid
+ * against a PostgreSQL database. Compares matching query tokens on the joined
+ * attribute columns with matching them through a sub query on the lower cased
+ * attribute values, which the trigram index on {@code lower(value)} can serve.
+ * <p>
+ * Tables and indexes like those of DHIS 2 are created in a scratch schema,
+ * which is dropped after the run. The database is given with the {@code url},
+ * {@code username} and {@code password} parameters, and the user must be
+ * allowed to create the {@code pg_trgm} extension if it is not present.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class TrackedEntityAttributeSearchBenchmark
+{
+    private static final String SCHEMA = "benchmark_tei_search";
+
+    private static final String ANY_CHAR = "\\.*?";
+
+    @Param( "jdbc:postgresql://localhost/dhis2" )
+    private String url;
+
+    @Param( "dhis" )
+    private String username;
+
+    @Param( "dhis" )
+    private String password;
+
+    @Param( { "100000", "1000000" } )
+    private int teis;
+
+    @Param( { "ander", "ria ols" } )
+    private String query;
+
+    private Connection connection;
+
+    private String joinedColumnsSql;
+
+    private String subQuerySql;
+
+    @Setup
+    public void setUp()
+        throws SQLException
+    {
+        connection = DriverManager.getConnection( url, username, password );
+
+        execute( "create extension if not exists pg_trgm" );
+        execute( "drop schema if exists " + SCHEMA + " cascade" );
+        execute( "create schema " + SCHEMA );
+        execute( "set search_path to " + SCHEMA + ", public" );
+
+        execute( "create table organisationunit (organisationunitid bigint primary key, path varchar(255))" );
+        execute( "create table trackedentityinstance (trackedentityinstanceid bigint primary key, " +
+            "organisationunitid bigint not null, deleted boolean not null)" );
+        execute( "create table trackedentityattributevalue (trackedentityinstanceid bigint not null, " +
+            "trackedentityattributeid bigint not null, value varchar(50000), " +
+            "primary key (trackedentityinstanceid, trackedentityattributeid))" );
+
+        // Content is generated with a fixed seed so that every run measures
+        // identical data
+
+        execute( "select setseed(0.42)" );
+        execute( "insert into organisationunit select i, '/root/' || (i % 10) || '/' || i from generate_series(1, 1000) i" );
+        execute( "insert into trackedentityinstance select i, 1 + (i % 1000), false from generate_series(1, " + teis + ") i" );
+        execute( "insert into trackedentityattributevalue " +
+            "select i, 1, (array['Maria','Anders','Ingrid','Olav','Sofia','Amina','Juan','Kari','Lars','Nadia'])[1 + floor(random() * 10)::int] || ' ' || i " +
+            "from generate_series(1, " + teis + ") i" );
+        execute( "insert into trackedentityattributevalue " +
+            "select i, 2, (array['Hansen','Olsen','Andersen','Garcia','Okafor','Berg','Nilsen','Haugen','Moreno','Diallo'])[1 + floor(random() * 10)::int] " +
+            "from generate_series(1, " + teis + ") i" );
+        execute( "insert into trackedentityattributevalue " +
+            "select i, 3, 'Street ' || floor(random() * 10000)::int from generate_series(1, " + teis + ") i" );
+
+        execute( "create index in_organisationunit_path_pattern on organisationunit using btree (path varchar_pattern_ops)" );
+        execute( "create index in_trackedentity_attribute_value_trgm on trackedentityattributevalue using gin (lower(value) gin_trgm_ops)" );
+        execute( "analyze" );
+
+        String select = "select tei.trackedentityinstanceid from trackedentityinstance tei " +
+            "inner join organisationunit ou on tei.organisationunitid = ou.organisationunitid ";
+        String where = "where ou.path like '/root/%' and ";
+
+        StringBuilder joinedColumns = new StringBuilder( select );
+        StringBuilder joinedColumnsWhere = new StringBuilder( where );
+        StringBuilder subQueryWhere = new StringBuilder( where );
+
+        for ( int attribute = 1; attribute <= 3; attribute++ )
+        {
+            joinedColumns.append( "left join trackedentityattributevalue a" ).append( attribute )
+                .append( " on a" ).append( attribute ).append( ".trackedentityinstanceid = tei.trackedentityinstanceid" )
+                .append( " and a" ).append( attribute ).append( ".trackedentityattributeid = " ).append( attribute ).append( " " );
+        }
+
+        for ( String token : query.split( " " ) )
+        {
+            String pattern = "'" + ANY_CHAR + token.toLowerCase() + ANY_CHAR + "'";
+
+            joinedColumnsWhere.append( "(a1.value ~* " ).append( pattern ).append( " or a2.value ~* " ).append( pattern )
+                .append( " or a3.value ~* " ).append( pattern ).append( ") and " );
+
+            subQueryWhere.append( "tei.trackedentityinstanceid in (select teav.trackedentityinstanceid from trackedentityattributevalue teav " )
+                .append( "where teav.trackedentityattributeid in (1,2,3) and lower(teav.value) ~* " ).append( pattern ).append( ") and " );
+        }
+
+        String limit = "tei.deleted is false order by tei.trackedentityinstanceid limit 50";
+
+        joinedColumnsSql = joinedColumns.append( joinedColumnsWhere ).append( limit ).toString();
+        subQuerySql = select + subQueryWhere + limit;
+    }
+
+    @TearDown
+    public void tearDown()
+        throws SQLException
+    {
+        try
+        {
+            execute( "drop schema if exists " + SCHEMA + " cascade" );
+        }
+        finally
+        {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int joinedColumns()
+        throws SQLException
+    {
+        return count( joinedColumnsSql );
+    }
+
+    @Benchmark
+    public int subQuery()
+        throws SQLException
+    {
+        return count( subQuerySql );
+    }
+
+    private int count( String sql )
+        throws SQLException
+    {
+        int count = 0;
+
+        try ( Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery( sql ) )
+        {
+            while ( rs.next() )
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private void execute( String sql )
+        throws SQLException
+    {
+        try ( Statement statement = connection.createStatement() )
+        {
+            statement.execute( sql );
+        }
+    }
+}
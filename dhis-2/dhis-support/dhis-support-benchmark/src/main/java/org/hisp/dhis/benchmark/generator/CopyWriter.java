@@ -0,0 +1,167 @@
+package org.hisp.dhis.benchmark.generator;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+
+/**
+ * Writes rows to a table with the PostgreSQL {@code COPY FROM STDIN} command
+ * in text format. Rows are buffered and sent to the server in chunks.
+ * Values are written with {@link String#valueOf(Object)}, except null which
+ * is written as SQL null.
+ */
+public class CopyWriter
+    implements AutoCloseable
+{
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final CopyIn copyIn;
+
+    private final StringBuilder buffer = new StringBuilder( BUFFER_SIZE + 1024 );
+
+    private long rows = 0;
+
+    /**
+     * @param connection the connection, which must be a PostgreSQL connection.
+     * @param table the table name.
+     * @param columns the names of the columns of the rows, in order.
+     */
+    public CopyWriter( Connection connection, String table, String... columns )
+        throws SQLException
+    {
+        CopyManager copyManager = new CopyManager( connection.unwrap( BaseConnection.class ) );
+
+        this.copyIn = copyManager.copyIn( "copy " + table + " (" + String.join( ",", columns ) + ") from stdin" );
+    }
+
+    /**
+     * Writes a row with the given column values.
+     *
+     * @param values the values, in the order of the columns.
+     */
+    public void write( Object... values )
+        throws SQLException
+    {
+        appendRow( buffer, values );
+        rows++;
+
+        if ( buffer.length() >= BUFFER_SIZE )
+        {
+            flush();
+        }
+    }
+
+    public long getRows()
+    {
+        return rows;
+    }
+
+    @Override
+    public void close()
+        throws SQLException
+    {
+        flush();
+        copyIn.endCopy();
+    }
+
+    /**
+     * Appends a row with the given column values to the given buffer, in the
+     * text format of {@code COPY}. Columns are separated by tabs and the row
+     * ends with a newline. Backslashes, tabs, newlines and carriage returns in
+     * values are escaped with a backslash.
+     *
+     * @param buffer the buffer.
+     * @param values the values, in the order of the columns.
+     */
+    static void appendRow( StringBuilder buffer, Object... values )
+    {
+        for ( int i = 0; i < values.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                buffer.append( '\t' );
+            }
+
+            appendValue( buffer, values[i] );
+        }
+
+        buffer.append( '\n' );
+    }
+
+    private static void appendValue( StringBuilder buffer, Object value )
+    {
+        if ( value == null )
+        {
+            buffer.append( "\\N" );
+            return;
+        }
+
+        String text = String.valueOf( value );
+
+        for ( int i = 0; i < text.length(); i++ )
+        {
+            char c = text.charAt( i );
+
+            switch ( c )
+            {
+                case '\\':
+                    buffer.append( "\\\\" );
+                    break;
+                case '\t':
+                    buffer.append( "\\t" );
+                    break;
+                case '\n':
+                    buffer.append( "\\n" );
+                    break;
+                case '\r':
+                    buffer.append( "\\r" );
+                    break;
+                default:
+                    buffer.append( c );
+            }
+        }
+    }
+
+    private void flush()
+        throws SQLException
+    {
+        if ( buffer.length() > 0 )
+        {
+            byte[] bytes = buffer.toString().getBytes( StandardCharsets.UTF_8 );
+            copyIn.writeToCopy( bytes, 0, bytes.length );
+            buffer.setLength( 0 );
+        }
+    }
+}
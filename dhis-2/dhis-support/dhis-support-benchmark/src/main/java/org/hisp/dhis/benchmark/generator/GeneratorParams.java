@@ -0,0 +1,245 @@
+package org.hisp.dhis.benchmark.generator;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.StringJoiner;
+
+/**
+ * Parameters of the synthetic instance generator. Every parameter can be set
+ * on the command line as {@code --name=value}, where the name is the name of
+ * the field.
+ */
+public class GeneratorParams
+{
+    // -------------------------------------------------------------------------
+    // Database
+    // -------------------------------------------------------------------------
+
+    String url = "jdbc:postgresql://localhost/dhis2";
+
+    String username = "dhis";
+
+    String password = "dhis";
+
+    // -------------------------------------------------------------------------
+    // Generation
+    // -------------------------------------------------------------------------
+
+    /**
+     * Seed of the random generator. Runs with the same seed and parameters
+     * produce the same instance.
+     */
+    long seed = 42L;
+
+    /**
+     * Number of levels of the organisation unit hierarchy.
+     */
+    int orgUnitLevels = 5;
+
+    /**
+     * Number of children of each organisation unit which is not at the lowest
+     * level.
+     */
+    int orgUnitChildren = 6;
+
+    /**
+     * Number of aggregate data sets, all with monthly period type and assigned
+     * to all organisation units at the lowest level.
+     */
+    int dataSets = 4;
+
+    int dataElementsPerDataSet = 25;
+
+    /**
+     * Number of monthly periods with data, starting January of the start year.
+     */
+    int periods = 24;
+
+    int startYear = 2019;
+
+    /**
+     * Share of possible aggregate data values, for each data element, period
+     * and organisation unit, which get a value.
+     */
+    double dataValueDensity = 0.7;
+
+    /**
+     * Number of tracker programs, all with registration and assigned to all
+     * organisation units at the lowest level.
+     */
+    int programs = 2;
+
+    int stagesPerProgram = 2;
+
+    int dataElementsPerStage = 10;
+
+    int trackedEntityInstances = 100_000;
+
+    /**
+     * Number of programs each tracked entity instance is enrolled in, at most
+     * the number of programs.
+     */
+    int enrollmentsPerTei = 1;
+
+    int eventsPerEnrollment = 4;
+
+    /**
+     * Parses parameters from arguments of the form {@code --name=value}.
+     *
+     * @param args the arguments.
+     * @return the parameters.
+     * @throws IllegalArgumentException if an argument is not a known parameter
+     *         or its value is not valid.
+     */
+    public static GeneratorParams fromArgs( String... args )
+    {
+        GeneratorParams params = new GeneratorParams();
+
+        for ( String arg : args )
+        {
+            int split = arg.indexOf( '=' );
+
+            if ( !arg.startsWith( "--" ) || split < 0 )
+            {
+                throw new IllegalArgumentException( "Argument must be of the form --name=value: " + arg );
+            }
+
+            params.set( arg.substring( 2, split ), arg.substring( split + 1 ) );
+        }
+
+        params.validate();
+
+        return params;
+    }
+
+    private void set( String name, String value )
+    {
+        try
+        {
+            Field field = GeneratorParams.class.getDeclaredField( name );
+
+            if ( Modifier.isStatic( field.getModifiers() ) )
+            {
+                throw new NoSuchFieldException( name );
+            }
+
+            Class<?> type = field.getType();
+
+            if ( type == int.class )
+            {
+                field.setInt( this, Integer.parseInt( value.replace( "_", "" ) ) );
+            }
+            else if ( type == long.class )
+            {
+                field.setLong( this, Long.parseLong( value.replace( "_", "" ) ) );
+            }
+            else if ( type == double.class )
+            {
+                field.setDouble( this, Double.parseDouble( value ) );
+            }
+            else
+            {
+                field.set( this, value );
+            }
+        }
+        catch ( NoSuchFieldException ex )
+        {
+            throw new IllegalArgumentException( "Unknown parameter: " + name );
+        }
+        catch ( NumberFormatException ex )
+        {
+            throw new IllegalArgumentException( "Invalid value of parameter " + name + ": " + value );
+        }
+        catch ( IllegalAccessException ex )
+        {
+            throw new IllegalStateException( ex );
+        }
+    }
+
+    private void validate()
+    {
+        if ( orgUnitLevels < 1 || orgUnitChildren < 1 )
+        {
+            throw new IllegalArgumentException( "There must be at least one organisation unit level and child" );
+        }
+
+        if ( periods < 1 )
+        {
+            throw new IllegalArgumentException( "There must be at least one period" );
+        }
+
+        if ( dataValueDensity < 0 || dataValueDensity > 1 )
+        {
+            throw new IllegalArgumentException( "Data value density must be between 0 and 1" );
+        }
+
+        if ( enrollmentsPerTei > programs )
+        {
+            throw new IllegalArgumentException( "Enrollments per tracked entity instance cannot exceed the number of programs" );
+        }
+
+        if ( programs > 0 && stagesPerProgram < 1 )
+        {
+            throw new IllegalArgumentException( "Programs must have at least one stage" );
+        }
+    }
+
+    /**
+     * Returns the number of organisation units at the lowest level.
+     */
+    long getLeafOrgUnits()
+    {
+        return (long) Math.pow( orgUnitChildren, orgUnitLevels - 1 );
+    }
+
+    @Override
+    public String toString()
+    {
+        StringJoiner joiner = new StringJoiner( ", ", "[", "]" );
+
+        for ( Field field : GeneratorParams.class.getDeclaredFields() )
+        {
+            if ( !Modifier.isStatic( field.getModifiers() ) && !"password".equals( field.getName() ) )
+            {
+                try
+                {
+                    joiner.add( field.getName() + "=" + field.get( this ) );
+                }
+                catch ( IllegalAccessException ex )
+                {
+                    throw new IllegalStateException( ex );
+                }
+            }
+        }
+
+        return joiner.toString();
+    }
+}
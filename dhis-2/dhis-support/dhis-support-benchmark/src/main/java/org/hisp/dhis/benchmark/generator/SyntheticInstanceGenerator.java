@@ -0,0 +1,682 @@
+package org.hisp.dhis.benchmark.generator;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.hisp.dhis.common.CodeGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates a large synthetic instance directly into the PostgreSQL database
+ * of a DHIS 2 instance, for load and scale testing. The generated instance
+ * has:
+ * <ul>
+ * <li>An organisation unit hierarchy with a configurable number of levels and
+ * children per organisation unit.</li>
+ * <li>Monthly aggregate data sets with data elements, assigned to the lowest
+ * level, with data values for a configurable share of data elements, periods
+ * and organisation units.</li>
+ * <li>Tracker programs with stages and data elements, with tracked entity
+ * instances, enrollments and events with data values.</li>
+ * </ul>
+ * Rows are written with {@code COPY} in a single transaction. The database
+ * must have been initialized by starting DHIS 2 on it once, and must not
+ * contain an instance from an earlier run, which is checked before writing.
+ * The content generated from a given seed and parameters is identical, only
+ * the database identifiers depend on the state of the sequence.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar org.hisp.dhis.benchmark.generator.SyntheticInstanceGenerator --name=value ...},
+ * see {@link GeneratorParams} for parameters.
+ */
+public class SyntheticInstanceGenerator
+{
+    private static final Logger log = LoggerFactory.getLogger( SyntheticInstanceGenerator.class );
+
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern( "yyyy-MM-dd HH:mm:ss" );
+
+    private static final DateTimeFormatter JSON_DATE_TIME_FORMAT = DateTimeFormatter.ofPattern( "yyyy-MM-dd'T'HH:mm:ss.SSS" );
+
+    private static final String PREFIX = "Synthetic";
+
+    private static final String STORED_BY = "generator";
+
+    private static final String PUBLIC_ACCESS = "rwrw----";
+
+    private final GeneratorParams params;
+
+    private final Connection connection;
+
+    private final Random random;
+
+    private final String created;
+
+    private long defaultCategoryComboId;
+
+    private long defaultCategoryOptionComboId;
+
+    private long monthlyPeriodTypeId;
+
+    private long[] leafIds;
+
+    private long[] periodIds;
+
+    public SyntheticInstanceGenerator( GeneratorParams params, Connection connection )
+    {
+        this.params = params;
+        this.connection = connection;
+        this.random = new Random( params.seed );
+        this.created = LocalDate.of( params.startYear, 1, 1 ).atStartOfDay().format( DATE_TIME_FORMAT );
+    }
+
+    public static void main( String[] args )
+        throws SQLException
+    {
+        GeneratorParams params = GeneratorParams.fromArgs( args );
+
+        // The shaded log configuration only logs warnings of DHIS 2 classes
+
+        Configurator.setLevel( SyntheticInstanceGenerator.class.getName(), Level.INFO );
+
+        try ( Connection connection = DriverManager.getConnection( params.url, params.username, params.password ) )
+        {
+            new SyntheticInstanceGenerator( params, connection ).generate();
+        }
+    }
+
+    public void generate()
+        throws SQLException
+    {
+        long start = System.nanoTime();
+
+        log.info( "Generating synthetic instance with parameters " + params );
+
+        defaultCategoryComboId = queryId( "select categorycomboid from categorycombo where name = 'default'" );
+        defaultCategoryOptionComboId = queryId( "select categoryoptioncomboid from categoryoptioncombo where name = 'default'" );
+        monthlyPeriodTypeId = queryId( "select periodtypeid from periodtype where name = 'Monthly'" );
+
+        checkNotGenerated();
+
+        connection.setAutoCommit( false );
+
+        try
+        {
+            generateOrganisationUnits();
+            generatePeriods();
+            generateAggregateData();
+            generateTrackerData();
+
+            log.info( "Committing" );
+            connection.commit();
+        }
+        catch ( SQLException | RuntimeException e )
+        {
+            connection.rollback();
+            throw e;
+        }
+        finally
+        {
+            connection.setAutoCommit( true );
+        }
+
+        log.info( "Analyzing tables" );
+        execute( "analyze" );
+
+        log.info( String.format( "Done in %d s. Run resource table and analytics table generation to use the instance for analytics.",
+            TimeUnit.NANOSECONDS.toSeconds( System.nanoTime() - start ) ) );
+    }
+
+    /**
+     * Fails if the root organisation unit of the instance exists, which is
+     * the first object generated from the seed. Codes do not depend on the
+     * seed, so this also detects instances generated from other seeds.
+     */
+    private void checkNotGenerated()
+        throws SQLException
+    {
+        String rootUid = CodeGenerator.generateUid( new Random( params.seed ) );
+        String rootCode = orgUnitCode( 0 );
+
+        if ( queryId( "select count(*) from organisationunit where uid = ? or code = ?", rootUid, rootCode ) > 0 )
+        {
+            throw new IllegalStateException( "Organisation unit with uid " + rootUid + " or code " + rootCode +
+                " exists, the database already contains a generated instance" );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Organisation units
+    // -------------------------------------------------------------------------
+
+    private void generateOrganisationUnits()
+        throws SQLException
+    {
+        long total = 0;
+
+        for ( int level = 0; level < params.orgUnitLevels; level++ )
+        {
+            total += (long) Math.pow( params.orgUnitChildren, level );
+        }
+
+        long id = reserveIds( total + params.orgUnitLevels );
+        int index = 0;
+
+        long[] parentIds = { 0 };
+        String[] parentPaths = { "" };
+        String[] parentNames = { "" };
+
+        try ( CopyWriter writer = new CopyWriter( connection, "organisationunit", "organisationunitid", "uid", "code",
+            "created", "lastupdated", "name", "shortname", "parentid", "path", "hierarchylevel", "openingdate" ) )
+        {
+            for ( int level = 1; level <= params.orgUnitLevels; level++ )
+            {
+                int children = level == 1 ? 1 : params.orgUnitChildren;
+                int size = parentIds.length * children;
+
+                long[] ids = new long[size];
+                String[] paths = new String[size];
+                String[] names = new String[size];
+
+                for ( int p = 0; p < parentIds.length; p++ )
+                {
+                    for ( int c = 0; c < children; c++ )
+                    {
+                        int i = p * children + c;
+                        String uid = uid();
+
+                        ids[i] = id++;
+                        paths[i] = parentPaths[p] + "/" + uid;
+                        names[i] = level == 1 ? PREFIX : parentNames[p] + ( level == 2 ? " " : "." ) + ( c + 1 );
+
+                        writer.write( ids[i], uid, orgUnitCode( index++ ), created, created, names[i], names[i],
+                            level == 1 ? null : parentIds[p], paths[i], level, created );
+                    }
+                }
+
+                parentIds = ids;
+                parentPaths = paths;
+                parentNames = names;
+            }
+
+            log.info( "Generated " + writer.getRows() + " organisation units" );
+        }
+
+        leafIds = parentIds;
+
+        for ( int level = 1; level <= params.orgUnitLevels; level++ )
+        {
+            update( "insert into orgunitlevel (orgunitlevelid, uid, created, lastupdated, name, level) " +
+                "select ?, ?, now(), now(), ?, ? where not exists (select 1 from orgunitlevel where level = ?)",
+                id++, uid(), "Level " + level, level, level );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Periods
+    // -------------------------------------------------------------------------
+
+    private void generatePeriods()
+        throws SQLException
+    {
+        periodIds = new long[params.periods];
+
+        for ( int i = 0; i < params.periods; i++ )
+        {
+            LocalDate startDate = LocalDate.of( params.startYear, 1, 1 ).plusMonths( i );
+            LocalDate endDate = startDate.plusMonths( 1 ).minusDays( 1 );
+
+            update( "insert into period (periodid, periodtypeid, startdate, enddate) " +
+                "select nextval('hibernate_sequence'), ?, ?, ? " +
+                "where not exists (select 1 from period where periodtypeid = ? and startdate = ? and enddate = ?)",
+                monthlyPeriodTypeId, startDate, endDate, monthlyPeriodTypeId, startDate, endDate );
+
+            periodIds[i] = queryId( "select periodid from period where periodtypeid = ? and startdate = ? and enddate = ?",
+                monthlyPeriodTypeId, startDate, endDate );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Aggregate data
+    // -------------------------------------------------------------------------
+
+    private void generateAggregateData()
+        throws SQLException
+    {
+        if ( params.dataSets == 0 )
+        {
+            return;
+        }
+
+        int dataElementCount = params.dataSets * params.dataElementsPerDataSet;
+
+        long dataElementId = generateDataElements( dataElementCount, "AGGREGATE" );
+        long dataSetId = reserveIds( params.dataSets + dataElementCount );
+        long dataSetElementId = dataSetId + params.dataSets;
+
+        try ( CopyWriter writer = new CopyWriter( connection, "dataset", "datasetid", "uid", "code", "created",
+            "lastupdated", "name", "shortname", "periodtypeid", "categorycomboid", "mobile", "version", "expirydays",
+            "timelydays", "openfutureperiods", "openperiodsaftercoenddate", "notifycompletinguser",
+            "fieldcombinationrequired", "validcompleteonly", "novaluerequirescomment", "skipoffline",
+            "dataelementdecoration", "renderastabs", "renderhorizontally", "compulsoryfieldscompleteonly",
+            "publicaccess" ) )
+        {
+            for ( int d = 0; d < params.dataSets; d++ )
+            {
+                String name = PREFIX + " data set " + ( d + 1 );
+
+                writer.write( dataSetId + d, uid(), "SYN_DS_" + ( d + 1 ), created, created, name, name,
+                    monthlyPeriodTypeId, defaultCategoryComboId, false, 1, 0, 15, 0, 0, false, false, false, false,
+                    false, false, false, false, false, PUBLIC_ACCESS );
+            }
+        }
+
+        try ( CopyWriter writer = new CopyWriter( connection, "datasetelement", "datasetelementid", "datasetid",
+            "dataelementid" ) )
+        {
+            for ( int i = 0; i < dataElementCount; i++ )
+            {
+                writer.write( dataSetElementId + i, dataSetId + i / params.dataElementsPerDataSet, dataElementId + i );
+            }
+        }
+
+        try ( CopyWriter writer = new CopyWriter( connection, "datasetsource", "datasetid", "sourceid" ) )
+        {
+            for ( int d = 0; d < params.dataSets; d++ )
+            {
+                for ( long leafId : leafIds )
+                {
+                    writer.write( dataSetId + d, leafId );
+                }
+            }
+        }
+
+        log.info( "Generated " + params.dataSets + " data sets with " + dataElementCount + " data elements" );
+
+        try ( CopyWriter writer = new CopyWriter( connection, "datavalue", "dataelementid", "periodid", "sourceid",
+            "categoryoptioncomboid", "attributeoptioncomboid", "value", "storedby", "created", "lastupdated",
+            "followup", "deleted" ) )
+        {
+            for ( int p = 0; p < periodIds.length; p++ )
+            {
+                String lastUpdated = LocalDate.of( params.startYear, 1, 1 ).plusMonths( p + 1 ).atStartOfDay()
+                    .format( DATE_TIME_FORMAT );
+
+                for ( long leafId : leafIds )
+                {
+                    for ( int i = 0; i < dataElementCount; i++ )
+                    {
+                        if ( random.nextDouble() < params.dataValueDensity )
+                        {
+                            writer.write( dataElementId + i, periodIds[p], leafId, defaultCategoryOptionComboId,
+                                defaultCategoryOptionComboId, random.nextInt( 1000 ), STORED_BY, lastUpdated,
+                                lastUpdated, false, false );
+                        }
+                    }
+                }
+
+                log.info( "Generated data values for period " + ( p + 1 ) + " of " + periodIds.length + ", total " +
+                    writer.getRows() );
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Tracker data
+    // -------------------------------------------------------------------------
+
+    private void generateTrackerData()
+        throws SQLException
+    {
+        if ( params.programs == 0 )
+        {
+            return;
+        }
+
+        int stageCount = params.programs * params.stagesPerProgram;
+        int dataElementCount = stageCount * params.dataElementsPerStage;
+
+        long dataElementId = generateDataElements( dataElementCount, "TRACKER" );
+        String[] dataElementUids = queryUids( "dataelement", "dataelementid", dataElementId, dataElementCount );
+
+        long trackedEntityTypeId = reserveIds( 1 + params.programs + stageCount + dataElementCount );
+        long programId = trackedEntityTypeId + 1;
+        long stageId = programId + params.programs;
+        long stageDataElementId = stageId + stageCount;
+
+        update( "insert into trackedentitytype (trackedentitytypeid, uid, code, created, lastupdated, name, " +
+            "allowauditlog, publicaccess) values (?, ?, ?, now(), now(), ?, false, ?)",
+            trackedEntityTypeId, uid(), "SYN_TET", PREFIX + " person", PUBLIC_ACCESS );
+
+        try ( CopyWriter writer = new CopyWriter( connection, "program", "programid", "uid", "code", "created",
+            "lastupdated", "name", "shortname", "version", "type", "displayincidentdate", "onlyenrollonce",
+            "skipoffline", "displayfrontpagelist", "usefirststageduringregistration", "expirydays",
+            "completeeventsexpirydays", "minattributesrequiredtosearch", "maxteicounttoreturn", "accesslevel",
+            "ignoreoverdueevents", "selectenrollmentdatesinfuture", "selectincidentdatesinfuture", "categorycomboid",
+            "trackedentitytypeid", "publicaccess" ) )
+        {
+            for ( int p = 0; p < params.programs; p++ )
+            {
+                String name = PREFIX + " program " + ( p + 1 );
+
+                writer.write( programId + p, uid(), "SYN_PR_" + ( p + 1 ), created, created, name, name, 1,
+                    "WITH_REGISTRATION", true, false, false, false, false, 0, 0, 1, 0, "OPEN", false, false, false,
+                    defaultCategoryComboId, trackedEntityTypeId, PUBLIC_ACCESS );
+            }
+        }
+
+        try ( CopyWriter writer = new CopyWriter( connection, "programstage", "programstageid", "uid", "created",
+            "lastupdated", "name", "mindaysfromstart", "programid", "repeatable", "autogenerateevent",
+            "displaygenerateeventbox", "generatedbyenrollmentdate", "blockentryform", "remindcompleted",
+            "allowgeneratenextvisit", "openafterenrollment", "pregenerateuid", "hideduedate", "sort_order",
+            "validationstrategy", "enableuserassignment", "publicaccess" ) )
+        {
+            for ( int s = 0; s < stageCount; s++ )
+            {
+                writer.write( stageId + s, uid(), created, created,
+                    PREFIX + " program " + ( s / params.stagesPerProgram + 1 ) + " stage " + ( s % params.stagesPerProgram + 1 ),
+                    0, programId + s / params.stagesPerProgram, true, false, true, false, false, false, false, false,
+                    false, false, s % params.stagesPerProgram + 1, "ON_COMPLETE", false, PUBLIC_ACCESS );
+            }
+        }
+
+        try ( CopyWriter writer = new CopyWriter( connection, "programstagedataelement", "programstagedataelementid",
+            "uid", "created", "lastupdated", "programstageid", "dataelementid", "compulsory", "allowprovidedelsewhere",
+            "sort_order", "displayinreports", "allowfuturedate", "renderoptionsasradio", "skipsynchronization" ) )
+        {
+            for ( int i = 0; i < dataElementCount; i++ )
+            {
+                writer.write( stageDataElementId + i, uid(), created, created, stageId + i / params.dataElementsPerStage,
+                    dataElementId + i, false, false, i % params.dataElementsPerStage + 1, true, false, false, false );
+            }
+        }
+
+        try ( CopyWriter writer = new CopyWriter( connection, "program_organisationunits", "programid",
+            "organisationunitid" ) )
+        {
+            for ( int p = 0; p < params.programs; p++ )
+            {
+                for ( long leafId : leafIds )
+                {
+                    writer.write( programId + p, leafId );
+                }
+            }
+        }
+
+        log.info( "Generated " + params.programs + " programs with " + stageCount + " stages and " + dataElementCount +
+            " data elements" );
+
+        long teiId = reserveIds( params.trackedEntityInstances );
+        int[] teiOrgUnits = generateTrackedEntityInstances( teiId, trackedEntityTypeId );
+
+        generateEnrollmentsAndEvents( teiId, teiOrgUnits, programId, stageId, dataElementUids );
+    }
+
+    /**
+     * Generates tracked entity instances and returns the index of the
+     * organisation unit of each in the lowest level organisation units.
+     */
+    private int[] generateTrackedEntityInstances( long teiId, long trackedEntityTypeId )
+        throws SQLException
+    {
+        int[] teiOrgUnits = new int[params.trackedEntityInstances];
+
+        try ( CopyWriter writer = new CopyWriter( connection, "trackedentityinstance", "trackedentityinstanceid",
+            "uid", "created", "lastupdated", "createdatclient", "lastupdatedatclient", "inactive", "deleted",
+            "storedby", "organisationunitid", "trackedentitytypeid" ) )
+        {
+            for ( int t = 0; t < params.trackedEntityInstances; t++ )
+            {
+                teiOrgUnits[t] = random.nextInt( leafIds.length );
+
+                writer.write( teiId + t, uid(), created, created, created, created, false, false, STORED_BY,
+                    leafIds[teiOrgUnits[t]], trackedEntityTypeId );
+            }
+
+            log.info( "Generated " + writer.getRows() + " tracked entity instances" );
+        }
+
+        return teiOrgUnits;
+    }
+
+    private void generateEnrollmentsAndEvents( long teiId, int[] teiOrgUnits, long programId, long stageId,
+        String[] dataElementUids )
+        throws SQLException
+    {
+        int enrollmentCount = params.trackedEntityInstances * params.enrollmentsPerTei;
+        long enrollmentId = reserveIds( enrollmentCount );
+
+        int[] enrollmentPrograms = new int[enrollmentCount];
+        LocalDate[] enrollmentDates = new LocalDate[enrollmentCount];
+
+        int days = (int) ( LocalDate.of( params.startYear, 1, 1 ).plusMonths( params.periods ).toEpochDay() -
+            LocalDate.of( params.startYear, 1, 1 ).toEpochDay() );
+
+        try ( CopyWriter writer = new CopyWriter( connection, "programinstance", "programinstanceid", "uid",
+            "created", "lastupdated", "createdatclient", "lastupdatedatclient", "incidentdate", "enrollmentdate",
+            "followup", "deleted", "storedby", "status", "trackedentityinstanceid", "programid",
+            "organisationunitid" ) )
+        {
+            for ( int t = 0; t < params.trackedEntityInstances; t++ )
+            {
+                int firstProgram = random.nextInt( params.programs );
+
+                for ( int e = 0; e < params.enrollmentsPerTei; e++ )
+                {
+                    int i = t * params.enrollmentsPerTei + e;
+
+                    enrollmentPrograms[i] = ( firstProgram + e ) % params.programs;
+                    enrollmentDates[i] = LocalDate.of( params.startYear, 1, 1 ).plusDays( random.nextInt( days ) );
+
+                    String enrollmentDate = enrollmentDates[i].atStartOfDay().format( DATE_TIME_FORMAT );
+
+                    writer.write( enrollmentId + i, uid(), enrollmentDate, enrollmentDate, enrollmentDate,
+                        enrollmentDate, enrollmentDate, enrollmentDate, false, false, STORED_BY, "ACTIVE", teiId + t,
+                        programId + enrollmentPrograms[i], leafIds[teiOrgUnits[t]] );
+                }
+            }
+
+            log.info( "Generated " + writer.getRows() + " enrollments" );
+        }
+
+        long eventId = reserveIds( (long) enrollmentCount * params.eventsPerEnrollment );
+
+        try ( CopyWriter writer = new CopyWriter( connection, "programstageinstance", "programstageinstanceid", "uid",
+            "created", "lastupdated", "createdatclient", "lastupdatedatclient", "programinstanceid", "programstageid",
+            "attributeoptioncomboid", "deleted", "storedby", "duedate", "executiondate", "organisationunitid",
+            "status", "completedby", "completeddate", "eventdatavalues" ) )
+        {
+            for ( int i = 0; i < enrollmentCount; i++ )
+            {
+                for ( int v = 0; v < params.eventsPerEnrollment; v++ )
+                {
+                    int stage = enrollmentPrograms[i] * params.stagesPerProgram + v % params.stagesPerProgram;
+                    LocalDateTime executionDate = enrollmentDates[i].plusDays( 30L * v ).atTime( 12, 0 );
+                    String date = executionDate.format( DATE_TIME_FORMAT );
+
+                    writer.write( eventId++, uid(), date, date, date, date, enrollmentId + i, stageId + stage,
+                        defaultCategoryOptionComboId, false, STORED_BY, date, date,
+                        leafIds[teiOrgUnits[i / params.enrollmentsPerTei]], "COMPLETED", STORED_BY, date,
+                        eventDataValues( dataElementUids, stage, executionDate ) );
+                }
+            }
+
+            log.info( "Generated " + writer.getRows() + " events" );
+        }
+    }
+
+    private String eventDataValues( String[] dataElementUids, int stage, LocalDateTime executionDate )
+    {
+        String date = executionDate.format( JSON_DATE_TIME_FORMAT );
+        StringJoiner json = new StringJoiner( ",", "{", "}" );
+
+        for ( int d = 0; d < params.dataElementsPerStage; d++ )
+        {
+            json.add( "\"" + dataElementUids[stage * params.dataElementsPerStage + d] + "\":{\"value\":\"" +
+                random.nextInt( 100 ) + "\",\"created\":\"" + date + "\",\"lastUpdated\":\"" + date +
+                "\",\"storedBy\":\"" + STORED_BY + "\",\"providedElsewhere\":false}" );
+        }
+
+        return json.toString();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Generates data elements of the given domain type with the default
+     * category combination and returns the identifier of the first.
+     */
+    private long generateDataElements( int count, String domainType )
+        throws SQLException
+    {
+        long firstId = reserveIds( count );
+        String label = domainType.substring( 0, 1 ) + domainType.substring( 1 ).toLowerCase();
+
+        try ( CopyWriter writer = new CopyWriter( connection, "dataelement", "dataelementid", "uid", "code",
+            "created", "lastupdated", "name", "shortname", "valuetype", "domaintype", "aggregationtype",
+            "categorycomboid", "zeroissignificant", "publicaccess" ) )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                long id = firstId + i;
+
+                writer.write( id, uid(), "SYN_DE_" + domainType.charAt( 0 ) + "_" + ( i + 1 ), created, created, PREFIX + " " + label + " " + ( i + 1 ),
+                    "SYN " + label + " " + ( i + 1 ), "INTEGER", domainType, "SUM", defaultCategoryComboId, false,
+                    PUBLIC_ACCESS );
+            }
+        }
+
+        return firstId;
+    }
+
+    /**
+     * Reserves the given number of identifiers from the Hibernate sequence
+     * and returns the first.
+     */
+    private long reserveIds( long count )
+        throws SQLException
+    {
+        return queryId( "select setval('hibernate_sequence', nextval('hibernate_sequence') + ?)", count ) - count;
+    }
+
+    /**
+     * Returns a UID from the seeded random generator.
+     */
+    private String uid()
+    {
+        return CodeGenerator.generateUid( random );
+    }
+
+    /**
+     * Returns the code of the organisation unit with the given index in the
+     * order of generation, starting with the root at 0.
+     */
+    private static String orgUnitCode( int index )
+    {
+        return "SYN_OU_" + ( index + 1 );
+    }
+
+    private String[] queryUids( String table, String idColumn, long firstId, int count )
+        throws SQLException
+    {
+        String[] uids = new String[count];
+
+        try ( PreparedStatement statement = prepare( "select " + idColumn + ", uid from " + table + " where " +
+            idColumn + " between ? and ?", firstId, firstId + count - 1 );
+            ResultSet rs = statement.executeQuery() )
+        {
+            while ( rs.next() )
+            {
+                uids[(int) ( rs.getLong( 1 ) - firstId )] = rs.getString( 2 );
+            }
+        }
+
+        return uids;
+    }
+
+    private long queryId( String sql, Object... args )
+        throws SQLException
+    {
+        try ( PreparedStatement statement = prepare( sql, args ); ResultSet rs = statement.executeQuery() )
+        {
+            if ( !rs.next() || rs.getObject( 1 ) == null )
+            {
+                throw new IllegalStateException( "No result of query, make sure DHIS 2 has been started on the database: " + sql );
+            }
+
+            return rs.getLong( 1 );
+        }
+    }
+
+    private void update( String sql, Object... args )
+        throws SQLException
+    {
+        try ( PreparedStatement statement = prepare( sql, args ) )
+        {
+            statement.executeUpdate();
+        }
+    }
+
+    private void execute( String sql )
+        throws SQLException
+    {
+        try ( Statement statement = connection.createStatement() )
+        {
+            statement.execute( sql );
+        }
+    }
+
+    private PreparedStatement prepare( String sql, Object... args )
+        throws SQLException
+    {
+        PreparedStatement statement = connection.prepareStatement( sql );
+
+        for ( int i = 0; i < args.length; i++ )
+        {
+            statement.setObject( i + 1, args[i] );
+        }
+
+        return statement;
+    }
+}
@@ -0,0 +1,143 @@
+package org.hisp.dhis.benchmark.generator;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GeneratorParamsTest
+{
+    @Test
+    public void testDefaults()
+    {
+        GeneratorParams params = GeneratorParams.fromArgs();
+
+        assertEquals( 42L, params.seed );
+        assertEquals( 5, params.orgUnitLevels );
+        assertEquals( 6, params.orgUnitChildren );
+        assertEquals( 1296L, params.getLeafOrgUnits() );
+    }
+
+    @Test
+    public void testParseValues()
+    {
+        GeneratorParams params = GeneratorParams.fromArgs( "--url=jdbc:postgresql://db/dhis2?ssl=true",
+            "--seed=1_000", "--trackedEntityInstances=2_500_000", "--dataValueDensity=0.25", "--orgUnitLevels=3" );
+
+        assertEquals( "jdbc:postgresql://db/dhis2?ssl=true", params.url );
+        assertEquals( 1000L, params.seed );
+        assertEquals( 2_500_000, params.trackedEntityInstances );
+        assertEquals( 0.25, params.dataValueDensity, 0 );
+        assertEquals( 3, params.orgUnitLevels );
+        assertEquals( 36L, params.getLeafOrgUnits() );
+    }
+
+    @Test
+    public void testParseEmptyValue()
+    {
+        assertEquals( "", GeneratorParams.fromArgs( "--password=" ).password );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testUnknownParameter()
+    {
+        GeneratorParams.fromArgs( "--dataValues=10" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testMissingPrefix()
+    {
+        GeneratorParams.fromArgs( "seed=10" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testMissingValue()
+    {
+        GeneratorParams.fromArgs( "--seed" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testInvalidNumber()
+    {
+        GeneratorParams.fromArgs( "--periods=twelve" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testInvalidOrgUnitLevels()
+    {
+        GeneratorParams.fromArgs( "--orgUnitLevels=0" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testInvalidPeriods()
+    {
+        GeneratorParams.fromArgs( "--periods=0" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testInvalidDensity()
+    {
+        GeneratorParams.fromArgs( "--dataValueDensity=1.5" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testEnrollmentsExceedPrograms()
+    {
+        GeneratorParams.fromArgs( "--programs=1", "--enrollmentsPerTei=2" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void testProgramsWithoutStages()
+    {
+        GeneratorParams.fromArgs( "--stagesPerProgram=0" );
+    }
+
+    @Test
+    public void testNoProgramsWithoutStages()
+    {
+        GeneratorParams params = GeneratorParams.fromArgs( "--programs=0", "--enrollmentsPerTei=0",
+            "--stagesPerProgram=0" );
+
+        assertEquals( 0, params.programs );
+    }
+
+    @Test
+    public void testToStringOmitsPassword()
+    {
+        String text = GeneratorParams.fromArgs( "--password=secret", "--seed=7" ).toString();
+
+        assertTrue( text.contains( "seed=7" ) );
+        assertTrue( text.contains( "username=dhis" ) );
+        assertFalse( text.contains( "password" ) );
+        assertFalse( text.contains( "secret" ) );
+    }
+}
@@ -0,0 +1,85 @@
+package org.hisp.dhis.db.migration.v35;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds a trigram index on the lower cased tracked entity attribute values
+ * which makes substring and regular expression searches on attribute values
+ * index backed, and a pattern index on the organisation unit path which makes
+ * descendant scoping through path prefix matching index backed. The indexes
+ * are built concurrently, outside of a transaction, so that writes to the
+ * tables are not blocked while the upgrade runs.
+ */
+public class V2_35_22__Add_teav_trigram_index
+    extends BaseJavaMigration
+{
+    private static final Logger log = LoggerFactory.getLogger( V2_35_22__Add_teav_trigram_index.class );
+
+    @Override
+    public void migrate( Context context )
+    {
+        try ( Statement statement = context.getConnection().createStatement() )
+        {
+            statement.execute( "create index concurrently if not exists in_organisationunit_path_pattern on organisationunit using btree (path varchar_pattern_ops)" );
+        }
+        catch ( SQLException e )
+        {
+            log.warn( String.format( "Could not create path pattern index on table 'organisationunit'. Error message was: %s", e.getMessage() ) );
+        }
+
+        try ( Statement statement = context.getConnection().createStatement() )
+        {
+            statement.execute( "create extension if not exists pg_trgm" );
+            statement.execute(
+                "create index concurrently if not exists in_trackedentity_attribute_value_trgm on trackedentityattributevalue using gin (lower(value) gin_trgm_ops)" );
+        }
+        catch ( SQLException e )
+        {
+            String message = "Could not create trigram index on table 'trackedentityattributevalue'. " +
+                "Execute \"create extension pg_trgm;\" as a superuser to enable index backed attribute search. " +
+                String.format( "Error message was: %s", e.getMessage() );
+
+            log.warn( message );
+        }
+    }
+
+    @Override
+    public boolean canExecuteInTransaction()
+    {
+        return false;
+    }
+}
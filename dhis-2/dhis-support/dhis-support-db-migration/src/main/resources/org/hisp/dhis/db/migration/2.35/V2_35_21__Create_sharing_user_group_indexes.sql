@@ -0,0 +1,5 @@
+-- Creates index for looking up the user groups of a user, the primary key leads with usergroupid
+CREATE INDEX IF NOT EXISTS in_usergroupmembers_userid ON usergroupmembers(userid, usergroupid);
+
+-- Creates covering index for matching user group accesses on user group in sharing queries
+CREATE INDEX IF NOT EXISTS in_usergroupaccess_usergroupid ON usergroupaccess(usergroupid, access);
@@ -0,0 +1,19 @@
+-- Creates the cluster wide job queue from which any node can claim scheduled jobs
+CREATE TABLE IF NOT EXISTS jobqueue (
+    jobqueueid BIGINT NOT NULL PRIMARY KEY,
+    jobconfigurationuid CHARACTER VARYING(11) NOT NULL,
+    jobtype CHARACTER VARYING(120) NOT NULL,
+    status CHARACTER VARYING(20) NOT NULL,
+    nodeid CHARACTER VARYING(255),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    claimed TIMESTAMP WITHOUT TIME ZONE,
+    heartbeat TIMESTAMP WITHOUT TIME ZONE,
+    finished TIMESTAMP WITHOUT TIME ZONE
+);
+
+-- Allows at most one queued or running entry per job configuration
+CREATE UNIQUE INDEX IF NOT EXISTS in_jobqueue_active_jobconfigurationuid ON jobqueue(jobconfigurationuid) WHERE status IN ('QUEUED', 'RUNNING');
+
+-- Supports claiming the oldest queued entry and detecting stale running entries
+CREATE INDEX IF NOT EXISTS in_jobqueue_status_created ON jobqueue(status, created);
@@ -0,0 +1,2 @@
+-- Adds flag for precomputing program indicator values in the analytics tables
+ALTER TABLE programindicator ADD COLUMN IF NOT EXISTS materialized BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,8 @@
+-- Allows file resources with identical content to share stored content
+ALTER TABLE fileresource DROP CONSTRAINT IF EXISTS uk_jxqj907hbrng860p6mypvl63k;
+
+-- Creates index for reference counting of shared stored content
+CREATE INDEX IF NOT EXISTS in_fileresource_storagekey ON fileresource(storagekey);
+
+-- Creates index for looking up stored content by hash
+CREATE INDEX IF NOT EXISTS in_fileresource_contentmd5 ON fileresource(contentmd5);
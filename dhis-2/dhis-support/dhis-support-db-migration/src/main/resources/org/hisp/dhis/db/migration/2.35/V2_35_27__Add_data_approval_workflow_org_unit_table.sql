@@ -0,0 +1,20 @@
+-- Creates table of org units at or above the data set sources of each data approval workflow
+CREATE TABLE IF NOT EXISTS dataapprovalworkfloworgunit (
+    workflowid BIGINT NOT NULL,
+    organisationunitid BIGINT NOT NULL
+);
+
+-- Creates index for looking up workflow org units in data approval status queries
+CREATE INDEX IF NOT EXISTS in_dataapprovalworkfloworgunit ON dataapprovalworkfloworgunit(workflowid, organisationunitid);
+
+-- Populates table from the ancestors in the path of each data set source
+DELETE FROM dataapprovalworkfloworgunit;
+
+INSERT INTO dataapprovalworkfloworgunit (workflowid, organisationunitid)
+SELECT DISTINCT ds.workflowid, o.organisationunitid
+FROM datasetsource dss
+JOIN dataset ds ON ds.datasetid = dss.datasetid
+JOIN organisationunit child ON child.organisationunitid = dss.sourceid
+CROSS JOIN LATERAL unnest(string_to_array(trim(LEADING '/' FROM child.path), '/')) AS p(uid)
+JOIN organisationunit o ON o.uid = p.uid
+WHERE ds.workflowid IS NOT NULL;
@@ -33,6 +33,8 @@ import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.springframework.data.redis.core.RedisTemplate;
 
+import io.micrometer.core.instrument.Metrics;
+
 /**
  * A Builder class that helps in building Cache instances. Sensible defaults are
  * in place which can be modified with a fluent builder api.
@@ -85,12 +87,27 @@ public class ExtendedCacheBuilder<V> extends SimpleCacheBuilder<V>
      * will not share any state. However, when using Redis Cache, every instance
      * created using this method will use the same redis store.
      * 
+     * When application monitoring is enabled, the instance is wrapped in a
+     * {@link MeteredCache} reporting to the global meter registry.
+     *
      * @return A cache instance based on the system configuration and input
      *         parameters. Returns one of {@link RedisCache}, {@link LocalCache}
-     *         or {@link NoOpCache}
+     *         or {@link NoOpCache}, possibly wrapped in a {@link MeteredCache}
      */
     @Override
     public Cache<V> build()
+    {
+        Cache<V> cache = buildCache();
+
+        if ( configurationProvider.isEnabled( ConfigurationKey.MONITORING_APPLICATION_ENABLED ) )
+        {
+            return new MeteredCache<>( cache, getRegion(), Metrics.globalRegistry );
+        }
+
+        return cache;
+    }
+
+    private Cache<V> buildCache()
     {
         if ( getMaximumSize() == 0 || isDisabled() )
         {
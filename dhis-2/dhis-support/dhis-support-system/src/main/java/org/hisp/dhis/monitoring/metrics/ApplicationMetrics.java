@@ -0,0 +1,129 @@
+package org.hisp.dhis.monitoring.metrics;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meter names and utility methods for the instrumentation of application hot
+ * paths. Meters are registered with the global Micrometer registry, which is
+ * bound to the Prometheus registry by {@link ApplicationMetricsConfig} when
+ * {@code monitoring.application.enabled} is on. Otherwise recording is a
+ * no-op.
+ */
+public final class ApplicationMetrics
+{
+    public static final String ANALYTICS_QUERY_PLANNING = "dhis.analytics.query.planning";
+
+    public static final String ANALYTICS_QUERY_EXECUTION = "dhis.analytics.query.execution";
+
+    public static final String DATA_VALUE_IMPORT = "dhis.datavalue.import";
+
+    public static final String DATA_VALUE_IMPORT_VALUES = "dhis.datavalue.import.values";
+
+    public static final String TRACKER_IMPORT = "dhis.tracker.import";
+
+    public static final String EVENT_IMPORT_CONTEXT = "dhis.event.import.context";
+
+    public static final String METADATA_IMPORT = "dhis.metadata.import";
+
+    public static final String METADATA_IMPORT_OBJECTS = "dhis.metadata.import.objects";
+
+    private ApplicationMetrics()
+    {
+    }
+
+    /**
+     * Times the given supplier with the timer of the given name and tags.
+     *
+     * @param name the timer name.
+     * @param supplier the supplier to time.
+     * @param tags the tags as key value pairs.
+     * @return the value of the supplier.
+     */
+    public static <T> T time( String name, Supplier<T> supplier, String... tags )
+    {
+        return Metrics.timer( name, tags ).record( supplier );
+    }
+
+    /**
+     * Starts a timer sample, to be stopped with
+     * {@link #stop(Timer.Sample, String, String...)}.
+     *
+     * @return a timer sample.
+     */
+    public static Timer.Sample start()
+    {
+        return Timer.start( Metrics.globalRegistry );
+    }
+
+    /**
+     * Stops the given sample and records it with the timer of the given name
+     * and tags.
+     *
+     * @param sample the timer sample.
+     * @param name the timer name.
+     * @param tags the tags as key value pairs.
+     */
+    public static void stop( Timer.Sample sample, String name, String... tags )
+    {
+        sample.stop( Metrics.timer( name, tags ) );
+    }
+
+    /**
+     * Records the given duration with the timer of the given name and tags.
+     *
+     * @param name the timer name.
+     * @param nanos the duration in nanoseconds.
+     * @param tags the tags as key value pairs.
+     */
+    public static void recordTime( String name, long nanos, String... tags )
+    {
+        Metrics.timer( name, tags ).record( nanos, TimeUnit.NANOSECONDS );
+    }
+
+    /**
+     * Records the given amount with the distribution summary of the given name
+     * and tags.
+     *
+     * @param name the distribution summary name.
+     * @param amount the amount to record.
+     * @param tags the tags as key value pairs.
+     */
+    public static void record( String name, double amount, String... tags )
+    {
+        DistributionSummary.builder( name ).tags( tags )
+            .register( Metrics.globalRegistry ).record( amount );
+    }
+}
@@ -29,6 +29,8 @@ package org.hisp.dhis.system.grid;
  */
 
 import com.csvreader.CsvWriter;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
 import com.lowagie.text.Document;
 import com.lowagie.text.pdf.PdfPTable;
 import lombok.extern.slf4j.Slf4j;
@@ -38,7 +40,10 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.velocity.VelocityContext;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObjectUtils;
 import org.hisp.dhis.common.Grid;
@@ -69,6 +74,7 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.hisp.dhis.common.DimensionalObject.DIMENSION_SEP;
@@ -84,12 +90,21 @@ public class GridUtils
     private static final char CSV_DELIMITER = ',';
     private static final String XLS_SHEET_PREFIX = "Sheet ";
     private static final int JXL_MAX_COLS = 256;
+    private static final int XLSX_MAX_COLS = 16384;
+    private static final int XLSX_ROW_ACCESS_WINDOW = 100;
     private static final String FONT_ARIAL = "Arial";
 
     private static final NodeFilter HTML_ROW_FILTER = new OrFilter( new TagNameFilter( "td" ), new TagNameFilter( "th" ) );
 
     private static final Encoder ENCODER = new Encoder();
 
+    private static final Cache<JasperReport> JASPER_REPORT_CACHE = new SimpleCacheBuilder<JasperReport>()
+        .forRegion( "jasperReportCache" )
+        .expireAfterAccess( 12, TimeUnit.HOURS )
+        .withInitialCapacity( 20 )
+        .withMaximumSize( 500 )
+        .build();
+
     private static final String KEY_GRID = "grid";
     private static final String KEY_ENCODER = "encoder";
     private static final String KEY_PARAMS = "params";
@@ -216,7 +231,7 @@ public class GridUtils
 
             String sheetName = CodecUtils.filenameEncode( StringUtils.defaultIfEmpty( grid.getTitle(), XLS_SHEET_PREFIX + (i + 1) ) );
 
-            toXlsInternal( grid,  workbook.createSheet( sheetName ),headerCellStyle, cellStyle );
+            toXlsInternal( grid,  workbook.createSheet( sheetName ),headerCellStyle, cellStyle, JXL_MAX_COLS );
         }
 
         workbook.write( out );
@@ -233,13 +248,58 @@ public class GridUtils
 
         String sheetName = CodecUtils.filenameEncode( StringUtils.defaultIfEmpty( grid.getTitle(), XLS_SHEET_PREFIX + 1 ) );
 
-        toXlsInternal( grid, workbook.createSheet( sheetName ), createHeaderCellStyle( workbook ), createCellStyle( workbook ) );
+        toXlsInternal( grid, workbook.createSheet( sheetName ), createHeaderCellStyle( workbook ), createCellStyle( workbook ), JXL_MAX_COLS );
 
         workbook.write( out );
         workbook.close();
     }
 
-    private static void toXlsInternal( Grid grid, Sheet sheet, CellStyle headerCellStyle, CellStyle cellStyle )
+    /**
+     * Writes a XLSX (Excel workbook) representation of the given list of Grids to the given OutputStream.
+     * Rows are flushed to temporary files as the workbook is built, so that memory usage is
+     * independent of the number of rows.
+     */
+    public static void toXlsx( List<Grid> grids, OutputStream out )
+        throws Exception
+    {
+        SXSSFWorkbook workbook = new SXSSFWorkbook( XLSX_ROW_ACCESS_WINDOW );
+        workbook.setCompressTempFiles( true );
+
+        try
+        {
+            CellStyle headerCellStyle = createHeaderCellStyle( workbook );
+            CellStyle cellStyle = createCellStyle( workbook );
+
+            for ( int i = 0; i < grids.size(); i++ )
+            {
+                Grid grid = grids.get( i );
+
+                String sheetName = CodecUtils.filenameEncode( StringUtils.defaultIfEmpty( grid.getTitle(), XLS_SHEET_PREFIX + (i + 1) ) );
+
+                toXlsInternal( grid, workbook.createSheet( sheetName ), headerCellStyle, cellStyle, XLSX_MAX_COLS );
+            }
+
+            workbook.write( out );
+        }
+        finally
+        {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Writes a XLSX (Excel workbook) representation of the given Grid to the given OutputStream.
+     * Rows are flushed to temporary files as the workbook is built, so that memory usage is
+     * independent of the number of rows.
+     */
+    public static void toXlsx( Grid grid, OutputStream out )
+        throws Exception
+    {
+        toXlsx( Lists.newArrayList( grid ), out );
+    }
+
+    private static void toXlsInternal( Grid grid, Sheet sheet, CellStyle headerCellStyle, CellStyle cellStyle, int maxCols )
     {
         if ( grid == null )
         {
@@ -248,9 +308,9 @@ public class GridUtils
 
         int cols = grid.getVisibleHeaders().size();
 
-        if ( cols > JXL_MAX_COLS )
+        if ( cols > maxCols )
         {
-            log.warn( "Grid will be truncated, no of columns is greater than JXL max limit: " + cols + "/" + JXL_MAX_COLS );
+            log.warn( "Grid will be truncated, no of columns is greater than max limit: " + cols + "/" + maxCols );
         }
 
         int rowNumber = 0;
@@ -274,7 +334,7 @@ public class GridUtils
             rowNumber++;
         }
 
-        List<GridHeader> headers = ListUtils.subList( grid.getVisibleHeaders(), 0, JXL_MAX_COLS );
+        List<GridHeader> headers = ListUtils.subList( grid.getVisibleHeaders(), 0, maxCols );
         Row headerRow = sheet.createRow( ++rowNumber );
         for ( GridHeader header : headers )
         {
@@ -291,7 +351,7 @@ public class GridUtils
             xlsRow.setRowStyle( cellStyle );
             columnIndex = 0;
 
-            List<Object> columns = ListUtils.subList( row, 0, JXL_MAX_COLS );
+            List<Object> columns = ListUtils.subList( row, 0, maxCols );
 
             for ( Object column : columns )
             {
@@ -362,13 +422,40 @@ public class GridUtils
 
         String report = writer.toString();
 
-        JasperReport jasperReport = JasperCompileManager.compileReport( IOUtils.toInputStream( report, StandardCharsets.UTF_8 ) );
+        JasperReport jasperReport = getCompiledJasperReport( report );
 
         JasperPrint print = JasperFillManager.fillReport( jasperReport, params, grid );
 
         JasperExportManager.exportReportToPdfStream( print, out );
     }
 
+    /**
+     * Returns the compiled Jasper report for the given JRXML report template. Compiled
+     * reports are cached by the hash of the template, as compiling is expensive and
+     * grids with the same structure render identical templates.
+     *
+     * @param report the JRXML report template.
+     * @return the {@link JasperReport}.
+     */
+    private static JasperReport getCompiledJasperReport( String report )
+        throws JRException
+    {
+        String key = Hashing.sha256().hashString( report, StandardCharsets.UTF_8 ).toString();
+
+        Optional<JasperReport> jasperReport = JASPER_REPORT_CACHE.getIfPresent( key );
+
+        if ( jasperReport.isPresent() )
+        {
+            return jasperReport.get();
+        }
+
+        JasperReport compiledReport = JasperCompileManager.compileReport( IOUtils.toInputStream( report, StandardCharsets.UTF_8 ) );
+
+        JASPER_REPORT_CACHE.put( key, compiledReport );
+
+        return compiledReport;
+    }
+
     /**
      * Writes a JRXML (Jasper Reports XML) representation of the given Grid to the given Writer.
      */
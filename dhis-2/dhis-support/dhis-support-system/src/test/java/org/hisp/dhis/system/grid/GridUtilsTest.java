@@ -28,6 +28,8 @@ package org.hisp.dhis.system.grid;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 
 import java.util.ArrayList;
@@ -35,9 +37,13 @@ import java.util.List;
 
 import com.google.common.collect.Lists;
 import org.apache.commons.io.IOUtils;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.hisp.dhis.common.CodeGenerator;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodType;
 import org.junit.Test;
@@ -63,6 +69,35 @@ public class GridUtilsTest
         assertEquals( "TitleA", grids.get( 0 ).getTitle() );
     }
 
+    @Test
+    public void testToXlsx()
+        throws Exception
+    {
+        Grid grid = new ListGrid();
+        grid.addHeader( new GridHeader( "dx", "Data" ) );
+        grid.addHeader( new GridHeader( "value", "Value" ) );
+
+        for ( int i = 0; i < 1000; i++ )
+        {
+            grid.addRow().addValue( "Row " + i ).addValue( i );
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        GridUtils.toXlsx( grid, out );
+
+        try ( Workbook workbook = new XSSFWorkbook( new ByteArrayInputStream( out.toByteArray() ) ) )
+        {
+            Sheet sheet = workbook.getSheetAt( 0 );
+
+            assertEquals( 1001, sheet.getLastRowNum() );
+            assertEquals( "Data", sheet.getRow( 1 ).getCell( 0 ).getStringCellValue() );
+            assertEquals( "Row 0", sheet.getRow( 2 ).getCell( 0 ).getStringCellValue() );
+            assertEquals( "Row 999", sheet.getRow( 1001 ).getCell( 0 ).getStringCellValue() );
+            assertEquals( 999d, sheet.getRow( 1001 ).getCell( 1 ).getNumericCellValue(), 0.01 );
+        }
+    }
+
     @Test
     public void testGetGridIndexByDimensionItem()
     {
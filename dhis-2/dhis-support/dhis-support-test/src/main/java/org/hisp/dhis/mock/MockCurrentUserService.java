@@ -33,11 +33,14 @@ import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserAuthorityGroup;
 import org.hisp.dhis.user.UserCredentials;
+import org.hisp.dhis.user.UserGroup;
 import org.hisp.dhis.user.UserInfo;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * @author Lars Helge Overland
@@ -126,4 +129,27 @@ public class MockCurrentUserService
     {
         return currentUser.getUserCredentials();
     }
+
+    @Override
+    public Set<Long> getUserGroupIds( long userId )
+    {
+        if ( currentUser == null || currentUser.getId() != userId )
+        {
+            return new HashSet<>();
+        }
+
+        return currentUser.getGroups().stream()
+            .map( UserGroup::getId )
+            .collect( Collectors.toSet() );
+    }
+
+    @Override
+    public void invalidateUserGroupCache()
+    {
+    }
+
+    @Override
+    public void invalidateUserGroupCache( Collection<Long> userIds )
+    {
+    }
 }
@@ -0,0 +1,110 @@
+package org.hisp.dhis.webapi.controller;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hisp.dhis.dataelement.DataElementGroup;
+import org.hisp.dhis.dataelement.DataElementGroupSet;
+import org.hisp.dhis.dbms.DbmsManager;
+import org.hisp.dhis.webapi.DhisWebSpringTest;
+import org.hisp.dhis.webapi.utils.ContextUtils;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpSession;
+
+/**
+ * Tests the deep ETag of entity lists.
+ */
+public class EntityListEtagWebApiTest
+    extends DhisWebSpringTest
+{
+    @Autowired
+    private DbmsManager dbmsManager;
+
+    @Test
+    public void testDeletedReferencedObjectChangesTag() throws Exception
+    {
+        MockHttpSession session = getSession( "ALL" );
+
+        DataElementGroup group = createDataElementGroup( 'A' );
+        manager.save( group );
+
+        DataElementGroupSet groupSetA = createDataElementGroupSet( 'A' );
+        groupSetA.addDataElementGroup( group );
+        manager.save( groupSetA );
+
+        DataElementGroupSet groupSetB = createDataElementGroupSet( 'B' );
+        groupSetB.addDataElementGroup( group );
+        manager.save( groupSetB );
+
+        dbmsManager.flushSession();
+
+        String tag = mvc.perform( get( "/dataElementGroups" ).param( "fields", "id,groupSets" ).session( session )
+            .header( ContextUtils.HEADER_IF_NONE_MATCH, "\"none\"" ) )
+            .andExpect( status().isOk() )
+            .andReturn().getResponse().getHeader( ContextUtils.HEADER_ETAG );
+
+        assertNotNull( tag );
+
+        mvc.perform( get( "/dataElementGroups" ).param( "fields", "id,groupSets" ).session( session )
+            .header( ContextUtils.HEADER_IF_NONE_MATCH, tag ) )
+            .andExpect( status().isNotModified() );
+
+        groupSetA.removeDataElementGroup( group );
+        manager.delete( groupSetA );
+
+        dbmsManager.flushSession();
+
+        mvc.perform( get( "/dataElementGroups" ).param( "fields", "id,groupSets" ).session( session )
+            .header( ContextUtils.HEADER_IF_NONE_MATCH, tag ) )
+            .andExpect( status().isOk() );
+    }
+
+    @Test
+    public void testNestedFieldsHaveNoDeepTag() throws Exception
+    {
+        MockHttpSession session = getSession( "ALL" );
+
+        manager.save( createDataElementGroup( 'A' ) );
+
+        dbmsManager.flushSession();
+
+        String tag = mvc.perform( get( "/dataElementGroups" ).param( "fields", "id,groupSets[id,name]" ).session( session )
+            .header( ContextUtils.HEADER_IF_NONE_MATCH, "\"none\"" ) )
+            .andExpect( status().isOk() )
+            .andReturn().getResponse().getHeader( ContextUtils.HEADER_ETAG );
+
+        mvc.perform( get( "/dataElementGroups" ).param( "fields", "id,groupSets[id,name]" ).session( session )
+            .header( ContextUtils.HEADER_IF_NONE_MATCH, String.valueOf( tag ) ) )
+            .andExpect( status().isOk() );
+    }
+}
@@ -0,0 +1,98 @@
+package org.hisp.dhis.webapi.controller;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hisp.dhis.category.CategoryCombo;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.dataelement.DataElementStore;
+import org.hisp.dhis.dbms.DbmsManager;
+import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserGroup;
+import org.hisp.dhis.user.UserGroupAccess;
+import org.hisp.dhis.webapi.DhisWebSpringTest;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Tests that changes of user group members through the collection endpoints
+ * take effect on sharing straight away.
+ */
+public class UserGroupMembershipWebApiTest
+    extends DhisWebSpringTest
+{
+    @Autowired
+    private DataElementStore dataElementStore;
+
+    @Autowired
+    private DbmsManager dbmsManager;
+
+    @Test
+    public void testRemovedMemberLosesGroupAccess() throws Exception
+    {
+        MockHttpSession session = getSession( "ALL" );
+        Authentication admin = SecurityContextHolder.getContext().getAuthentication();
+
+        User member = createUser( "member" );
+        UserGroup userGroup = createUserGroup( 'A', Sets.newHashSet( member ) );
+        manager.save( userGroup );
+
+        CategoryCombo categoryCombo = createCategoryCombo( 'C' );
+        manager.save( categoryCombo );
+
+        DataElement dataElement = createDataElement( 'A', categoryCombo );
+        dataElement.setPublicAccess( "--------" );
+        dataElement.getUserGroupAccesses().add( new UserGroupAccess( userGroup, "r-------" ) );
+        manager.save( dataElement, false );
+
+        dbmsManager.flushSession();
+
+        // Reading as the member caches the groups of the member
+
+        injectSecurityContext( member );
+        assertEquals( 1, dataElementStore.getAllEqName( dataElement.getName() ).size() );
+
+        SecurityContextHolder.getContext().setAuthentication( admin );
+
+        mvc.perform( delete( "/userGroups/" + userGroup.getUid() + "/users/" + member.getUid() ).session( session ) )
+            .andExpect( status().isNoContent() );
+
+        injectSecurityContext( member );
+        assertTrue( dataElementStore.getAllEqName( dataElement.getName() ).isEmpty() );
+    }
+}
@@ -33,6 +33,7 @@ import com.google.common.base.Enums;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.cache2k.Cache;
 import org.cache2k.Cache2kBuilder;
 import org.hisp.dhis.attribute.AttributeService;
@@ -94,8 +95,10 @@ import org.hisp.dhis.security.acl.AclService;
 import org.hisp.dhis.translation.Translation;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
+import org.hisp.dhis.user.UserGroup;
 import org.hisp.dhis.user.UserSettingKey;
 import org.hisp.dhis.user.UserSettingService;
+import org.hisp.dhis.util.DateUtils;
 import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
 import org.hisp.dhis.webapi.service.ContextService;
 import org.hisp.dhis.webapi.service.LinkService;
@@ -107,6 +110,7 @@ import org.hisp.dhis.webapi.webdomain.WebOptions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.util.StringUtils;
@@ -123,10 +127,13 @@ import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -218,7 +225,7 @@ public abstract class AbstractCrudController<T extends IdentifiableObject>
     @RequestMapping( method = RequestMethod.GET )
     public @ResponseBody RootNode getObjectList(
         @RequestParam Map<String, String> rpParameters, OrderParams orderParams,
-        HttpServletResponse response, User currentUser ) throws QueryParserException
+        HttpServletRequest request, HttpServletResponse response, User currentUser ) throws QueryParserException
     {
         List<String> fields = Lists.newArrayList( contextService.getParameterValues( "fields" ) );
         List<String> filters = Lists.newArrayList( contextService.getParameterValues( "filter" ) );
@@ -237,6 +244,20 @@ public abstract class AbstractCrudController<T extends IdentifiableObject>
             throw new ReadAccessDeniedException( "You don't have the proper permissions to read objects of this type." );
         }
 
+        // Deep tag is only computed for conditional requests, other responses
+        // get the shallow tag, which is replaced by the deep tag on the next
+        // conditional request
+
+        String tag = request.getHeader( ContextUtils.HEADER_IF_NONE_MATCH ) != null ?
+            getEntityListTag( request, currentUser ) : null;
+
+        if ( tag != null && ContextUtils.isNotModifiedDeep( request, response, tag ) )
+        {
+            response.setHeader( ContextUtils.HEADER_CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue() );
+
+            return null;
+        }
+
         List<T> entities = getEntityList( metadata, options, filters, orders );
 
         Pager pager = metadata.getPager();
@@ -1186,6 +1207,65 @@ public abstract class AbstractCrudController<T extends IdentifiableObject>
         return entityList;
     }
 
+    /**
+     * Returns a deep ETag for the list of entities requested, computed from
+     * the last updated time and count of the entity type and of the types
+     * referenced by the entity type, the current user, the database and UI
+     * locales and the request. The counts make deletions change the tag.
+     * Returns null if the list cannot be validated up front, which includes
+     * requests for nested fields as these can reach objects which are not
+     * referenced directly by the entity type, in which case the list is
+     * always queried.
+     *
+     * @param request the HttpServletRequest.
+     * @param currentUser the current user.
+     * @return a tag or null.
+     */
+    @SuppressWarnings( "unchecked" )
+    protected String getEntityListTag( HttpServletRequest request, User currentUser )
+    {
+        Schema schema = getSchema();
+
+        if ( currentUser == null || !schema.isMetadata() || !schema.isPersisted() || !schema.isIdentifiableObject() )
+        {
+            return null;
+        }
+
+        Set<String> fields = contextService.getParameterValues( "fields" );
+
+        if ( fields.stream().anyMatch( field -> field.contains( "[" ) || field.contains( "(" ) ) )
+        {
+            return null;
+        }
+
+        Set<Class<? extends IdentifiableObject>> klasses = Sets.newHashSet( getEntityClass(), UserGroup.class );
+
+        for ( Property property : schema.getProperties() )
+        {
+            Class<?> klass = property.isCollection() ? property.getItemKlass() : property.getKlass();
+
+            if ( property.isPersisted() && klass != null && IdentifiableObject.class.isAssignableFrom( klass )
+                && getSchema( klass ) != null && getSchema( klass ).isPersisted() )
+            {
+                klasses.add( (Class<? extends IdentifiableObject>) klass );
+            }
+        }
+
+        Date lastUpdated = DateUtils.max( klasses.stream()
+            .map( klass -> manager.getLastUpdated( klass ) )
+            .collect( Collectors.toSet() ) );
+
+        String counts = klasses.stream()
+            .sorted( Comparator.comparing( Class::getName ) )
+            .map( klass -> klass.getSimpleName() + ":" + manager.getCount( klass ) )
+            .collect( Collectors.joining( "," ) );
+
+        return ContextUtils.getDeepEtag( getEntityClass().getName(), lastUpdated, counts,
+            currentUser.getUid(), currentUser.getLastUpdated(), currentUser.getUserCredentials().getLastUpdated(),
+            UserContext.getUserSetting( UserSettingKey.DB_LOCALE ),
+            userSettingService.getUserSetting( UserSettingKey.UI_LOCALE, currentUser ), request.getRequestURI(), request.getQueryString(), request.getHeader( HttpHeaders.ACCEPT ) );
+    }
+
     private int count( WebOptions options, List<String> filters, List<Order> orders )
     {
         Query query = queryService.getQueryFromUrl( getEntityClass(), filters, orders, new Pagination(),
@@ -33,6 +33,7 @@ import static org.hisp.dhis.common.DimensionalObjectUtils.getItemsFromParam;
 import java.util.Date;
 import java.util.Set;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.hisp.dhis.analytics.*;
@@ -40,7 +41,10 @@ import org.hisp.dhis.analytics.util.AnalyticsUtils;
 import org.hisp.dhis.common.*;
 import org.hisp.dhis.common.cache.CacheStrategy;
 import org.hisp.dhis.dxf2.datavalueset.DataValueSet;
+import org.hisp.dhis.setting.SettingKey;
+import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.system.grid.GridUtils;
+import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.springframework.stereotype.Controller;
@@ -67,12 +71,18 @@ public class AnalyticsController
 
     private final ContextUtils contextUtils;
 
+    private final SystemSettingManager systemSettingManager;
+
+    private final CurrentUserService currentUserService;
+
     public AnalyticsController( DataQueryService dataQueryService, AnalyticsService analyticsService,
-        ContextUtils contextUtils )
+        ContextUtils contextUtils, SystemSettingManager systemSettingManager, CurrentUserService currentUserService )
     {
         this.dataQueryService = dataQueryService;
         this.analyticsService = analyticsService;
         this.contextUtils = contextUtils;
+        this.systemSettingManager = systemSettingManager;
+        this.currentUserService = currentUserService;
     }
 
     // -------------------------------------------------------------------------
@@ -113,6 +123,7 @@ public class AnalyticsController
         @RequestParam( required = false ) String rows,
         DhisApiVersion apiVersion,
         Model model,
+        HttpServletRequest servletRequest,
         HttpServletResponse response ) throws Exception
     {
         DataQueryRequest request = DataQueryRequest.newBuilder().dimension( dimension ).filter( filter )
@@ -129,6 +140,12 @@ public class AnalyticsController
         DataQueryParams params = dataQueryService.getFromRequest( request );
 
         contextUtils.configureAnalyticsResponse( response, ContextUtils.CONTENT_TYPE_JSON, CacheStrategy.RESPECT_SYSTEM_SETTING, null, false, params.getLatestEndDate() );
+
+        if ( ContextUtils.isNotModifiedDeep( servletRequest, response, getAnalyticsTag( params, servletRequest ) ) )
+        {
+            return null;
+        }
+
         return analyticsService.getAggregatedDataValues( params, getItemsFromParam( columns ), getItemsFromParam( rows ) );
     }
 
@@ -412,6 +429,62 @@ public class AnalyticsController
         GridUtils.toXls( grid, response.getOutputStream() );
     }
 
+    @RequestMapping( value = RESOURCE_PATH + ".xlsx", method = RequestMethod.GET )
+    public void getXlsx(
+        @RequestParam Set<String> dimension,
+        @RequestParam( required = false ) Set<String> filter,
+        @RequestParam( required = false ) AggregationType aggregationType,
+        @RequestParam( required = false ) String measureCriteria,
+        @RequestParam( required = false ) String preAggregationMeasureCriteria,
+        @RequestParam( required = false ) Date startDate,
+        @RequestParam( required = false ) Date endDate,
+        @RequestParam( required = false ) UserOrgUnitType userOrgUnitType,
+        @RequestParam( required = false ) SortOrder order,
+        @RequestParam( required = false ) String timeField,
+        @RequestParam( required = false ) String orgUnitField,
+        @RequestParam( required = false ) boolean skipMeta,
+        @RequestParam( required = false ) boolean skipData,
+        @RequestParam( required = false ) boolean skipRounding,
+        @RequestParam( required = false ) boolean completedOnly,
+        @RequestParam( required = false ) boolean hierarchyMeta,
+        @RequestParam( required = false ) boolean ignoreLimit,
+        @RequestParam( required = false ) boolean hideEmptyRows,
+        @RequestParam( required = false ) boolean hideEmptyColumns,
+        @RequestParam( required = false ) boolean showHierarchy,
+        @RequestParam( required = false ) boolean includeNumDen,
+        @RequestParam( required = false ) boolean includeMetadataDetails,
+        @RequestParam( required = false ) DisplayProperty displayProperty,
+        @RequestParam( required = false ) IdScheme outputIdScheme,
+        @RequestParam( required = false ) IdScheme inputIdScheme,
+        @RequestParam( required = false ) String approvalLevel,
+        @RequestParam( required = false ) Date relativePeriodDate,
+        @RequestParam( required = false ) String userOrgUnit,
+        @RequestParam( required = false ) String columns,
+        @RequestParam( required = false ) String rows,
+        DhisApiVersion apiVersion,
+        Model model,
+        HttpServletResponse response ) throws Exception
+    {
+        DataQueryRequest request = DataQueryRequest.newBuilder()
+            .dimension( dimension ).filter( filter ).aggregationType( aggregationType )
+            .measureCriteria( measureCriteria ).preAggregationMeasureCriteria( preAggregationMeasureCriteria )
+            .startDate( startDate ).endDate( endDate ).skipMeta( skipMeta ).skipData( skipData )
+            .skipRounding( skipRounding ).completedOnly( completedOnly ).hierarchyMeta( hierarchyMeta )
+            .ignoreLimit( ignoreLimit ).hideEmptyRows( hideEmptyRows ).hideEmptyColumns( hideEmptyColumns )
+            .showHierarchy( showHierarchy ).includeNumDen( includeNumDen )
+            .includeMetadataDetails( includeMetadataDetails ).displayProperty( displayProperty )
+            .outputIdScheme( outputIdScheme ).inputIdScheme( inputIdScheme ).approvalLevel( approvalLevel )
+            .relativePeriodDate( relativePeriodDate ).userOrgUnit( userOrgUnit ).apiVersion( apiVersion )
+            .order( order ).timeField( timeField ).orgUnitField( orgUnitField ).userOrgUnitType( userOrgUnitType )
+            .build();
+
+        DataQueryParams params = dataQueryService.getFromRequest( request );
+
+        contextUtils.configureAnalyticsResponse( response, ContextUtils.CONTENT_TYPE_XLSX, CacheStrategy.RESPECT_SYSTEM_SETTING, "data.xlsx", true, params.getLatestEndDate() );
+        Grid grid = analyticsService.getAggregatedDataValues( params, getItemsFromParam( columns ), getItemsFromParam( rows ) );
+        GridUtils.toXlsx( grid, response.getOutputStream() );
+    }
+
     @RequestMapping( value = RESOURCE_PATH + ".jrxml", method = RequestMethod.GET )
     public void getJrxml(
         @RequestParam Set<String> dimension,
@@ -690,4 +763,21 @@ public class AnalyticsController
     {
         return AnalyticsTableType.values();
     }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns a deep ETag for an analytics request, computed from the query
+     * key, the last analytics table updates, the current user and the request
+     * parameters which are not part of the query key.
+     */
+    private String getAnalyticsTag( DataQueryParams params, HttpServletRequest servletRequest )
+    {
+        return ContextUtils.getDeepEtag( params.getKey(),
+            systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE ),
+            systemSettingManager.getSystemSetting( SettingKey.LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_UPDATE ),
+            currentUserService.getCurrentUsername(), servletRequest.getQueryString() );
+    }
 }
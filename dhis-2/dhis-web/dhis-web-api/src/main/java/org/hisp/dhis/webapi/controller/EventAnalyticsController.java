@@ -231,6 +231,56 @@ public class EventAnalyticsController
         GridUtils.toXls( grid, response.getOutputStream() );
     }
 
+    @RequestMapping( value = RESOURCE_PATH + "/aggregate/{program}.xlsx", method = RequestMethod.GET )
+    public void getAggregateXlsx(
+        @PathVariable String program,
+        @RequestParam( required = false ) String stage,
+        @RequestParam( required = false ) Date startDate,
+        @RequestParam( required = false ) Date endDate,
+        @RequestParam Set<String> dimension,
+        @RequestParam( required = false ) Set<String> filter,
+        @RequestParam( required = false ) String value,
+        @RequestParam( required = false ) AggregationType aggregationType,
+        @RequestParam( required = false ) boolean skipMeta,
+        @RequestParam( required = false ) boolean skipData,
+        @RequestParam( required = false ) boolean skipRounding,
+        @RequestParam( required = false ) boolean completedOnly,
+        @RequestParam( required = false ) boolean hierarchyMeta,
+        @RequestParam( required = false ) boolean showHierarchy,
+        @RequestParam( required = false ) SortOrder sortOrder,
+        @RequestParam( required = false ) Integer limit,
+        @RequestParam( required = false, defaultValue = DEFAULT_OUTPUT_TYPE ) EventOutputType outputType,
+        @RequestParam( required = false ) EventStatus eventStatus,
+        @RequestParam( required = false ) ProgramStatus programStatus,
+        @RequestParam( required = false ) boolean collapseDataDimensions,
+        @RequestParam( required = false ) boolean aggregateData,
+        @RequestParam( required = false ) DisplayProperty displayProperty,
+        @RequestParam( required = false ) Date relativePeriodDate,
+        @RequestParam( required = false ) String timeField,
+        @RequestParam( required = false ) String orgUnitField,
+        @RequestParam( required = false ) String userOrgUnit,
+        @RequestParam( required = false ) String columns,
+        @RequestParam( required = false ) String rows,
+        DhisApiVersion apiVersion,
+        Model model,
+        HttpServletResponse response ) throws Exception
+    {
+        EventDataQueryRequest request = EventDataQueryRequest.newBuilder().program( program ).stage( stage )
+            .startDate( startDate ).endDate( endDate ).dimension( dimension ).filter( filter ).value( value )
+            .aggregationType( aggregationType ).skipMeta( skipMeta ).skipData( skipData ).skipRounding( skipRounding )
+            .completedOnly( completedOnly ).hierarchyMeta( hierarchyMeta ).showHierarchy( showHierarchy )
+            .sortOrder( sortOrder ).limit( limit ).outputType( outputType ).eventStatus( eventStatus )
+            .programStatus( programStatus ).collapseDataDimensions( collapseDataDimensions )
+            .aggregateData( aggregateData ).displayProperty( displayProperty ).relativePeriodDate( relativePeriodDate )
+            .timeField( timeField ).orgUnitField( orgUnitField ).userOrgUnit( userOrgUnit ).apiVersion( apiVersion ).build();
+
+        EventQueryParams params = eventDataQueryService.getFromRequest( request );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_XLSX, CacheStrategy.RESPECT_SYSTEM_SETTING, "events.xlsx", true );
+        Grid grid = analyticsService.getAggregatedEventData( params, DimensionalObjectUtils.getItemsFromParam( columns ), DimensionalObjectUtils.getItemsFromParam( rows ) );
+        GridUtils.toXlsx( grid, response.getOutputStream() );
+    }
+
     @RequestMapping( value = RESOURCE_PATH + "/aggregate/{program}.csv", method = RequestMethod.GET )
     public void getAggregateCsv(
         @PathVariable String program,
@@ -621,6 +671,50 @@ public class EventAnalyticsController
         GridUtils.toXls( grid, response.getOutputStream() );
     }
 
+    @RequestMapping( value = RESOURCE_PATH + "/query/{program}.xlsx", method = RequestMethod.GET )
+    public void getQueryXlsx(
+        @PathVariable String program,
+        @RequestParam( required = false ) String stage,
+        @RequestParam( required = false ) Date startDate,
+        @RequestParam( required = false ) Date endDate,
+        @RequestParam Set<String> dimension,
+        @RequestParam( required = false ) Set<String> filter,
+        @RequestParam( required = false ) OrganisationUnitSelectionMode ouMode,
+        @RequestParam( required = false ) Set<String> asc,
+        @RequestParam( required = false ) Set<String> desc,
+        @RequestParam( required = false ) boolean skipMeta,
+        @RequestParam( required = false ) boolean skipData,
+        @RequestParam( required = false ) boolean completedOnly,
+        @RequestParam( required = false ) boolean hierarchyMeta,
+        @RequestParam( required = false ) boolean coordinatesOnly,
+        @RequestParam( required = false ) IdScheme dataIdScheme,
+        @RequestParam( required = false ) EventStatus eventStatus,
+        @RequestParam( required = false ) ProgramStatus programStatus,
+        @RequestParam( required = false ) Integer page,
+        @RequestParam( required = false ) Integer pageSize,
+        @RequestParam( required = false ) DisplayProperty displayProperty,
+        @RequestParam( required = false ) Date relativePeriodDate,
+        @RequestParam( required = false ) String userOrgUnit,
+        @RequestParam( required = false ) String coordinateField,
+        DhisApiVersion apiVersion,
+        Model model,
+        HttpServletResponse response ) throws Exception
+    {
+        EventDataQueryRequest request = EventDataQueryRequest.newBuilder().program( program ).stage( stage )
+            .startDate( startDate ).endDate( endDate ).dimension( dimension ).filter( filter ).ouMode( ouMode )
+            .asc( asc ).desc( desc ).skipMeta( skipMeta ).skipData( skipData ).completedOnly( completedOnly )
+            .hierarchyMeta( hierarchyMeta ).coordinatesOnly( coordinatesOnly ).dataIdScheme( dataIdScheme ).eventStatus( eventStatus )
+            .programStatus( programStatus ).displayProperty( displayProperty ).relativePeriodDate( relativePeriodDate )
+            .userOrgUnit( userOrgUnit ).coordinateField( coordinateField ).page( page ).pageSize( pageSize )
+            .apiVersion( apiVersion ).outputType( EventOutputType.EVENT ).build();
+
+        EventQueryParams params = eventDataQueryService.getFromRequest( request );
+
+        contextUtils.configureResponse( response, ContextUtils.CONTENT_TYPE_XLSX, CacheStrategy.RESPECT_SYSTEM_SETTING, "events.xlsx", true );
+        Grid grid = analyticsService.getEvents( params );
+        GridUtils.toXlsx( grid, response.getOutputStream() );
+    }
+
     @RequestMapping( value = RESOURCE_PATH + "/query/{program}.csv", method = RequestMethod.GET )
     public void getQueryCsv(
         @PathVariable String program,
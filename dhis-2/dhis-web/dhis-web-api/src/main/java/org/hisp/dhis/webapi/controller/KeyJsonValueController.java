@@ -32,10 +32,14 @@ import org.apache.commons.beanutils.BeanUtils;
 import org.hisp.dhis.appmanager.App;
 import org.hisp.dhis.appmanager.AppManager;
 import org.hisp.dhis.common.DhisApiVersion;
+import org.hisp.dhis.common.Pager;
 import org.hisp.dhis.dxf2.webmessage.WebMessageException;
 import org.hisp.dhis.dxf2.webmessage.WebMessageUtils;
 import org.hisp.dhis.keyjsonvalue.KeyJsonValue;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueEntry;
+import org.hisp.dhis.keyjsonvalue.KeyJsonValueQueryParams;
 import org.hisp.dhis.keyjsonvalue.KeyJsonValueService;
+import org.hisp.dhis.metadata.version.MetadataVersionService;
 import org.hisp.dhis.render.RenderService;
 import org.hisp.dhis.security.acl.AclService;
 import org.hisp.dhis.user.CurrentUserService;
@@ -54,10 +58,15 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.databind.util.RawValue;
+
 import static org.hisp.dhis.webapi.utils.ContextUtils.setNoStore;
 
 /**
@@ -118,6 +127,71 @@ public class KeyJsonValueController
         return keyJsonValueService.getKeysInNamespace( namespace, lastUpdated, currentUserIsAdmin() );
     }
 
+    /**
+     * Returns the keys and requested fields of the values in the given
+     * namespace, filtered, ordered and paged on the JSON content of the
+     * values. Fields, filter and order are dot separated paths into the
+     * value, where {@code .} refers to the whole value. Filters are on the
+     * format {@code path:operator[:value]}.
+     */
+    @RequestMapping( value = "/{namespace}", method = RequestMethod.GET, params = "fields", produces = "application/json" )
+    public @ResponseBody
+    Map<String, Object> queryNamespace( @PathVariable String namespace, @RequestParam List<String> fields,
+        @RequestParam( required = false ) List<String> filter, @RequestParam( required = false ) String order,
+        @RequestParam( required = false ) Date lastUpdated, @RequestParam( defaultValue = "true" ) boolean paging,
+        @RequestParam( defaultValue = "1" ) int page,
+        @RequestParam( defaultValue = Pager.DEFAULT_PAGE_SIZE + "" ) int pageSize, HttpServletResponse response )
+        throws WebMessageException
+    {
+        validateAccess( namespace );
+
+        getNameS( namespace );
+
+        KeyJsonValueQueryParams params = new KeyJsonValueQueryParams()
+            .setNamespace( namespace )
+            .setLastUpdated( lastUpdated )
+            .setPaging( paging )
+            .setPage( page )
+            .setPageSize( pageSize );
+
+        fields.forEach( params::addField );
+
+        if ( filter != null )
+        {
+            filter.forEach( f -> params.addFilter( KeyJsonValueQueryParams.parseFilter( f ) ) );
+        }
+
+        if ( order != null )
+        {
+            params.setOrder( order );
+        }
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+
+        for ( KeyJsonValueEntry entry : keyJsonValueService.getKeyJsonValueEntries( params, currentUserIsAdmin() ) )
+        {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put( "key", entry.getKey() );
+            entry.getFields().forEach( ( path, json ) -> map.put(
+                KeyJsonValueQueryParams.ROOT_PATH.equals( path ) ? "value" : path, new RawValue( json ) ) );
+            entries.add( map );
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+
+        if ( paging )
+        {
+            int total = keyJsonValueService.countKeyJsonValueEntries( params, currentUserIsAdmin() );
+            result.put( "pager", new Pager( params.getPage(), total, params.getPageSize() ) );
+        }
+
+        result.put( "entries", entries );
+
+        setNoStore( response );
+
+        return result;
+    }
+
     /**
      * Deletes all keys with the given namespace.
      */
@@ -235,6 +309,8 @@ public class KeyJsonValueController
         HttpServletRequest request, HttpServletResponse response )
         throws WebMessageException, IOException
     {
+        validateNotProtected( namespace, key );
+
         KeyJsonValue keyJsonValue = validateAndGetValue( namespace, key );
 
         if ( !aclService.canWrite( currentUserService.getCurrentUser(), keyJsonValue ) )
@@ -258,6 +334,38 @@ public class KeyJsonValueController
         messageService.sendJson( WebMessageUtils.ok( "Key '" + key + "' updated." ), response );
     }
 
+    /**
+     * Partially update a key in the given namespace with a JSON merge patch.
+     */
+    @RequestMapping( value = "/{namespace}/{key}", method = RequestMethod.PATCH, produces = "application/json",
+        consumes = { "application/merge-patch+json", "application/json" } )
+    public void patchKeyJsonValue( @PathVariable String namespace, @PathVariable String key, @RequestBody String body,
+        HttpServletResponse response )
+        throws WebMessageException, IOException
+    {
+        validateNotProtected( namespace, key );
+
+        KeyJsonValue keyJsonValue = validateAndGetValue( namespace, key );
+
+        if ( !aclService.canWrite( currentUserService.getCurrentUser(), keyJsonValue ) )
+        {
+            throw new WebMessageException(
+                WebMessageUtils.forbidden(
+                    "You do not have the authority to update the key: '" + key + "' in the namespace: '" + namespace +
+                        "'" ) );
+        }
+
+        if ( !renderService.isValidJson( body ) )
+        {
+            throw new WebMessageException( WebMessageUtils.badRequest( "The data is not valid JSON." ) );
+        }
+
+        keyJsonValueService.patchKeyJsonValue( keyJsonValue, body );
+
+        response.setStatus( HttpServletResponse.SC_OK );
+        messageService.sendJson( WebMessageUtils.ok( "Key '" + key + "' updated." ), response );
+    }
+
     /**
      * Delete a key from the given namespace.
      */
@@ -305,6 +413,24 @@ public class KeyJsonValueController
         return keyJsonValue;
     }
 
+    /**
+     * Throws an exception if values in the given namespace cannot be changed
+     * through the data store, as the service ignores such changes.
+     *
+     * @param namespace The namespace of the value
+     * @param key       Key of the key/value pair
+     * @throws WebMessageException
+     */
+    private void validateNotProtected( String namespace, String key )
+        throws WebMessageException
+    {
+        if ( MetadataVersionService.METADATASTORE.equals( namespace ) )
+        {
+            throw new WebMessageException( WebMessageUtils.forbidden(
+                "The key: '" + key + "' in the namespace: '" + namespace + "' cannot be updated." ) );
+        }
+    }
+
     /**
      * Validates access and throws an exception if the current user does not have proper access
      *
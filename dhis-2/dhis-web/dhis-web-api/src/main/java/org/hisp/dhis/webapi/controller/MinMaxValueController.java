@@ -39,8 +39,12 @@ import org.hisp.dhis.minmax.MinMaxDataElementService;
 import org.hisp.dhis.minmax.MinMaxValueParams;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
+import org.hisp.dhis.scheduling.JobConfiguration;
+import org.hisp.dhis.scheduling.JobType;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.system.notification.Notifier;
+import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -85,6 +89,12 @@ public class MinMaxValueController
     @Autowired
     private SystemSettingManager systemSettingManager;
 
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private Notifier notifier;
+
     @RequestMapping( method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE )
     @PreAuthorize( "hasRole('ALL') or hasRole('F_PERFORM_MAINTENANCE')" )
     @ResponseStatus( HttpStatus.NO_CONTENT )
@@ -116,7 +126,12 @@ public class MinMaxValueController
         Double factor = (Double) this.systemSettingManager.
             getSystemSetting( SettingKey.FACTOR_OF_DEVIATION );
 
-        this.minMaxDataAnalysisService.generateMinMaxValues( organisationUnit, dataElements, factor );
+        JobConfiguration jobId = new JobConfiguration( "inMemoryMinMaxValueGeneration",
+            JobType.MIN_MAX_VALUE_GENERATION, currentUserService.getCurrentUser().getUid(), true );
+
+        notifier.clear( jobId );
+
+        this.minMaxDataAnalysisService.generateMinMaxValues( jobId, organisationUnit, dataElements, factor );
 
     }
 
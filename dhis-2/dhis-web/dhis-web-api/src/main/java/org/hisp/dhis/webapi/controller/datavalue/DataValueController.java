@@ -53,8 +53,8 @@ import org.hisp.dhis.setting.SystemSettingManager;
 import org.hisp.dhis.user.CurrentUserService;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.webapi.mvc.annotation.ApiVersion;
+import org.hisp.dhis.webapi.utils.FileResourceUtils;
 import org.jclouds.rest.AuthorizationException;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
@@ -67,7 +67,6 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -101,9 +100,12 @@ public class DataValueController
 
     private final DataValidator dataValueValidation;
 
+    private final FileResourceUtils fileResourceUtils;
+
     public DataValueController( final CurrentUserService currentUserService, final DataValueService dataValueService,
         final SystemSettingManager systemSettingManager, final InputUtils inputUtils,
-        final FileResourceService fileResourceService, final DataValidator dataValueValidation )
+        final FileResourceService fileResourceService, final DataValidator dataValueValidation,
+        final FileResourceUtils fileResourceUtils )
     {
         checkNotNull( currentUserService );
         checkNotNull( dataValueService );
@@ -111,6 +113,7 @@ public class DataValueController
         checkNotNull( inputUtils );
         checkNotNull( fileResourceService );
         checkNotNull( dataValueValidation );
+        checkNotNull( fileResourceUtils );
 
         this.currentUserService = currentUserService;
         this.dataValueService = dataValueService;
@@ -118,6 +121,7 @@ public class DataValueController
         this.inputUtils = inputUtils;
         this.fileResourceService = fileResourceService;
         this.dataValueValidation = dataValueValidation;
+        this.fileResourceUtils = fileResourceUtils;
     }
 
     // ---------------------------------------------------------------------
@@ -522,19 +526,9 @@ public class DataValueController
             throw new WebMessageException( webMessage );
         }
 
-        response.setContentType( fileResource.getContentType() );
-        response.setHeader( HttpHeaders.CONTENT_DISPOSITION, "filename=" + fileResource.getName() );
-        response.setHeader( HttpHeaders.CONTENT_LENGTH, String.valueOf( fileResourceService.getFileResourceContentLength( fileResource ) ) );
         setNoStore( response );
-        try
-        {
-           fileResourceService.copyFileResourceContent( fileResource, response.getOutputStream() );
-        }
-        catch ( IOException e )
-        {
-            throw new WebMessageException( WebMessageUtils.error( "Failed fetching the file from storage",
-                "There was an exception when trying to fetch the file from the storage backend, could be network or filesystem related" ) );
-        }
+
+        fileResourceUtils.writeFileResourceContent( request, response, fileResource );
 
     }
 }
@@ -88,7 +88,6 @@ import org.hisp.dhis.webapi.service.WebMessageService;
 import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.hisp.dhis.webapi.utils.FileResourceUtils;
 import org.hisp.dhis.webapi.webdomain.WebOptions;
-import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.util.StringUtils;
@@ -149,13 +148,15 @@ public class EventController
 
     private final ContextUtils contextUtils;
 
+    private final FileResourceUtils fileResourceUtils;
+
     public EventController( CurrentUserService currentUserService, SchedulingManager schedulingManager,
         EventService eventService, CsvEventService csvEventService, EventRowService eventRowService,
         DataElementService dataElementService, WebMessageService webMessageService, InputUtils inputUtils,
         RenderService renderService, ProgramStageInstanceService programStageInstanceService,
         FileResourceService fileResourceService, FieldFilterService fieldFilterService, ContextService contextService,
         SchemaService schemaService, TrackedEntityInstanceService entityInstanceService, ContextUtils contextUtils,
-        RequestToSearchParamsMapper requestToSearchParamsMapper )
+        RequestToSearchParamsMapper requestToSearchParamsMapper, FileResourceUtils fileResourceUtils )
     {
         this.currentUserService = currentUserService;
         this.schedulingManager = schedulingManager;
@@ -174,6 +175,7 @@ public class EventController
         this.entityInstanceService = entityInstanceService;
         this.contextUtils = contextUtils;
         this.requestToSearchParamsMapper = requestToSearchParamsMapper;
+        this.fileResourceUtils = fileResourceUtils;
     }
 
     private Schema schema;
@@ -884,19 +886,7 @@ public class EventController
 
         FileResourceUtils.setImageFileDimensions( fileResource, MoreObjects.firstNonNull( dimension, ImageFileDimension.ORIGINAL ) );
 
-        response.setContentType( fileResource.getContentType() );
-        response.setContentLength( new Long( fileResource.getContentLength() ).intValue() );
-        response.setHeader( HttpHeaders.CONTENT_DISPOSITION, "filename=" + fileResource.getName() );
-
-        try
-        {
-            fileResourceService.copyFileResourceContent( fileResource, response.getOutputStream() );
-        }
-        catch ( IOException e )
-        {
-            throw new WebMessageException( WebMessageUtils.error( "Failed fetching the file from storage",
-                "There was an exception when trying to fetch the file from the storage backend, could be network or filesystem related" ) );
-        }
+        fileResourceUtils.writeFileResourceContent( request, response, fileResource );
     }
 
     // -------------------------------------------------------------------------
@@ -28,6 +28,7 @@ package org.hisp.dhis.webapi.controller.event;
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -151,6 +152,37 @@ public class TrackedEntityAttributeController
 
     }
 
+    @RequestMapping( value = "/{id}/availableValues", method = RequestMethod.GET )
+    @ApiVersion( { DhisApiVersion.DEFAULT, DhisApiVersion.ALL } )
+    public @ResponseBody
+    Map<String, Long> getNumberOfAvailableValues( @PathVariable String id )
+        throws WebMessageException
+    {
+        TrackedEntityAttribute attribute = trackedEntityAttributeService.getTrackedEntityAttribute( id );
+
+        if ( attribute == null )
+        {
+            throw new WebMessageException( WebMessageUtils.notFound( TrackedEntityAttribute.class, id ) );
+        }
+
+        if ( attribute.getTextPattern() == null )
+        {
+            throw new WebMessageException( WebMessageUtils.conflict( "This attribute has no pattern" ) );
+        }
+
+        Map<String, String> values = getRequiredValues( attribute, context.getParameterValuesMap() );
+
+        try
+        {
+            return Collections.singletonMap( "availableValues",
+                reservedValueService.getNumberOfAvailableValues( attribute.getTextPattern(), values ) );
+        }
+        catch ( TextPatternGenerationException ex )
+        {
+            throw new WebMessageException( WebMessageUtils.error( ex.getMessage() ) );
+        }
+    }
+
     // Helpers
 
     private List<ReservedValue> reserve( String id, int numberToReserve, int daysToLive )
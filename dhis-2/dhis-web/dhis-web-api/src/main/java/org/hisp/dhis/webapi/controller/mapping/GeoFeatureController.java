@@ -29,16 +29,20 @@ package org.hisp.dhis.webapi.controller.mapping;
  */
 
 import com.google.common.collect.ImmutableMap;
+import org.cache2k.Cache;
+import org.cache2k.Cache2kBuilder;
 import org.hisp.dhis.analytics.AggregationType;
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.analytics.DataQueryService;
 import org.hisp.dhis.common.coordinate.CoordinateObject;
+import org.hisp.dhis.common.coordinate.CoordinateUtils;
 import org.hisp.dhis.common.DataQueryRequest;
 import org.hisp.dhis.common.DhisApiVersion;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.DimensionalObjectUtils;
 import org.hisp.dhis.common.DisplayProperty;
+import org.hisp.dhis.common.IdentifiableObjectUtils;
 import org.hisp.dhis.organisationunit.FeatureType;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
@@ -74,6 +78,7 @@ import java.util.stream.Collectors;
 
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_DIM_ID;
 import static org.hisp.dhis.common.DimensionalObject.ORGUNIT_GROUP_DIM_ID;
+import static org.hisp.dhis.common.IdentifiableObjectUtils.SEPARATOR;
 
 /**
  * @author Lars Helge Overland
@@ -92,6 +97,21 @@ public class GeoFeatureController
         put( FeatureType.MULTI_POLYGON, GeoFeature.TYPE_POLYGON ).
         put( FeatureType.POLYGON, GeoFeature.TYPE_POLYGON ).build();
 
+    /**
+     * Zoom level above which geometries are served in full resolution.
+     */
+    private static final int MAX_SIMPLIFIED_ZOOM = 14;
+
+    /**
+     * Cache for simplified coordinates, keyed on uid, last updated and zoom.
+     */
+    private final Cache<String, String> simplifiedCoordinatesCache = new Cache2kBuilder<String, String>()
+    {
+    }
+        .expireAfterWrite( 6, TimeUnit.HOURS )
+        .entryCapacity( 50000 )
+        .build();
+
     private final DataQueryService dataQueryService;
 
     private final OrganisationUnitGroupService organisationUnitGroupService;
@@ -123,6 +143,7 @@ public class GeoFeatureController
         @RequestParam( required = false ) Date relativePeriodDate,
         @RequestParam( required = false ) String userOrgUnit,
         @RequestParam( defaultValue = "false", value = "includeGroupSets" ) boolean rpIncludeGroupSets,
+        @RequestParam( required = false ) Integer zoom,
         @RequestParam Map<String, String> parameters,
         DhisApiVersion apiVersion,
         HttpServletRequest request, HttpServletResponse response )
@@ -131,7 +152,7 @@ public class GeoFeatureController
         boolean includeGroupSets = "detailed".equals( options.getViewClass() ) || rpIncludeGroupSets;
 
         List<GeoFeature> features = getGeoFeatures( ou, oug, displayProperty, relativePeriodDate, userOrgUnit, request,
-            response, includeGroupSets, apiVersion );
+            response, includeGroupSets, zoom, apiVersion );
 
         return ResponseEntity.ok()
             .header( HttpHeaders.CACHE_CONTROL, GEOFEATURE_CACHE.getHeaderValue() )
@@ -147,6 +168,7 @@ public class GeoFeatureController
         @RequestParam( required = false ) String userOrgUnit,
         @RequestParam( defaultValue = "callback" ) String callback,
         @RequestParam( defaultValue = "false", value = "includeGroupSets" ) boolean rpIncludeGroupSets,
+        @RequestParam( required = false ) Integer zoom,
         @RequestParam Map<String, String> parameters,
         DhisApiVersion apiVersion,
         HttpServletRequest request, HttpServletResponse response ) throws IOException
@@ -154,7 +176,7 @@ public class GeoFeatureController
         WebOptions options = new WebOptions( parameters );
         boolean includeGroupSets = "detailed".equals( options.getViewClass() ) || rpIncludeGroupSets;
 
-        List<GeoFeature> features = getGeoFeatures( ou, oug, displayProperty, relativePeriodDate, userOrgUnit, request, response, includeGroupSets, apiVersion );
+        List<GeoFeature> features = getGeoFeatures( ou, oug, displayProperty, relativePeriodDate, userOrgUnit, request, response, includeGroupSets, zoom, apiVersion );
 
         if ( features == null )
         {
@@ -182,11 +204,12 @@ public class GeoFeatureController
      * @param request the HTTP request.
      * @param response the HTTP response.
      * @param includeGroupSets whether to include organisation unit group sets.
+     * @param zoom the map zoom level to simplify geometries for, can be null.
      * @return a list of geo features or null.
      */
     private List<GeoFeature> getGeoFeatures( String ou, String oug, DisplayProperty displayProperty, Date relativePeriodDate,
         String userOrgUnit, HttpServletRequest request, HttpServletResponse response, boolean includeGroupSets,
-        DhisApiVersion apiVersion )
+        Integer zoom, DhisApiVersion apiVersion )
     {
         Set<String> dimensionParams = new HashSet<>();
         dimensionParams.add( ou );
@@ -229,7 +252,7 @@ public class GeoFeatureController
             return null;
         }
 
-        return getGeoFeatures( params, dimensionalItemObjects, includeGroupSets, useOrgUnitGroup );
+        return getGeoFeatures( params, dimensionalItemObjects, includeGroupSets, useOrgUnitGroup, zoom );
     }
 
     /**
@@ -239,10 +262,12 @@ public class GeoFeatureController
      * @param dimensionalItemObjects the list of {@link DimensionalItemObject}.
      * @param includeGroupSets whether to include group sets.
      * @param useOrgUnitGroup whether to use org unit group when retrieving features.
+     * @param zoom the map zoom level to simplify geometries for, can be null.
      * @return a list of {@link GeoFeature}.
      */
     private List<GeoFeature> getGeoFeatures( DataQueryParams params,
-        List<DimensionalItemObject> dimensionalItemObjects, boolean includeGroupSets, boolean useOrgUnitGroup )
+        List<DimensionalItemObject> dimensionalItemObjects, boolean includeGroupSets, boolean useOrgUnitGroup,
+        Integer zoom )
     {
         List<GeoFeature> features = new ArrayList<>();
 
@@ -289,7 +314,7 @@ public class GeoFeatureController
             }
 
             feature.setTy( ObjectUtils.firstNonNull( ty, 0 ) );
-            feature.setCo( coordinateObject.getCoordinates() );
+            feature.setCo( getCoordinates( unit, zoom ) );
             feature.setNa( unit.getDisplayProperty( params.getDisplayProperty() ) );
 
             features.add( feature );
@@ -299,4 +324,30 @@ public class GeoFeatureController
 
         return features;
     }
+
+    /**
+     * Returns the coordinates of the given object. Polygons are simplified
+     * to the resolution of the given zoom level if the zoom level is not above
+     * {@link #MAX_SIMPLIFIED_ZOOM}.
+     *
+     * @param unit the {@link DimensionalItemObject}.
+     * @param zoom the map zoom level, can be null.
+     * @return the coordinates.
+     */
+    private String getCoordinates( DimensionalItemObject unit, Integer zoom )
+    {
+        CoordinateObject coordinateObject = (CoordinateObject) unit;
+
+        if ( zoom == null || zoom > MAX_SIMPLIFIED_ZOOM || !CoordinateUtils.isPolygon( coordinateObject.getFeatureType() ) )
+        {
+            return coordinateObject.getCoordinates();
+        }
+
+        int level = Math.max( 0, zoom );
+
+        String key = unit.getUid() + SEPARATOR + IdentifiableObjectUtils.getLastUpdatedTag( unit ) + SEPARATOR + level;
+
+        return simplifiedCoordinatesCache.computeIfAbsent( key, () -> CoordinateUtils.getSimplifiedCoordinatesFromGeometry(
+            coordinateObject.getGeometry(), CoordinateUtils.getSimplificationTolerance( level ) ) );
+    }
 }
@@ -68,6 +68,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -76,6 +77,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 import static org.hisp.dhis.dxf2.webmessage.WebMessageUtils.jobConfigurationReport;
 import static org.hisp.dhis.scheduling.JobType.GML_IMPORT;
@@ -243,6 +245,56 @@ public class MetadataImportExportController
         return MetadataExportControllerUtils.createResponseEntity( rootNode, download );
     }
 
+    /**
+     * Streams the metadata export as JSON, optionally gzip compressed when
+     * requested with the <code>.json.gz</code> extension. Objects are loaded
+     * and written page by page, so memory usage is independent of the size
+     * of the instance. The shallow ETag filter is disabled for the request,
+     * as it would buffer the whole response.
+     */
+    @GetMapping( params = "stream=true" )
+    public void getMetadataStream(
+        @RequestParam( required = false, defaultValue = "false" ) boolean translate,
+        @RequestParam( required = false ) String locale,
+        @RequestParam( required = false, defaultValue = "false" ) boolean download,
+        HttpServletRequest request, HttpServletResponse response ) throws IOException
+    {
+        ShallowEtagHeaderFilter.disableContentCaching( request );
+
+        if ( translate )
+        {
+            TranslateParams translateParams = new TranslateParams( true, locale );
+            setUserContext( currentUserService.getCurrentUser(), translateParams );
+        }
+
+        MetadataExportParams params = metadataExportService.getParamsFromMap( contextService.getParameterValuesMap() );
+        metadataExportService.validate( params );
+
+        boolean gzip = request.getRequestURI().endsWith( ".gz" );
+
+        if ( gzip )
+        {
+            response.setContentType( ContextUtils.CONTENT_TYPE_GZIP );
+            response.setHeader( ContextUtils.HEADER_CONTENT_DISPOSITION, "attachment; filename=metadata.json.gz" );
+            response.setHeader( ContextUtils.HEADER_CONTENT_TRANSFER_ENCODING, "binary" );
+
+            GZIPOutputStream outputStream = new GZIPOutputStream( response.getOutputStream() );
+            metadataExportService.writeMetadataAsJson( params, outputStream );
+            outputStream.finish();
+        }
+        else
+        {
+            response.setContentType( ContextUtils.CONTENT_TYPE_JSON );
+
+            if ( download )
+            {
+                response.setHeader( ContextUtils.HEADER_CONTENT_DISPOSITION, "attachment; filename=metadata.json" );
+            }
+
+            metadataExportService.writeMetadataAsJson( params, response.getOutputStream() );
+        }
+    }
+
     //----------------------------------------------------------------------------------------------------------------------------------------
     // Helpers
     //----------------------------------------------------------------------------------------------------------------------------------------
@@ -33,6 +33,7 @@ import static org.hisp.dhis.common.cache.CacheStrategy.RESPECT_SYSTEM_SETTING;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
@@ -40,6 +41,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 import javax.servlet.http.HttpServletRequest;
@@ -58,6 +61,9 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import com.google.common.hash.Hashing;
 
 /**
  * @author Lars Helge Overland
@@ -78,6 +84,7 @@ public class ContextUtils
     public static final String CONTENT_TYPE_PNG = "image/png";
     public static final String CONTENT_TYPE_JPG = "image/jpeg";
     public static final String CONTENT_TYPE_EXCEL = "application/vnd.ms-excel";
+    public static final String CONTENT_TYPE_XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
     public static final String CONTENT_TYPE_JAVASCRIPT = "application/javascript; charset=UTF-8";
     public static final String CONTENT_TYPE_FORM_ENCODED = "application/x-www-form-urlencoded";
 
@@ -390,6 +397,43 @@ public class ContextUtils
         return false;
     }
 
+    /**
+     * Looks up the ETag sent in the request from the "If-None-Match" header
+     * and compares it to the given deep tag, which is computed from cheap
+     * validators before any query or serialization work is done. If they match,
+     * it will set status code 304 Not Modified on the response, and the caller
+     * should return without producing a body. The shallow ETag filter is
+     * disabled for the request so that the response body is not buffered and
+     * hashed.
+     *
+     * @param request  the HttpServletRequest.
+     * @param response the HttpServletResponse.
+     * @param tag      the deep tag, see {@link #getDeepEtag(Object...)}.
+     * @return true if the response is considered not modified, false if not.
+     */
+    public static boolean isNotModifiedDeep( HttpServletRequest request, HttpServletResponse response, String tag )
+    {
+        ShallowEtagHeaderFilter.disableContentCaching( request );
+
+        return isNotModified( request, response, tag );
+    }
+
+    /**
+     * Returns a deep ETag by hashing the given validator parts. Parts which
+     * are null are included as empty values.
+     *
+     * @param parts the validator parts.
+     * @return a tag.
+     */
+    public static String getDeepEtag( Object... parts )
+    {
+        String validator = Stream.of( parts )
+            .map( part -> part == null ? "" : part instanceof Date ? String.valueOf( ((Date) part).getTime() ) : part.toString() )
+            .collect( Collectors.joining( QUERY_PARAM_SEP ) );
+
+        return Hashing.murmur3_128().hashString( validator, StandardCharsets.UTF_8 ).toString();
+    }
+
     /**
      * Indicates whether the given requests indicates that it accepts a compressed
      * response.
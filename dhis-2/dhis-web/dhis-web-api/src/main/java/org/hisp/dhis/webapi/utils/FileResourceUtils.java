@@ -33,7 +33,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.Date;
+import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.io.FilenameUtils;
@@ -48,9 +50,11 @@ import org.hisp.dhis.fileresource.ImageFileDimension;
 import org.hisp.dhis.user.CurrentUserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.stereotype.Component;
 import org.springframework.util.InvalidMimeTypeException;
 import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.google.common.hash.Hashing;
@@ -155,6 +159,127 @@ public class FileResourceUtils
         }
     }
 
+    /**
+     * Writes the content of the given file resource to the response. A single
+     * byte range given by the Range header is served as partial content, unless
+     * an If-Range validator does not match the current content, in which case
+     * the full content is served. Multiple or malformed ranges are ignored.
+     *
+     * @param request the HttpServletRequest.
+     * @param response the HttpServletResponse.
+     * @param fileResource the file resource.
+     * @throws WebMessageException if the content could not be fetched.
+     */
+    public void writeFileResourceContent( HttpServletRequest request, HttpServletResponse response,
+        FileResource fileResource )
+        throws WebMessageException
+    {
+        long contentLength = fileResourceService.getFileResourceContentLength( fileResource );
+
+        String etag = "\"" + ContextUtils.getDeepEtag( fileResource.getStorageKey(), fileResource.getContentMd5() ) + "\"";
+
+        ShallowEtagHeaderFilter.disableContentCaching( request );
+
+        response.setContentType( fileResource.getContentType() );
+        response.setHeader( HttpHeaders.CONTENT_DISPOSITION, "filename=" + fileResource.getName() );
+        response.setHeader( HttpHeaders.ACCEPT_RANGES, "bytes" );
+        response.setHeader( HttpHeaders.ETAG, etag );
+
+        if ( fileResource.getLastUpdated() != null )
+        {
+            response.setDateHeader( HttpHeaders.LAST_MODIFIED, fileResource.getLastUpdated().getTime() );
+        }
+
+        HttpRange range = getRange( request, etag, fileResource.getLastUpdated() );
+
+        try
+        {
+            if ( range == null )
+            {
+                response.setHeader( HttpHeaders.CONTENT_LENGTH, String.valueOf( contentLength ) );
+                fileResourceService.copyFileResourceContent( fileResource, response.getOutputStream() );
+                return;
+            }
+
+            long start = range.getRangeStart( contentLength );
+            long end = range.getRangeEnd( contentLength );
+
+            if ( start >= contentLength || start > end )
+            {
+                response.setStatus( HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE );
+                response.setHeader( HttpHeaders.CONTENT_RANGE, "bytes */" + contentLength );
+                return;
+            }
+
+            response.setStatus( HttpServletResponse.SC_PARTIAL_CONTENT );
+            response.setHeader( HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + contentLength );
+            response.setHeader( HttpHeaders.CONTENT_LENGTH, String.valueOf( end - start + 1 ) );
+
+            fileResourceService.copyFileResourceContent( fileResource, response.getOutputStream(), start, end - start + 1 );
+        }
+        catch ( IOException e )
+        {
+            throw new WebMessageException( WebMessageUtils.error( "Failed fetching the file from storage",
+                "There was an exception when trying to fetch the file from the storage backend. "
+                    + "Depending on the provider the root cause could be network or file system related." ) );
+        }
+    }
+
+    /**
+     * Returns the single byte range requested by the Range header, or null if
+     * the full content should be served.
+     */
+    private static HttpRange getRange( HttpServletRequest request, String etag, Date lastModified )
+    {
+        String rangeHeader = request.getHeader( HttpHeaders.RANGE );
+
+        if ( rangeHeader == null || !isIfRangeMatch( request, etag, lastModified ) )
+        {
+            return null;
+        }
+
+        try
+        {
+            List<HttpRange> ranges = HttpRange.parseRanges( rangeHeader );
+
+            return ranges.size() == 1 ? ranges.get( 0 ) : null;
+        }
+        catch ( IllegalArgumentException ex )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Indicates whether the If-Range header is absent or matches the current
+     * ETag or last modified date of the content.
+     */
+    private static boolean isIfRangeMatch( HttpServletRequest request, String etag, Date lastModified )
+    {
+        String ifRange = request.getHeader( HttpHeaders.IF_RANGE );
+
+        if ( ifRange == null )
+        {
+            return true;
+        }
+
+        if ( ifRange.startsWith( "\"" ) || ifRange.startsWith( "W/" ) )
+        {
+            return ifRange.equals( etag );
+        }
+
+        try
+        {
+            long date = request.getDateHeader( HttpHeaders.IF_RANGE );
+
+            return lastModified != null && lastModified.getTime() / 1000 == date / 1000;
+        }
+        catch ( IllegalArgumentException ex )
+        {
+            return false;
+        }
+    }
+
     public FileResource saveFile( MultipartFile file, FileResourceDomain domain )
         throws WebMessageException,
         IOException
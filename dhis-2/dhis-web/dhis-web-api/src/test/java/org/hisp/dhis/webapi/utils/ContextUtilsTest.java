@@ -0,0 +1,80 @@
+package org.hisp.dhis.webapi.utils;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class ContextUtilsTest
+{
+    @Test
+    public void testGetDeepEtag()
+    {
+        Date lastUpdated = new Date( 1000L );
+
+        assertEquals( ContextUtils.getDeepEtag( "dataElements", lastUpdated, 10, null ),
+            ContextUtils.getDeepEtag( "dataElements", new Date( 1000L ), 10, null ) );
+        assertNotEquals( ContextUtils.getDeepEtag( "dataElements", lastUpdated, 10, null ),
+            ContextUtils.getDeepEtag( "dataElements", new Date( 2000L ), 10, null ) );
+        assertNotEquals( ContextUtils.getDeepEtag( "dataElements", lastUpdated, 10, null ),
+            ContextUtils.getDeepEtag( "dataElements", lastUpdated, 9, null ) );
+        assertEquals( ContextUtils.getDeepEtag( "dataElements", lastUpdated, 10, null ),
+            ContextUtils.getDeepEtag( "dataElements", lastUpdated, 10, "" ) );
+    }
+
+    @Test
+    public void testIsNotModifiedDeep()
+    {
+        String tag = ContextUtils.getDeepEtag( "dataElements", new Date( 1000L ), 10 );
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse( ContextUtils.isNotModifiedDeep( request, response, tag ) );
+        assertEquals( "\"" + tag + "\"", response.getHeader( ContextUtils.HEADER_ETAG ) );
+        assertEquals( HttpServletResponse.SC_OK, response.getStatus() );
+
+        request = new MockHttpServletRequest();
+        request.addHeader( ContextUtils.HEADER_IF_NONE_MATCH, "\"" + tag + "\"" );
+        response = new MockHttpServletResponse();
+
+        assertTrue( ContextUtils.isNotModifiedDeep( request, response, tag ) );
+        assertEquals( HttpServletResponse.SC_NOT_MODIFIED, response.getStatus() );
+    }
+}
@@ -0,0 +1,137 @@
+package org.hisp.dhis.webapi.utils;
+
+/*
+ * Copyright (c) 2004-2020, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.hisp.dhis.fileresource.FileResource;
+import org.hisp.dhis.fileresource.FileResourceDomain;
+import org.hisp.dhis.fileresource.FileResourceService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class FileResourceUtilsTest
+{
+    @Mock
+    private FileResourceService fileResourceService;
+
+    @InjectMocks
+    private FileResourceUtils fileResourceUtils;
+
+    @Rule
+    public MockitoRule rule = MockitoJUnit.rule();
+
+    private FileResource fileResource;
+
+    @Before
+    public void setUp()
+    {
+        fileResource = new FileResource( "audio.mp3", "audio/mpeg", 1000, "md5", FileResourceDomain.DATA_VALUE );
+
+        when( fileResourceService.getFileResourceContentLength( fileResource ) ).thenReturn( 1000L );
+    }
+
+    @Test
+    public void testWriteFullContent()
+        throws Exception
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        fileResourceUtils.writeFileResourceContent( request, response, fileResource );
+
+        assertEquals( HttpServletResponse.SC_OK, response.getStatus() );
+        assertEquals( "bytes", response.getHeader( HttpHeaders.ACCEPT_RANGES ) );
+        assertEquals( "1000", response.getHeader( HttpHeaders.CONTENT_LENGTH ) );
+        verify( fileResourceService ).copyFileResourceContent( eq( fileResource ), any() );
+    }
+
+    @Test
+    public void testWriteRange()
+        throws Exception
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader( HttpHeaders.RANGE, "bytes=200-" );
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        fileResourceUtils.writeFileResourceContent( request, response, fileResource );
+
+        assertEquals( HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus() );
+        assertEquals( "bytes 200-999/1000", response.getHeader( HttpHeaders.CONTENT_RANGE ) );
+        assertEquals( "800", response.getHeader( HttpHeaders.CONTENT_LENGTH ) );
+        verify( fileResourceService ).copyFileResourceContent( eq( fileResource ), any(), eq( 200L ), eq( 800L ) );
+    }
+
+    @Test
+    public void testWriteRangeNotSatisfiable()
+        throws Exception
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader( HttpHeaders.RANGE, "bytes=1000-1200" );
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        fileResourceUtils.writeFileResourceContent( request, response, fileResource );
+
+        assertEquals( HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus() );
+        assertEquals( "bytes */1000", response.getHeader( HttpHeaders.CONTENT_RANGE ) );
+        verify( fileResourceService, never() ).copyFileResourceContent( any(), any(), anyLong(), anyLong() );
+    }
+
+    @Test
+    public void testWriteRangeIfRangeMismatch()
+        throws Exception
+    {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader( HttpHeaders.RANGE, "bytes=200-" );
+        request.addHeader( HttpHeaders.IF_RANGE, "\"outdated\"" );
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        fileResourceUtils.writeFileResourceContent( request, response, fileResource );
+
+        assertEquals( HttpServletResponse.SC_OK, response.getStatus() );
+        assertEquals( "1000", response.getHeader( HttpHeaders.CONTENT_LENGTH ) );
+        verify( fileResourceService ).copyFileResourceContent( eq( fileResource ), any() );
+    }
+}